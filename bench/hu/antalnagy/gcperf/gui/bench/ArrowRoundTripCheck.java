@@ -0,0 +1,327 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.export.ExportFormat;
+import hu.antalnagy.gcperf.gui.export.RunExporter;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Round trip of the Arrow export: writes runs with {@link RunExporter} in the arrow format and reads the stream back
+ * with a reader written against the Arrow IPC specification, independent of the writer. Checks the schema, every value
+ * of every row, the end-of-stream marker, and that a stream cut off inside its last batch still reads up to the run
+ * before. Exits with 1 if a check fails.
+ * <p>
+ * Usage: {@code ArrowRoundTripCheck}, run with the GUI's classes and the driver on the class path.
+ */
+public class ArrowRoundTripCheck {
+    private static final Logger LOGGER = Logger.getLogger(ArrowRoundTripCheck.class.getSimpleName());
+    private static final double[] PERCENTILES = {50, 99.9};
+    // name and type of every exported column, in order
+    private static final List<String> SCHEMA = List.of("GCType:utf8", "RunNo:int32", "GCRuntime(sec):float64",
+            "Throughput(%):float64", "FullPauses:int32", "MinorPauses:int32", "P50(ms):float64", "P99.9(ms):float64",
+            "MaxPause(ms):float64", "Xms(MB):int32", "Xmx(MB):int32", "Runtime(sec):float64", "STWTime(sec):float64",
+            "VMOptions:utf8");
+    private static final int MESSAGE_SCHEMA = 1;
+    private static final int MESSAGE_RECORD_BATCH = 3;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_UTF8 = 5;
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("gcperf-arrow-check");
+        List<String> failures;
+        try {
+            failures = run(directory);
+        } finally {
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directory);
+        }
+        failures.forEach(failure -> LOGGER.log(Level.SEVERE, failure));
+        LOGGER.log(Level.INFO, failures.isEmpty() ? "Arrow round trip check passed" : "Arrow round trip check failed");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Exports the runs to the directory and returns the failed checks, empty if all passed.
+     */
+    public static List<String> run(Path directory) throws IOException {
+        List<TrialResult> results = results();
+        RunExporter runExporter = RunExporter.open(directory, "runs", ExportFormat.ARROW, PERCENTILES);
+        results.forEach(runExporter::runFinished);
+        runExporter.close();
+        byte[] stream = Files.readAllBytes(runExporter.getPath());
+
+        List<String> failures = new ArrayList<>();
+        ArrowStream complete = ArrowStream.read(stream);
+        if (!complete.schema.equals(SCHEMA)) {
+            failures.add("Schema " + complete.schema + ", expected " + SCHEMA);
+        }
+        if (!complete.endOfStream) {
+            failures.add("The stream has no end-of-stream marker");
+        }
+        if (complete.rows.size() != results.size()) {
+            failures.add(complete.rows.size() + " rows read, " + results.size() + " written");
+        }
+        for (int i = 0; i < Math.min(complete.rows.size(), results.size()); i++) {
+            List<Object> expected = row(results.get(i));
+            if (!complete.rows.get(i).equals(expected)) {
+                failures.add("Row " + i + " is " + complete.rows.get(i) + ", expected " + expected);
+            }
+        }
+
+        // cut off inside the last batch, as by a crash while it was written
+        ArrowStream cutOff = ArrowStream.read(Arrays.copyOf(stream, complete.lastBatchStart + 12));
+        if (cutOff.endOfStream || cutOff.rows.size() != results.size() - 1) {
+            failures.add("A stream cut off inside its last batch reads " + cutOff.rows.size() + " rows, expected "
+                    + (results.size() - 1));
+        }
+        return failures;
+    }
+
+    private static List<TrialResult> results() {
+        List<TrialResult> results = new ArrayList<>();
+        PauseHistogram pauses = new PauseHistogram();
+        for (double pause : new double[]{0.4, 1.25, 3.5, 17.75}) {
+            pauses.record(pause);
+        }
+        results.add(TrialResult.succeeded(new Trial(GCType.G1, 0, 0, 64, 256), null, 1.5, 0.125, 0.0625, 91.66,
+                3, 17, pauses));
+        results.add(TrialResult.succeeded(new Trial(GCType.SERIAL, 4, 0, 128, 512,
+                List.of("-XX:NewRatio=3", "-Dlabel=Gr\u00f6\u00dfe")), null, 2.75, 0.5, 0.25, 81.8181, 0, 0,
+                new PauseHistogram()));
+        results.add(TrialResult.succeeded(new Trial(GCType.ZGC, 11, 1, 1024, 4096, List.of("-XX:+UseLargePages")),
+                null, 0.000001, 0, 0, 100, 1, 123456, pauses));
+        return results;
+    }
+
+    private static List<Object> row(TrialResult result) {
+        List<Object> row = new ArrayList<>(List.of(result.getGcType().name(), result.getRunNo() + 1,
+                result.getGcRuntime(), result.getThroughput(), result.getFullPauses(), result.getMinorPauses()));
+        for (double percentile : PERCENTILES) {
+            row.add(result.getPauseHistogram().getValueAtPercentile(percentile));
+        }
+        row.addAll(List.of(result.getPauseHistogram().getMax(), result.getTrial().getXms(),
+                result.getTrial().getXmx(), result.getRuntime(), result.getStwTime(),
+                String.join(" ", result.getTrial().getVmOptions())));
+        return row;
+    }
+
+    /**
+     * The schema and rows of an Arrow IPC stream of non-nullable int32, float64 and utf8 columns. Reading stops at the
+     * end-of-stream marker or at the first incomplete message.
+     */
+    private static class ArrowStream {
+        private final List<String> schema = new ArrayList<>();
+        private final List<List<Object>> rows = new ArrayList<>();
+        private boolean endOfStream;
+        private int lastBatchStart;
+
+        private static ArrowStream read(byte[] bytes) {
+            ByteBuffer stream = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            ArrowStream arrowStream = new ArrowStream();
+            int position = 0;
+            while (position + 8 <= bytes.length) {
+                if (stream.getInt(position) != 0xFFFFFFFF) {
+                    throw new IllegalStateException("No continuation marker at " + position);
+                }
+                int metadataLength = stream.getInt(position + 4);
+                if (metadataLength == 0) {
+                    arrowStream.endOfStream = true;
+                    break;
+                }
+                int metadataStart = position + 8;
+                if (metadataLength % 8 != 0 || metadataStart + metadataLength > bytes.length) {
+                    break;
+                }
+                ByteBuffer metadata = ByteBuffer.wrap(bytes, metadataStart, metadataLength).slice()
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                FlatTable message = new FlatTable(metadata, metadata.getInt(0));
+                if (message.getShort(0) != 4) {
+                    throw new IllegalStateException("Metadata version " + message.getShort(0) + ", expected V5");
+                }
+                int bodyStart = metadataStart + metadataLength;
+                long bodyLength = message.getLong(3);
+                if (bodyStart + bodyLength > bytes.length) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.wrap(bytes, bodyStart, (int) bodyLength).slice()
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                int type = message.getByte(1);
+                if (type == MESSAGE_SCHEMA) {
+                    arrowStream.readSchema(message.getTable(2));
+                } else if (type == MESSAGE_RECORD_BATCH) {
+                    arrowStream.lastBatchStart = position;
+                    arrowStream.readRecordBatch(message.getTable(2), body);
+                } else {
+                    throw new IllegalStateException("Unexpected message type " + type);
+                }
+                position = bodyStart + (int) bodyLength;
+            }
+            return arrowStream;
+        }
+
+        private void readSchema(FlatTable schemaTable) {
+            for (FlatTable field : schemaTable.getTables(1)) {
+                if (field.getByte(1) != 0 || field.getTables(5).size() != 0) {
+                    throw new IllegalStateException("Field " + field.getString(0) + " is nullable or nested");
+                }
+                int type = field.getByte(2);
+                FlatTable typeTable = field.getTable(3);
+                String typeName;
+                if (type == TYPE_INT && typeTable.getInt(0) == 32 && typeTable.getByte(1) == 1) {
+                    typeName = "int32";
+                } else if (type == TYPE_FLOATING_POINT && typeTable.getShort(0) == 2) {
+                    typeName = "float64";
+                } else if (type == TYPE_UTF8) {
+                    typeName = "utf8";
+                } else {
+                    typeName = "type" + type;
+                }
+                schema.add(field.getString(0) + ":" + typeName);
+            }
+        }
+
+        private void readRecordBatch(FlatTable recordBatch, ByteBuffer body) {
+            int length = (int) recordBatch.getLong(0);
+            ByteBuffer nodes = recordBatch.getStructs(1, 16);
+            ByteBuffer buffers = recordBatch.getStructs(2, 16);
+            List<List<Object>> batchRows = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                batchRows.add(new ArrayList<>());
+            }
+            int buffer = 0;
+            for (int column = 0; column < schema.size(); column++) {
+                if (nodes.getLong(16 * column) != length || nodes.getLong(16 * column + 8) != 0) {
+                    throw new IllegalStateException("Column " + column + " has another length or nulls");
+                }
+                // validity bitmap, not needed without nulls
+                buffer++;
+                String type = schema.get(column).substring(schema.get(column).lastIndexOf(':') + 1);
+                ByteBuffer values = bodyBuffer(body, buffers, buffer++);
+                ByteBuffer data = type.equals("utf8") ? bodyBuffer(body, buffers, buffer++) : null;
+                for (int row = 0; row < length; row++) {
+                    Object value;
+                    if (type.equals("int32")) {
+                        value = values.getInt(4 * row);
+                    } else if (type.equals("float64")) {
+                        value = values.getDouble(8 * row);
+                    } else {
+                        int start = values.getInt(4 * row);
+                        byte[] utf8 = new byte[values.getInt(4 * row + 4) - start];
+                        data.get(start, utf8);
+                        value = new String(utf8, StandardCharsets.UTF_8);
+                    }
+                    batchRows.get(row).add(value);
+                }
+            }
+            rows.addAll(batchRows);
+        }
+
+        private static ByteBuffer bodyBuffer(ByteBuffer body, ByteBuffer buffers, int index) {
+            int offset = (int) buffers.getLong(16 * index);
+            int length = (int) buffers.getLong(16 * index + 8);
+            if (offset % 8 != 0) {
+                throw new IllegalStateException("Buffer " + index + " is not 8-byte aligned");
+            }
+            return body.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * A flatbuffers table: an soffset to its vtable, whose entries give the positions of the fields, 0 for absent ones.
+     */
+    private static class FlatTable {
+        private final ByteBuffer buffer;
+        private final int position;
+
+        private FlatTable(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private int fieldPosition(int id) {
+            int vtable = position - buffer.getInt(position);
+            int vtableSize = buffer.getShort(vtable);
+            int offset = 4 + 2 * id < vtableSize ? buffer.getShort(vtable + 4 + 2 * id) : 0;
+            return offset == 0 ? -1 : position + offset;
+        }
+
+        private int getByte(int id) {
+            int field = fieldPosition(id);
+            return field < 0 ? 0 : buffer.get(field) & 0xFF;
+        }
+
+        private int getShort(int id) {
+            int field = fieldPosition(id);
+            return field < 0 ? 0 : buffer.getShort(field);
+        }
+
+        private int getInt(int id) {
+            int field = fieldPosition(id);
+            return field < 0 ? 0 : buffer.getInt(field);
+        }
+
+        private long getLong(int id) {
+            int field = fieldPosition(id);
+            return field < 0 ? 0 : buffer.getLong(field);
+        }
+
+        private int target(int id) {
+            int field = Objects.checkIndex(fieldPosition(id), buffer.limit());
+            return field + buffer.getInt(field);
+        }
+
+        private FlatTable getTable(int id) {
+            return new FlatTable(buffer, target(id));
+        }
+
+        private String getString(int id) {
+            int string = target(id);
+            byte[] utf8 = new byte[buffer.getInt(string)];
+            buffer.get(string + 4, utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private List<FlatTable> getTables(int id) {
+            List<FlatTable> tables = new ArrayList<>();
+            if (fieldPosition(id) < 0) {
+                return tables;
+            }
+            int vector = target(id);
+            for (int i = 0; i < buffer.getInt(vector); i++) {
+                int element = vector + 4 + 4 * i;
+                tables.add(new FlatTable(buffer, element + buffer.getInt(element)));
+            }
+            return tables;
+        }
+
+        private ByteBuffer getStructs(int id, int structSize) {
+            int vector = target(id);
+            return buffer.slice(vector + 4, buffer.getInt(vector) * structSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
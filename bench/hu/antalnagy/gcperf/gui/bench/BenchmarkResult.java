@@ -0,0 +1,79 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import java.util.Locale;
+
+public class BenchmarkResult {
+    static final String CSV_HEADER = "Benchmark,Params,Ops/s,Error(Ops/s),Alloc(B/op),GCCount,GCTime(ms)";
+
+    private final String name;
+    private final String params;
+    private final double opsPerSecond;
+    private final double error;
+    private final double allocatedBytesPerOp;
+    private final long gcCount;
+    private final long gcTimeMillis;
+
+    BenchmarkResult(String name, String params, double opsPerSecond, double error, double allocatedBytesPerOp,
+                    long gcCount, long gcTimeMillis) {
+        this.name = name;
+        this.params = params;
+        this.opsPerSecond = opsPerSecond;
+        this.error = error;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+    }
+
+    static BenchmarkResult fromCsvRow(String row) {
+        String[] columns = row.split(",");
+        return new BenchmarkResult(columns[0], columns[1], Double.parseDouble(columns[2]),
+                Double.parseDouble(columns[3]), Double.parseDouble(columns[4]), Long.parseLong(columns[5]),
+                Long.parseLong(columns[6]));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public String getKey() {
+        return name + ":" + params;
+    }
+
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    /**
+     * Half width of the 95% confidence interval of the ops/s over the measurement iterations.
+     */
+    public double getError() {
+        return error;
+    }
+
+    public double getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    String toCsvRow() {
+        return String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%.1f,%d,%d", name, params, opsPerSecond, error,
+                allocatedBytesPerOp, gcCount, gcTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-45s %-22s %14.3f +/- %10.3f ops/s %14.1f B/op %5d GCs %6d ms", name,
+                params, opsPerSecond, error, allocatedBytesPerOp, gcCount, gcTimeMillis);
+    }
+}
@@ -0,0 +1,97 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GC log fixtures for the benchmarks. The recorded fixtures are the -Xlog output of real child JVMs, one per
+ * collector. The synthetic fixtures repeat the GC cycles of a recorded one with renumbered GC ids and shifted
+ * timestamps, so the parsers can be measured on logs of any length in the same format.
+ */
+public final class GCLogFixtures {
+    private static final Pattern TIMESTAMP = Pattern.compile("^\\[(\\d+\\.\\d+)s]");
+    private static final Pattern GC_ID = Pattern.compile("GC\\((\\d+)\\)");
+
+    private GCLogFixtures() {
+    }
+
+    public static List<String> recorded(GCType gcType) throws IOException {
+        String resource = "fixtures/out-" + gcType.name() + ".txt";
+        try (InputStream in = GCLogFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing fixture: " + resource);
+            }
+            List<String> lines = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * A log with at least the given number of GC cycles, built from the recorded fixture of the collector.
+     */
+    public static List<String> synthetic(GCType gcType, int cycles) throws IOException {
+        List<String> recorded = recorded(gcType);
+        int first = -1;
+        int last = -1;
+        int maxId = 0;
+        for (int i = 0; i < recorded.size(); i++) {
+            Matcher gcId = GC_ID.matcher(recorded.get(i));
+            if (gcId.find()) {
+                first = first < 0 ? i : first;
+                last = i;
+                maxId = Math.max(maxId, Integer.parseInt(gcId.group(1)));
+            }
+        }
+        if (first < 0) {
+            throw new IOException("No GC cycles in fixture of GC Type: " + gcType.name());
+        }
+        int cyclesPerCopy = maxId + 1;
+        int copies = (cycles + cyclesPerCopy - 1) / cyclesPerCopy;
+        double span = timestamp(recorded.get(last)) - timestamp(recorded.get(first)) + 0.001;
+
+        List<String> lines = new ArrayList<>(recorded.subList(0, first));
+        for (int copy = 0; copy < copies; copy++) {
+            for (String line : recorded.subList(first, last + 1)) {
+                lines.add(shift(line, copy * span, copy * cyclesPerCopy));
+            }
+        }
+        for (String line : recorded.subList(last + 1, recorded.size())) {
+            lines.add(shift(line, (copies - 1) * span, 0));
+        }
+        return lines;
+    }
+
+    private static double timestamp(String line) {
+        Matcher timestamp = TIMESTAMP.matcher(line);
+        return timestamp.find() ? Double.parseDouble(timestamp.group(1)) : 0;
+    }
+
+    private static String shift(String line, double seconds, int gcIds) {
+        Matcher timestamp = TIMESTAMP.matcher(line);
+        if (seconds > 0 && timestamp.find()) {
+            line = String.format(Locale.ROOT, "[%.3fs]", Double.parseDouble(timestamp.group(1)) + seconds)
+                    + line.substring(timestamp.end());
+        }
+        Matcher gcId = GC_ID.matcher(line);
+        if (gcIds > 0 && gcId.find()) {
+            line = line.substring(0, gcId.start()) + "GC(" + (Integer.parseInt(gcId.group(1)) + gcIds) + ")"
+                    + line.substring(gcId.end());
+        }
+        return line;
+    }
+}
@@ -0,0 +1,91 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import hu.antalnagy.gcperf.gui.trial.AdaptiveSampling;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal harness in the spirit of JMH: timed warmup and measurement iterations on the calling thread, with every
+ * result written to a volatile sink so the workload cannot be eliminated. Allocation per operation comes from the
+ * thread's allocated bytes counter, GC count and time from the collector MXBeans, like JMH's gc profiler.
+ */
+public class MicroBenchmark {
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private volatile Object sink;
+
+    @FunctionalInterface
+    public interface Workload {
+        Object run() throws Throwable;
+    }
+
+    public MicroBenchmark(int warmupIterations, int measurementIterations, long iterationMillis) {
+        if (measurementIterations < 2) {
+            throw new IllegalArgumentException("At least two measurement iterations are needed");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = TimeUnit.MILLISECONDS.toNanos(iterationMillis);
+    }
+
+    public BenchmarkResult run(String name, String params, Workload workload) throws Throwable {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(workload);
+        }
+        double[] opsPerSecond = new double[measurementIterations];
+        long ops = 0;
+        long allocatedBytes = 0;
+        long gcCount = -gcCount();
+        long gcTime = -gcTime();
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long iterationOps = iteration(workload);
+            long elapsed = System.nanoTime() - start;
+            allocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            ops += iterationOps;
+            opsPerSecond[i] = iterationOps * 1e9 / elapsed;
+        }
+        gcCount += gcCount();
+        gcTime += gcTime();
+
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value;
+        }
+        mean /= measurementIterations;
+        double squares = 0;
+        for (double value : opsPerSecond) {
+            squares += (value - mean) * (value - mean);
+        }
+        double error = AdaptiveSampling.tQuantile(measurementIterations - 1)
+                * Math.sqrt(squares / (measurementIterations - 1) / measurementIterations);
+        return new BenchmarkResult(name, params, mean, error, (double) allocatedBytes / ops, gcCount, gcTime);
+    }
+
+    private long iteration(Workload workload) throws Throwable {
+        long ops = 0;
+        long start = System.nanoTime();
+        do {
+            sink = workload.run();
+            ops++;
+        } while (System.nanoTime() - start < iterationNanos);
+        return ops;
+    }
+
+    private static long gcCount() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        return collectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionCount())).sum();
+    }
+
+    private static long gcTime() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        return collectors.stream().mapToLong(collector -> Math.max(0, collector.getCollectionTime())).sum();
+    }
+}
@@ -0,0 +1,235 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.Leaderboard;
+import hu.antalnagy.gcperf.driver.GCPerfDriver;
+import hu.antalnagy.gcperf.gui.parse.GCLogParser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks the hot paths of the analysis pipeline: the driver's log parsers, its leaderboard and result formatting,
+ * and the GUI's streaming parser. Every parser runs on the recorded and a synthetic fixture of every collector. The
+ * driver's private helpers are reached through method handles, which works since the driver jar is an automatic
+ * module and so opens all of its packages.
+ * <p>
+ * Usage: {@code PipelineBenchmarks [-wi warmups] [-i iterations] [-r iterationMillis] [-e regex] [-rf report.csv]
+ * [-b baseline.csv] [-t thresholdPercent]}. With a baseline the exit code is 1 if any benchmark got slower or
+ * allocates more per operation than the threshold allows.
+ * <p>
+ * The harness and its fixtures live in the bench source root, apart from the application. They are compiled against
+ * the GUI's classes and run with both on the class path, so the shipped module carries neither.
+ */
+public class PipelineBenchmarks {
+    private static final Logger LOGGER = Logger.getLogger(PipelineBenchmarks.class.getSimpleName());
+    private static final int SYNTHETIC_CYCLES = 5000;
+    private static final int LEADERBOARD_RUNS = 100;
+
+    private final MicroBenchmark microBenchmark;
+    private final String filter;
+    private final List<BenchmarkResult> results = new ArrayList<>();
+
+    public PipelineBenchmarks(MicroBenchmark microBenchmark, String filter) {
+        this.microBenchmark = microBenchmark;
+        this.filter = filter;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static void main(String[] args) throws Throwable {
+        Map<String, String> options = new HashMap<>(Map.of("-wi", "5", "-i", "10", "-r", "1000", "-e", ".*",
+                "-rf", "benchmarks.csv", "-t", "10"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!options.containsKey(args[i]) && !args[i].equals("-b")) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        List.of(Analysis.getLOGGER(), Leaderboard.getLOGGER(), GCLogParser.getLOGGER())
+                .forEach(logger -> logger.setLevel(Level.WARNING));
+
+        PipelineBenchmarks benchmarks = new PipelineBenchmarks(new MicroBenchmark(Integer.parseInt(options.get("-wi")),
+                Integer.parseInt(options.get("-i")), Long.parseLong(options.get("-r"))), options.get("-e"));
+        List<BenchmarkResult> results = benchmarks.runAll();
+        Path report = Paths.get(options.get("-rf"));
+        writeReport(results, report);
+        LOGGER.log(Level.INFO, "Benchmark report written to " + report.toAbsolutePath());
+        if (options.containsKey("-b")) {
+            List<String> regressions = compare(readReport(Paths.get(options.get("-b"))), results,
+                    Double.parseDouble(options.get("-t")) / 100);
+            regressions.forEach(regression -> LOGGER.log(Level.WARNING, regression));
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    public List<BenchmarkResult> runAll() throws Throwable {
+        MethodHandles.Lookup analysisLookup = MethodHandles.privateLookupIn(Analysis.class, MethodHandles.lookup());
+        MethodHandle fullPausesShenandoah = analysisLookup.findStatic(Analysis.class, "yieldNoOfFullPausesShenandoah",
+                MethodType.methodType(int.class, List.class));
+        MethodHandle lastThreadExit = analysisLookup.findStatic(Analysis.class, "yieldLastThreadExitFromSource",
+                MethodType.methodType(double.class, List.class));
+        GCLogParser parser = new GCLogParser();
+
+        for (GCType gcType : GCType.values()) {
+            Map<String, List<String>> fixtures = Map.of("recorded", GCLogFixtures.recorded(gcType),
+                    "synthetic", GCLogFixtures.synthetic(gcType, SYNTHETIC_CYCLES));
+            for (Map.Entry<String, List<String>> fixture : fixtures.entrySet()) {
+                List<String> lines = fixture.getValue();
+                String params = gcType.name() + "/" + fixture.getKey();
+                bench("Analysis.yieldNoOfPauses", params, () -> Analysis.yieldNoOfPauses(lines, gcType));
+                bench("Analysis.yieldSTWTimeFromSource", params, () -> Analysis.yieldSTWTimeFromSource(lines, gcType));
+                bench("Analysis.yieldGCTimeFromSource", params, () -> Analysis.yieldGCTimeFromSource(lines, gcType));
+                bench("Analysis.yieldLastThreadExitFromSource", params, () -> (double) lastThreadExit.invokeExact(lines));
+                if (gcType == GCType.SHENANDOAH) {
+                    bench("Analysis.yieldNoOfFullPausesShenandoah", params,
+                            () -> (int) fullPausesShenandoah.invokeExact(lines));
+                }
+                Path logFile = Files.createTempFile("gcperf-bench-", ".txt");
+                try {
+                    Files.write(logFile, lines, StandardCharsets.UTF_8);
+                    bench("GCLogParser.parse", params, () -> parser.parse(logFile));
+                } finally {
+                    Files.deleteIfExists(logFile);
+                }
+            }
+        }
+        benchRanking();
+        return results;
+    }
+
+    private void benchRanking() throws Throwable {
+        List<GCType> gcTypes = List.of(GCType.values());
+        Map<GCType, List<Double>> gcRuntimes = new EnumMap<>(GCType.class);
+        Map<GCType, Double> avgGCRuns = new EnumMap<>(GCType.class);
+        Map<GCType, List<Double>> throughputs = new EnumMap<>(GCType.class);
+        Map<GCType, List<Integer>> pauses = new EnumMap<>(GCType.class);
+        Random random = new Random(42);
+        for (GCType gcType : gcTypes) {
+            List<Double> runtimes = new ArrayList<>();
+            List<Double> runThroughputs = new ArrayList<>();
+            List<Integer> runPauses = new ArrayList<>();
+            for (int i = 0; i < LEADERBOARD_RUNS; i++) {
+                runtimes.add(0.05 + random.nextDouble());
+                runThroughputs.add(80 + 20 * random.nextDouble());
+                runPauses.add(random.nextInt(5));
+                runPauses.add(random.nextInt(200));
+            }
+            gcRuntimes.put(gcType, runtimes);
+            avgGCRuns.put(gcType, runtimes.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+            throughputs.put(gcType, runThroughputs);
+            pauses.put(gcType, runPauses);
+        }
+        String params = gcTypes.size() + "x" + LEADERBOARD_RUNS;
+        bench("Leaderboard.setLeaderboard", params, () -> {
+            Leaderboard leaderboard = new Leaderboard(avgGCRuns, gcRuntimes, throughputs, pauses, gcTypes);
+            leaderboard.setLeaderboard(Analysis.Metrics.values());
+            return leaderboard.getLeaderboard();
+        });
+
+        GCPerfDriver driver = new GCPerfDriver();
+        MethodHandles.Lookup driverLookup = MethodHandles.privateLookupIn(GCPerfDriver.class, MethodHandles.lookup());
+        MethodHandle buildResultString = driverLookup.findVirtual(GCPerfDriver.class, "buildResultString",
+                MethodType.methodType(String.class, Map.class, Map.class, Map.class, GCType.class));
+        bench("GCPerfDriver.buildResultString", params, () -> {
+            StringBuilder sb = new StringBuilder();
+            for (GCType gcType : gcTypes) {
+                sb.append((String) buildResultString.invokeExact(driver, (Map) gcRuntimes, (Map) throughputs,
+                        (Map) pauses, gcType));
+            }
+            return sb;
+        });
+        // createCSVFile writes into the driver's csv directory, so it is only measured where that already exists
+        Path csvPath = (Path) driverLookup.findStaticGetter(GCPerfDriver.class, "LOC_OUT_CSV_PATH", Path.class)
+                .invokeExact();
+        if (Files.isDirectory(csvPath)) {
+            MethodHandle createCSVFile = driverLookup.findVirtual(GCPerfDriver.class, "createCSVFile",
+                    MethodType.methodType(void.class, List.class, Map.class, Map.class, Map.class, String.class));
+            String fileName = "gcperf-bench.csv";
+            try {
+                bench("GCPerfDriver.createCSVFile", params, () -> {
+                    createCSVFile.invokeExact(driver, gcTypes, (Map) gcRuntimes, (Map) throughputs, (Map) pauses,
+                            fileName);
+                    return fileName;
+                });
+            } finally {
+                Files.deleteIfExists(csvPath.resolve(fileName));
+            }
+        } else {
+            LOGGER.log(Level.INFO, "Skipping GCPerfDriver.createCSVFile, no csv directory at " + csvPath);
+        }
+    }
+
+    private void bench(String name, String params, MicroBenchmark.Workload workload) throws Throwable {
+        if (!name.matches(filter)) {
+            return;
+        }
+        BenchmarkResult result = microBenchmark.run(name, params, workload);
+        LOGGER.log(Level.INFO, result.toString());
+        results.add(result);
+    }
+
+    /**
+     * Regressions of the current results against the baseline: lower ops/s beyond both the threshold and the
+     * measurement errors, or more bytes allocated per operation than the threshold allows.
+     */
+    static List<String> compare(List<BenchmarkResult> baseline, List<BenchmarkResult> current, double threshold) {
+        Map<String, BenchmarkResult> baselineByKey = new HashMap<>();
+        baseline.forEach(result -> baselineByKey.put(result.getKey(), result));
+        List<String> regressions = new ArrayList<>();
+        for (BenchmarkResult result : current) {
+            BenchmarkResult before = baselineByKey.get(result.getKey());
+            if (before == null) {
+                continue;
+            }
+            double slowdown = before.getOpsPerSecond() - result.getOpsPerSecond();
+            if (slowdown > threshold * before.getOpsPerSecond() && slowdown > before.getError() + result.getError()) {
+                regressions.add(String.format("%s (%s): %.3f -> %.3f ops/s", result.getName(), result.getParams(),
+                        before.getOpsPerSecond(), result.getOpsPerSecond()));
+            }
+            if (result.getAllocatedBytesPerOp() > (1 + threshold) * before.getAllocatedBytesPerOp()) {
+                regressions.add(String.format("%s (%s): %.1f -> %.1f B/op", result.getName(), result.getParams(),
+                        before.getAllocatedBytesPerOp(), result.getAllocatedBytesPerOp()));
+            }
+        }
+        return regressions;
+    }
+
+    static void writeReport(List<BenchmarkResult> results, Path report) throws IOException {
+        try (PrintWriter printWriter = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            printWriter.println(BenchmarkResult.CSV_HEADER);
+            results.forEach(result -> printWriter.println(result.toCsvRow()));
+        }
+    }
+
+    static List<BenchmarkResult> readReport(Path report) throws IOException {
+        List<BenchmarkResult> results = new ArrayList<>();
+        List<String> rows = Files.readAllLines(report, StandardCharsets.UTF_8);
+        for (String row : rows.subList(1, rows.size())) {
+            if (!row.isBlank()) {
+                results.add(BenchmarkResult.fromCsvRow(row));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,244 @@
+package hu.antalnagy.gcperf.gui.bench;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.persistence.FileResultStore;
+import hu.antalnagy.gcperf.gui.remote.TrialWorker;
+import hu.antalnagy.gcperf.gui.trial.ResultTable;
+import hu.antalnagy.gcperf.gui.trial.RunCache;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialDriver;
+import hu.antalnagy.gcperf.gui.trial.TrialListener;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import hu.antalnagy.gcperf.gui.trial.Workspace;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end check of distributed analyses: starts local {@link TrialWorker} processes on free ports, runs an analysis
+ * on them, kills one worker once the first run finished and checks that the runs it was running were repeated on the
+ * others and that the result table is complete. Exits with 1 if a check fails.
+ * <p>
+ * Usage: {@code RemoteWorkersCheck [workers] [runs]}, 3 workers and 6 runs per collector by default. Run with the
+ * GUI's classes, the driver and a JDK, the application under test is compiled on the fly.
+ */
+public class RemoteWorkersCheck {
+    private static final Logger LOGGER = Logger.getLogger(RemoteWorkersCheck.class.getSimpleName());
+    private static final Pattern LISTENING = Pattern.compile("Worker listening on \\S+ port (\\d+)");
+    private static final long START_TIMEOUT_MILLIS = 30_000;
+    // the killed worker must have a run in flight, a run of the application takes about a second
+    private static final long KILL_DELAY_MILLIS = 300;
+    private static final String APPLICATION = """
+            import java.util.ArrayList;
+            import java.util.List;
+
+            public class CheckApp {
+                public static void main(String[] args) {
+                    long end = System.nanoTime() + 1_000_000_000L;
+                    List<byte[]> live = new ArrayList<>();
+                    long allocated = 0;
+                    while (System.nanoTime() < end) {
+                        byte[] block = new byte[64 * 1024];
+                        allocated += block.length;
+                        live.add(block);
+                        if (live.size() > 256) {
+                            live.clear();
+                        }
+                    }
+                    System.out.println(allocated);
+                }
+            }
+            """;
+
+    private final Path root;
+    private final String token = UUID.randomUUID().toString();
+    private final List<Process> workers = new ArrayList<>();
+
+    public RemoteWorkersCheck(Path root) {
+        this.root = root;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        if (workerCount < 2) {
+            throw new IllegalArgumentException("Losing a worker needs at least 2 workers");
+        }
+        Path root = Files.createTempDirectory("gcperf-remote-check");
+        RemoteWorkersCheck check = new RemoteWorkersCheck(root);
+        List<String> failures;
+        try {
+            failures = check.run(workerCount, runs);
+        } finally {
+            check.stopWorkers();
+            deleteDirectory(root);
+        }
+        failures.forEach(failure -> LOGGER.log(Level.SEVERE, failure));
+        LOGGER.log(Level.INFO, failures.isEmpty() ? "Remote workers check passed" : "Remote workers check failed");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Runs the analysis and returns the failed checks, empty if all passed.
+     */
+    public List<String> run(int workerCount, int runs) throws Exception {
+        Path application = compileApplication();
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            addresses.add("localhost:" + startWorker(i));
+        }
+        LOGGER.log(Level.INFO, "Started workers " + addresses);
+
+        System.setProperty("gcperf.workerToken", token);
+        Path coordinator = root.resolve("coordinator");
+        Files.createDirectories(coordinator);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Process victim = workers.get(workerCount - 1);
+        try (FileResultStore resultStore = new FileResultStore(coordinator.resolve("store"))) {
+            TrialDriver trialDriver = new TrialDriver(new Workspace(coordinator), resultStore,
+                    new RunCache(coordinator.resolve("run-cache"), 0));
+            trialDriver.setRemoteWorkers(addresses);
+            trialDriver.addListener(new TrialListener() {
+                @Override
+                public void runStarted(Trial trial) {
+                    started.incrementAndGet();
+                }
+
+                @Override
+                public void runFinished(TrialResult result) {
+                    if (result.isFailed()) {
+                        failed.incrementAndGet();
+                    }
+                    if (finished.incrementAndGet() == 1) {
+                        killLater(victim);
+                    }
+                }
+            });
+            List<GCType> gcTypes = List.of(GCType.SERIAL, GCType.G1);
+            trialDriver.launch(application.toFile(), runs, 64, 256, 1, 1, gcTypes,
+                    new Analysis.Metrics[]{Analysis.Metrics.Throughput}, false, false, List.of(),
+                    new double[]{99}, false, 0);
+
+            List<String> failures = new ArrayList<>();
+            if (victim.isAlive()) {
+                failures.add("The worker to lose was never killed");
+            }
+            if (trialDriver.getProgress().isFailed() || !trialDriver.getProgress().isDone()) {
+                failures.add("The analysis did not finish");
+            }
+            if (started.get() <= finished.get()) {
+                failures.add("No run was repeated, " + started.get() + " runs started and " + finished.get()
+                        + " finished");
+            }
+            if (failed.get() > 0) {
+                failures.add(failed.get() + " run(s) failed");
+            }
+            ResultTable resultTable = trialDriver.getResultTable();
+            for (GCType gcType : gcTypes) {
+                ResultTable.Columns columns = resultTable.get(gcType);
+                int size = columns == null ? 0 : columns.size();
+                long distinctRuns = columns == null ? 0 : Arrays.stream(columns.getRunNos()).distinct().count();
+                if (size != runs || distinctRuns != runs) {
+                    failures.add("The result table has " + size + " runs of " + gcType + ", " + distinctRuns
+                            + " distinct, expected " + runs);
+                }
+            }
+            LOGGER.log(Level.INFO, started.get() + " runs started, " + finished.get() + " finished, "
+                    + (started.get() - finished.get()) + " repeated after the worker was lost");
+            return failures;
+        }
+    }
+
+    private Path compileApplication() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The check needs a JDK to compile its application");
+        }
+        Path source = root.resolve("app/CheckApp.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, APPLICATION);
+        if (compiler.run(null, null, null, source.toString()) != 0) {
+            throw new IllegalStateException("Compiling the application failed");
+        }
+        return source.resolveSibling("CheckApp.class");
+    }
+
+    // port 0 lets the worker pick a free port, which it logs
+    private int startWorker(int index) throws IOException, InterruptedException {
+        Path log = root.resolve("worker-" + index + ".log");
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-D" + RunCache.MAX_SIZE_PROPERTY + "=0", "-cp", System.getProperty("java.class.path"),
+                TrialWorker.class.getName(), "--port", "0", "--slots", "1",
+                "--dir", root.resolve("worker-" + index).toString())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        processBuilder.environment().put("GCPERF_WORKER_TOKEN", token);
+        Process process = processBuilder.start();
+        workers.add(process);
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            Matcher matcher = LISTENING.matcher(Files.readString(log));
+            if (matcher.find()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+            if (!process.isAlive()) {
+                throw new IOException("Worker " + index + " exited: " + Files.readString(log));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        throw new IOException("Worker " + index + " did not start listening");
+    }
+
+    private static void killLater(Process worker) {
+        Thread killer = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(KILL_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            LOGGER.log(Level.INFO, "Killing worker process " + worker.pid());
+            worker.destroyForcibly();
+        }, "Worker killer");
+        killer.setDaemon(true);
+        killer.start();
+    }
+
+    private void stopWorkers() throws InterruptedException {
+        for (Process worker : workers) {
+            worker.destroyForcibly();
+            worker.waitFor();
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
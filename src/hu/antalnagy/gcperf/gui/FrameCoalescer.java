@@ -0,0 +1,32 @@
+package hu.antalnagy.gcperf.gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collapses update requests from any thread into at most one run of the update per rendered frame. The timer is only
+ * started while a request is pending, so an idle analysis does not cost any FX pulses.
+ */
+class FrameCoalescer {
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AnimationTimer timer;
+
+    FrameCoalescer(Runnable update) {
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                pending.set(false);
+                update.run();
+            }
+        };
+    }
+
+    void request() {
+        if (pending.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package hu.antalnagy.gcperf.gui;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.export.ExportFormat;
+import hu.antalnagy.gcperf.gui.remote.RemoteWorker;
+import hu.antalnagy.gcperf.gui.trial.RegressionDetector;
+import hu.antalnagy.gcperf.gui.trial.ResourceProfile;
+import hu.antalnagy.gcperf.gui.trial.SteadyState;
+import hu.antalnagy.gcperf.gui.trial.SweepPlanner;
+import hu.antalnagy.gcperf.gui.trial.WorkerSlot;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of one analysis. Every setter validates its own value, {@link #validate()} checks the combination;
+ * both remember the failure so the GUI can show its message. Free of JavaFX, so the batch runner uses it too.
+ */
+public class LauncherParams {
+    private File file;
+    private int numOfRuns;
+    private int initHeapSize;
+    private int maxHeapSize;
+    private int initHeapIncrementSize;
+    private int maxHeapIncrementSize;
+    private int workerSlots;
+    private List<GCType> gcTypes;
+    private List<Analysis.Metrics> metrics;
+    private double[] percentiles = new double[0];
+    private boolean tailLatency;
+    private int adaptiveWidth;
+    private boolean heapSearch;
+    private boolean telemetry;
+    private double regressionThreshold = RegressionDetector.DEFAULT_THRESHOLD_PERCENT;
+    private SweepPlanner optionSweep;
+    private SteadyState steadyState;
+    private ResourceProfile resourceProfile;
+    private ExportFormat exportFormat = ExportFormat.CSV;
+    private List<String> remoteWorkers = List.of();
+    private IllegalArgumentException illegalArgumentException = null;
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        if (file == null || (!file.getName().endsWith(".class") && !file.getName().endsWith(".jar"))) {
+            illegalArgumentException = new IllegalArgumentException("Please select a Java application class file or a jar file");
+            throw illegalArgumentException;
+        }
+        this.file = file;
+    }
+
+    public int getNumOfRuns() {
+        return numOfRuns;
+    }
+
+    public void setNumOfRuns(int numOfRuns) {
+        if (numOfRuns < 1 || 100 < numOfRuns) {
+            illegalArgumentException = new IllegalArgumentException("Number of runs must be between 1 and 100");
+            throw illegalArgumentException;
+        }
+        this.numOfRuns = numOfRuns;
+    }
+
+    public int getInitHeapSize() {
+        return initHeapSize;
+    }
+
+    public void setInitHeapSize(int initHeapSize) {
+        if (initHeapSize < 1 || 2048 < initHeapSize) {
+            illegalArgumentException = new IllegalArgumentException("Initial heap size must be between 1MB and 2048MB");
+            throw illegalArgumentException;
+        }
+        this.initHeapSize = initHeapSize;
+    }
+
+    public int getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    public void setMaxHeapSize(int maxHeapSize) {
+        if (maxHeapSize < 16 || 8192 < maxHeapSize) {
+            illegalArgumentException = new IllegalArgumentException("Maximum heap size must be between 16MB and 8192MB");
+            throw illegalArgumentException;
+        }
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    public int getInitHeapIncrementSize() {
+        return initHeapIncrementSize;
+    }
+
+    public void setInitHeapIncrementSize(int initHeapIncrementSize) {
+        if (initHeapIncrementSize < 1 || 1024 < initHeapIncrementSize) {
+            illegalArgumentException = new IllegalArgumentException("Initial heap increment size must be between 1MB and 1024MB");
+            throw illegalArgumentException;
+        }
+        this.initHeapIncrementSize = initHeapIncrementSize;
+    }
+
+    public int getMaxHeapIncrementSize() {
+        return maxHeapIncrementSize;
+    }
+
+    public void setMaxHeapIncrementSize(int maxHeapIncrementSize) {
+        if (maxHeapIncrementSize < 1 || 1024 < maxHeapIncrementSize) {
+            illegalArgumentException = new IllegalArgumentException("Maximum heap increment size must be between 1MB and 1024MB");
+            throw illegalArgumentException;
+        }
+        this.maxHeapIncrementSize = maxHeapIncrementSize;
+    }
+
+    public int getWorkerSlots() {
+        return workerSlots;
+    }
+
+    public void setWorkerSlots(int workerSlots) {
+        int maxSlots = WorkerSlot.maxSlots();
+        if (workerSlots < 1 || maxSlots < workerSlots) {
+            illegalArgumentException = new IllegalArgumentException("Number of parallel worker slots must be between 1 and "
+                    + maxSlots);
+            throw illegalArgumentException;
+        }
+        this.workerSlots = workerSlots;
+    }
+
+    public List<GCType> getGcTypes() {
+        return gcTypes;
+    }
+
+    public void setGcTypes(List<GCType> gcTypes) {
+        this.gcTypes = gcTypes;
+    }
+
+    public List<Analysis.Metrics> getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(List<Analysis.Metrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    public double[] getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(String percentiles) {
+        String[] values = percentiles == null || percentiles.isBlank() ? new String[0] : percentiles.split(",");
+        double[] parsed = new double[values.length];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                parsed[i] = Double.parseDouble(values[i].trim());
+                if (parsed[i] <= 0 || 100 < parsed[i]) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (NumberFormatException e) {
+            illegalArgumentException = new IllegalArgumentException("Percentiles must be a comma separated list of " +
+                    "numbers between 0 and 100, e.g. 50,99,99.9");
+            throw illegalArgumentException;
+        }
+        this.percentiles = parsed;
+    }
+
+    public boolean isTailLatency() {
+        return tailLatency;
+    }
+
+    public void setTailLatency(boolean tailLatency) {
+        this.tailLatency = tailLatency;
+    }
+
+    public int getAdaptiveWidth() {
+        return adaptiveWidth;
+    }
+
+    public void setAdaptiveWidth(boolean adaptiveRuns, int adaptiveWidth) {
+        if (adaptiveRuns && (adaptiveWidth < 1 || 100 < adaptiveWidth)) {
+            illegalArgumentException = new IllegalArgumentException("Adaptive confidence interval width must be between 1% and 100%");
+            throw illegalArgumentException;
+        }
+        this.adaptiveWidth = adaptiveRuns ? adaptiveWidth : 0;
+    }
+
+    public boolean isHeapSearch() {
+        return heapSearch;
+    }
+
+    public void setHeapSearch(boolean heapSearch) {
+        this.heapSearch = heapSearch;
+    }
+
+    /**
+     * Flight record every run for allocation, promotion, heap occupancy and safepoint telemetry.
+     */
+    public boolean isTelemetry() {
+        return telemetry;
+    }
+
+    public void setTelemetry(boolean telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Minimum worsening of a metric against the baseline, in percent, to flag it as regression.
+     */
+    public double getRegressionThreshold() {
+        return regressionThreshold;
+    }
+
+    public void setRegressionThreshold(double regressionThreshold) {
+        if (regressionThreshold < 0 || 100 < regressionThreshold) {
+            illegalArgumentException = new IllegalArgumentException("Regression threshold must be between 0% and 100%");
+            throw illegalArgumentException;
+        }
+        this.regressionThreshold = regressionThreshold;
+    }
+
+    /**
+     * Options to sweep at the initial heap sizes instead of running the increment sweep, null for none.
+     */
+    public SweepPlanner getOptionSweep() {
+        return optionSweep;
+    }
+
+    public void setOptionSweep(SweepPlanner optionSweep) {
+        this.optionSweep = optionSweep;
+    }
+
+    /**
+     * Steady-state settings of the runs, null for single cold runs.
+     */
+    public SteadyState getSteadyState() {
+        return steadyState;
+    }
+
+    public void setSteadyState(SteadyState steadyState) {
+        this.steadyState = steadyState;
+    }
+
+    /**
+     * cgroup limits of the runs, null for none.
+     */
+    public ResourceProfile getResourceProfile() {
+        return resourceProfile;
+    }
+
+    /**
+     * Limits as parsed by {@link ResourceProfile#parse}, e.g. "cpus=2 memoryMB=4096"; empty or null for none.
+     */
+    public void setResourceProfile(String resourceProfile) {
+        try {
+            this.resourceProfile = resourceProfile == null || resourceProfile.isBlank() ? null
+                    : ResourceProfile.parse(resourceProfile);
+        } catch (IllegalArgumentException e) {
+            illegalArgumentException = e;
+            throw illegalArgumentException;
+        }
+    }
+
+    /**
+     * Format the runs are streamed to when exporting.
+     */
+    public ExportFormat getExportFormat() {
+        return exportFormat;
+    }
+
+    public void setExportFormat(ExportFormat exportFormat) {
+        if (exportFormat == null) {
+            illegalArgumentException = new IllegalArgumentException("Please select an export format");
+            throw illegalArgumentException;
+        }
+        this.exportFormat = exportFormat;
+    }
+
+    /**
+     * Addresses of the workers to run on, empty to run locally.
+     */
+    public List<String> getRemoteWorkers() {
+        return remoteWorkers;
+    }
+
+    /**
+     * Worker addresses as host:port separated by commas or whitespace; empty or null to run locally.
+     */
+    public void setRemoteWorkers(String remoteWorkers) {
+        List<String> addresses = new ArrayList<>();
+        if (remoteWorkers != null && !remoteWorkers.isBlank()) {
+            for (String address : remoteWorkers.trim().split("[,\\s]+")) {
+                try {
+                    RemoteWorker.parseAddress(address);
+                } catch (IllegalArgumentException e) {
+                    illegalArgumentException = e;
+                    throw illegalArgumentException;
+                }
+                addresses.add(address);
+            }
+        }
+        this.remoteWorkers = List.copyOf(addresses);
+    }
+
+    /**
+     * Copy of these parameters for another application, as used for every job of a batch.
+     */
+    public LauncherParams withFile(File file) {
+        LauncherParams copy = new LauncherParams();
+        copy.setFile(file);
+        copy.numOfRuns = numOfRuns;
+        copy.initHeapSize = initHeapSize;
+        copy.maxHeapSize = maxHeapSize;
+        copy.initHeapIncrementSize = initHeapIncrementSize;
+        copy.maxHeapIncrementSize = maxHeapIncrementSize;
+        copy.workerSlots = workerSlots;
+        copy.gcTypes = new ArrayList<>(gcTypes);
+        copy.metrics = new ArrayList<>(metrics);
+        copy.percentiles = percentiles.clone();
+        copy.tailLatency = tailLatency;
+        copy.adaptiveWidth = adaptiveWidth;
+        copy.heapSearch = heapSearch;
+        copy.telemetry = telemetry;
+        copy.regressionThreshold = regressionThreshold;
+        copy.optionSweep = optionSweep;
+        copy.steadyState = steadyState;
+        copy.resourceProfile = resourceProfile;
+        copy.exportFormat = exportFormat;
+        copy.remoteWorkers = remoteWorkers;
+        return copy;
+    }
+
+    /**
+     * Checks the parameters against each other once all of them are set.
+     */
+    public void validate() {
+        if (gcTypes == null || gcTypes.isEmpty()) {
+            illegalArgumentException = new IllegalArgumentException("Please select at least one Garbage Collector to " +
+                    "measure its performance");
+            throw illegalArgumentException;
+        }
+        if (heapSearch && optionSweep != null) {
+            illegalArgumentException = new IllegalArgumentException("Heap search and option sweep cannot be combined, " +
+                    "the option sweep runs at the initial heap sizes");
+            throw illegalArgumentException;
+        }
+        if (steadyState != null && (heapSearch || optionSweep != null)) {
+            illegalArgumentException = new IllegalArgumentException("Heap searches and option sweeps always run cold, " +
+                    "steady-state runs only apply to the increment sweep");
+            throw illegalArgumentException;
+        }
+        if (!heapSearch && optionSweep == null && !tailLatency && (metrics == null || metrics.isEmpty())) {
+            illegalArgumentException = new IllegalArgumentException("Please select at least one metric to measure the " +
+                    "performance on");
+            throw illegalArgumentException;
+        }
+        if (resourceProfile != null && resourceProfile.getMemoryMB() > 0
+                && maxHeapSize >= resourceProfile.getMemoryMB()) {
+            illegalArgumentException = new IllegalArgumentException("The maximum heap size must stay below the " +
+                    "memory limit of the profile, the JVM needs room beyond the heap");
+            throw illegalArgumentException;
+        }
+        if (resourceProfile != null && resourceProfile.getCpuset() != null && workerSlots > 1
+                && remoteWorkers.isEmpty()) {
+            illegalArgumentException = new IllegalArgumentException("A profile cpuset pins the runs of every worker " +
+                    "slot to the same CPUs, please use one worker slot or clear the cpuset");
+            throw illegalArgumentException;
+        }
+        if (telemetry && !remoteWorkers.isEmpty()) {
+            illegalArgumentException = new IllegalArgumentException("Telemetry is only recorded for local runs, " +
+                    "please clear the remote workers or the telemetry");
+            throw illegalArgumentException;
+        }
+        if (initHeapSize > maxHeapSize) {
+            illegalArgumentException = new IllegalArgumentException("Initial heap size cannot be bigger than " +
+                    "the initial maximum heap size");
+            throw illegalArgumentException;
+        }
+        if (initHeapSize + (initHeapIncrementSize * numOfRuns) > maxHeapSize + (maxHeapIncrementSize * numOfRuns)) {
+            illegalArgumentException = new IllegalArgumentException("At least one invalid initial heap size - " +
+                    "maximum heap size pairing detected with the selected increments.\n Please make sure that the initial heap size " +
+                    "will not exceed the maximum heap size in any runs");
+            throw illegalArgumentException;
+        }
+    }
+
+    public IllegalArgumentException getIllegalArgumentException() {
+        return illegalArgumentException;
+    }
+
+    public void setIllegalArgumentException(IllegalArgumentException illegalArgumentException) {
+        this.illegalArgumentException = illegalArgumentException;
+    }
+}
@@ -3,8 +3,30 @@ package hu.antalnagy.gcperf.gui;
 import com.github.sh0nk.matplotlib4j.PythonExecutionException;
 import hu.antalnagy.gcperf.Analysis;
 import hu.antalnagy.gcperf.GCType;
-import hu.antalnagy.gcperf.driver.GCPerfDriver;
-import hu.antalnagy.gcperf.persistence.DBDriver;
+import hu.antalnagy.gcperf.gui.batch.BatchJob;
+import hu.antalnagy.gcperf.gui.batch.BatchQueue;
+import hu.antalnagy.gcperf.gui.batch.BatchQueueView;
+import hu.antalnagy.gcperf.gui.chart.RunCharts;
+import hu.antalnagy.gcperf.gui.export.ExportFormat;
+import hu.antalnagy.gcperf.gui.history.HistoryBrowser;
+import hu.antalnagy.gcperf.gui.log.LogFollower;
+import hu.antalnagy.gcperf.gui.log.LogRingBuffer;
+import hu.antalnagy.gcperf.gui.parse.RunTelemetry;
+import hu.antalnagy.gcperf.gui.persistence.Baseline;
+import hu.antalnagy.gcperf.gui.results.RunResultsView;
+import hu.antalnagy.gcperf.gui.stats.MetricComparison;
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+import hu.antalnagy.gcperf.gui.trial.HeapRecommendation;
+import hu.antalnagy.gcperf.gui.trial.SteadyState;
+import hu.antalnagy.gcperf.gui.trial.ThrottlingStats;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialDriver;
+import hu.antalnagy.gcperf.gui.trial.TrialListener;
+import hu.antalnagy.gcperf.gui.trial.TrialProgress;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import hu.antalnagy.gcperf.gui.trial.WarmUp;
+import hu.antalnagy.gcperf.gui.trial.WorkerSlot;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.concurrent.Service;
@@ -25,17 +47,23 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 
 public class View extends Application {
     private static final LauncherParams launcherParams = new LauncherParams();
-    private static final GCPerfDriver gcPerfDriver = new GCPerfDriver();
+    private static final TrialDriver trialDriver = new TrialDriver();
+    private static final BatchQueue batchQueue = new BatchQueue(trialDriver.getWorkspace().getRootPath(),
+            trialDriver.getResultStore(), WorkerSlot.maxSlots());
     private static final AtomicBoolean error = new AtomicBoolean(false);
+    private static final AtomicBoolean analysisEnded = new AtomicBoolean(false);
+    private static final AtomicBoolean analysisRunning = new AtomicBoolean(false);
     private static final Insets padding = new Insets(10, 10, 10, 10);
+    private static final LogRingBuffer logLines = new LogRingBuffer(10_000);
+    private static final Queue<TrialResult> finishedRuns = new ConcurrentLinkedQueue<>();
     private static boolean correctParams = false;
     private static File appContainer;
 
@@ -44,7 +72,10 @@ public class View extends Application {
     }
 
     private static boolean setParams(File file, int numberOfRuns, int initHeap, int maxHeap, int initHeapIncrement,
-                                     int maxHeapIncrement, List<GCType> gcTypes, List<Analysis.Metrics> metrics) {
+                                     int maxHeapIncrement, int workerSlots, List<GCType> gcTypes, List<Analysis.Metrics> metrics,
+                                     String percentiles, boolean tailLatency, boolean adaptiveRuns, int adaptiveWidth,
+                                     boolean heapSearch, boolean telemetry, boolean steadyState,
+                                     String resourceProfile, ExportFormat exportFormat, String remoteWorkers) {
         try {
             launcherParams.setFile(file);
             launcherParams.setNumOfRuns(numberOfRuns);
@@ -52,23 +83,22 @@ public class View extends Application {
             launcherParams.setMaxHeapSize(maxHeap);
             launcherParams.setInitHeapIncrementSize(initHeapIncrement);
             launcherParams.setMaxHeapIncrementSize(maxHeapIncrement);
+            launcherParams.setWorkerSlots(workerSlots);
             launcherParams.setGcTypes(gcTypes);
             launcherParams.setMetrics(metrics);
+            launcherParams.setPercentiles(percentiles);
+            launcherParams.setTailLatency(tailLatency);
+            launcherParams.setAdaptiveWidth(adaptiveRuns, adaptiveWidth);
+            launcherParams.setHeapSearch(heapSearch);
+            launcherParams.setTelemetry(telemetry);
+            launcherParams.setSteadyState(steadyState ? new SteadyState() : null);
+            launcherParams.setResourceProfile(resourceProfile);
+            launcherParams.setExportFormat(exportFormat);
+            launcherParams.setRemoteWorkers(remoteWorkers);
+            launcherParams.validate();
         } catch (IllegalArgumentException e) {
             return false;
         }
-        if(launcherParams.getInitHeapSize() > launcherParams.getMaxHeapSize()) {
-            launcherParams.setIllegalArgumentException(new IllegalArgumentException("Initial heap size cannot be bigger than " +
-                    "the initial maximum heap size"));
-            return false;
-        }
-        if(launcherParams.getInitHeapSize() + (launcherParams.getInitHeapIncrementSize() * launcherParams.getNumOfRuns())
-                > launcherParams.getMaxHeapSize() + (launcherParams.getMaxHeapIncrementSize() * launcherParams.getNumOfRuns())) {
-            launcherParams.setIllegalArgumentException(new IllegalArgumentException("At least one invalid initial heap size - " +
-                    "maximum heap size pairing detected with the selected increments.\n Please make sure that the initial heap size " +
-                    "will not exceed the maximum heap size in any runs"));
-            return false;
-        }
         return true;
     }
 
@@ -114,6 +144,7 @@ public class View extends Application {
         final Label initMaxHeapLabel = new Label("Initial Maximum Heap Size (Xmx) in MB: ");
         final Label initHeapIncrementLabel = new Label("Xms Increment in MB: ");
         final Label maxHeapIncrementLabel = new Label("Xmx Increment in MB: ");
+        final Label workerSlotsLabel = new Label("Parallel Worker Slots: ");
         final Label gcsLabel = new Label("Garbage Collectors: ");
         final Label metricsLabel = new Label("Metrics: ");
         final Label progressMessage = new Label("Waiting for analysis start ...");
@@ -122,6 +153,7 @@ public class View extends Application {
         final CheckBox defaultInitMaxHeapSize = new CheckBox("default");
         final CheckBox defaultInitHeapIncrementSize = new CheckBox("default");
         final CheckBox defaultMaxHeapIncrementSize = new CheckBox("default");
+        final CheckBox defaultWorkerSlots = new CheckBox("default");
         final CheckBox serial = new CheckBox(GCType.SERIAL.name());
         final CheckBox parallel = new CheckBox(GCType.PARALLEL.name());
         final CheckBox g1 = new CheckBox(GCType.G1.name());
@@ -134,9 +166,17 @@ public class View extends Application {
         final CheckBox latency = new CheckBox("Latency");
         final CheckBox minorPauses = new CheckBox("No. of Minor Pauses");
         final CheckBox fullPauses = new CheckBox("No. of Full Pauses");
+        final CheckBox tailLatency = new CheckBox("Tail Latency");
+        final CheckBox adaptiveRuns = new CheckBox("Adaptive, CI width (%)");
+        final CheckBox heapSearch = new CheckBox("Heap Search");
+        final CheckBox telemetry = new CheckBox("JFR Telemetry");
+        final CheckBox steadyState = new CheckBox("Steady State");
 
         final CheckBox exportToCSV = new CheckBox("Export Results to CSV");
         final CheckBox plotResults = new CheckBox("Plot Results");
+        final ComboBox<ExportFormat> exportFormat = new ComboBox<>();
+        exportFormat.getItems().addAll(ExportFormat.values());
+        exportFormat.setValue(ExportFormat.CSV);
 
         final FileChooser fileChooser = new FileChooser();
         final Button browseButton = new Button("Browse...");
@@ -157,27 +197,44 @@ public class View extends Application {
         setNumField(initHeapIncrement);
         final TextField maxHeapIncrement = new TextField();
         setNumField(maxHeapIncrement);
+        final TextField workerSlots = new TextField();
+        setNumField(workerSlots);
+        final TextField percentiles = new TextField("50,99,99.9");
+        percentiles.setMaxWidth(90);
+        percentiles.setPromptText("Percentiles");
+        final TextField adaptiveWidth = new TextField("5");
+        setNumField(adaptiveWidth);
+        final TextField resourceProfile = new TextField();
+        resourceProfile.setMaxWidth(180);
+        resourceProfile.setPromptText("cgroup: cpus=2 memoryMB=4096");
+        final TextField remoteWorkers = new TextField();
+        remoteWorkers.setMaxWidth(180);
+        remoteWorkers.setPromptText("Remote workers: host:port,...");
 
         setDefaultCheckboxes(defaultInitHeapSize, initHeap, 4);
         setDefaultCheckboxes(defaultInitMaxHeapSize, maxHeap, 64);
         setDefaultCheckboxes(defaultInitHeapIncrementSize, initHeapIncrement, 128);
         setDefaultCheckboxes(defaultMaxHeapIncrementSize, maxHeapIncrement, 256);
+        setDefaultCheckboxes(defaultWorkerSlots, workerSlots, 1);
 
         final Button runGcAnalysisButton = new Button("Run GC Analysis");
         final Button addButton = new Button("Set/Refresh Parameters");
         addButtonSetOnAction(progressMessage, serial, parallel, g1, zgc, shenandoah, bestGCRuntime, avgGCRuntime,
-                throughput, latency, minorPauses, fullPauses, progressBar, numberOfRuns, initHeap, maxHeap,
-                initHeapIncrement, maxHeapIncrement, addButton);
+                throughput, latency, minorPauses, fullPauses, tailLatency, progressBar, numberOfRuns, initHeap, maxHeap,
+                initHeapIncrement, maxHeapIncrement, workerSlots, percentiles, adaptiveRuns, adaptiveWidth, heapSearch,
+                telemetry, steadyState, resourceProfile, exportFormat, remoteWorkers, addButton);
 
         decorateGridPane(gridPane, title, browseLabel, selectedFileLabel, numberOfRunsLabel, initHeapLabel, initMaxHeapLabel,
                 initHeapIncrementLabel, maxHeapIncrementLabel, gcsLabel, metricsLabel, progressMessage, defaultInitHeapSize,
                 defaultInitMaxHeapSize, defaultInitHeapIncrementSize, defaultMaxHeapIncrementSize, serial, parallel, g1,
                 zgc, shenandoah, bestGCRuntime, avgGCRuntime, throughput, latency, minorPauses, fullPauses, exportToCSV,
                 plotResults, browseButton, progressBar, numberOfRuns, initHeap, maxHeap, initHeapIncrement, maxHeapIncrement,
-                runGcAnalysisButton, addButton);
+                runGcAnalysisButton, addButton, workerSlotsLabel, workerSlots, defaultWorkerSlots, tailLatency, percentiles,
+                adaptiveRuns, adaptiveWidth, heapSearch, telemetry, steadyState, resourceProfile, exportFormat,
+                remoteWorkers);
 
         TabPane tabPane = new TabPane();
-        tabPane.setTabMinWidth(319);
+        tabPane.setTabMinWidth(190);
         Tab mainTab = new Tab("GC Performance Analyzer");
         configureTab(tabPane, mainTab, gridPane);
 
@@ -189,8 +246,9 @@ public class View extends Application {
 
         final GridPane statisticsGrid = new GridPane();
         final Button databaseButton = new Button("Query older results");
+        final RunResultsView runResultsView = new RunResultsView();
         databaseButtonSetOnAction(scrollPaneStatistics, databaseButton);
-        configureStatisticsGrid(statisticsGrid, nothingToDisplay, databaseButton);
+        configureStatisticsGrid(statisticsGrid, nothingToDisplay, databaseButton, runResultsView.getNode());
 
         configureScrollPane(scrollPaneStatistics, statisticsGrid);
         configureTab(tabPane, statisticsTab, scrollPaneStatistics);
@@ -202,16 +260,93 @@ public class View extends Application {
         final StackPane stackPane = new StackPane();
         stackPane.getChildren().add(noLogsToDisplayLabel);
         stackPane.setMaxHeight(750);
+        final ListView<String> logView = new ListView<>(logLines);
 
         configureScrollPane(scrollPaneLog, stackPane);
         configureTab(tabPane, logTab, scrollPaneLog);
 
+        Tab chartsTab = new Tab("Charts");
+        final ScrollPane scrollPaneCharts = new ScrollPane();
+        final RunCharts runCharts = new RunCharts();
+        configureScrollPane(scrollPaneCharts, runCharts.getNode());
+        configureTab(tabPane, chartsTab, scrollPaneCharts);
+
+        Tab batchTab = new Tab("Batch Queue");
+        final BatchQueueView batchQueueView = new BatchQueueView(batchQueue, file -> correctParams
+                ? new BatchJob(file.getName(), launcherParams.withFile(file), exportToCSV.isSelected()) : null);
+        configureTab(tabPane, batchTab, batchQueueView.getNode());
+
         root.getChildren().add(tabPane);
         primaryStage.setTitle("Java GC Performance Analyzer");
         primaryStage.setScene(new Scene(root, 1024, 768));
         primaryStage.sizeToScene();
         primaryStage.show();
 
+        final LogFollower logFollower = new LogFollower(logLines.getCapacity());
+        final FrameCoalescer progressUpdate = new FrameCoalescer(() -> {
+            updateLogTab(stackPane, logView, logFollower.drain());
+            List<TrialResult> newRuns = drainFinishedRuns();
+            runCharts.addResults(newRuns);
+            runResultsView.addResults(newRuns);
+            TrialProgress progress = trialDriver.getProgress();
+            // an analysis can fail before it has any progress
+            if (!analysisRunning.get() || progress == null && !error.get()) {
+                return;
+            }
+            if (progress != null) {
+                updateProgressBar(progressBar, progressMessage, progress.getProgressLevel(),
+                        progress.getProgressMessage());
+            }
+            if (analysisEnded.get() || error.get()) {
+                if (!error.get() && progress.isDone()) {
+                    updateProgressBar(progressBar, progressMessage, true);
+                    updateStatisticsTab(statisticsGrid, databaseButton, trialDriver.getLeaderboard(),
+                            runResultsView.getNode(), trialDriver.getPauseHistograms(),
+                            trialDriver.getHeapRecommendations(), trialDriver.getBaseline(),
+                            trialDriver.getBaselineComparisons(), trialDriver.getRunTelemetry(),
+                            trialDriver.getWarmUps(), trialDriver.getThrottling());
+                    configureScrollPane(scrollPaneStatistics, statisticsGrid);
+                } else {
+                    updateProgressBar(progressBar, progressMessage, false);
+                }
+                cleanUp(logFollower, runGcAnalysisButton);
+            }
+        });
+        trialDriver.addListener(new TrialListener() {
+            @Override
+            public void runStarted(Trial trial) {
+                progressUpdate.request();
+            }
+
+            @Override
+            public void runFinished(TrialResult result) {
+                if (!result.isFailed()) {
+                    finishedRuns.add(result);
+                }
+                if (result.getOutFile() != null) {
+                    logFollower.outFileFinished(result.getOutFile().toPath());
+                }
+                progressUpdate.request();
+            }
+
+            @Override
+            public void collectorFinished(GCType gcType) {
+                progressUpdate.request();
+            }
+
+            @Override
+            public void analysisFinished() {
+                analysisEnded.set(true);
+                progressUpdate.request();
+            }
+
+            @Override
+            public void analysisFailed(String message) {
+                analysisEnded.set(true);
+                progressUpdate.request();
+            }
+        });
+
         Service<Void> analysis = new Service<>() {
             @Override
             protected Task<Void> createTask() {
@@ -223,12 +358,31 @@ public class View extends Application {
                             configureAlert();
                         } else {
                             try {
-                                gcPerfDriver.launch(launcherParams.getFile(), launcherParams.getNumOfRuns(), launcherParams.getInitHeapSize(),
+                                trialDriver.setResourceProfile(launcherParams.getResourceProfile());
+                                trialDriver.setExportFormat(launcherParams.getExportFormat());
+                                trialDriver.setRemoteWorkers(launcherParams.getRemoteWorkers());
+                                if (launcherParams.isHeapSearch()) {
+                                    trialDriver.searchHeap(launcherParams.getFile(), launcherParams.getNumOfRuns(),
+                                            launcherParams.getInitHeapSize(), launcherParams.getMaxHeapSize(),
+                                            launcherParams.getGcTypes(), exportToCSV.isSelected(),
+                                            launcherParams.getWorkerSlots());
+                                    return null;
+                                }
+                                trialDriver.setRegressionThresholdPercent(launcherParams.getRegressionThreshold());
+                                trialDriver.setTelemetry(launcherParams.isTelemetry());
+                                trialDriver.setSteadyState(launcherParams.getSteadyState());
+                                trialDriver.launch(launcherParams.getFile(), launcherParams.getNumOfRuns(), launcherParams.getInitHeapSize(),
                                         launcherParams.getMaxHeapSize(), launcherParams.getInitHeapIncrementSize(),
                                         launcherParams.getMaxHeapIncrementSize(), launcherParams.getGcTypes(),
-                                        launcherParams.getMetrics().toArray(Analysis.Metrics[]::new), exportToCSV.isSelected(), plotResults.isSelected());
-                            } catch (IOException | PythonExecutionException | InterruptedException exception) {
+                                        launcherParams.getMetrics().toArray(Analysis.Metrics[]::new), exportToCSV.isSelected(),
+                                        plotResults.isSelected(), launcherParams.getWorkerSlots(),
+                                        launcherParams.getPercentiles(), launcherParams.isTailLatency(),
+                                        launcherParams.getAdaptiveWidth());
+                            } catch (IOException | PythonExecutionException | InterruptedException
+                                     | RuntimeException exception) {
+                                // e.g. every remote worker lost or a jar without Main-Class; ends the analysis too
                                 error.set(true);
+                                progressUpdate.request();
                                 exception.printStackTrace();
                             }
                         }
@@ -244,42 +398,12 @@ public class View extends Application {
                 };
             }
         };
-        Service<Void> progressUpdate = new Service<>() {
-            @Override
-            protected Task<Void> createTask() {
-                return new Task<>() {
-                    @Override
-                    protected Void call() {
-                        sleep(200);
-                        AtomicBoolean running = new AtomicBoolean(true);
-                        while (running.get()) {
-                            sleep(50);
-                            Platform.runLater(() -> {
-                                    updateProgressBar(progressBar, progressMessage, gcPerfDriver.getProgress().getProgressLevel(),
-                                            gcPerfDriver.getProgress().getProgressMessage());
-                                    if (gcPerfDriver.getProgress().isDone()) {
-                                        updateProgressBar(progressBar, progressMessage, true);
-                                        updateStatisticsTab(statisticsGrid, databaseButton,
-                                                gcPerfDriver.getLeaderboard(), gcPerfDriver.getResultMetrics());
-                                        configureScrollPane(scrollPaneStatistics, statisticsGrid);
-                                        updateLogTab(stackPane);
-                                        cleanUp(running, runGcAnalysisButton);
-                                    } else if (gcPerfDriver.getProgress().isFailed() || error.get()) {
-                                        updateProgressBar(progressBar, progressMessage, false);
-                                        updateLogTab(stackPane);
-                                        cleanUp(running, runGcAnalysisButton);
-                                    }
-                            });
-                        }
-                        return null;
-                    }
-                };
-            }
-        };
-
-        runGcAnalysisButtonSetOnAction(progressBar, runGcAnalysisButton, analysis, progressUpdate);
+        runGcAnalysisButtonSetOnAction(progressBar, runGcAnalysisButton, analysis, logFollower, runCharts, runResultsView,
+                progressUpdate);
 
         primaryStage.setOnCloseRequest(t -> {
+            batchQueue.close();
+            trialDriver.getResultStore().close();
             Platform.exit();
             System.exit(0);
         });
@@ -307,54 +431,53 @@ public class View extends Application {
     }
 
     private void runGcAnalysisButtonSetOnAction(ProgressBar progressBar, Button runGcAnalysisButton, Service<Void> analysis,
-                                                Service<Void> progressUpdate) {
+                                                LogFollower logFollower, RunCharts runCharts,
+                                                RunResultsView runResultsView, FrameCoalescer progressUpdate) {
         runGcAnalysisButton.setOnAction(e -> {
             if(correctParams) {
                 runGcAnalysisButton.setDisable(true);
                 error.set(false);
+                analysisEnded.set(false);
+                analysisRunning.set(true);
+                logLines.reset();
+                finishedRuns.clear();
+                runCharts.reset();
+                runResultsView.reset(launcherParams.getPercentiles(),
+                        !launcherParams.isHeapSearch() && launcherParams.isTelemetry(),
+                        !launcherParams.isHeapSearch() && launcherParams.getSteadyState() != null,
+                        launcherParams.getResourceProfile() != null);
                 resetProgressBar(progressBar);
+                logFollower.start(trialDriver.getWorkspace().getLogPath(), trialDriver.getWorkspace().getOutPath(),
+                        progressUpdate::request);
                 analysis.restart();
-                progressUpdate.restart();
             }
         });
     }
 
     private void databaseButtonSetOnAction(ScrollPane scrollPaneStatistics, Button databaseButton) {
+        final HistoryBrowser historyBrowser = new HistoryBrowser(trialDriver.getResultStore());
         databaseButton.setOnAction(e -> {
-            var resultMap = DBDriver.getDatabaseRows();
-            final GridPane databaseGrid = new GridPane();
-            databaseGrid.setVgap(10);
-            databaseGrid.setHgap(25);
-            databaseGrid.setPadding(padding);
-            databaseGrid.add(new Label("File Name"), 0, 0);
-            databaseGrid.add(new Label("Serial"), 1, 0);
-            databaseGrid.add(new Label("Parallel"), 2, 0);
-            databaseGrid.add(new Label("G1"), 3, 0);
-            databaseGrid.add(new Label("ZGC"), 4, 0);
-            databaseGrid.add(new Label("Shenandoah"), 5, 0);
-            databaseGrid.add(new Label("Date"), 6, 0);
-            for (Map.Entry<Integer, List<String>> entry : resultMap.entrySet()) {
-                int columnIdx = 0;
-                int rowIdx = entry.getKey();
-                for (String resultString : entry.getValue()) {
-                    databaseGrid.add(new Label(resultString), columnIdx++, rowIdx);
-                }
-            }
-            configureScrollPane(scrollPaneStatistics, databaseGrid);
+            configureScrollPane(scrollPaneStatistics, historyBrowser.getNode());
+            historyBrowser.reload();
         });
     }
 
     private void addButtonSetOnAction(Label progressMessage, CheckBox serial, CheckBox parallel, CheckBox g1, CheckBox zgc,
                            CheckBox shenandoah, CheckBox bestGCRuntime, CheckBox avgGCRuntime, CheckBox throughput,
-                           CheckBox latency, CheckBox minorPauses, CheckBox fullPauses, ProgressBar progressBar,
-                           TextField numberOfRuns, TextField initHeap, TextField maxHeap, TextField initHeapIncrement,
-                           TextField maxHeapIncrement, Button addButton) {
+                           CheckBox latency, CheckBox minorPauses, CheckBox fullPauses, CheckBox tailLatency,
+                           ProgressBar progressBar, TextField numberOfRuns, TextField initHeap, TextField maxHeap,
+                           TextField initHeapIncrement, TextField maxHeapIncrement, TextField workerSlots,
+                           TextField percentiles, CheckBox adaptiveRuns, TextField adaptiveWidth, CheckBox heapSearch,
+                           CheckBox telemetry, CheckBox steadyState, TextField resourceProfile,
+                           ComboBox<ExportFormat> exportFormat, TextField remoteWorkers, Button addButton) {
         addButton.setOnAction(e -> {
             if ((numberOfRuns.getText() == null || numberOfRuns.getText().isEmpty())
                     || (initHeap.getText() == null || initHeap.getText().isEmpty())
                     || (maxHeap.getText() == null || maxHeap.getText().isEmpty())
                     || (initHeapIncrement.getText() == null || initHeapIncrement.getText().isEmpty())
-                    || (maxHeapIncrement.getText() == null || maxHeapIncrement.getText().isEmpty())) {
+                    || (maxHeapIncrement.getText() == null || maxHeapIncrement.getText().isEmpty())
+                    || (workerSlots.getText() == null || workerSlots.getText().isEmpty())
+                    || (adaptiveRuns.isSelected() && (adaptiveWidth.getText() == null || adaptiveWidth.getText().isEmpty()))) {
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 alert.setTitle("Setting/Refreshing Parameters Failed");
                 alert.setContentText("Some input fields are empty\n" +
@@ -367,8 +490,9 @@ public class View extends Application {
                 alert.setContentText("Please select at least one Garbage Collector to measure its performance\n" +
                         "Parameters were not updated");
                 alert.showAndWait();
-            } else if (!bestGCRuntime.isSelected() && !avgGCRuntime.isSelected() && !throughput.isSelected()
-                    && !latency.isSelected() && !minorPauses.isSelected() && !fullPauses.isSelected()) {
+            } else if (!heapSearch.isSelected() && !bestGCRuntime.isSelected() && !avgGCRuntime.isSelected() && !throughput.isSelected()
+                    && !latency.isSelected() && !minorPauses.isSelected() && !fullPauses.isSelected()
+                    && !tailLatency.isSelected()) {
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 alert.setTitle("No metric selected");
                 alert.setContentText("Please select at least one metric to measure the performance on\n" +
@@ -412,7 +536,11 @@ public class View extends Application {
                 }
                 correctParams = setParams(appContainer, Integer.parseInt(numberOfRuns.getText()), Integer.parseInt(initHeap.getText()),
                         Integer.parseInt(maxHeap.getText()), Integer.parseInt(initHeapIncrement.getText()),
-                        Integer.parseInt(maxHeapIncrement.getText()), gcTypes, metrics);
+                        Integer.parseInt(maxHeapIncrement.getText()), Integer.parseInt(workerSlots.getText()), gcTypes, metrics,
+                        percentiles.getText(), tailLatency.isSelected(),
+                        adaptiveRuns.isSelected(), adaptiveRuns.isSelected() ? Integer.parseInt(adaptiveWidth.getText()) : 0,
+                        heapSearch.isSelected(), telemetry.isSelected(), steadyState.isSelected(),
+                        resourceProfile.getText(), exportFormat.getValue(), remoteWorkers.getText());
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 if (correctParams) {
                     alert.setTitle("Parameters Set");
@@ -437,7 +565,11 @@ public class View extends Application {
                            CheckBox parallel, CheckBox g1, CheckBox zgc, CheckBox shenandoah, CheckBox bestGCRuntime, CheckBox avgGCRuntime,
                            CheckBox throughput, CheckBox latency, CheckBox minorPauses, CheckBox fullPauses, CheckBox exportToCSV,
                            CheckBox plotResults, Button browseButton, ProgressBar progressBar, TextField numberOfRuns, TextField initHeap,
-                           TextField maxHeap, TextField initHeapIncrement, TextField maxHeapIncrement, Button runGcAnalysisButton, Button addButton) {
+                           TextField maxHeap, TextField initHeapIncrement, TextField maxHeapIncrement, Button runGcAnalysisButton, Button addButton,
+                           Label workerSlotsLabel, TextField workerSlots, CheckBox defaultWorkerSlots, CheckBox tailLatency,
+                           TextField percentiles, CheckBox adaptiveRuns, TextField adaptiveWidth, CheckBox heapSearch,
+                           CheckBox telemetry, CheckBox steadyState, TextField resourceProfile,
+                           ComboBox<ExportFormat> exportFormat, TextField remoteWorkers) {
 
         gridPane.add(title, 0, 0);
         gridPane.add(browseLabel, 0, 1);
@@ -474,17 +606,32 @@ public class View extends Application {
         gridPane.add(fullPauses, 3, 10);
         gridPane.add(exportToCSV, 2, 14);
         gridPane.add(plotResults, 3, 14);
+        gridPane.add(exportFormat, 4, 14);
         gridPane.add(progressBar, 1, 13);
         gridPane.add(progressMessage, 2, 13);
-    }
-
-    private void configureStatisticsGrid(GridPane statisticsGrid, Label nothingToDisplay, Button databaseButton) {
+        gridPane.add(workerSlotsLabel, 0, 11);
+        gridPane.add(workerSlots, 1, 11);
+        gridPane.add(defaultWorkerSlots, 2, 11);
+        gridPane.add(tailLatency, 4, 9);
+        gridPane.add(percentiles, 4, 10);
+        gridPane.add(adaptiveRuns, 2, 2);
+        gridPane.add(adaptiveWidth, 3, 2);
+        gridPane.add(heapSearch, 3, 3);
+        gridPane.add(telemetry, 3, 4);
+        gridPane.add(steadyState, 3, 5);
+        gridPane.add(resourceProfile, 3, 6, 2, 1);
+        gridPane.add(remoteWorkers, 3, 11, 2, 1);
+    }
+
+    private void configureStatisticsGrid(GridPane statisticsGrid, Label nothingToDisplay, Button databaseButton,
+                                         Node runResults) {
         statisticsGrid.setMaxHeight(750);
         statisticsGrid.setVgap(20);
         statisticsGrid.setHgap(30);
         statisticsGrid.setPadding(padding);
         statisticsGrid.add(nothingToDisplay, 0, 0);
         statisticsGrid.add(databaseButton, 0, 1);
+        statisticsGrid.add(runResults, 0, 2, GridPane.REMAINING, 1);
     }
 
     private void configureTab(TabPane tabPane, Tab tab, Node node) {
@@ -502,20 +649,35 @@ public class View extends Application {
         scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
     }
 
-    private void updateLogTab(final StackPane stackPane) {
-        final StringBuilder sb = new StringBuilder();
-        try {
-            Files.lines(Path.of(Paths.get("").toAbsolutePath() + "/log"))
-                    .forEach(line -> sb.append(line).append("\n"));
-        } catch (IOException ex) {
-            ex.printStackTrace();
+    private void updateLogTab(final StackPane stackPane, final ListView<String> logView, List<String> newLines) {
+        if (newLines.isEmpty()) {
+            return;
         }
-        stackPane.getChildren().clear();
-        stackPane.getChildren().add(new TextArea(sb.toString()));
+        if (!stackPane.getChildren().contains(logView)) {
+            stackPane.getChildren().clear();
+            stackPane.getChildren().add(logView);
+        }
+        logLines.append(newLines);
+        logView.scrollTo(logLines.size() - 1);
+    }
+
+    private List<TrialResult> drainFinishedRuns() {
+        List<TrialResult> results = new ArrayList<>();
+        TrialResult result;
+        while ((result = finishedRuns.poll()) != null) {
+            results.add(result);
+        }
+        return results;
     }
 
     private void updateStatisticsTab(final GridPane statisticsGrid, final Button databaseButton,
-                                     List<GCType> leaderboard, List<String> resultMetrics) {
+                                     List<GCType> leaderboard, Node runResults,
+                                     Map<GCType, PauseHistogram> pauseHistograms,
+                                     Map<GCType, HeapRecommendation> heapRecommendations, Baseline baseline,
+                                     List<MetricComparison> baselineComparisons,
+                                     Map<GCType, List<RunTelemetry>> runTelemetry,
+                                     Map<GCType, List<WarmUp>> warmUps,
+                                     Map<GCType, List<ThrottlingStats>> throttling) {
         statisticsGrid.getChildren().clear();
         Label position;
         Label gcType;
@@ -532,177 +694,225 @@ public class View extends Application {
             gcType.setFont(Font.font("Times New Roman", FontWeight.BOLD, 25));
             statisticsGrid.add(position, 0, i);
             statisticsGrid.add(gcType, 1, i);
+            PauseHistogram pauseHistogram = pauseHistograms.get(leaderboard.get(i - 1));
+            if (pauseHistogram != null) {
+                statisticsGrid.add(new Label(formatPauseSummary(pauseHistogram)), 2, i, 4, 1);
+            }
+        }
+        int rIdx = leaderboard.size() + 1;
+        if (!heapRecommendations.isEmpty()) {
+            rIdx = addHeapRecommendations(statisticsGrid, heapRecommendations, rIdx);
         }
-        statisticsGrid.add(databaseButton, 0, leaderboard.size() + 1);
-        int rIdx = leaderboard.size() + 2;
+        if (baseline != null) {
+            rIdx = addBaselineComparisons(statisticsGrid, baseline, baselineComparisons, rIdx);
+        }
+        if (!runTelemetry.isEmpty()) {
+            rIdx = addRunTelemetry(statisticsGrid, runTelemetry, rIdx);
+        }
+        if (!warmUps.isEmpty()) {
+            rIdx = addWarmUps(statisticsGrid, warmUps, rIdx);
+        }
+        if (!throttling.isEmpty()) {
+            rIdx = addThrottling(statisticsGrid, throttling, rIdx);
+        }
+        statisticsGrid.add(databaseButton, 0, rIdx++);
+        statisticsGrid.add(runResults, 0, rIdx, GridPane.REMAINING, 1);
+    }
+
+    private int addHeapRecommendations(final GridPane statisticsGrid,
+                                       Map<GCType, HeapRecommendation> heapRecommendations, int rIdx) {
         int cIdx = 0;
         Label gcTypeLabel = new Label("GC Type");
-        Label runNoLabel = new Label("Run No.");
-        Label gcRuntimeLabel = new Label("GC Runtime (sec)");
-        Label throughputLabel = new Label("Throughput (%)");
-        Label fullPausesLabel = new Label("Full Pauses");
-        Label minorPausesLabel = new Label("Minor Pauses");
-        Arrays.asList(gcTypeLabel, runNoLabel, gcRuntimeLabel, throughputLabel, fullPausesLabel, minorPausesLabel)
+        Label minViableHeapLabel = new Label("Min. Viable Xmx (MB)");
+        Label kneeHeapLabel = new Label("Recommended Xmx (MB)");
+        Label kneeThroughputLabel = new Label("Throughput (%)");
+        Label runsLabel = new Label("Search Runs");
+        Arrays.asList(gcTypeLabel, minViableHeapLabel, kneeHeapLabel, kneeThroughputLabel, runsLabel)
                 .forEach(label -> {
                     label.setTextFill(Color.CORAL);
                     label.setFont(Font.font("Times New Roman", FontWeight.BOLD, 15));
                 });
         statisticsGrid.add(gcTypeLabel, cIdx++, rIdx);
-        statisticsGrid.add(runNoLabel, cIdx++, rIdx);
-        statisticsGrid.add(gcRuntimeLabel, cIdx++, rIdx);
-        statisticsGrid.add(throughputLabel, cIdx++, rIdx);
-        statisticsGrid.add(fullPausesLabel, cIdx++, rIdx);
-        statisticsGrid.add(minorPausesLabel, cIdx, rIdx);
-
-        for (String resultString : resultMetrics) {
-            String[] splitByComma = resultString.split(",");
-            int columnCount = 0;
+        statisticsGrid.add(minViableHeapLabel, cIdx++, rIdx);
+        statisticsGrid.add(kneeHeapLabel, cIdx++, rIdx);
+        statisticsGrid.add(kneeThroughputLabel, cIdx++, rIdx);
+        statisticsGrid.add(runsLabel, cIdx, rIdx);
+        for (HeapRecommendation recommendation : heapRecommendations.values()) {
             rIdx++;
-            for (String metric : splitByComma) {
-                statisticsGrid.add(new Label(metric), columnCount++, rIdx);
+            statisticsGrid.add(new Label(recommendation.getGcType().name()), 0, rIdx);
+            if (recommendation.isViable()) {
+                statisticsGrid.add(new Label(String.valueOf(recommendation.getMinViableHeap())), 1, rIdx);
+                statisticsGrid.add(new Label(String.valueOf(recommendation.getKneeHeap())), 2, rIdx);
+                statisticsGrid.add(new Label(String.format("%.2f", recommendation.getKneeThroughput())), 3, rIdx);
+            } else {
+                statisticsGrid.add(new Label("Not viable within " + recommendation.getMaxHeap() + " MB"), 1,
+                        rIdx, 3, 1);
             }
+            statisticsGrid.add(new Label(String.valueOf(recommendation.getRuns())), 4, rIdx);
         }
+        return rIdx + 1;
     }
 
-    private void cleanUp(final AtomicBoolean running, final Button runGcAnalysisButton) {
-        running.set(false);
-        runGcAnalysisButton.setDisable(false);
-    }
-
-    private void updateProgressBar(final ProgressBar progressBar, final Label progressMessage, double progress,
-                                   String message) {
-        progressBar.setProgress(progress);
-        progressMessage.setText(message);
-    }
-
-    private void updateProgressBar(final ProgressBar progressBar, final Label progressMessage, boolean success) {
-        if (success) {
-            progressBar.setStyle("-fx-accent: #40bf15");
-            progressMessage.setText("Analysis finished successfully!");
-        } else {
-            progressBar.setStyle("-fx-accent: #ef0606");
-            progressMessage.setText("Analysis failed! Inspect the log for more details.");
-        }
-    }
-
-    private void resetProgressBar(final ProgressBar progressBar) {
-        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
-        progressBar.setStyle("-fx-accent: #268de7");
-    }
-
-    private void sleep(int millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    private int addBaselineComparisons(final GridPane statisticsGrid, Baseline baseline,
+                                       List<MetricComparison> baselineComparisons, int rIdx) {
+        long regressions = baselineComparisons.stream().filter(MetricComparison::isRegression).count();
+        Label title = new Label("Compared with analysis #" + baseline.getStatId() + " of " + baseline.getDateCreated()
+                + ": " + (regressions == 0 ? "no regressions" : regressions + " regression(s)"));
+        title.setTextFill(regressions == 0 ? Color.CORAL : Color.RED);
+        title.setFont(Font.font("Times New Roman", FontWeight.BOLD, 20));
+        statisticsGrid.add(title, 0, rIdx++, 6, 1);
+        int cIdx = 0;
+        Label gcTypeLabel = new Label("GC Type");
+        Label metricLabel = new Label("Metric");
+        Label baselineLabel = new Label("Baseline Median");
+        Label currentLabel = new Label("Current Median");
+        Label changeLabel = new Label("Worse by (%)");
+        Label pValueLabel = new Label("p-value");
+        Arrays.asList(gcTypeLabel, metricLabel, baselineLabel, currentLabel, changeLabel, pValueLabel)
+                .forEach(label -> {
+                    label.setTextFill(Color.CORAL);
+                    label.setFont(Font.font("Times New Roman", FontWeight.BOLD, 15));
+                });
+        statisticsGrid.add(gcTypeLabel, cIdx++, rIdx);
+        statisticsGrid.add(metricLabel, cIdx++, rIdx);
+        statisticsGrid.add(baselineLabel, cIdx++, rIdx);
+        statisticsGrid.add(currentLabel, cIdx++, rIdx);
+        statisticsGrid.add(changeLabel, cIdx++, rIdx);
+        statisticsGrid.add(pValueLabel, cIdx, rIdx);
+        for (MetricComparison comparison : baselineComparisons) {
+            rIdx++;
+            List<Label> cells = Arrays.asList(new Label(comparison.getGcType().name()),
+                    new Label(comparison.getMetric().getLabel()),
+                    new Label(String.format("%.4f", comparison.getBaselineMedian())),
+                    new Label(String.format("%.4f", comparison.getCurrentMedian())),
+                    new Label(String.format("%+.1f", comparison.getWorseningPercent())),
+                    new Label(String.format("%.4f", comparison.getPValue())));
+            for (int i = 0; i < cells.size(); i++) {
+                if (comparison.isRegression()) {
+                    cells.get(i).setTextFill(Color.RED);
+                }
+                statisticsGrid.add(cells.get(i), i, rIdx);
+            }
         }
+        return rIdx + 1;
     }
-}
 
-class LauncherParams {
-    private File file;
-    private int numOfRuns;
-    private int initHeapSize;
-    private int maxHeapSize;
-    private int initHeapIncrementSize;
-    private int maxHeapIncrementSize;
-    private List<GCType> gcTypes;
-    private List<Analysis.Metrics> metrics;
-    private IllegalArgumentException illegalArgumentException = null;
-
-    public File getFile() {
-        return file;
-    }
-
-    public void setFile(File file) {
-        if (file == null || (!file.getName().endsWith(".class") && !file.getName().endsWith(".jar"))) {
-            illegalArgumentException = new IllegalArgumentException("Please select a Java application class file or a jar file");
-            throw illegalArgumentException;
-        }
-        this.file = file;
+    // per-collector summaries only, the values of every run are columns of the run results table
+    private int addRunTelemetry(final GridPane statisticsGrid, Map<GCType, List<RunTelemetry>> runTelemetry,
+                                int rIdx) {
+        List<List<String>> rows = new ArrayList<>();
+        runTelemetry.forEach((gcType, runs) -> {
+            List<RunTelemetry> recorded = runs.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            if (recorded.isEmpty()) {
+                return;
+            }
+            rows.add(List.of(gcType.name(), String.valueOf(recorded.size()),
+                    formatMean(recorded.stream().mapToDouble(RunTelemetry::getAllocationRate), "%.1f"),
+                    formatMean(recorded.stream().mapToDouble(RunTelemetry::getPromotionRate), "%.1f"),
+                    String.format("%.1f", recorded.stream().mapToDouble(RunTelemetry::getMaxHeapAfterGC).max()
+                            .orElse(0)),
+                    String.valueOf(recorded.stream().mapToInt(RunTelemetry::getSafepoints).sum()),
+                    String.format("%.3f", recorded.stream().mapToDouble(RunTelemetry::getMaxTimeToSafepointMillis)
+                            .max().orElse(0))));
+        });
+        return addSummaryRows(statisticsGrid, List.of("GC Type", "Recorded Runs", "Mean Alloc. Rate (MB/s)",
+                "Mean Promotion Rate (MB/s)", "Max Heap after GC (MB)", "Safepoints", "Max Time to Safepoint (ms)"),
+                rows, rIdx);
+    }
+
+    private int addThrottling(final GridPane statisticsGrid, Map<GCType, List<ThrottlingStats>> throttling,
+                              int rIdx) {
+        List<List<String>> rows = new ArrayList<>();
+        throttling.forEach((gcType, runs) -> {
+            List<ThrottlingStats> read = runs.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            if (read.isEmpty()) {
+                return;
+            }
+            long periods = read.stream().mapToLong(ThrottlingStats::getPeriods).sum();
+            long throttledPeriods = read.stream().mapToLong(ThrottlingStats::getThrottledPeriods).sum();
+            rows.add(List.of(gcType.name(), String.valueOf(read.size()), throttledPeriods + "/" + periods
+                            + String.format(" (%.1f%%)", periods == 0 ? 0 : 100.0 * throttledPeriods / periods),
+                    String.format("%.1f", read.stream().mapToDouble(ThrottlingStats::getThrottledMillis).sum()),
+                    String.valueOf(read.stream().mapToLong(ThrottlingStats::getMemoryMaxEvents).sum()),
+                    String.valueOf(read.stream().mapToLong(ThrottlingStats::getOomKills).sum())));
+        });
+        return addSummaryRows(statisticsGrid, List.of("GC Type", "Runs", "Throttled Periods", "Throttled (ms)",
+                "memory.max Events", "OOM Kills"), rows, rIdx);
     }
 
-    public int getNumOfRuns() {
-        return numOfRuns;
+    private int addWarmUps(final GridPane statisticsGrid, Map<GCType, List<WarmUp>> warmUps, int rIdx) {
+        List<List<String>> rows = new ArrayList<>();
+        warmUps.forEach((gcType, runs) -> {
+            List<WarmUp> warmedUp = runs.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            if (warmedUp.isEmpty()) {
+                return;
+            }
+            rows.add(List.of(gcType.name(), warmedUp.stream().filter(WarmUp::isSteadyStateReached).count() + "/"
+                            + warmedUp.size(),
+                    formatMean(warmedUp.stream().mapToDouble(WarmUp::getSeconds), "%.3f"),
+                    formatMean(warmedUp.stream().mapToDouble(WarmUp::getIterations), "%.1f"),
+                    formatMean(warmedUp.stream().mapToDouble(WarmUp::getGcRuntime), "%.3f")));
+        });
+        return addSummaryRows(statisticsGrid, List.of("GC Type", "Steady State Reached", "Mean Warm-up (s)",
+                "Mean Warm-up Iterations", "Mean Warm-up GC Runtime (s)"), rows, rIdx);
     }
 
-    public void setNumOfRuns(int numOfRuns) {
-        if (numOfRuns < 1 || 100 < numOfRuns) {
-            illegalArgumentException = new IllegalArgumentException("Number of runs must be between 1 and 100");
-            throw illegalArgumentException;
+    private int addSummaryRows(final GridPane statisticsGrid, List<String> titles, List<List<String>> rows,
+                               int rIdx) {
+        for (int c = 0; c < titles.size(); c++) {
+            Label label = new Label(titles.get(c));
+            label.setTextFill(Color.CORAL);
+            label.setFont(Font.font("Times New Roman", FontWeight.BOLD, 15));
+            statisticsGrid.add(label, c, rIdx);
         }
-        this.numOfRuns = numOfRuns;
-    }
-
-    public int getInitHeapSize() {
-        return initHeapSize;
-    }
-
-    public void setInitHeapSize(int initHeapSize) {
-        if (initHeapSize < 1 || 2048 < initHeapSize) {
-            illegalArgumentException = new IllegalArgumentException("Initial heap size must be between 1MB and 2048MB");
-            throw illegalArgumentException;
+        for (List<String> row : rows) {
+            rIdx++;
+            for (int c = 0; c < row.size(); c++) {
+                statisticsGrid.add(new Label(row.get(c)), c, rIdx);
+            }
         }
-        this.initHeapSize = initHeapSize;
+        return rIdx + 1;
     }
 
-    public int getMaxHeapSize() {
-        return maxHeapSize;
+    // NaN values, e.g. the promotion rate of a collector without young collections, are left out
+    private static String formatMean(DoubleStream values, String format) {
+        OptionalDouble mean = values.filter(value -> !Double.isNaN(value)).average();
+        return mean.isPresent() ? String.format(format, mean.getAsDouble()) : "-";
     }
 
-    public void setMaxHeapSize(int maxHeapSize) {
-        if (maxHeapSize < 16 || 8192 < maxHeapSize) {
-            illegalArgumentException = new IllegalArgumentException("Maximum heap size must be between 16MB and 8192MB");
-            throw illegalArgumentException;
+    private String formatPauseSummary(PauseHistogram pauseHistogram) {
+        StringBuilder sb = new StringBuilder(pauseHistogram.getTotalCount() + " pauses");
+        for (double percentile : launcherParams.getPercentiles()) {
+            sb.append(", ").append(LatencyRanking.columnName(percentile)).append(": ")
+                    .append(String.format("%.3f", pauseHistogram.getValueAtPercentile(percentile))).append(" ms");
         }
-        this.maxHeapSize = maxHeapSize;
-    }
-
-    public int getInitHeapIncrementSize() {
-        return initHeapIncrementSize;
+        return sb.append(", max: ").append(String.format("%.3f", pauseHistogram.getMax())).append(" ms").toString();
     }
 
-    public void setInitHeapIncrementSize(int initHeapIncrementSize) {
-        if (initHeapIncrementSize < 1 || 1024 < initHeapIncrementSize) {
-            illegalArgumentException = new IllegalArgumentException("Initial heap increment size must be between 1MB and 1024MB");
-            throw illegalArgumentException;
-        }
-        this.initHeapIncrementSize = initHeapIncrementSize;
+    private void cleanUp(final LogFollower logFollower, final Button runGcAnalysisButton) {
+        analysisRunning.set(false);
+        logFollower.stop();
+        runGcAnalysisButton.setDisable(false);
     }
 
-    public int getMaxHeapIncrementSize() {
-        return maxHeapIncrementSize;
+    private void updateProgressBar(final ProgressBar progressBar, final Label progressMessage, double progress,
+                                   String message) {
+        progressBar.setProgress(progress);
+        progressMessage.setText(message);
     }
 
-    public void setMaxHeapIncrementSize(int maxHeapIncrementSize) {
-        if (maxHeapIncrementSize < 1 || 1024 < maxHeapIncrementSize) {
-            illegalArgumentException = new IllegalArgumentException("Maximum heap increment size must be between 1MB and 1024MB");
-            throw illegalArgumentException;
+    private void updateProgressBar(final ProgressBar progressBar, final Label progressMessage, boolean success) {
+        if (success) {
+            progressBar.setStyle("-fx-accent: #40bf15");
+            progressMessage.setText("Analysis finished successfully!");
+        } else {
+            progressBar.setStyle("-fx-accent: #ef0606");
+            progressMessage.setText("Analysis failed! Inspect the log for more details.");
         }
-        this.maxHeapIncrementSize = maxHeapIncrementSize;
     }
 
-    public List<GCType> getGcTypes() {
-        return gcTypes;
-    }
-
-    public void setGcTypes(List<GCType> gcTypes) {
-        this.gcTypes = gcTypes;
-    }
-
-    public List<Analysis.Metrics> getMetrics() {
-        return metrics;
-    }
-
-    public void setMetrics(List<Analysis.Metrics> metrics) {
-        this.metrics = metrics;
-    }
-
-    public IllegalArgumentException getIllegalArgumentException() {
-        return illegalArgumentException;
-    }
-
-    public void setIllegalArgumentException(IllegalArgumentException illegalArgumentException) {
-        this.illegalArgumentException = illegalArgumentException;
+    private void resetProgressBar(final ProgressBar progressBar) {
+        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        progressBar.setStyle("-fx-accent: #268de7");
     }
 }
@@ -0,0 +1,30 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import hu.antalnagy.gcperf.gui.LauncherParams;
+
+/**
+ * One application of a run plan with its validated analysis parameters.
+ */
+public class BatchJob {
+    private final String name;
+    private final LauncherParams params;
+    private final boolean exportToCSV;
+
+    public BatchJob(String name, LauncherParams params, boolean exportToCSV) {
+        this.name = name;
+        this.params = params;
+        this.exportToCSV = exportToCSV;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LauncherParams getParams() {
+        return params;
+    }
+
+    public boolean isExportToCSV() {
+        return exportToCSV;
+    }
+}
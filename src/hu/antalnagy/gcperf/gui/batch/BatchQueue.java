@@ -0,0 +1,233 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import com.github.sh0nk.matplotlib4j.PythonExecutionException;
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.gui.LauncherParams;
+import hu.antalnagy.gcperf.gui.persistence.ResultStore;
+import hu.antalnagy.gcperf.gui.stats.MetricComparison;
+import hu.antalnagy.gcperf.gui.trial.JarCache;
+import hu.antalnagy.gcperf.gui.trial.RunCache;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialDriver;
+import hu.antalnagy.gcperf.gui.trial.TrialListener;
+import hu.antalnagy.gcperf.gui.trial.TrialProgress;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import hu.antalnagy.gcperf.gui.trial.WorkerSlot;
+import hu.antalnagy.gcperf.gui.trial.Workspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the analyses of many applications concurrently on one pool of worker slots. The CPUs are partitioned once;
+ * a job waits until as many slots as it asks for are free and holds them for its whole analysis, so jobs never share
+ * CPUs. Every job works in its own directory under jobs/, jars are unpacked once into a shared {@link JarCache}, and
+ * all jobs save to the same result store.
+ */
+public class BatchQueue implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BatchQueue.class.getSimpleName());
+
+    private final Path jobsPath;
+    private final JarCache jarCache;
+    private final RunCache runCache;
+    private final ResultStore resultStore;
+    private final int poolSize;
+    private final LinkedList<WorkerSlot> freeSlots;
+    private final ExecutorService executor;
+    private final AtomicInteger nextId = new AtomicInteger(0);
+    private final List<QueuedJob> jobs = new CopyOnWriteArrayList<>();
+    private final List<Consumer<QueuedJob>> listeners = new CopyOnWriteArrayList<>();
+
+    public BatchQueue(Path rootPath, ResultStore resultStore, int poolSize) {
+        this.jobsPath = rootPath.toAbsolutePath().resolve("jobs");
+        this.jarCache = new JarCache(rootPath.resolve("res/jar-cache"));
+        this.runCache = new RunCache(rootPath.resolve("res/run-cache"));
+        this.resultStore = resultStore;
+        this.poolSize = poolSize;
+        this.freeSlots = new LinkedList<>(WorkerSlot.partition(poolSize));
+        AtomicInteger threadNo = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public List<QueuedJob> getJobs() {
+        return new ArrayList<>(jobs);
+    }
+
+    /**
+     * Listeners are told about every status or progress change of a job, on the thread running it.
+     */
+    public void addListener(Consumer<QueuedJob> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<QueuedJob> listener) {
+        listeners.remove(listener);
+    }
+
+    public QueuedJob submit(BatchJob job) {
+        int id = nextId.incrementAndGet();
+        QueuedJob queuedJob = new QueuedJob(id, job, jobsPath.resolve("job-" + id));
+        jobs.add(queuedJob);
+        queuedJob.setFuture(executor.submit(() -> run(queuedJob)));
+        notifyListeners(queuedJob);
+        return queuedJob;
+    }
+
+    /**
+     * Cancels a queued job, or interrupts a running one.
+     */
+    public void cancel(QueuedJob queuedJob) {
+        if (queuedJob.getStatus().isFinished()) {
+            return;
+        }
+        queuedJob.getFuture().cancel(true);
+        if (queuedJob.getStatus() == QueuedJob.Status.QUEUED) {
+            finish(queuedJob, QueuedJob.Status.CANCELLED, "Cancelled");
+        }
+    }
+
+    public void removeFinished() {
+        jobs.removeIf(queuedJob -> queuedJob.getStatus().isFinished());
+    }
+
+    private void run(QueuedJob queuedJob) {
+        if (queuedJob.getStatus().isFinished()) {
+            return;
+        }
+        LauncherParams params = queuedJob.getJob().getParams();
+        List<WorkerSlot> slots = null;
+        try {
+            // the runs of a profile with a cpuset leave the slot's CPUs, so the job holds the whole pool and runs on one
+            boolean cpuset = params.getResourceProfile() != null && params.getResourceProfile().getCpuset() != null
+                    && params.getRemoteWorkers().isEmpty();
+            slots = acquireSlots(cpuset ? poolSize : Math.min(params.getWorkerSlots(), poolSize));
+            List<WorkerSlot> jobSlots = cpuset ? slots.subList(0, 1) : slots;
+            queuedJob.setStatus(QueuedJob.Status.RUNNING);
+            queuedJob.setMessage("Starting analysis on " + jobSlots.size() + " worker slot(s) ...");
+            notifyListeners(queuedJob);
+            Files.createDirectories(queuedJob.getWorkPath());
+
+            TrialDriver trialDriver = new TrialDriver(new Workspace(queuedJob.getWorkPath(), jarCache), resultStore,
+                    runCache);
+            trialDriver.setRegressionThresholdPercent(params.getRegressionThreshold());
+            trialDriver.setTelemetry(params.isTelemetry());
+            trialDriver.setSteadyState(params.getSteadyState());
+            trialDriver.setResourceProfile(params.getResourceProfile());
+            trialDriver.setExportFormat(params.getExportFormat());
+            trialDriver.setRemoteWorkers(params.getRemoteWorkers());
+            trialDriver.addListener(new TrialListener() {
+                @Override
+                public void runStarted(Trial trial) {
+                    update(queuedJob, trialDriver);
+                }
+
+                @Override
+                public void runFinished(TrialResult result) {
+                    update(queuedJob, trialDriver);
+                }
+            });
+            if (params.isHeapSearch()) {
+                trialDriver.searchHeap(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getGcTypes(), queuedJob.getJob().isExportToCSV(), jobSlots);
+            } else if (params.getOptionSweep() != null) {
+                trialDriver.sweepOptions(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getGcTypes(), params.getOptionSweep(),
+                        queuedJob.getJob().isExportToCSV(), jobSlots);
+            } else {
+                trialDriver.launch(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getInitHeapIncrementSize(), params.getMaxHeapIncrementSize(),
+                        params.getGcTypes(), params.getMetrics().toArray(Analysis.Metrics[]::new),
+                        queuedJob.getJob().isExportToCSV(), false, jobSlots, params.getPercentiles(),
+                        params.isTailLatency(), params.getAdaptiveWidth());
+            }
+            TrialProgress progress = trialDriver.getProgress();
+            if (progress.isDone() && !progress.isFailed()) {
+                queuedJob.setLeaderboard(trialDriver.getLeaderboard());
+                queuedJob.setProgress(1);
+                long regressions = trialDriver.getBaselineComparisons().stream()
+                        .filter(MetricComparison::isRegression).count();
+                finish(queuedJob, QueuedJob.Status.SUCCEEDED, regressions == 0 ? "Analysis finished successfully"
+                        : "Analysis finished, " + regressions + " regression(s) against the baseline");
+            } else {
+                finish(queuedJob, QueuedJob.Status.FAILED, "Analysis failed, see " + queuedJob.getWorkPath()
+                        .resolve("log"));
+            }
+        } catch (InterruptedException e) {
+            finish(queuedJob, QueuedJob.Status.CANCELLED, "Cancelled");
+        } catch (IOException | PythonExecutionException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Job " + queuedJob.getId() + " failed: " + e.getMessage());
+            finish(queuedJob, QueuedJob.Status.FAILED, "Analysis failed: " + e.getMessage());
+        } finally {
+            if (slots != null) {
+                releaseSlots(slots);
+            }
+        }
+    }
+
+    private void update(QueuedJob queuedJob, TrialDriver trialDriver) {
+        TrialProgress progress = trialDriver.getProgress();
+        if (progress != null) {
+            queuedJob.setProgress(progress.getProgressLevel());
+            queuedJob.setMessage(progress.getProgressMessage());
+            notifyListeners(queuedJob);
+        }
+    }
+
+    private void finish(QueuedJob queuedJob, QueuedJob.Status status, String message) {
+        queuedJob.setStatus(status);
+        queuedJob.setMessage(message);
+        LOGGER.log(Level.INFO, "Job " + queuedJob.getId() + " (" + queuedJob.getJob().getName() + "): " + message);
+        notifyListeners(queuedJob);
+    }
+
+    private synchronized List<WorkerSlot> acquireSlots(int count) throws InterruptedException {
+        while (freeSlots.size() < count) {
+            wait();
+        }
+        List<WorkerSlot> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            slots.add(freeSlots.poll());
+        }
+        return slots;
+    }
+
+    private synchronized void releaseSlots(List<WorkerSlot> slots) {
+        freeSlots.addAll(slots);
+        notifyAll();
+    }
+
+    private void notifyListeners(QueuedJob queuedJob) {
+        listeners.forEach(listener -> listener.accept(queuedJob));
+    }
+
+    /**
+     * Cancels every unfinished job.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
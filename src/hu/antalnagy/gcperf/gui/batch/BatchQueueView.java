@@ -0,0 +1,134 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.ProgressBarTableCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Batch queue tab: applications added here are analysed with the currently set parameters, concurrently as far as
+ * the worker pool allows, each with its own status line.
+ */
+public class BatchQueueView {
+    private final BatchQueue batchQueue;
+    private final Function<File, BatchJob> jobFactory;
+    private final VBox root = new VBox(10);
+    private final TableView<QueuedJob> table = new TableView<>();
+    private final FileChooser fileChooser = new FileChooser();
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    /**
+     * The job factory turns a chosen file into a job with the current parameters, or returns null if they are not set.
+     */
+    public BatchQueueView(BatchQueue batchQueue, Function<File, BatchJob> jobFactory) {
+        this.batchQueue = batchQueue;
+        this.jobFactory = jobFactory;
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Java applications", "*.jar", "*.class"));
+
+        table.getColumns().add(column("#", QueuedJob::getId));
+        table.getColumns().add(column("Application", queuedJob -> queuedJob.getJob().getName()));
+        table.getColumns().add(column("Status", QueuedJob::getStatus));
+        TableColumn<QueuedJob, Double> progress = column("Progress", QueuedJob::getProgress);
+        progress.setCellFactory(ProgressBarTableCell.forTableColumn());
+        table.getColumns().add(progress);
+        table.getColumns().add(column("Message", QueuedJob::getMessage));
+        table.getColumns().add(column("Winner", queuedJob -> queuedJob.getWinner() == null ? ""
+                : queuedJob.getWinner().name()));
+        table.getColumns().add(column("Working Directory", QueuedJob::getWorkPath));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        table.setPlaceholder(new Label("No applications queued yet"));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        Button addButton = new Button("Add Applications...");
+        addButton.setOnAction(e -> addApplications(addButton.getScene() == null ? null : addButton.getScene().getWindow()));
+        Button cancelButton = new Button("Cancel Selected");
+        cancelButton.setOnAction(e -> new ArrayList<>(table.getSelectionModel().getSelectedItems())
+                .forEach(batchQueue::cancel));
+        Button clearButton = new Button("Clear Finished");
+        clearButton.setOnAction(e -> {
+            batchQueue.removeFinished();
+            refresh();
+        });
+
+        Label poolLabel = new Label("Jobs share a pool of " + batchQueue.getPoolSize() + " worker slot(s) and use the "
+                + "parameters set on the analyzer tab");
+        root.setPadding(new Insets(15));
+        root.getChildren().addAll(poolLabel, table, new HBox(10, addButton, cancelButton, clearButton));
+        batchQueue.addListener(queuedJob -> requestRefresh());
+    }
+
+    public Node getNode() {
+        return root;
+    }
+
+    private void addApplications(Window owner) {
+        List<File> files = fileChooser.showOpenMultipleDialog(owner);
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            BatchJob job;
+            try {
+                job = jobFactory.apply(file);
+            } catch (IllegalArgumentException e) {
+                showAlert("Invalid Application", file.getName() + ": " + e.getMessage());
+                continue;
+            }
+            if (job == null) {
+                showAlert("Invalid Parameters", "Please set all parameters correctly first, they are used for every "
+                        + "queued application");
+                return;
+            }
+            batchQueue.submit(job);
+        }
+    }
+
+    private void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                refreshPending.set(false);
+                refresh();
+            });
+        }
+    }
+
+    private void refresh() {
+        List<QueuedJob> jobs = batchQueue.getJobs();
+        if (!table.getItems().equals(jobs)) {
+            table.getItems().setAll(jobs);
+        }
+        table.refresh();
+    }
+
+    private static void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    private static <T> TableColumn<QueuedJob, T> column(String title, Function<QueuedJob, T> value) {
+        TableColumn<QueuedJob, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+}
@@ -0,0 +1,340 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import com.github.sh0nk.matplotlib4j.PythonExecutionException;
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.LauncherParams;
+import hu.antalnagy.gcperf.gui.parse.RunTelemetry;
+import hu.antalnagy.gcperf.gui.persistence.Baseline;
+import hu.antalnagy.gcperf.gui.stats.MetricComparison;
+import hu.antalnagy.gcperf.gui.trial.HeapRecommendation;
+import hu.antalnagy.gcperf.gui.trial.ResultTable;
+import hu.antalnagy.gcperf.gui.trial.SweepCandidate;
+import hu.antalnagy.gcperf.gui.trial.ThrottlingStats;
+import hu.antalnagy.gcperf.gui.trial.TrialDriver;
+import hu.antalnagy.gcperf.gui.trial.TrialProgress;
+import hu.antalnagy.gcperf.gui.trial.WarmUp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless entry point for CI pipelines: runs every application of a {@link RunPlan} one after the other through the
+ * {@link TrialDriver} and writes the leaderboards, run metrics, heap recommendations and baseline comparisons as JSON.
+ * Never touches JavaFX, so no toolkit is started. Logging goes to stderr, the results to stdout unless an output file is given.
+ * <p>
+ * Usage: {@code BatchRunner plan.yaml|plan.json [-o results.json]}. Exit codes: {@link #EXIT_OK} if every analysis
+ * succeeded without regressions, {@link #EXIT_FAILED} if any failed, {@link #EXIT_INVALID} for a bad command line or
+ * run plan, in which case nothing is run, and {@link #EXIT_REGRESSION} if all succeeded but any regressed against its
+ * baseline.
+ */
+public class BatchRunner {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_INVALID = 2;
+    public static final int EXIT_REGRESSION = 3;
+    private static final Logger LOGGER = Logger.getLogger(BatchRunner.class.getSimpleName());
+
+    private final TrialDriver trialDriver;
+
+    public BatchRunner(TrialDriver trialDriver) {
+        this.trialDriver = trialDriver;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static void main(String[] args) {
+        Path planFile = null;
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else if (planFile == null && !args[i].startsWith("-")) {
+                planFile = Paths.get(args[i]);
+            } else {
+                LOGGER.log(Level.SEVERE, "Unknown option: " + args[i]);
+                System.exit(EXIT_INVALID);
+            }
+        }
+        if (planFile == null) {
+            LOGGER.log(Level.SEVERE, "Usage: BatchRunner plan.yaml|plan.json [-o results.json]");
+            System.exit(EXIT_INVALID);
+        }
+
+        RunPlan plan;
+        try {
+            plan = RunPlan.read(planFile);
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Invalid run plan " + planFile + ": " + e.getMessage());
+            System.exit(EXIT_INVALID);
+            return;
+        }
+
+        TrialDriver trialDriver = new TrialDriver();
+        Map<String, Object> results;
+        try {
+            results = new BatchRunner(trialDriver).run(plan);
+        } finally {
+            // waits for the pending saves of the result store
+            trialDriver.getResultStore().close();
+        }
+        results.put("plan", planFile.toAbsolutePath().toString());
+        String json = Json.write(results);
+        try {
+            if (output == null) {
+                System.out.print(json);
+                System.out.flush();
+            } else {
+                Files.writeString(output, json, StandardCharsets.UTF_8);
+                LOGGER.log(Level.INFO, "Batch results written to " + output.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Writing batch results failed: " + e.getMessage());
+            System.exit(EXIT_FAILED);
+        }
+        System.exit((int) results.get("exitCode"));
+    }
+
+    /**
+     * Runs every job of the plan, even after one has failed, and returns the results keyed for JSON output.
+     */
+    public Map<String, Object> run(RunPlan plan) {
+        List<Object> jobResults = new ArrayList<>();
+        int failed = 0;
+        int regressed = 0;
+        List<BatchJob> jobs = plan.getJobs();
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchJob job = jobs.get(i);
+            LOGGER.log(Level.INFO, "Analysing " + job.getName() + " (" + (i + 1) + "/" + jobs.size() + ")");
+            Map<String, Object> result = run(job);
+            if (!"succeeded".equals(result.get("status"))) {
+                failed++;
+                LOGGER.log(Level.WARNING, "Analysis of " + job.getName() + " " + result.get("status"));
+            }
+            if ((int) result.getOrDefault("regressions", 0) > 0) {
+                regressed++;
+            }
+            jobResults.add(result);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        Map<String, Object> results = new LinkedHashMap<>();
+        int exitCode = regressed > 0 ? EXIT_REGRESSION : EXIT_OK;
+        results.put("exitCode", failed == 0 && jobResults.size() == jobs.size() ? exitCode : EXIT_FAILED);
+        results.put("succeeded", jobResults.size() - failed);
+        results.put("failed", failed);
+        results.put("regressed", regressed);
+        results.put("jobs", jobResults);
+        return results;
+    }
+
+    private Map<String, Object> run(BatchJob job) {
+        LauncherParams params = job.getParams();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", job.getName());
+        result.put("file", params.getFile().getAbsolutePath());
+        long start = System.nanoTime();
+        trialDriver.setRegressionThresholdPercent(params.getRegressionThreshold());
+        trialDriver.setTelemetry(params.isTelemetry());
+        trialDriver.setSteadyState(params.getSteadyState());
+        trialDriver.setResourceProfile(params.getResourceProfile());
+        trialDriver.setExportFormat(params.getExportFormat());
+        trialDriver.setRemoteWorkers(params.getRemoteWorkers());
+        try {
+            if (params.isHeapSearch()) {
+                trialDriver.searchHeap(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getGcTypes(), job.isExportToCSV(), params.getWorkerSlots());
+            } else if (params.getOptionSweep() != null) {
+                trialDriver.sweepOptions(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getGcTypes(), params.getOptionSweep(), job.isExportToCSV(),
+                        params.getWorkerSlots());
+            } else {
+                trialDriver.launch(params.getFile(), params.getNumOfRuns(), params.getInitHeapSize(),
+                        params.getMaxHeapSize(), params.getInitHeapIncrementSize(), params.getMaxHeapIncrementSize(),
+                        params.getGcTypes(), params.getMetrics().toArray(Analysis.Metrics[]::new),
+                        job.isExportToCSV(), false, params.getWorkerSlots(), params.getPercentiles(),
+                        params.isTailLatency(), params.getAdaptiveWidth());
+            }
+            TrialProgress progress = trialDriver.getProgress();
+            result.put("status", progress.isDone() && !progress.isFailed() ? "succeeded" : "failed");
+            result.put("cachedRuns", progress.getCachedRuns());
+        } catch (IOException | PythonExecutionException e) {
+            result.put("status", "failed");
+            result.put("error", e.getMessage());
+        } catch (RuntimeException e) {
+            // e.g. a jar without Main-Class or every remote worker lost, the other jobs still run
+            LOGGER.log(Level.SEVERE, "Analysis of " + job.getName() + " failed: " + e);
+            result.put("status", "failed");
+            result.put("error", e.getMessage() == null ? e.toString() : e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.put("status", "interrupted");
+        }
+        result.put("durationMillis", (System.nanoTime() - start) / 1_000_000);
+        if ("succeeded".equals(result.get("status"))) {
+            addResults(result, params);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> throttling(ThrottlingStats stats) {
+        Map<String, Object> throttling = new LinkedHashMap<>();
+        throttling.put("periods", stats.getPeriods());
+        throttling.put("throttledPeriods", stats.getThrottledPeriods());
+        throttling.put("throttledMillis", stats.getThrottledMillis());
+        throttling.put("memoryMaxEvents", stats.getMemoryMaxEvents());
+        throttling.put("oomKills", stats.getOomKills());
+        return throttling;
+    }
+
+    private static Map<String, Object> warmUp(WarmUp runWarmUp) {
+        Map<String, Object> warmUp = new LinkedHashMap<>();
+        warmUp.put("seconds", runWarmUp.getSeconds());
+        warmUp.put("iterations", runWarmUp.getIterations());
+        warmUp.put("gcRuntime", runWarmUp.getGcRuntime());
+        warmUp.put("stwTime", runWarmUp.getStwTime());
+        warmUp.put("steadyStateReached", runWarmUp.isSteadyStateReached());
+        return warmUp;
+    }
+
+    private static Map<String, Object> telemetry(RunTelemetry runTelemetry) {
+        Map<String, Object> telemetry = new LinkedHashMap<>();
+        telemetry.put("collections", runTelemetry.getCollections());
+        telemetry.put("allocatedMB", runTelemetry.getAllocatedMB());
+        telemetry.put("allocationRateMBps", runTelemetry.getAllocationRate());
+        telemetry.put("promotionRateMBps", runTelemetry.getPromotionRate());
+        telemetry.put("maxHeapAfterGCMB", runTelemetry.getMaxHeapAfterGC());
+        telemetry.put("safepoints", runTelemetry.getSafepoints());
+        telemetry.put("timeToSafepointMillis", runTelemetry.getTimeToSafepointMillis());
+        telemetry.put("maxTimeToSafepointMillis", runTelemetry.getMaxTimeToSafepointMillis());
+        List<Object> heapAfterGC = new ArrayList<>();
+        runTelemetry.getHeapAfterGC().forEach(sample -> heapAfterGC.add(List.of(sample.getSeconds(),
+                sample.getValue())));
+        telemetry.put("heapAfterGCMB", heapAfterGC);
+        return telemetry;
+    }
+
+    private void addResults(Map<String, Object> result, LauncherParams params) {
+        List<String> leaderboard = new ArrayList<>();
+        trialDriver.getLeaderboard().forEach(gcType -> leaderboard.add(gcType.name()));
+        result.put("leaderboard", leaderboard);
+
+        List<String> latencyColumns = new ArrayList<>();
+        trialDriver.getLatencyColumns().forEach(column -> latencyColumns.add(column.replace(" (ms)", "")));
+        List<Object> runs = new ArrayList<>();
+        ResultTable resultTable = trialDriver.getResultTable();
+        for (GCType gcType : resultTable.getGcTypes()) {
+            ResultTable.Columns columns = resultTable.get(gcType);
+            List<RunTelemetry> recorded = trialDriver.getRunTelemetry().getOrDefault(gcType, List.of());
+            List<WarmUp> warmUps = trialDriver.getWarmUps().getOrDefault(gcType, List.of());
+            List<ThrottlingStats> throttling = trialDriver.getThrottling().getOrDefault(gcType, List.of());
+            for (int runIndex = 0; runIndex < columns.size(); runIndex++) {
+                Map<String, Object> run = new LinkedHashMap<>();
+                run.put("gcType", gcType.name());
+                run.put("run", runIndex + 1);
+                run.put("gcRuntime", columns.getGcRuntimes()[runIndex]);
+                run.put("throughput", columns.getThroughputs()[runIndex]);
+                run.put("fullPauses", columns.getFullPauses()[runIndex]);
+                run.put("minorPauses", columns.getMinorPauses()[runIndex]);
+                Map<String, Object> latencyMillis = new LinkedHashMap<>();
+                for (int c = 0; c < latencyColumns.size() && c < columns.getLatencyColumnCount(); c++) {
+                    latencyMillis.put(latencyColumns.get(c), columns.getLatencies(c)[runIndex]);
+                }
+                run.put("latencyMillis", latencyMillis);
+                if (runIndex < recorded.size() && recorded.get(runIndex) != null) {
+                    run.put("telemetry", telemetry(recorded.get(runIndex)));
+                }
+                if (runIndex < warmUps.size() && warmUps.get(runIndex) != null) {
+                    run.put("warmUp", warmUp(warmUps.get(runIndex)));
+                }
+                if (runIndex < throttling.size() && throttling.get(runIndex) != null) {
+                    run.put("throttling", throttling(throttling.get(runIndex)));
+                }
+                runs.add(run);
+            }
+        }
+        result.put("runs", runs);
+
+        Baseline baseline = trialDriver.getBaseline();
+        if (baseline != null) {
+            List<Object> comparisons = new ArrayList<>();
+            int regressions = 0;
+            for (MetricComparison comparison : trialDriver.getBaselineComparisons()) {
+                Map<String, Object> metric = new LinkedHashMap<>();
+                metric.put("gcType", comparison.getGcType().name());
+                metric.put("metric", comparison.getMetric().name());
+                metric.put("baselineMedian", comparison.getBaselineMedian());
+                metric.put("currentMedian", comparison.getCurrentMedian());
+                metric.put("worseningPercent", comparison.getWorseningPercent());
+                metric.put("pValue", comparison.getPValue());
+                metric.put("regression", comparison.isRegression());
+                comparisons.add(metric);
+                regressions += comparison.isRegression() ? 1 : 0;
+            }
+            Map<String, Object> baselineResult = new LinkedHashMap<>();
+            baselineResult.put("analysisId", baseline.getStatId());
+            baselineResult.put("dateCreated", baseline.getDateCreated().toString());
+            baselineResult.put("comparisons", comparisons);
+            result.put("baseline", baselineResult);
+            result.put("regressions", regressions);
+        } else if (!params.isHeapSearch() && params.getOptionSweep() == null) {
+            result.put("baseline", "no comparable baseline");
+        }
+
+        if (params.isHeapSearch()) {
+            List<Object> recommendations = new ArrayList<>();
+            for (GCType gcType : params.getGcTypes()) {
+                HeapRecommendation recommendation = trialDriver.getHeapRecommendations().get(gcType);
+                if (recommendation == null) {
+                    continue;
+                }
+                Map<String, Object> heap = new LinkedHashMap<>();
+                heap.put("gcType", gcType.name());
+                heap.put("viable", recommendation.isViable());
+                heap.put("minViableHeap", recommendation.getMinViableHeap());
+                heap.put("kneeHeap", recommendation.getKneeHeap());
+                heap.put("kneeThroughput", recommendation.getKneeThroughput());
+                heap.put("runs", recommendation.getRuns());
+                recommendations.add(heap);
+            }
+            result.put("heapRecommendations", recommendations);
+        }
+
+        if (params.getOptionSweep() != null) {
+            List<Object> rankings = new ArrayList<>();
+            for (GCType gcType : params.getGcTypes()) {
+                List<SweepCandidate> candidates = trialDriver.getSweepRankings().getOrDefault(gcType, List.of());
+                for (int i = 0; i < candidates.size(); i++) {
+                    SweepCandidate candidate = candidates.get(i);
+                    Map<String, Object> combination = new LinkedHashMap<>();
+                    combination.put("gcType", gcType.name());
+                    combination.put("rank", i + 1);
+                    combination.put("options", candidate.getVmOptions());
+                    combination.put("values", candidate.getValues());
+                    combination.put("median", candidate.getMedian());
+                    combination.put("runs", candidate.getRuns());
+                    combination.put("failedRuns", candidate.getFailedRuns());
+                    combination.put("rounds", candidate.getRounds());
+                    rankings.add(combination);
+                }
+            }
+            Map<String, Object> sweep = new LinkedHashMap<>();
+            sweep.put("objective", params.getOptionSweep().getObjective().name());
+            sweep.put("design", params.getOptionSweep().getDesign().name());
+            sweep.put("combinations", rankings);
+            result.put("optionSweep", sweep);
+        }
+    }
+}
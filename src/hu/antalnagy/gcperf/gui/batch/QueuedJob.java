@@ -0,0 +1,96 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * A job of the {@link BatchQueue} and its live status. Updated by the worker running it, read from any thread.
+ */
+public class QueuedJob {
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final int id;
+    private final BatchJob job;
+    private final Path workPath;
+    private volatile Status status = Status.QUEUED;
+    private volatile double progress;
+    private volatile String message = "Waiting for free worker slots ...";
+    private volatile List<GCType> leaderboard = new ArrayList<>();
+    private volatile Future<?> future;
+
+    QueuedJob(int id, BatchJob job, Path workPath) {
+        this.id = id;
+        this.job = job;
+        this.workPath = workPath;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    /**
+     * Isolated working directory of the job: its bin, out and log files.
+     */
+    public Path getWorkPath() {
+        return workPath;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    void setProgress(double progress) {
+        this.progress = progress;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<GCType> getLeaderboard() {
+        return new ArrayList<>(leaderboard);
+    }
+
+    void setLeaderboard(List<GCType> leaderboard) {
+        this.leaderboard = new ArrayList<>(leaderboard);
+    }
+
+    public GCType getWinner() {
+        List<GCType> ranking = leaderboard;
+        return ranking.isEmpty() ? null : ranking.get(0);
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+}
@@ -0,0 +1,295 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.LauncherParams;
+import hu.antalnagy.gcperf.gui.export.ExportFormat;
+import hu.antalnagy.gcperf.gui.remote.TrialWorker;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+import hu.antalnagy.gcperf.gui.trial.OptionAxis;
+import hu.antalnagy.gcperf.gui.trial.RegressionDetector;
+import hu.antalnagy.gcperf.gui.trial.ResourceProfile;
+import hu.antalnagy.gcperf.gui.trial.SteadyState;
+import hu.antalnagy.gcperf.gui.trial.SweepPlanner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A batch of applications to analyse, read from a JSON or YAML file. Top-level settings apply to every application,
+ * an application given as an object may override any of them:
+ * <pre>
+ * runs: 10
+ * gcTypes: [G1, ZGC]
+ * metrics: [Throughput, AvgGCRuntime]
+ * applications:
+ *   - apps/first.jar
+ *   - file: apps/second.jar
+ *     maxHeap: 512
+ *     heapSearch: true
+ *   - file: apps/third.jar
+ *     sweep:
+ *       axes: ["-XX:ParallelGCThreads={1,2,4}", "-XX:{-,+}AlwaysPreTouch", "G1:-XX:G1HeapRegionSize={1m,4m}"]
+ *       design: pairwise
+ *       successiveHalving: true
+ *       objective: throughput
+ *   - file: apps/fourth.jar
+ *     steadyState:
+ *       maxWarmUpIterations: 50
+ *       window: 5
+ *       tolerance: 5
+ *       measuredIterations: 10
+ *     profile: cpus=2 memoryMB=4096
+ * </pre>
+ * Relative paths are resolved against the directory of the plan. A heap search probes heaps up to maxHeap. A sweep
+ * runs at the initial heap sizes, see {@link OptionAxis} for the axis syntax. steadyState: true runs to a steady state with the defaults of
+ * {@link SteadyState}. A profile runs every JVM in a cgroup with its limits, see {@link ResourceProfile#parse}.
+ * exportToCSV streams every run to the application's csv directory as it finishes, in the exportFormat csv (the
+ * default), csv.gz or arrow. workers runs on the given {@link TrialWorker}s instead of locally, as a list or a comma
+ * separated string of host:port addresses, authenticated with the GCPERF_WORKER_TOKEN environment variable. Unset
+ * heap sizes take the GUI's defaults. The whole plan is validated with {@link LauncherParams} before anything runs,
+ * so a broken plan fails fast.
+ */
+public class RunPlan {
+    private static final Set<String> SETTINGS = Set.of("runs", "initHeap", "maxHeap", "initHeapIncrement",
+            "maxHeapIncrement", "workerSlots", "gcTypes", "metrics", "percentiles", "tailLatency", "adaptiveWidth",
+            "heapSearch", "exportToCSV", "regressionThreshold", "sweep", "telemetry", "steadyState",
+            "profile", "exportFormat", "workers");
+    private static final Set<String> SWEEP_SETTINGS = Set.of("axes", "design", "successiveHalving", "objective");
+    private static final Set<String> STEADY_STATE_SETTINGS = Set.of("maxWarmUpIterations", "window", "tolerance",
+            "measuredIterations");
+    private static final Map<String, Object> DEFAULTS = Map.ofEntries(Map.entry("initHeap", 4.0),
+            Map.entry("maxHeap", 64.0), Map.entry("initHeapIncrement", 128.0), Map.entry("maxHeapIncrement", 256.0),
+            Map.entry("workerSlots", 1.0), Map.entry("percentiles", "50,99,99.9"), Map.entry("tailLatency", false),
+            Map.entry("adaptiveWidth", 0.0), Map.entry("heapSearch", false), Map.entry("exportToCSV", false),
+            Map.entry("exportFormat", "csv"),
+            Map.entry("telemetry", false), Map.entry("steadyState", false), Map.entry("regressionThreshold", RegressionDetector.DEFAULT_THRESHOLD_PERCENT));
+
+    private final List<BatchJob> jobs;
+
+    private RunPlan(List<BatchJob> jobs) {
+        this.jobs = jobs;
+    }
+
+    public List<BatchJob> getJobs() {
+        return new ArrayList<>(jobs);
+    }
+
+    public static RunPlan read(Path planFile) throws IOException {
+        String text = Files.readString(planFile, StandardCharsets.UTF_8);
+        String fileName = planFile.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean json = fileName.endsWith(".json")
+                || (!fileName.endsWith(".yaml") && !fileName.endsWith(".yml") && text.strip().startsWith("{"));
+        Object root = json ? Json.parse(text) : SimpleYaml.parse(text);
+        Path baseDirectory = planFile.toAbsolutePath().getParent();
+        return parse(root, baseDirectory);
+    }
+
+    static RunPlan parse(Object root, Path baseDirectory) {
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException("A run plan must be a mapping with an applications list");
+        }
+        Map<String, Object> planSettings = new HashMap<>(DEFAULTS);
+        Object applications = null;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) root).entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (key.equals("applications")) {
+                applications = entry.getValue();
+            } else if (SETTINGS.contains(key)) {
+                planSettings.put(key, entry.getValue());
+            } else {
+                throw new IllegalArgumentException("Unknown plan setting: " + key);
+            }
+        }
+        if (!(applications instanceof List) || ((List<?>) applications).isEmpty()) {
+            throw new IllegalArgumentException("A run plan needs a non-empty applications list");
+        }
+
+        List<BatchJob> jobs = new ArrayList<>();
+        List<?> entries = (List<?>) applications;
+        for (int i = 0; i < entries.size(); i++) {
+            Map<String, Object> settings = new HashMap<>(planSettings);
+            Object entry = entries.get(i);
+            if (entry instanceof String) {
+                settings.put("file", entry);
+            } else if (entry instanceof Map) {
+                for (Map.Entry<?, ?> override : ((Map<?, ?>) entry).entrySet()) {
+                    String key = String.valueOf(override.getKey());
+                    if (!key.equals("file") && !key.equals("name") && !SETTINGS.contains(key)) {
+                        throw new IllegalArgumentException("Application " + (i + 1) + ": unknown setting: " + key);
+                    }
+                    settings.put(key, override.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException("Application " + (i + 1) + " must be a file path or a mapping");
+            }
+            try {
+                jobs.add(toJob(settings, baseDirectory));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Application " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new RunPlan(jobs);
+    }
+
+    private static BatchJob toJob(Map<String, Object> settings, Path baseDirectory) {
+        if (!(settings.get("file") instanceof String)) {
+            throw new IllegalArgumentException("file must be a path");
+        }
+        Path file = baseDirectory.resolve((String) settings.get("file")).normalize();
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+        LauncherParams params = new LauncherParams();
+        params.setFile(file.toFile());
+        params.setNumOfRuns(integer(settings, "runs"));
+        params.setInitHeapSize(integer(settings, "initHeap"));
+        params.setMaxHeapSize(integer(settings, "maxHeap"));
+        params.setInitHeapIncrementSize(integer(settings, "initHeapIncrement"));
+        params.setMaxHeapIncrementSize(integer(settings, "maxHeapIncrement"));
+        params.setWorkerSlots(integer(settings, "workerSlots"));
+        params.setGcTypes(enums(settings, "gcTypes", GCType.class));
+        params.setMetrics(enums(settings, "metrics", Analysis.Metrics.class));
+        params.setPercentiles(joined(settings.get("percentiles")));
+        params.setTailLatency(bool(settings, "tailLatency"));
+        int adaptiveWidth = integer(settings, "adaptiveWidth");
+        params.setAdaptiveWidth(adaptiveWidth > 0, adaptiveWidth);
+        params.setHeapSearch(bool(settings, "heapSearch"));
+        params.setTelemetry(bool(settings, "telemetry"));
+        params.setRegressionThreshold(number(settings, "regressionThreshold"));
+        if (settings.get("sweep") != null) {
+            params.setOptionSweep(sweep(settings.get("sweep")));
+        }
+        params.setSteadyState(steadyState(settings.get("steadyState")));
+        if (settings.get("profile") != null) {
+            params.setResourceProfile(String.valueOf(settings.get("profile")));
+        }
+        params.setExportFormat(ExportFormat.parse(String.valueOf(settings.get("exportFormat"))));
+        params.setRemoteWorkers(joined(settings.get("workers")));
+        params.validate();
+        String name = settings.get("name") instanceof String ? (String) settings.get("name")
+                : file.getFileName().toString();
+        return new BatchJob(name, params, bool(settings, "exportToCSV"));
+    }
+
+    private static SweepPlanner sweep(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("sweep must be a mapping with an axes list");
+        }
+        Map<String, Object> settings = new HashMap<>(Map.of("design", "pairwise", "successiveHalving", true,
+                "objective", RunMetric.THROUGHPUT.name()));
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (!SWEEP_SETTINGS.contains(key)) {
+                throw new IllegalArgumentException("Unknown sweep setting: " + key);
+            }
+            settings.put(key, entry.getValue());
+        }
+        if (!(settings.get("axes") instanceof List)) {
+            throw new IllegalArgumentException("sweep needs an axes list");
+        }
+        List<OptionAxis> axes = ((List<?>) settings.get("axes")).stream().map(axis -> OptionAxis.parse(
+                String.valueOf(axis))).collect(Collectors.toList());
+        return new SweepPlanner(axes, constant(settings, "design", SweepPlanner.Design.class),
+                bool(settings, "successiveHalving"), constant(settings, "objective", RunMetric.class));
+    }
+
+    private static SteadyState steadyState(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? new SteadyState() : null;
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("steadyState must be true, false or a mapping");
+        }
+        Map<String, Object> settings = new HashMap<>(Map.of(
+                "maxWarmUpIterations", (double) SteadyState.DEFAULT_MAX_WARM_UP_ITERATIONS,
+                "window", (double) SteadyState.DEFAULT_WINDOW, "tolerance", SteadyState.DEFAULT_TOLERANCE_PERCENT,
+                "measuredIterations", (double) SteadyState.DEFAULT_MEASURED_ITERATIONS));
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (!STEADY_STATE_SETTINGS.contains(key)) {
+                throw new IllegalArgumentException("Unknown steadyState setting: " + key);
+            }
+            settings.put(key, entry.getValue());
+        }
+        return new SteadyState(integer(settings, "maxWarmUpIterations"), integer(settings, "window"),
+                number(settings, "tolerance"), integer(settings, "measuredIterations"));
+    }
+
+    private static <E extends Enum<E>> E constant(Map<String, Object> settings, String key, Class<E> type) {
+        for (E candidate : type.getEnumConstants()) {
+            if (candidate.name().equalsIgnoreCase(String.valueOf(settings.get(key)))) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + key + ": " + settings.get(key));
+    }
+
+    private static int integer(Map<String, Object> settings, String key) {
+        Object value = settings.get(key);
+        if (!(value instanceof Number) || ((Number) value).doubleValue() != Math.rint(((Number) value).doubleValue())) {
+            throw new IllegalArgumentException(key + " must be a whole number");
+        }
+        return ((Number) value).intValue();
+    }
+
+    private static double number(Map<String, Object> settings, String key) {
+        Object value = settings.get(key);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static boolean bool(Map<String, Object> settings, String key) {
+        Object value = settings.get(key);
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException(key + " must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    private static <E extends Enum<E>> List<E> enums(Map<String, Object> settings, String key, Class<E> type) {
+        Object value = settings.getOrDefault(key, List.of());
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(key + " must be a list");
+        }
+        List<E> constants = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            E constant = null;
+            for (E candidate : type.getEnumConstants()) {
+                if (candidate.name().equalsIgnoreCase(String.valueOf(item))) {
+                    constant = candidate;
+                }
+            }
+            if (constant == null) {
+                throw new IllegalArgumentException("Unknown value in " + key + ": " + item);
+            }
+            if (!constants.contains(constant)) {
+                constants.add(constant);
+            }
+        }
+        return constants;
+    }
+
+    // a list or an already comma separated string
+    private static String joined(Object value) {
+        if (value instanceof List) {
+            List<String> values = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                values.add(String.valueOf(item));
+            }
+            return String.join(",", values);
+        }
+        return value == null ? "" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,229 @@
+package hu.antalnagy.gcperf.gui.batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader of the YAML subset a run plan needs: block mappings and sequences nested by indentation, flow sequences of
+ * scalars ({@code [G1, ZGC]}), quoted and plain scalars and comments. Anchors, multi-line scalars, flow mappings and
+ * multiple documents are not supported. Produces the same value types as {@link Json#parse}.
+ */
+public final class SimpleYaml {
+    private final List<Line> lines = new ArrayList<>();
+    private int current;
+
+    private SimpleYaml(String text) {
+        String[] rawLines = text.split("\r?\n");
+        for (int i = 0; i < rawLines.length; i++) {
+            String content = stripComment(rawLines[i]);
+            if (content.isBlank() || content.strip().equals("---")) {
+                continue;
+            }
+            int indent = 0;
+            while (content.charAt(indent) == ' ') {
+                indent++;
+            }
+            if (content.charAt(indent) == '\t') {
+                throw new IllegalArgumentException("Tabs are not allowed for indentation at line " + (i + 1));
+            }
+            lines.add(new Line(i + 1, indent, content.strip()));
+        }
+    }
+
+    public static Object parse(String text) {
+        SimpleYaml yaml = new SimpleYaml(text);
+        if (yaml.lines.isEmpty()) {
+            return null;
+        }
+        Object value = yaml.readBlock(yaml.lines.get(0).indent);
+        if (yaml.current < yaml.lines.size()) {
+            throw yaml.error(yaml.lines.get(yaml.current), "Unexpected indentation");
+        }
+        return value;
+    }
+
+    private Object readBlock(int indent) {
+        Line line = lines.get(current);
+        return isSequenceItem(line) ? readSequence(indent) : readMapping(indent);
+    }
+
+    private List<Object> readSequence(int indent) {
+        List<Object> sequence = new ArrayList<>();
+        while (current < lines.size() && lines.get(current).indent == indent && isSequenceItem(lines.get(current))) {
+            Line line = lines.get(current);
+            String rest = line.content.substring(1).strip();
+            if (rest.isEmpty()) {
+                current++;
+                sequence.add(readNested(indent));
+            } else if (mappingKeyEnd(rest) > 0) {
+                // "- key: value" opens a mapping indented like the text after the dash
+                int nestedIndent = indent + line.content.indexOf(rest);
+                lines.set(current, new Line(line.number, nestedIndent, rest));
+                sequence.add(readMapping(nestedIndent));
+            } else {
+                current++;
+                sequence.add(scalar(line, rest));
+            }
+        }
+        return sequence;
+    }
+
+    private Map<String, Object> readMapping(int indent) {
+        Map<String, Object> mapping = new LinkedHashMap<>();
+        while (current < lines.size() && lines.get(current).indent == indent && !isSequenceItem(lines.get(current))) {
+            Line line = lines.get(current);
+            int keyEnd = mappingKeyEnd(line.content);
+            if (keyEnd <= 0) {
+                throw error(line, "Expected 'key: value'");
+            }
+            String key = unquote(line.content.substring(0, keyEnd).strip());
+            String rest = line.content.substring(keyEnd + 1).strip();
+            current++;
+            if (!rest.isEmpty()) {
+                mapping.put(key, scalar(line, rest));
+            } else if (current < lines.size() && lines.get(current).indent == indent
+                    && isSequenceItem(lines.get(current))) {
+                // a sequence may sit at the indentation of its key
+                mapping.put(key, readSequence(indent));
+            } else {
+                mapping.put(key, readNested(indent));
+            }
+        }
+        return mapping;
+    }
+
+    private Object readNested(int parentIndent) {
+        if (current >= lines.size() || lines.get(current).indent <= parentIndent) {
+            return null;
+        }
+        return readBlock(lines.get(current).indent);
+    }
+
+    private Object scalar(Line line, String value) {
+        if (value.startsWith("[")) {
+            if (!value.endsWith("]")) {
+                throw error(line, "Unterminated flow sequence");
+            }
+            List<Object> sequence = new ArrayList<>();
+            String items = value.substring(1, value.length() - 1).strip();
+            if (!items.isEmpty()) {
+                for (String item : splitFlowItems(items)) {
+                    sequence.add(scalar(line, item.strip()));
+                }
+            }
+            return sequence;
+        }
+        if (value.startsWith("{")) {
+            throw error(line, "Flow mappings are not supported");
+        }
+        if (value.startsWith("\"") || value.startsWith("'")) {
+            return unquote(value);
+        }
+        switch (value) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+            case "~":
+                return null;
+            default:
+                try {
+                    return Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    return value;
+                }
+        }
+    }
+
+    // commas inside quoted items do not separate
+    private static List<String> splitFlowItems(String items) {
+        List<String> split = new ArrayList<>();
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < items.length(); i++) {
+            char c = items.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == ',') {
+                split.add(items.substring(start, i));
+                start = i + 1;
+            }
+        }
+        split.add(items.substring(start));
+        return split;
+    }
+
+    private static boolean isSequenceItem(Line line) {
+        return line.content.equals("-") || line.content.startsWith("- ");
+    }
+
+    /**
+     * Index of the colon ending the key, -1 if the text is no mapping entry.
+     */
+    private static int mappingKeyEnd(String content) {
+        char quote = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                return -1;
+            } else if (c == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static String stripComment(String line) {
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '#' && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    private IllegalArgumentException error(Line line, String message) {
+        return new IllegalArgumentException(message + " at line " + line.number);
+    }
+
+    private static class Line {
+        private final int number;
+        private final int indent;
+        private final String content;
+
+        private Line(int number, int indent, String content) {
+            this.number = number;
+            this.indent = indent;
+            this.content = content;
+        }
+    }
+}
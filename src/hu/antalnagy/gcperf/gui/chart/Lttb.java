@@ -0,0 +1,59 @@
+package hu.antalnagy.gcperf.gui.chart;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling. Keeps the first and last point and picks from every bucket the point
+ * spanning the largest triangle with its neighbours, so peaks and dips of a long series survive the reduction.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Returns the indices of the points to keep, in ascending order. The x values have to be sorted ascending.
+     */
+    public static int[] downsample(double[] xs, double[] ys, int threshold) {
+        int length = Math.min(xs.length, ys.length);
+        if (threshold >= length || threshold < 3) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] selected = new int[threshold];
+        int selectedCount = 0;
+        selected[selectedCount++] = 0;
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += xs[i];
+                avgY += ys[i];
+            }
+            int nextCount = Math.max(nextEnd - nextStart, 1);
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((xs[a] - avgX) * (ys[i] - ys[a]) - (xs[a] - xs[i]) * (avgY - ys[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[selectedCount++] = maxIndex;
+            a = maxIndex;
+        }
+        selected[selectedCount] = length - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,166 @@
+package hu.antalnagy.gcperf.gui.chart;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import javafx.scene.Node;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.layout.GridPane;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Native per-run charts of an analysis, fed with each finished run. Run series longer than {@link #MAX_POINTS} are
+ * downsampled with {@link Lttb}; pause durations are only kept as histogram bucket counts. Must be used on the FX
+ * application thread.
+ */
+public class RunCharts {
+    private static final int MAX_POINTS = 500;
+    private static final int MAX_SYMBOL_POINTS = 50;
+    private static final double[] BUCKET_BOUNDS_MILLIS = {0.1, 0.5, 1, 2, 5, 10, 20, 50, 100, 200, 500};
+
+    private final GridPane gridPane = new GridPane();
+    private final LineChart<Number, Number> gcRuntimeChart = createLineChart("GC Runtime (sec)");
+    private final LineChart<Number, Number> throughputChart = createLineChart("Throughput (%)");
+    private final LineChart<Number, Number> pausesChart = createLineChart("Pauses (full + minor)");
+    private final BarChart<String, Number> histogramChart;
+    private final Map<GCType, TreeMap<Integer, TrialResult>> runs = new EnumMap<>(GCType.class);
+    private final Map<GCType, long[]> pauseBuckets = new EnumMap<>(GCType.class);
+    private final Set<GCType> dirty = EnumSet.noneOf(GCType.class);
+
+    public RunCharts() {
+        CategoryAxis bucketAxis = new CategoryAxis();
+        bucketAxis.setLabel("Pause duration (ms)");
+        NumberAxis countAxis = new NumberAxis();
+        countAxis.setLabel("Pauses");
+        histogramChart = new BarChart<>(bucketAxis, countAxis);
+        histogramChart.setTitle("Pause Duration Histogram");
+        histogramChart.setAnimated(false);
+        gridPane.setHgap(10);
+        gridPane.setVgap(10);
+        gridPane.add(gcRuntimeChart, 0, 0);
+        gridPane.add(throughputChart, 1, 0);
+        gridPane.add(pausesChart, 0, 1);
+        gridPane.add(histogramChart, 1, 1);
+    }
+
+    public Node getNode() {
+        return gridPane;
+    }
+
+    public void reset() {
+        runs.clear();
+        pauseBuckets.clear();
+        dirty.clear();
+        gcRuntimeChart.getData().clear();
+        throughputChart.getData().clear();
+        pausesChart.getData().clear();
+        histogramChart.getData().clear();
+    }
+
+    public void addResults(List<TrialResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        for (TrialResult result : results) {
+            GCType gcType = result.getGcType();
+            runs.computeIfAbsent(gcType, key -> new TreeMap<>()).put(result.getRunNo() + 1, result);
+            long[] buckets = pauseBuckets.computeIfAbsent(gcType, key -> new long[BUCKET_BOUNDS_MILLIS.length + 1]);
+            result.getPauseHistogram().forEachBucket((millis, count) -> buckets[bucketOf(millis)] += count);
+            dirty.add(gcType);
+        }
+        for (GCType gcType : dirty) {
+            TreeMap<Integer, TrialResult> gcRuns = runs.get(gcType);
+            updateSeries(gcRuntimeChart, gcType, gcRuns, TrialResult::getGcRuntime);
+            updateSeries(throughputChart, gcType, gcRuns, TrialResult::getThroughput);
+            updateSeries(pausesChart, gcType, gcRuns, result -> result.getFullPauses() + result.getMinorPauses());
+            updateHistogram(gcType, pauseBuckets.get(gcType));
+        }
+        dirty.clear();
+        boolean fewRuns = runs.values().stream().allMatch(gcRuns -> gcRuns.size() <= MAX_SYMBOL_POINTS);
+        gcRuntimeChart.setCreateSymbols(fewRuns);
+        throughputChart.setCreateSymbols(fewRuns);
+        pausesChart.setCreateSymbols(fewRuns);
+    }
+
+    private void updateSeries(LineChart<Number, Number> chart, GCType gcType, TreeMap<Integer, TrialResult> gcRuns,
+                              ToDoubleFunction<TrialResult> metric) {
+        double[] xs = new double[gcRuns.size()];
+        double[] ys = new double[gcRuns.size()];
+        int i = 0;
+        for (Map.Entry<Integer, TrialResult> run : gcRuns.entrySet()) {
+            xs[i] = run.getKey();
+            ys[i++] = metric.applyAsDouble(run.getValue());
+        }
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>();
+        for (int idx : Lttb.downsample(xs, ys, MAX_POINTS)) {
+            points.add(new XYChart.Data<>(xs[idx], ys[idx]));
+        }
+        seriesOf(chart, gcType).getData().setAll(points);
+    }
+
+    private void updateHistogram(GCType gcType, long[] buckets) {
+        List<XYChart.Data<String, Number>> bars = new ArrayList<>();
+        for (int i = 0; i < buckets.length; i++) {
+            bars.add(new XYChart.Data<>(bucketLabel(i), buckets[i]));
+        }
+        seriesOf(histogramChart, gcType).getData().setAll(bars);
+    }
+
+    private static <X, Y> XYChart.Series<X, Y> seriesOf(XYChart<X, Y> chart, GCType gcType) {
+        for (XYChart.Series<X, Y> series : chart.getData()) {
+            if (series.getName().equals(gcType.name())) {
+                return series;
+            }
+        }
+        XYChart.Series<X, Y> series = new XYChart.Series<>();
+        series.setName(gcType.name());
+        chart.getData().add(series);
+        return series;
+    }
+
+    private static int bucketOf(double durationMillis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (durationMillis < BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    private static String bucketLabel(int bucket) {
+        if (bucket == 0) {
+            return "<" + format(BUCKET_BOUNDS_MILLIS[0]);
+        }
+        if (bucket == BUCKET_BOUNDS_MILLIS.length) {
+            return ">=" + format(BUCKET_BOUNDS_MILLIS[bucket - 1]);
+        }
+        return format(BUCKET_BOUNDS_MILLIS[bucket - 1]) + "-" + format(BUCKET_BOUNDS_MILLIS[bucket]);
+    }
+
+    private static String format(double millis) {
+        return millis == Math.floor(millis) ? String.valueOf((long) millis) : String.valueOf(millis);
+    }
+
+    private static LineChart<Number, Number> createLineChart(String title) {
+        NumberAxis runAxis = new NumberAxis();
+        runAxis.setLabel("Run No.");
+        runAxis.setForceZeroInRange(false);
+        NumberAxis valueAxis = new NumberAxis();
+        valueAxis.setLabel(title);
+        LineChart<Number, Number> chart = new LineChart<>(runAxis, valueAxis);
+        chart.setTitle(title);
+        chart.setAnimated(false);
+        return chart;
+    }
+}
@@ -0,0 +1,323 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rows as an Arrow IPC stream (columnar format version 5): the schema message, then one record batch per run, then the
+ * end-of-stream marker on close. Every batch is flushed on its own, so a stream cut off by a crash still reads up to
+ * its last complete run. Columns are non-nullable int32, float64 and utf8; the flatbuffers metadata is encoded here,
+ * so no Arrow library is needed to write it.
+ */
+final class ArrowStreamWriter implements RowWriter {
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_UTF8 = 5;
+    private static final short PRECISION_DOUBLE = 2;
+
+    private final OutputStream out;
+    private final List<ExportColumn> columns;
+
+    ArrowStreamWriter(OutputStream out, List<ExportColumn> columns) throws IOException {
+        this.out = out;
+        this.columns = columns;
+        writeMessage(HEADER_SCHEMA, schema(), new byte[0]);
+        out.flush();
+    }
+
+    @Override
+    public void write(TrialResult result) throws IOException {
+        Body body = new Body(3 * columns.size());
+        ByteBuffer nodes = ByteBuffer.allocate(16 * columns.size()).order(ByteOrder.LITTLE_ENDIAN);
+        for (ExportColumn column : columns) {
+            // length 1, no nulls; the validity bitmap of a column without nulls may be left empty
+            nodes.putLong(1).putLong(0);
+            body.addBuffer(new byte[0]);
+            switch (column.getType()) {
+                case INT:
+                    body.addBuffer(littleEndian(4).putInt(column.intValue(result)).array());
+                    break;
+                case DOUBLE:
+                    body.addBuffer(littleEndian(8).putDouble(column.doubleValue(result)).array());
+                    break;
+                default:
+                    byte[] value = column.stringValue(result).getBytes(StandardCharsets.UTF_8);
+                    body.addBuffer(littleEndian(8).putInt(0).putInt(value.length).array(), 8);
+                    body.addBuffer(value);
+            }
+        }
+        Table recordBatch = new Table()
+                .add(0, 8, 1)
+                .add(1, new Structs(nodes.array(), columns.size()))
+                .add(2, new Structs(body.getBufferEntries(), body.getBufferCount()));
+        writeMessage(HEADER_RECORD_BATCH, recordBatch, body.toByteArray());
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write(littleEndian(8).putInt(CONTINUATION).putInt(0).array());
+        } finally {
+            out.close();
+        }
+    }
+
+    private Table schema() {
+        List<Table> fields = new ArrayList<>();
+        for (ExportColumn column : columns) {
+            Table field = new Table()
+                    .add(0, column.getName())
+                    .add(1, 1, 0)
+                    .add(5, List.of());
+            switch (column.getType()) {
+                case INT:
+                    field.add(2, 1, TYPE_INT).add(3, new Table().add(0, 4, 32).add(1, 1, 1));
+                    break;
+                case DOUBLE:
+                    field.add(2, 1, TYPE_FLOATING_POINT).add(3, new Table().add(0, 2, PRECISION_DOUBLE));
+                    break;
+                default:
+                    field.add(2, 1, TYPE_UTF8).add(3, new Table());
+            }
+            fields.add(field);
+        }
+        return new Table().add(0, 2, 0).add(1, fields);
+    }
+
+    // continuation marker, metadata length, Message flatbuffer padded so that the body starts 8-byte aligned, body
+    private void writeMessage(byte headerType, Table header, byte[] body) throws IOException {
+        Table message = new Table()
+                .add(0, 2, METADATA_V5)
+                .add(1, 1, headerType)
+                .add(2, header)
+                .add(3, 8, body.length);
+        byte[] metadata = FlatBuffer.encode(message);
+        out.write(littleEndian(8).putInt(CONTINUATION).putInt(metadata.length).array());
+        out.write(metadata);
+        out.write(body);
+    }
+
+    private static ByteBuffer littleEndian(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int align(int position, int alignment) {
+        return (position + alignment - 1) / alignment * alignment;
+    }
+
+    // the buffers of a record batch, each starting 8-byte aligned, and their offset/length entries
+    private static class Body {
+        private final ByteBuffer entries;
+        private byte[] bytes = new byte[64];
+        private int length;
+        private int count;
+
+        private Body(int maxBuffers) {
+            entries = littleEndian(16 * maxBuffers);
+        }
+
+        private void addBuffer(byte[] buffer) {
+            addBuffer(buffer, buffer.length);
+        }
+
+        private void addBuffer(byte[] buffer, int bufferLength) {
+            int offset = align(length, 8);
+            int end = align(offset + bufferLength, 8);
+            if (end > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(end, 2 * bytes.length));
+            }
+            System.arraycopy(buffer, 0, bytes, offset, bufferLength);
+            length = end;
+            entries.putLong(offset).putLong(bufferLength);
+            count++;
+        }
+
+        private byte[] getBufferEntries() {
+            return Arrays.copyOf(entries.array(), entries.position());
+        }
+
+        private int getBufferCount() {
+            return count;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static class Table {
+        private final List<Field> fields = new ArrayList<>();
+
+        // scalar of 1, 2, 4 or 8 bytes
+        private Table add(int id, int size, long value) {
+            fields.add(new Field(id, size, value, null));
+            return this;
+        }
+
+        // table, string, list of tables or structs
+        private Table add(int id, Object reference) {
+            fields.add(new Field(id, 4, 0, reference));
+            return this;
+        }
+    }
+
+    private static class Field {
+        private final int id;
+        private final int size;
+        private final long value;
+        private final Object reference;
+
+        private Field(int id, int size, long value, Object reference) {
+            this.id = id;
+            this.size = size;
+            this.value = value;
+            this.reference = reference;
+        }
+    }
+
+    // vector of structs with 8-byte alignment, given as their little-endian bytes
+    private static class Structs {
+        private final byte[] bytes;
+        private final int count;
+
+        private Structs(byte[] bytes, int count) {
+            this.bytes = bytes;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Flatbuffers encoder laying the buffer out front to back: a table comes before everything it references, which
+     * the format allows as offsets only have to point forward. Alignment is relative to the start of the buffer, which
+     * the message framing keeps 8-byte aligned in the stream.
+     */
+    private static class FlatBuffer {
+        private ByteBuffer buffer = littleEndian(256);
+
+        private static byte[] encode(Table root) {
+            FlatBuffer flatBuffer = new FlatBuffer();
+            flatBuffer.reserve(4);
+            int rootPosition = flatBuffer.table(root);
+            flatBuffer.buffer.putInt(0, rootPosition);
+            flatBuffer.padTo(align(flatBuffer.buffer.position(), 8));
+            return Arrays.copyOf(flatBuffer.buffer.array(), flatBuffer.buffer.position());
+        }
+
+        private int table(Table table) {
+            List<Field> fields = new ArrayList<>(table.fields);
+            // largest first, so every field is naturally aligned once the table is
+            fields.sort(Comparator.comparingInt((Field field) -> field.size).reversed());
+            int maxId = fields.stream().mapToInt(field -> field.id).max().orElse(-1);
+            int[] fieldOffsets = new int[maxId + 1];
+            int tableSize = 4;
+            int tableAlignment = 4;
+            for (Field field : fields) {
+                tableSize = align(tableSize, field.size);
+                fieldOffsets[field.id] = tableSize;
+                tableSize += field.size;
+                tableAlignment = Math.max(tableAlignment, field.size);
+            }
+            int vtableSize = 4 + 2 * (maxId + 1);
+            padTo(align(buffer.position(), 2));
+            int vtablePosition = buffer.position();
+            int tablePosition = align(vtablePosition + vtableSize, tableAlignment);
+            reserve(tablePosition + tableSize - vtablePosition);
+            buffer.putShort(vtablePosition, (short) vtableSize);
+            buffer.putShort(vtablePosition + 2, (short) tableSize);
+            for (int id = 0; id <= maxId; id++) {
+                buffer.putShort(vtablePosition + 4 + 2 * id, (short) fieldOffsets[id]);
+            }
+            // soffset from the table back to its vtable
+            buffer.putInt(tablePosition, tablePosition - vtablePosition);
+            for (Field field : fields) {
+                int position = tablePosition + fieldOffsets[field.id];
+                switch (field.size) {
+                    case 1:
+                        buffer.put(position, (byte) field.value);
+                        break;
+                    case 2:
+                        buffer.putShort(position, (short) field.value);
+                        break;
+                    case 4:
+                        buffer.putInt(position, (int) field.value);
+                        break;
+                    default:
+                        buffer.putLong(position, field.value);
+                }
+            }
+            for (Field field : fields) {
+                if (field.reference != null) {
+                    int position = tablePosition + fieldOffsets[field.id];
+                    // encoded first, it may grow and replace the buffer
+                    int target = reference(field.reference);
+                    buffer.putInt(position, target - position);
+                }
+            }
+            return tablePosition;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int reference(Object reference) {
+            if (reference instanceof Table) {
+                return table((Table) reference);
+            }
+            if (reference instanceof String) {
+                byte[] bytes = ((String) reference).getBytes(StandardCharsets.UTF_8);
+                padTo(align(buffer.position(), 4));
+                int position = reserve(4 + bytes.length + 1);
+                buffer.putInt(position, bytes.length);
+                System.arraycopy(bytes, 0, buffer.array(), position + 4, bytes.length);
+                return position;
+            }
+            if (reference instanceof Structs) {
+                Structs structs = (Structs) reference;
+                // the elements after the length must be 8-byte aligned
+                padTo(align(buffer.position() + 4, 8) - 4);
+                int position = reserve(4 + structs.bytes.length);
+                buffer.putInt(position, structs.count);
+                System.arraycopy(structs.bytes, 0, buffer.array(), position + 4, structs.bytes.length);
+                return position;
+            }
+            List<Table> tables = (List<Table>) reference;
+            padTo(align(buffer.position(), 4));
+            int position = reserve(4 + 4 * tables.size());
+            buffer.putInt(position, tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                int slot = position + 4 + 4 * i;
+                int target = table(tables.get(i));
+                buffer.putInt(slot, target - slot);
+            }
+            return position;
+        }
+
+        // zero-filled space at the end of the buffer, returns its position
+        private int reserve(int length) {
+            int position = buffer.position();
+            if (buffer.remaining() < length) {
+                ByteBuffer grown = littleEndian(Math.max(2 * buffer.capacity(), position + length));
+                grown.put(buffer.array(), 0, position);
+                buffer = grown;
+            }
+            buffer.position(position + length);
+            return position;
+        }
+
+        private void padTo(int position) {
+            reserve(position - buffer.position());
+        }
+    }
+}
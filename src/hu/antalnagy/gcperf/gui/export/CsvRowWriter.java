@@ -0,0 +1,68 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV rows, optionally gzipped. The gzip stream is sync-flushed after every row, so a file cut off by a crash still
+ * decompresses up to its last row.
+ */
+final class CsvRowWriter implements RowWriter {
+    private final List<ExportColumn> columns;
+    private final Writer writer;
+    private final StringBuilder row = new StringBuilder();
+
+    CsvRowWriter(OutputStream out, boolean gzip, List<ExportColumn> columns) throws IOException {
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(gzip ? new GZIPOutputStream(out, true) : out,
+                StandardCharsets.UTF_8));
+        for (int i = 0; i < columns.size(); i++) {
+            row.append(i == 0 ? "" : ",").append(columns.get(i).getName());
+        }
+        writer.append(row).append("\n");
+        writer.flush();
+    }
+
+    @Override
+    public void write(TrialResult result) throws IOException {
+        row.setLength(0);
+        for (int i = 0; i < columns.size(); i++) {
+            ExportColumn column = columns.get(i);
+            row.append(i == 0 ? "" : ",");
+            switch (column.getType()) {
+                case INT:
+                    row.append(column.intValue(result));
+                    break;
+                case DOUBLE:
+                    row.append(column.doubleValue(result));
+                    break;
+                default:
+                    appendQuoted(column.stringValue(result));
+            }
+        }
+        writer.append(row).append("\n");
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // VM options may hold commas, e.g. -Xlog selectors
+    private void appendQuoted(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            row.append(value);
+            return;
+        }
+        row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
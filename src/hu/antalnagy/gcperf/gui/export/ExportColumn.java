@@ -0,0 +1,92 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A typed column of the exported run rows.
+ */
+final class ExportColumn {
+    enum Type {
+        INT, DOUBLE, STRING
+    }
+
+    private final String name;
+    private final Type type;
+    private final ToIntFunction<TrialResult> intValue;
+    private final ToDoubleFunction<TrialResult> doubleValue;
+    private final Function<TrialResult, String> stringValue;
+
+    private ExportColumn(String name, Type type, ToIntFunction<TrialResult> intValue,
+                         ToDoubleFunction<TrialResult> doubleValue, Function<TrialResult, String> stringValue) {
+        this.name = name;
+        this.type = type;
+        this.intValue = intValue;
+        this.doubleValue = doubleValue;
+        this.stringValue = stringValue;
+    }
+
+    /**
+     * The columns of the former results CSV first, so readers addressing them by position keep working, then the heap
+     * sizes, runtimes and VM options of the run.
+     */
+    static List<ExportColumn> forPercentiles(double[] percentiles) {
+        List<ExportColumn> columns = new ArrayList<>();
+        columns.add(ofString("GCType", result -> result.getGcType().name()));
+        columns.add(ofInt("RunNo", result -> result.getRunNo() + 1));
+        columns.add(ofDouble("GCRuntime(sec)", TrialResult::getGcRuntime));
+        columns.add(ofDouble("Throughput(%)", TrialResult::getThroughput));
+        columns.add(ofInt("FullPauses", TrialResult::getFullPauses));
+        columns.add(ofInt("MinorPauses", TrialResult::getMinorPauses));
+        for (double percentile : percentiles) {
+            columns.add(ofDouble(LatencyRanking.columnName(percentile).toUpperCase(Locale.ROOT) + "(ms)",
+                    result -> result.getPauseHistogram().getValueAtPercentile(percentile)));
+        }
+        columns.add(ofDouble("MaxPause(ms)", result -> result.getPauseHistogram().getMax()));
+        columns.add(ofInt("Xms(MB)", result -> result.getTrial().getXms()));
+        columns.add(ofInt("Xmx(MB)", result -> result.getTrial().getXmx()));
+        columns.add(ofDouble("Runtime(sec)", TrialResult::getRuntime));
+        columns.add(ofDouble("STWTime(sec)", TrialResult::getStwTime));
+        columns.add(ofString("VMOptions", result -> String.join(" ", result.getTrial().getVmOptions())));
+        return columns;
+    }
+
+    private static ExportColumn ofInt(String name, ToIntFunction<TrialResult> value) {
+        return new ExportColumn(name, Type.INT, value, null, null);
+    }
+
+    private static ExportColumn ofDouble(String name, ToDoubleFunction<TrialResult> value) {
+        return new ExportColumn(name, Type.DOUBLE, null, value, null);
+    }
+
+    private static ExportColumn ofString(String name, Function<TrialResult, String> value) {
+        return new ExportColumn(name, Type.STRING, null, null, value);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    int intValue(TrialResult result) {
+        return intValue.applyAsInt(result);
+    }
+
+    double doubleValue(TrialResult result) {
+        return doubleValue.applyAsDouble(result);
+    }
+
+    String stringValue(TrialResult result) {
+        return stringValue.apply(result);
+    }
+}
@@ -0,0 +1,51 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import java.util.Locale;
+
+/**
+ * File formats the runs of an analysis can be streamed to, see {@link RunExporter}.
+ */
+public enum ExportFormat {
+    CSV("csv", "CSV"),
+    CSV_GZIP("csv.gz", "CSV (gzip)"),
+    /**
+     * Arrow IPC stream, e.g. pyarrow.ipc.open_stream(path).read_all().to_pandas().
+     */
+    ARROW("arrows", "Arrow IPC stream");
+
+    private final String extension;
+    private final String displayName;
+
+    ExportFormat(String extension, String displayName) {
+        this.extension = extension;
+        this.displayName = displayName;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Accepts csv, csv.gz (or gzip) and arrow (or arrows), case-insensitive.
+     */
+    public static ExportFormat parse(String format) {
+        switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "csv.gz":
+            case "gzip":
+                return CSV_GZIP;
+            case "arrow":
+            case "arrows":
+                return ARROW;
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + format + ", expected csv, csv.gz or "
+                        + "arrow");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
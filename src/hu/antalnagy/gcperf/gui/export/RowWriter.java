@@ -0,0 +1,14 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes one row per run and flushes it before returning.
+ */
+interface RowWriter extends Closeable {
+
+    void write(TrialResult result) throws IOException;
+}
@@ -0,0 +1,91 @@
+package hu.antalnagy.gcperf.gui.export;
+
+import hu.antalnagy.gcperf.gui.trial.TrialListener;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streams every completed run of an analysis to a file as soon as it finishes, so the runs finished before a crash or
+ * an interrupted analysis are kept. Rows are in completion order, failed runs are left out. A write error is logged
+ * once and stops the export without failing the analysis.
+ */
+public class RunExporter implements TrialListener, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(RunExporter.class.getSimpleName());
+    /**
+     * Pause percentiles exported by heap searches and option sweeps, which configure none.
+     */
+    public static final double[] DEFAULT_PERCENTILES = {50, 99, 99.9};
+
+    private final Path path;
+    private RowWriter rowWriter;
+
+    private RunExporter(Path path, RowWriter rowWriter) {
+        this.path = path;
+        this.rowWriter = rowWriter;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Creates or replaces baseName plus the format's extension in the directory and writes its header.
+     */
+    public static RunExporter open(Path directory, String baseName, ExportFormat format, double[] percentiles)
+            throws IOException {
+        Path path = directory.resolve(baseName + "." + format.getExtension());
+        List<ExportColumn> columns = ExportColumn.forPercentiles(percentiles.clone());
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path));
+        try {
+            RowWriter rowWriter = format == ExportFormat.ARROW ? new ArrowStreamWriter(out, columns)
+                    : new CsvRowWriter(out, format == ExportFormat.CSV_GZIP, columns);
+            return new RunExporter(path, rowWriter);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void runFinished(TrialResult result) {
+        if (rowWriter == null || result.isFailed()) {
+            return;
+        }
+        try {
+            rowWriter.write(result);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Exporting runs to " + path + " failed, stopping the export", e);
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (rowWriter != null) {
+            RowWriter closing = rowWriter;
+            rowWriter = null;
+            closing.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Closing " + path + " failed");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package hu.antalnagy.gcperf.gui.history;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.persistence.AnalysisRow;
+import hu.antalnagy.gcperf.gui.persistence.HistoryFilter;
+import hu.antalnagy.gcperf.gui.persistence.ResultStore;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Browses the stored analyses one page at a time. Filtering happens in the database and pages are fetched by keyset,
+ * so only the rows of the visible page are ever loaded, and the table only draws the cells on screen.
+ */
+public class HistoryBrowser {
+    private static final int PAGE_SIZE = 50;
+
+    private final ResultStore resultStore;
+    private final VBox root = new VBox(10);
+    private final TextField fileName = new TextField();
+    private final DatePicker from = new DatePicker();
+    private final DatePicker to = new DatePicker();
+    private final ComboBox<GCType> winner = new ComboBox<>();
+    private final Button applyButton = new Button("Apply Filter");
+    private final TableView<AnalysisRow> table = new TableView<>();
+    private final Button previousButton = new Button("< Previous");
+    private final Button nextButton = new Button("Next >");
+    private final Label pageLabel = new Label();
+    // keyset cursor of every page visited so far, null for the first page
+    private final List<Integer> pageCursors = new ArrayList<>();
+    private HistoryFilter filter = HistoryFilter.none();
+    private int page;
+    private boolean hasNextPage;
+
+    public HistoryBrowser(ResultStore resultStore) {
+        this.resultStore = resultStore;
+        fileName.setPromptText("File name prefix");
+        from.setPromptText("From");
+        to.setPromptText("To");
+        List<GCType> winners = new ArrayList<>();
+        winners.add(null);
+        winners.addAll(Arrays.asList(GCType.values()));
+        winner.getItems().setAll(winners);
+        winner.setPromptText("Any winner");
+
+        table.getColumns().add(column("File Name", AnalysisRow::getFileName));
+        for (GCType gcType : GCType.values()) {
+            table.getColumns().add(column(gcType.name(), row -> row.getPosition(gcType)));
+        }
+        table.getColumns().add(column("Winner", row -> row.getWinner() == null ? "" : row.getWinner().name()));
+        table.getColumns().add(column("Date", AnalysisRow::getDateCreated));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label("No results stored yet"));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        applyButton.setOnAction(e -> reload());
+        previousButton.setOnAction(e -> loadPage(page - 1));
+        nextButton.setOnAction(e -> loadPage(page + 1));
+
+        HBox filterBar = new HBox(10, fileName, from, to, winner, applyButton);
+        HBox pager = new HBox(10, previousButton, pageLabel, nextButton);
+        root.setPadding(new Insets(15));
+        root.getChildren().addAll(filterBar, table, pager);
+    }
+
+    public Node getNode() {
+        return root;
+    }
+
+    /**
+     * Applies the current filter and shows its first page.
+     */
+    public void reload() {
+        filter = new HistoryFilter(fileName.getText(), startOf(from.getValue()),
+                to.getValue() == null ? null : startOf(to.getValue().plusDays(1)), winner.getValue());
+        pageCursors.clear();
+        pageCursors.add(null);
+        loadPage(0);
+    }
+
+    private void loadPage(int requestedPage) {
+        setLoading(true);
+        HistoryFilter requestedFilter = filter;
+        // one row more than shown tells whether there is a next page
+        resultStore.queryHistoryPage(requestedFilter, pageCursors.get(requestedPage), PAGE_SIZE + 1)
+                .whenComplete((rows, exception) -> Platform.runLater(() -> {
+                    if (requestedFilter != filter) {
+                        return;
+                    }
+                    if (exception != null) {
+                        table.getItems().clear();
+                        pageLabel.setText("Loading results from the database failed");
+                        hasNextPage = false;
+                    } else {
+                        page = requestedPage;
+                        hasNextPage = rows.size() > PAGE_SIZE;
+                        List<AnalysisRow> visible = hasNextPage ? rows.subList(0, PAGE_SIZE) : rows;
+                        table.getItems().setAll(visible);
+                        if (hasNextPage && pageCursors.size() == page + 1) {
+                            pageCursors.add(visible.get(visible.size() - 1).getStatId());
+                        }
+                        pageLabel.setText("Page " + (page + 1));
+                    }
+                    setLoading(false);
+                }));
+    }
+
+    private void setLoading(boolean loading) {
+        applyButton.setDisable(loading);
+        previousButton.setDisable(loading || page == 0);
+        nextButton.setDisable(loading || !hasNextPage);
+    }
+
+    private static Timestamp startOf(LocalDate date) {
+        return date == null ? null : Timestamp.valueOf(date.atStartOfDay());
+    }
+
+    private static <T> TableColumn<AnalysisRow, T> column(String title, Function<AnalysisRow, T> value) {
+        TableColumn<AnalysisRow, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+}
@@ -0,0 +1,98 @@
+package hu.antalnagy.gcperf.gui.log;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a {@link LogTailer} on a background thread while an analysis runs and queues the new lines. The callback is
+ * only invoked when a poll actually produced lines, the consumer collects them with {@link #drain()}. The queue holds
+ * at most as many lines as the view shows, a consumer falling behind loses the oldest.
+ */
+public class LogFollower {
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-follower");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int capacity;
+    private final Deque<String> pendingLines = new ArrayDeque<>();
+    private ScheduledFuture<?> pollTask;
+    private LogTailer tailer;
+    private Runnable onNewLines;
+
+    public LogFollower(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void start(Path logPath, Path outPath, Runnable onNewLines) {
+        stop();
+        synchronized (pendingLines) {
+            pendingLines.clear();
+        }
+        LogTailer logTailer = new LogTailer(logPath, outPath, capacity);
+        tailer = logTailer;
+        this.onNewLines = onNewLines;
+        // the first poll waits for the analysis to recreate the log
+        pollTask = executor.scheduleWithFixedDelay(() -> poll(logTailer, onNewLines), POLL_INTERVAL_MILLIS,
+                POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops following after one last poll, so lines written right before the analysis ended are not lost.
+     */
+    public synchronized void stop() {
+        if (pollTask == null) {
+            return;
+        }
+        pollTask.cancel(false);
+        pollTask = null;
+        LogTailer logTailer = tailer;
+        Runnable callback = onNewLines;
+        executor.execute(() -> poll(logTailer, callback));
+    }
+
+    /**
+     * The run writing to the out file has finished, so it is not followed any longer once its last lines are read.
+     */
+    public synchronized void outFileFinished(Path outFile) {
+        if (tailer != null) {
+            tailer.outFileFinished(outFile);
+        }
+    }
+
+    public List<String> drain() {
+        synchronized (pendingLines) {
+            List<String> lines = new ArrayList<>(pendingLines);
+            pendingLines.clear();
+            return lines;
+        }
+    }
+
+    private void poll(LogTailer tailer, Runnable onNewLines) {
+        List<String> lines = tailer.poll();
+        if (lines.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLines) {
+            for (String line : lines) {
+                if (pendingLines.size() == capacity) {
+                    pendingLines.removeFirst();
+                }
+                pendingLines.addLast(line);
+            }
+        }
+        onNewLines.run();
+    }
+}
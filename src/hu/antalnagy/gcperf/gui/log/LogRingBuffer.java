@@ -0,0 +1,82 @@
+package hu.antalnagy.gcperf.gui.log;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed capacity observable list of log lines. Appending past the capacity drops the oldest lines, so a ListView
+ * backed by it only ever holds the most recent lines and renders just the visible cells.
+ */
+public class LogRingBuffer extends ObservableListBase<String> {
+    private final String[] lines;
+    private int head = 0;
+    private int size = 0;
+
+    public LogRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.lines = new String[capacity];
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    public void append(List<String> newLines) {
+        if (newLines.isEmpty()) {
+            return;
+        }
+        List<String> incoming = newLines.size() > lines.length
+                ? newLines.subList(newLines.size() - lines.length, newLines.size()) : newLines;
+        int overflow = Math.max(0, size + incoming.size() - lines.length);
+        beginChange();
+        if (overflow > 0) {
+            List<String> removed = new ArrayList<>(overflow);
+            for (int i = 0; i < overflow; i++) {
+                int idx = (head + i) % lines.length;
+                removed.add(lines[idx]);
+                lines[idx] = null;
+            }
+            head = (head + overflow) % lines.length;
+            size -= overflow;
+            nextRemove(0, removed);
+        }
+        int from = size;
+        for (String line : incoming) {
+            lines[(head + size) % lines.length] = line;
+            size++;
+        }
+        nextAdd(from, size);
+        endChange();
+    }
+
+    public void reset() {
+        if (size == 0) {
+            return;
+        }
+        List<String> removed = new ArrayList<>(this);
+        Arrays.fill(lines, null);
+        head = 0;
+        size = 0;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+}
@@ -0,0 +1,171 @@
+package hu.antalnagy.gcperf.gui.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Follows the driver log and the GC output files of the child JVMs with one file-position cursor per file. Each poll
+ * only reads the bytes appended since the previous poll and returns the completed lines; a trailing partial line is
+ * kept until its line break arrives. A poll reads at most {@link #MAX_BYTES_PER_POLL} of a file and returns at most
+ * maxLines lines, the older ones are skipped. The cursor of a finished run's out file is dropped after its last read.
+ */
+public class LogTailer {
+    private static final Logger LOGGER = Logger.getLogger(LogTailer.class.getSimpleName());
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_BYTES_PER_POLL = 256 * 1024;
+    private static final int MAX_LINE_BYTES = 4 * 1024;
+
+    private final Path outPath;
+    private final int maxLines;
+    private final long startedAt;
+    private final Map<Path, Cursor> cursors = new LinkedHashMap<>();
+    private final Set<Path> finishedOutFiles = ConcurrentHashMap.newKeySet();
+    private final Set<Path> droppedOutFiles = new HashSet<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    public LogTailer(Path logPath, Path outPath, int maxLines) {
+        this.outPath = outPath;
+        this.maxLines = maxLines;
+        // out files of earlier analyses are left alone, the second granularity of some file systems is allowed for
+        this.startedAt = System.currentTimeMillis() / 1000 * 1000;
+        cursors.put(logPath, new Cursor(""));
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * The run writing to the out file has finished, the next poll reads the file for the last time. May be called from
+     * any thread.
+     */
+    public void outFileFinished(Path outFile) {
+        finishedOutFiles.add(outFile.toAbsolutePath());
+    }
+
+    public List<String> poll() {
+        discoverOutFiles();
+        Deque<String> lines = new ArrayDeque<>();
+        for (Map.Entry<Path, Cursor> entry : cursors.entrySet()) {
+            try {
+                readNewLines(entry.getKey(), entry.getValue(), lines);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Couldn't tail " + entry.getKey().getFileName() + ": " + e.getMessage());
+            }
+        }
+        cursors.keySet().removeIf(file -> finishedOutFiles.contains(file) && droppedOutFiles.add(file));
+        return new ArrayList<>(lines);
+    }
+
+    private void discoverOutFiles() {
+        if (!Files.isDirectory(outPath)) {
+            return;
+        }
+        List<Path> newFiles = new ArrayList<>();
+        try (DirectoryStream<Path> outFiles = Files.newDirectoryStream(outPath, "out*.txt")) {
+            for (Path outFile : outFiles) {
+                if (!cursors.containsKey(outFile) && !droppedOutFiles.contains(outFile)
+                        && Files.getLastModifiedTime(outFile).toMillis() >= startedAt) {
+                    newFiles.add(outFile);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Couldn't list " + outPath + ": " + e.getMessage());
+        }
+        newFiles.sort(Comparator.comparingInt(LogTailer::outFileNo));
+        newFiles.forEach(outFile -> cursors.put(outFile, new Cursor("[" + outFile.getFileName() + "] ")));
+    }
+
+    private void readNewLines(Path file, Cursor cursor, Deque<String> lines) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long size = Files.size(file);
+        if (size < cursor.position) {
+            cursor.position = 0;
+            cursor.partialLine.reset();
+        }
+        if (size == cursor.position) {
+            return;
+        }
+        // only the tail of a burst is read, starting with its first complete line
+        if (size - cursor.position > MAX_BYTES_PER_POLL) {
+            addLine(lines, cursor.prefix + "... " + (size - MAX_BYTES_PER_POLL - cursor.position) + " bytes skipped");
+            cursor.position = size - MAX_BYTES_PER_POLL;
+            cursor.partialLine.reset();
+            cursor.skipLine = true;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(cursor.position);
+            buffer.clear();
+            int read;
+            while (cursor.position < size && (read = channel.read(buffer)) > 0) {
+                cursor.position += read;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        if (!cursor.skipLine) {
+                            addLine(lines, cursor.prefix + cursor.partialLine.toString(Charset.defaultCharset()));
+                        }
+                        cursor.partialLine.reset();
+                        cursor.skipLine = false;
+                    } else if (b != '\r' && !cursor.skipLine) {
+                        cursor.partialLine.write(b);
+                        if (cursor.partialLine.size() >= MAX_LINE_BYTES) {
+                            addLine(lines, cursor.prefix + cursor.partialLine.toString(Charset.defaultCharset()));
+                            cursor.partialLine.reset();
+                        }
+                    }
+                }
+                buffer.clear();
+            }
+        }
+    }
+
+    private void addLine(Deque<String> lines, String line) {
+        if (lines.size() == maxLines) {
+            lines.removeFirst();
+        }
+        lines.addLast(line);
+    }
+
+    private static int outFileNo(Path outFile) {
+        String name = outFile.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring("out".length(), name.length() - ".txt".length()));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static class Cursor {
+        private final String prefix;
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream(256);
+        private long position;
+        private boolean skipLine;
+
+        private Cursor(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+}
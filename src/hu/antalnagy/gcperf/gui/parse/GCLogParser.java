@@ -0,0 +1,299 @@
+package hu.antalnagy.gcperf.gui.parse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single-pass parser for the -Xlog output of a child JVM. The file is streamed through one reusable buffer and each
+ * line is classified with plain substring checks, so memory use does not depend on the size of the log.
+ */
+public class GCLogParser {
+    private static final Logger LOGGER = Logger.getLogger(GCLogParser.class.getSimpleName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Printed by the steady-state harness between the warm-up and the measured iterations. The lines after it are
+     * summarized apart from the warm-up, see {@link GCLogSummary#getWarmUp()}.
+     */
+    public static final String STEADY_STATE_MARKER = "[gcperf,steady]";
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(512);
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public GCLogSummary parse(Path logFile) throws IOException {
+        GCLogSummary summary = new GCLogSummary();
+        line.setLength(0);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        summary = acceptLine(summary);
+                    } else if (b != '\r') {
+                        line.append((char) (b & 0xFF));
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        if (line.length() > 0) {
+            summary = acceptLine(summary);
+        }
+        return summary;
+    }
+
+    private GCLogSummary acceptLine(GCLogSummary summary) {
+        summary.lines++;
+        if (summary.warmUp == null && indexOf(line, STEADY_STATE_MARKER, 0) >= 0) {
+            summary = startSteadyState(line, summary);
+        } else {
+            parseLine(line, summary);
+        }
+        line.setLength(0);
+        return summary;
+    }
+
+    // "[12.345s][gcperf,steady] iterations=12 steady=true"
+    static GCLogSummary startSteadyState(CharSequence line, GCLogSummary warmUp) {
+        GCLogSummary steadyState = new GCLogSummary();
+        steadyState.warmUp = warmUp;
+        steadyState.lines = warmUp.lines;
+        String text = line.toString();
+        int end = text.indexOf("s]");
+        int iterations = text.indexOf("iterations=");
+        try {
+            steadyState.steadyStateStart = Double.parseDouble(text.substring(text.indexOf('[') + 1, end));
+            steadyState.warmUpIterations = Integer.parseInt(text.substring(iterations + "iterations=".length(),
+                    text.indexOf(' ', iterations)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            LOGGER.log(Level.SEVERE, "Couldn't parse steady-state marker: " + text);
+        }
+        steadyState.steadyStateReached = text.contains("steady=true");
+        return steadyState;
+    }
+
+    static void parseLine(CharSequence line, GCLogSummary summary) {
+        boolean pause = indexOf(line, "Pause", 0) >= 0;
+        boolean gcTag = indexOf(line, "[gc", 0) >= 0;
+        if (pause) {
+            summary.pauseLines++;
+            if (indexOf(line, "Pause Full", 0) >= 0) {
+                summary.pauseFullLines++;
+            }
+            if (indexOf(line, "[gc,stats", 0) < 0) {
+                summary.pauseWithoutStatsLines++;
+            }
+        }
+        if (gcTag) {
+            int plainGcTag = plainGcTagEnd(line);
+            if (plainGcTag >= 0) {
+                if (indexOf(line, "Pause", plainGcTag) >= 0) {
+                    double millis = sumMillis(line);
+                    summary.gcPauseLines++;
+                    summary.pauseMillis += millis;
+                    summary.gcPauseDurations.record(millis);
+                }
+                if (isConcurrentCycle(line, plainGcTag)) {
+                    summary.concurrentCycleMillis += sumMillis(line);
+                }
+            }
+            if (indexOf(line, "[gc,start", 0) >= 0) {
+                summary.gcStartLines++;
+            }
+            if (indexOf(line, "[gc,cpu", 0) >= 0) {
+                summary.cpuRealSeconds += sumRealSeconds(line);
+            }
+            if (indexOf(line, "[gc,phases", 0) >= 0) {
+                double millis = sumMillis(line);
+                summary.phasesMillis += millis;
+                if (pause) {
+                    summary.phasesPauseMillis += millis;
+                    summary.phasesPauseDurations.record(millis);
+                }
+            }
+        }
+        if (hasGcFollowedByWhitespace(line)) {
+            int gcIdEnd = gcIdEnd(line);
+            if (gcIdEnd >= 0) {
+                double millis = sumMillis(line);
+                summary.shenandoahMillis += millis;
+                if (startsWith(line, " Pause", gcIdEnd)) {
+                    summary.shenandoahPauseMillis += millis;
+                    summary.shenandoahPauseDurations.record(millis);
+                }
+            }
+        }
+        if (indexOf(line, "Full GCs", 0) >= 0) {
+            int fullGCs = parseShenandoahFullGCs(line.toString());
+            if (fullGCs >= 0) {
+                summary.shenandoahFullGCs = fullGCs;
+            }
+        }
+        if (indexOf(line, "[os,thread", 0) >= 0) {
+            int end = indexOf(line, "s]", 0);
+            if (end > 1) {
+                try {
+                    summary.lastThreadExit = Double.parseDouble(line.subSequence(1, end).toString());
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.SEVERE, "Couldn't parse timestamp: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // end index of the first "[gc *]" tag, -1 if there is none
+    private static int plainGcTagEnd(CharSequence line) {
+        int from = 0;
+        int idx;
+        while ((idx = indexOf(line, "[gc", from)) >= 0) {
+            int i = idx + 3;
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < line.length() && line.charAt(i) == ']') {
+                return i + 1;
+            }
+            from = idx + 1;
+        }
+        return -1;
+    }
+
+    private static boolean isConcurrentCycle(CharSequence line, int from) {
+        String marker = "Concurrent Cycle ";
+        int idx = from;
+        while ((idx = indexOf(line, marker, idx)) >= 0) {
+            int digit = idx + marker.length();
+            if (digit < line.length() && Character.isDigit(line.charAt(digit))) {
+                return true;
+            }
+            idx++;
+        }
+        return false;
+    }
+
+    private static boolean hasGcFollowedByWhitespace(CharSequence line) {
+        int idx = 0;
+        while ((idx = indexOf(line, "gc", idx)) >= 0) {
+            int next = idx + 2;
+            if (next < line.length() && Character.isWhitespace(line.charAt(next))) {
+                return true;
+            }
+            idx++;
+        }
+        return false;
+    }
+
+    // end index of the first "GC(<digits>)", -1 if there is none
+    private static int gcIdEnd(CharSequence line) {
+        int idx = 0;
+        while ((idx = indexOf(line, "GC(", idx)) >= 0) {
+            int i = idx + 3;
+            int digitsStart = i;
+            while (i < line.length() && Character.isDigit(line.charAt(i))) {
+                i++;
+            }
+            if (i > digitsStart && i < line.length() && line.charAt(i) == ')') {
+                return i + 1;
+            }
+            idx++;
+        }
+        return -1;
+    }
+
+    private static double sumMillis(CharSequence line) {
+        double sum = 0;
+        int length = line.length();
+        int start = 0;
+        while (start <= length) {
+            int end = start;
+            while (end < length && line.charAt(end) != ' ') {
+                end++;
+            }
+            if (containsMillisUnit(line, start, end)) {
+                sum += parseOrZero(line.subSequence(start, end - 2));
+            }
+            start = end + 1;
+        }
+        return sum;
+    }
+
+    private static boolean containsMillisUnit(CharSequence line, int start, int end) {
+        for (int i = start; i < end - 1; i++) {
+            if (line.charAt(i) == 'm' && line.charAt(i + 1) == 's') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double sumRealSeconds(CharSequence line) {
+        double sum = 0;
+        int idx = 0;
+        while ((idx = indexOf(line, "Real=", idx)) >= 0) {
+            int end = idx;
+            while (end < line.length() && line.charAt(end) != ' ') {
+                end++;
+            }
+            if (end - idx > 6) {
+                sum += parseOrZero(line.subSequence(idx + 5, end - 1));
+            }
+            idx = end;
+        }
+        return sum;
+    }
+
+    private static int parseShenandoahFullGCs(String line) {
+        String[] tokens = line.split(" ");
+        for (int i = 0; i < tokens.length - 1; i++) {
+            if (tokens[i + 1].equals("Full")) {
+                try {
+                    return Integer.parseInt(tokens[i]);
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.SEVERE, "Couldn't parse full pauses: " + e.getMessage());
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static double parseOrZero(CharSequence number) {
+        try {
+            return Double.parseDouble(number.toString());
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.SEVERE, "Couldn't parse real seconds: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static boolean startsWith(CharSequence line, String prefix, int from) {
+        if (from + prefix.length() > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(from + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(CharSequence line, String target, int from) {
+        int last = line.length() - target.length();
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            if (startsWith(line, target, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
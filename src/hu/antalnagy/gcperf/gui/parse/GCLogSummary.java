@@ -0,0 +1,149 @@
+package hu.antalnagy.gcperf.gui.parse;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+
+/**
+ * Primitive accumulators filled by {@link GCLogParser} in a single pass. The derived metrics follow the same rules as
+ * Analysis.yieldGCTimeFromSource, yieldSTWTimeFromSource and yieldNoOfPauses in the driver. The summary of a
+ * steady-state run covers the measured iterations only and holds the warm-up as a summary of its own.
+ */
+public class GCLogSummary {
+    double cpuRealSeconds;
+    double pauseMillis;
+    double concurrentCycleMillis;
+    double phasesMillis;
+    double phasesPauseMillis;
+    double shenandoahMillis;
+    double shenandoahPauseMillis;
+    int pauseLines;
+    int pauseFullLines;
+    int gcPauseLines;
+    int gcStartLines;
+    int pauseWithoutStatsLines;
+    int shenandoahFullGCs;
+    double lastThreadExit;
+    long lines;
+    GCLogSummary warmUp;
+    double steadyStateStart;
+    int warmUpIterations;
+    boolean steadyStateReached;
+    final PauseHistogram gcPauseDurations = new PauseHistogram();
+    final PauseHistogram phasesPauseDurations = new PauseHistogram();
+    final PauseHistogram shenandoahPauseDurations = new PauseHistogram();
+
+    public double getGCRuntime(GCType gcType) {
+        switch (gcType) {
+            case SERIAL:
+            case PARALLEL:
+                return round(cpuRealSeconds);
+            case G1:
+                return round(pauseMillis) / 1000 + round(concurrentCycleMillis) / 1000;
+            case ZGC:
+                return round(phasesMillis) / 1000;
+            case SHENANDOAH:
+                return round(shenandoahMillis) / 1000;
+            default:
+                return 0;
+        }
+    }
+
+    public double getSTWTime(GCType gcType) {
+        switch (gcType) {
+            case SERIAL:
+            case PARALLEL:
+                return getGCRuntime(gcType);
+            case G1:
+                return round(pauseMillis) / 1000;
+            case ZGC:
+                return round(phasesPauseMillis) / 1000;
+            case SHENANDOAH:
+                return round(shenandoahPauseMillis) / 1000;
+            default:
+                return 0;
+        }
+    }
+
+    public int getFullPauses(GCType gcType) {
+        return gcType == GCType.SHENANDOAH ? shenandoahFullGCs : pauseFullLines / 2;
+    }
+
+    public int getMinorPauses(GCType gcType) {
+        int allPauses;
+        switch (gcType) {
+            case SERIAL:
+            case PARALLEL:
+                allPauses = pauseLines / 2;
+                break;
+            case G1:
+                allPauses = gcPauseLines;
+                break;
+            case ZGC:
+                allPauses = gcStartLines;
+                break;
+            default:
+                allPauses = pauseWithoutStatsLines;
+        }
+        return allPauses - getFullPauses(gcType);
+    }
+
+    /**
+     * Histogram of the individual stop-the-world pauses. Serial, Parallel and G1 take the ms-precision durations of the
+     * [gc] pause lines; the [gc,cpu] Real= times only have a resolution of 10 ms.
+     */
+    public PauseHistogram getPauseHistogram(GCType gcType) {
+        switch (gcType) {
+            case SERIAL:
+            case PARALLEL:
+            case G1:
+                return gcPauseDurations;
+            case ZGC:
+                return phasesPauseDurations;
+            case SHENANDOAH:
+                return shenandoahPauseDurations;
+            default:
+                return new PauseHistogram();
+        }
+    }
+
+    public double getLastThreadExit() {
+        return lastThreadExit;
+    }
+
+    /**
+     * Runtime of the logged window: the whole run, or the measured iterations of a steady-state run.
+     */
+    public double getMeasuredRuntime() {
+        return warmUp == null ? lastThreadExit : Math.max(0, lastThreadExit - steadyStateStart);
+    }
+
+    /**
+     * Summary of the log before the steady-state marker, null if the run had none.
+     */
+    public GCLogSummary getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * JVM uptime in seconds when the measured iterations started.
+     */
+    public double getSteadyStateStart() {
+        return steadyStateStart;
+    }
+
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    public boolean isSteadyStateReached() {
+        return steadyStateReached;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,132 @@
+package hu.antalnagy.gcperf.gui.parse;
+
+import jdk.jfr.consumer.EventStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Streams the flight recording of a finished child run with {@link EventStream#openFile}. The run records with
+ * {@link #SETTINGS}, which enables only the few GC and safepoint events read here, so recording costs little and the
+ * file stays small. Unlike the -Xlog text, the events are the same across collectors and JDK versions.
+ */
+public class JfrTelemetryParser {
+    public static final String SETTINGS_FILE = "gcperf-telemetry.jfc";
+    static final String SETTINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<configuration version=\"2.0\" label=\"GCPerf telemetry\">\n"
+            + event("jdk.JVMInformation", "<setting name=\"period\">beginChunk</setting>")
+            + event("jdk.GarbageCollection", "<setting name=\"threshold\">0 ms</setting>")
+            + event("jdk.GCHeapSummary", "")
+            + event("jdk.GCPhasePause", "<setting name=\"threshold\">0 ms</setting>")
+            + event("jdk.SafepointBegin", "<setting name=\"threshold\">0 ms</setting>")
+            + "</configuration>\n";
+    private static final Set<String> YOUNG_COLLECTORS = Set.of("DefNew", "ParNew", "ParallelScavenge", "G1New");
+    private static final double MB = 1024 * 1024;
+
+    /**
+     * Writes the recording settings into the directory, for -XX:StartFlightRecording of the child runs.
+     */
+    public static Path writeSettings(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return Files.writeString(directory.resolve(SETTINGS_FILE), SETTINGS, StandardCharsets.UTF_8);
+    }
+
+    public RunTelemetry parse(Path recording) throws IOException {
+        RunTelemetry telemetry = new RunTelemetry();
+        // per GC id: start, end, name, heap used before and after
+        TreeMap<Long, Instant> starts = new TreeMap<>();
+        TreeMap<Long, Instant> ends = new TreeMap<>();
+        TreeMap<Long, String> names = new TreeMap<>();
+        TreeMap<Long, Long> usedBefore = new TreeMap<>();
+        TreeMap<Long, Long> usedAfter = new TreeMap<>();
+        List<Map.Entry<Instant, Double>> pauses = new ArrayList<>();
+        Instant[] jvmStart = {null};
+        Instant[] firstEvent = {null};
+        try (EventStream stream = EventStream.openFile(recording)) {
+            stream.onEvent(event -> {
+                if (firstEvent[0] == null || event.getStartTime().isBefore(firstEvent[0])) {
+                    firstEvent[0] = event.getStartTime();
+                }
+            });
+            stream.onEvent("jdk.JVMInformation", event -> jvmStart[0] = event.getInstant("jvmStartTime"));
+            stream.onEvent("jdk.GarbageCollection", event -> {
+                starts.put(event.getLong("gcId"), event.getStartTime());
+                ends.put(event.getLong("gcId"), event.getEndTime());
+                names.put(event.getLong("gcId"), event.getString("name"));
+            });
+            stream.onEvent("jdk.GCHeapSummary", event -> ("Before GC".equals(event.getString("when")) ? usedBefore
+                    : usedAfter).put(event.getLong("gcId"), event.getLong("heapUsed")));
+            stream.onEvent("jdk.GCPhasePause", event -> pauses.add(Map.entry(event.getStartTime(),
+                    millis(event.getDuration()))));
+            stream.onEvent("jdk.SafepointBegin", event -> {
+                double millis = millis(event.getDuration());
+                telemetry.safepoints++;
+                telemetry.timeToSafepointMillis += millis;
+                telemetry.maxTimeToSafepointMillis = Math.max(telemetry.maxTimeToSafepointMillis, millis);
+            });
+            stream.start();
+        }
+        if (firstEvent[0] == null) {
+            throw new IOException("Empty flight recording: " + recording);
+        }
+        Instant origin = jvmStart[0] != null ? jvmStart[0] : firstEvent[0];
+        pauses.sort(Map.Entry.comparingByKey());
+        for (Map.Entry<Instant, Double> pause : pauses) {
+            telemetry.pauses.add(new RunTelemetry.Sample(seconds(origin, pause.getKey()), pause.getValue()));
+            telemetry.pauseHistogram.record(pause.getValue());
+        }
+
+        long previousUsed = 0;
+        Instant previousEnd = origin;
+        for (Long gcId : starts.keySet()) {
+            Instant start = starts.get(gcId);
+            Long before = usedBefore.get(gcId);
+            Long after = usedAfter.get(gcId);
+            telemetry.collections++;
+            boolean young = YOUNG_COLLECTORS.contains(names.get(gcId));
+            if (young) {
+                telemetry.youngCollections++;
+            }
+            if (before != null) {
+                double allocatedMB = Math.max(0, before - previousUsed) / MB;
+                telemetry.allocatedMB += allocatedMB;
+                double interval = seconds(previousEnd, start);
+                if (interval > 0) {
+                    telemetry.allocationRates.add(new RunTelemetry.Sample(seconds(origin, start),
+                            allocatedMB / interval));
+                }
+            }
+            if (after != null) {
+                telemetry.heapAfterGC.add(new RunTelemetry.Sample(seconds(origin, ends.get(gcId)), after / MB));
+                if (young) {
+                    telemetry.promotedMB += Math.max(0, after - previousUsed) / MB;
+                }
+                previousUsed = after;
+            }
+            previousEnd = ends.get(gcId);
+            telemetry.spanSeconds = seconds(origin, start);
+        }
+        return telemetry;
+    }
+
+    private static String event(String name, String settings) {
+        return "  <event name=\"" + name + "\"><setting name=\"enabled\">true</setting>" + settings + "</event>\n";
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+
+    private static double seconds(Instant from, Instant to) {
+        return Duration.between(from, to).toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,101 @@
+package hu.antalnagy.gcperf.gui.parse;
+
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What {@link JfrTelemetryParser} read from the flight recording of a run: the exact pauses, the heap occupancy after
+ * every collection and the allocation and promotion rates between collections. Times are seconds since the JVM
+ * started, sizes MB.
+ */
+public class RunTelemetry {
+    public static class Sample {
+        private final double seconds;
+        private final double value;
+
+        Sample(double seconds, double value) {
+            this.seconds = seconds;
+            this.value = value;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    final PauseHistogram pauseHistogram = new PauseHistogram();
+    final List<Sample> pauses = new ArrayList<>();
+    final List<Sample> heapAfterGC = new ArrayList<>();
+    final List<Sample> allocationRates = new ArrayList<>();
+    int collections;
+    int youngCollections;
+    double allocatedMB;
+    double promotedMB;
+    double spanSeconds;
+    int safepoints;
+    double timeToSafepointMillis;
+    double maxTimeToSafepointMillis;
+
+    public PauseHistogram getPauseHistogram() {
+        return pauseHistogram;
+    }
+
+    /**
+     * Every stop-the-world pause in ms, by its start.
+     */
+    public List<Sample> getPauses() {
+        return new ArrayList<>(pauses);
+    }
+
+    public List<Sample> getHeapAfterGC() {
+        return new ArrayList<>(heapAfterGC);
+    }
+
+    /**
+     * Allocation rate in MB/s from the end of the previous collection to the start of each collection.
+     */
+    public List<Sample> getAllocationRates() {
+        return new ArrayList<>(allocationRates);
+    }
+
+    public int getCollections() {
+        return collections;
+    }
+
+    public double getAllocatedMB() {
+        return allocatedMB;
+    }
+
+    public double getAllocationRate() {
+        return spanSeconds > 0 ? allocatedMB / spanSeconds : Double.NaN;
+    }
+
+    /**
+     * Growth of the occupied heap over young collections in MB/s, NaN for collectors without young collections.
+     */
+    public double getPromotionRate() {
+        return youngCollections > 0 && spanSeconds > 0 ? promotedMB / spanSeconds : Double.NaN;
+    }
+
+    public double getMaxHeapAfterGC() {
+        return heapAfterGC.stream().mapToDouble(Sample::getValue).max().orElse(0);
+    }
+
+    public int getSafepoints() {
+        return safepoints;
+    }
+
+    public double getTimeToSafepointMillis() {
+        return timeToSafepointMillis;
+    }
+
+    public double getMaxTimeToSafepointMillis() {
+        return maxTimeToSafepointMillis;
+    }
+}
@@ -0,0 +1,49 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One stored analysis: the leaderboard position of every GC type, 0 where the collector was not part of it.
+ */
+public class AnalysisRow {
+    private final int statId;
+    private final String fileName;
+    private final Map<GCType, Integer> positions;
+    private final Timestamp dateCreated;
+
+    AnalysisRow(int statId, String fileName, Map<GCType, Integer> positions, Timestamp dateCreated) {
+        this.statId = statId;
+        this.fileName = fileName;
+        this.positions = new EnumMap<>(positions);
+        this.dateCreated = dateCreated;
+    }
+
+    public int getStatId() {
+        return statId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int getPosition(GCType gcType) {
+        return positions.getOrDefault(gcType, 0);
+    }
+
+    public GCType getWinner() {
+        for (Map.Entry<GCType, Integer> position : positions.entrySet()) {
+            if (position.getValue() == 1) {
+                return position.getKey();
+            }
+        }
+        return null;
+    }
+
+    public Timestamp getDateCreated() {
+        return dateCreated;
+    }
+}
@@ -0,0 +1,52 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-collector metric distributions of a stored analysis, the runs a new analysis of the same application is
+ * compared with. Metrics the analysis did not record, like the pause percentiles of older runs, have no samples.
+ */
+public class Baseline {
+    private final int statId;
+    private final Timestamp dateCreated;
+    private final Map<GCType, Map<RunMetric, List<Double>>> samples = new EnumMap<>(GCType.class);
+
+    Baseline(int statId, Timestamp dateCreated) {
+        this.statId = statId;
+        this.dateCreated = dateCreated;
+    }
+
+    public int getStatId() {
+        return statId;
+    }
+
+    public Timestamp getDateCreated() {
+        return dateCreated;
+    }
+
+    public double[] getSamples(GCType gcType, RunMetric metric) {
+        List<Double> values = samples.getOrDefault(gcType, Map.of()).getOrDefault(metric, List.of());
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    void addRun(GCType gcType, double gcRuntime, double stwTime, double throughput, double p99Pause) {
+        Map<RunMetric, List<Double>> metrics = samples.computeIfAbsent(gcType, key -> new EnumMap<>(RunMetric.class));
+        add(metrics, RunMetric.GC_RUNTIME, gcRuntime);
+        add(metrics, RunMetric.STW_TIME, stwTime);
+        add(metrics, RunMetric.THROUGHPUT, throughput);
+        add(metrics, RunMetric.P99_PAUSE, p99Pause);
+    }
+
+    private static void add(Map<RunMetric, List<Double>> metrics, RunMetric metric, double value) {
+        if (!Double.isNaN(value)) {
+            metrics.computeIfAbsent(metric, key -> new ArrayList<>()).add(value);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small fixed-size JDBC connection pool. Connections are opened on demand up to the maximum, checked before they are
+ * handed out and keep their prepared statements cached by SQL text for as long as they live.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getSimpleName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Connection pool size must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.idle = new LinkedBlockingQueue<>(maxSize);
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Hands out an idle connection, opens a new one while below the maximum size, or waits for one to be returned.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection connection = idle.poll();
+        if (connection == null) {
+            connection = openIfBelowMaxSize();
+        }
+        if (connection == null) {
+            try {
+                connection = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (connection == null) {
+                throw new SQLException("No database connection available after " + BORROW_TIMEOUT_SECONDS + " seconds");
+            }
+        }
+        if (!connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+            LOGGER.log(Level.WARNING, "Replacing invalid database connection");
+            discard(connection);
+            return borrow();
+        }
+        return connection;
+    }
+
+    private PooledConnection openIfBelowMaxSize() throws SQLException {
+        synchronized (all) {
+            if (closed) {
+                throw new IllegalStateException("Connection pool is closed");
+            }
+            if (all.size() >= maxSize) {
+                return null;
+            }
+            PooledConnection connection = new PooledConnection(DriverManager.getConnection(url, user, password));
+            all.add(connection);
+            return connection;
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        synchronized (all) {
+            all.remove(connection);
+        }
+        connection.closeQuietly();
+    }
+
+    private void giveBack(PooledConnection connection) {
+        synchronized (all) {
+            if (closed || !all.contains(connection)) {
+                connection.closeQuietly();
+                return;
+            }
+        }
+        idle.add(connection);
+    }
+
+    @Override
+    public void close() {
+        synchronized (all) {
+            closed = true;
+            all.forEach(PooledConnection::closeQuietly);
+            all.clear();
+        }
+        idle.clear();
+    }
+
+    public class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        /**
+         * Rolls back an open transaction, then returns the connection to the pool.
+         */
+        @Override
+        public void close() {
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Resetting database connection failed, discarding it");
+                discard(this);
+                return;
+            }
+            giveBack(this);
+        }
+
+        private void closeQuietly() {
+            try {
+                for (PreparedStatement statement : statements.values()) {
+                    statement.close();
+                }
+                statements.clear();
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Closing database connection failed");
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.AnalysisLog;
+import hu.antalnagy.gcperf.gui.trial.ResultTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded result store that needs no server. Analyses are appended as fixed-width records to analyses.dat, their
+ * file names and configuration fingerprints to names.dat and their runs to runs.dat. The id of an analysis is its record number, so a history page
+ * is a backwards scan over the memory-mapped records from the keyset cursor, touching only the names of the rows it
+ * returns or filters on. Names and runs are written and forced before the analysis record, which makes the record
+ * the commit: a torn record at the end of the file is dropped on open together with the runs written for it, orphaned
+ * names are never referenced. Every access locks analyses.dat, exclusively for saves, and re-reads the record count
+ * under the lock, so several processes, e.g. the GUI and a batch run, can share one store.
+ */
+public class FileResultStore implements ResultStore {
+    private static final Logger LOGGER = Logger.getLogger(FileResultStore.class.getSimpleName());
+    private static final int MAGIC = 0x47435053;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    // date (8), name offset (8), name length (4), position per GC type (1 each), winner ordinal or -1 (1),
+    // fingerprint length (4), the fingerprint follows the name in names.dat, records saved before have none
+    private static final int ANALYSIS_RECORD_SIZE = 32;
+    private static final int DATE = 0;
+    private static final int NAME_OFFSET = 8;
+    private static final int NAME_LENGTH = 16;
+    private static final int POSITIONS = 20;
+    private static final int WINNER = POSITIONS + GCType.values().length;
+    private static final int FINGERPRINT_LENGTH = WINNER + 1;
+    // analysis id (4), GC type ordinal (1), run no., Xms, Xmx (4 each), runtime, GC runtime, STW time,
+    // throughput (8 each), full and minor pauses (4 each), p99 pause flag (1) and p99 pause in ms (4, float)
+    private static final int RUN_RECORD_SIZE = 64;
+    private static final int RUN_GC_TYPE = 4;
+    private static final int RUN_GC_RUNTIME = 25;
+    private static final int RUN_STW_TIME = 33;
+    private static final int RUN_THROUGHPUT = 41;
+    private static final int RUN_P99_PAUSE_FLAG = 57;
+    private static final int RUN_P99_PAUSE = 58;
+
+    private final Path directory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-result-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel analyses;
+    private FileChannel names;
+    private FileChannel runs;
+    private MappedByteBuffer analysesMap;
+    private MappedByteBuffer namesMap;
+    private int count;
+
+    public FileResultStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveAnalysis(Timestamp timestamp, String fileName, String configFingerprint,
+                                                   List<GCType> leaderboard, ResultTable runResults) {
+        return supplyAsync(true, () -> {
+            int statId = count + 1;
+            byte[] name = fileName.getBytes(StandardCharsets.UTF_8);
+            byte[] fingerprint = configFingerprint.getBytes(StandardCharsets.UTF_8);
+            long nameOffset = names.size();
+            writeFully(names, ByteBuffer.allocate(name.length + fingerprint.length).put(name).put(fingerprint).flip(),
+                    nameOffset);
+
+            int runCount = runResults.getRunCount();
+            ByteBuffer runRecords = ByteBuffer.allocate(runCount * RUN_RECORD_SIZE);
+            for (GCType gcType : runResults.getGcTypes()) {
+                ResultTable.Columns results = runResults.get(gcType);
+                for (int i = 0; i < results.size(); i++) {
+                    int base = runRecords.position();
+                    runRecords.putInt(statId).put((byte) gcType.ordinal()).putInt(results.getRunNos()[i])
+                            .putInt(results.getXms()[i]).putInt(results.getXmx()[i])
+                            .putDouble(results.getRuntimes()[i]).putDouble(results.getGcRuntimes()[i])
+                            .putDouble(results.getStwTimes()[i]).putDouble(results.getThroughputs()[i])
+                            .putInt(results.getFullPauses()[i]).putInt(results.getMinorPauses()[i]);
+                    // records written before the percentile was stored have a zero flag
+                    double p99Pause = results.getP99Pauses()[i];
+                    if (!Double.isNaN(p99Pause)) {
+                        runRecords.put(base + RUN_P99_PAUSE_FLAG, (byte) 1)
+                                .putFloat(base + RUN_P99_PAUSE, (float) p99Pause);
+                    }
+                    runRecords.position(base + RUN_RECORD_SIZE);
+                }
+            }
+            writeFully(runs, runRecords.flip(), runs.size());
+            names.force(false);
+            runs.force(false);
+
+            ByteBuffer record = ByteBuffer.allocate(ANALYSIS_RECORD_SIZE);
+            record.putLong(DATE, timestamp.getTime()).putLong(NAME_OFFSET, nameOffset).putInt(NAME_LENGTH, name.length);
+            byte winner = -1;
+            for (GCType gcType : GCType.values()) {
+                int position = leaderboard.indexOf(gcType) + 1;
+                record.put(POSITIONS + gcType.ordinal(), (byte) position);
+                if (position == 1) {
+                    winner = (byte) gcType.ordinal();
+                }
+            }
+            record.put(WINNER, winner).putInt(FINGERPRINT_LENGTH, fingerprint.length);
+            writeFully(analyses, record, HEADER_SIZE + (long) count * ANALYSIS_RECORD_SIZE);
+            analyses.force(false);
+            count++;
+            LOGGER.log(Level.INFO, "Saved analysis " + statId + " with " + runCount + " runs");
+            return statId;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<AnalysisRow>> queryHistoryPage(HistoryFilter filter, Integer beforeStatId,
+                                                                 int pageSize) {
+        return supplyAsync(false, () -> {
+            List<AnalysisRow> rows = new ArrayList<>();
+            if (count == 0) {
+                return rows;
+            }
+            MappedByteBuffer records = mapAnalyses();
+            long from = filter.getFrom() == null ? Long.MIN_VALUE : filter.getFrom().getTime();
+            long to = filter.getTo() == null ? Long.MAX_VALUE : filter.getTo().getTime();
+            int winner = filter.getWinner() == null ? -2 : filter.getWinner().ordinal();
+            String prefix = filter.getFileNamePrefix();
+            int index = beforeStatId == null ? count - 1 : Math.min(count, beforeStatId - 1) - 1;
+            for (; index >= 0 && rows.size() < pageSize; index--) {
+                int base = HEADER_SIZE + index * ANALYSIS_RECORD_SIZE;
+                long date = records.getLong(base + DATE);
+                if (date < from || date >= to || (winner != -2 && records.get(base + WINNER) != winner)) {
+                    continue;
+                }
+                String fileName = readName(records.getLong(base + NAME_OFFSET), records.getInt(base + NAME_LENGTH));
+                // case insensitive like the LIKE filter of the MySQL store
+                if (prefix != null && !fileName.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    continue;
+                }
+                Map<GCType, Integer> positions = new EnumMap<>(GCType.class);
+                for (GCType gcType : GCType.values()) {
+                    positions.put(gcType, (int) records.get(base + POSITIONS + gcType.ordinal()));
+                }
+                rows.add(new AnalysisRow(index + 1, fileName, positions, new Timestamp(date)));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Baseline> loadBaseline(String fileName, String configFingerprint) {
+        return supplyAsync(false, () -> {
+            if (count == 0) {
+                return null;
+            }
+            MappedByteBuffer records = mapAnalyses();
+            MappedByteBuffer runRecords = runs.map(FileChannel.MapMode.READ_ONLY, 0, runs.size());
+            for (int index = count - 1; index >= 0; index--) {
+                int base = HEADER_SIZE + index * ANALYSIS_RECORD_SIZE;
+                long nameOffset = records.getLong(base + NAME_OFFSET);
+                int nameLength = records.getInt(base + NAME_LENGTH);
+                if (!readName(nameOffset, nameLength).equals(fileName)
+                        || !readName(nameOffset + nameLength, records.getInt(base + FINGERPRINT_LENGTH))
+                        .equals(configFingerprint)) {
+                    continue;
+                }
+                int statId = index + 1;
+                Baseline baseline = new Baseline(statId, new Timestamp(records.getLong(base + DATE)));
+                boolean hasRuns = false;
+                // runs are appended in id order, so the runs of recent analyses are at the end
+                for (int run = runRecords.capacity() / RUN_RECORD_SIZE - 1; run >= 0; run--) {
+                    int runBase = run * RUN_RECORD_SIZE;
+                    int runStatId = runRecords.getInt(runBase);
+                    if (runStatId < statId) {
+                        break;
+                    }
+                    if (runStatId == statId) {
+                        hasRuns = true;
+                        baseline.addRun(GCType.values()[runRecords.get(runBase + RUN_GC_TYPE)],
+                                runRecords.getDouble(runBase + RUN_GC_RUNTIME),
+                                runRecords.getDouble(runBase + RUN_STW_TIME),
+                                runRecords.getDouble(runBase + RUN_THROUGHPUT),
+                                runRecords.get(runBase + RUN_P99_PAUSE_FLAG) == 1
+                                        ? runRecords.getFloat(runBase + RUN_P99_PAUSE) : Double.NaN);
+                    }
+                }
+                if (hasRuns) {
+                    return baseline;
+                }
+            }
+            return null;
+        });
+    }
+
+    private void open() throws IOException {
+        if (analyses != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        analyses = open("analyses.dat");
+        names = open("names.dat");
+        runs = open("runs.dat");
+        FileLock lock = lock(true);
+        try {
+            if (analyses.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                writeFully(analyses, header.position(HEADER_SIZE).flip(), 0);
+                analyses.force(false);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            analyses.read(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a result store of version " + VERSION + ": " + directory);
+            }
+            refresh(true);
+        } finally {
+            lock.release();
+        }
+        LOGGER.log(Level.INFO, "Opened result store with " + count + " analyses: " + directory);
+    }
+
+    /**
+     * Locks analyses.dat for one access, exclusively for writing. Another process holding the lock is waited for.
+     */
+    private FileLock lock(boolean write) throws IOException {
+        try {
+            return analyses.lock(0, Long.MAX_VALUE, !write);
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("Result store is already open in this process: " + directory);
+        }
+    }
+
+    /**
+     * Re-reads the record count, which other processes may have changed since the last access. Only a writer may
+     * repair the end of the files, a reader just ignores an incomplete record.
+     */
+    private void refresh(boolean write) throws IOException {
+        long recordBytes = analyses.size() - HEADER_SIZE;
+        if (write && recordBytes % ANALYSIS_RECORD_SIZE != 0) {
+            LOGGER.log(Level.WARNING, "Dropping incomplete analysis record at the end of the result store");
+            analyses.truncate(HEADER_SIZE + recordBytes / ANALYSIS_RECORD_SIZE * ANALYSIS_RECORD_SIZE);
+        }
+        count = (int) (recordBytes / ANALYSIS_RECORD_SIZE);
+        if (write) {
+            truncateOrphanedRuns();
+        }
+    }
+
+    /**
+     * Drops run records at the end of runs.dat that belong to no committed analysis, they would otherwise be taken
+     * for the runs of the next analysis saved with the same id.
+     */
+    private void truncateOrphanedRuns() throws IOException {
+        long size = runs.size() / RUN_RECORD_SIZE * RUN_RECORD_SIZE;
+        ByteBuffer statId = ByteBuffer.allocate(4);
+        while (size > 0) {
+            statId.clear();
+            runs.read(statId, size - RUN_RECORD_SIZE);
+            if (statId.getInt(0) <= count) {
+                break;
+            }
+            size -= RUN_RECORD_SIZE;
+        }
+        if (size < runs.size()) {
+            LOGGER.log(Level.WARNING, "Dropping " + (runs.size() - size) + " bytes of uncommitted runs");
+            runs.truncate(size);
+        }
+    }
+
+    private FileChannel open(String fileName) throws IOException {
+        return FileChannel.open(directory.resolve(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private MappedByteBuffer mapAnalyses() throws IOException {
+        long size = HEADER_SIZE + (long) count * ANALYSIS_RECORD_SIZE;
+        if (analysesMap == null || analysesMap.capacity() < size) {
+            analysesMap = analyses.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return analysesMap;
+    }
+
+    private String readName(long offset, int length) throws IOException {
+        if (namesMap == null || namesMap.capacity() < offset + length) {
+            namesMap = names.map(FileChannel.MapMode.READ_ONLY, 0, names.size());
+        }
+        byte[] name = new byte[length];
+        namesMap.get((int) offset, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(boolean write, IOSupplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                open();
+                FileLock lock = lock(write);
+                try {
+                    refresh(write);
+                    return supplier.get();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Result store access failed: " + e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        }, AnalysisLog.bind(executor));
+    }
+
+    /**
+     * Lets pending saves finish for a few seconds, then closes the files.
+     */
+    @Override
+    public void close() {
+        executor.execute(() -> {
+            try {
+                for (FileChannel channel : new FileChannel[]{analyses, names, runs}) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Closing result store failed");
+            }
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
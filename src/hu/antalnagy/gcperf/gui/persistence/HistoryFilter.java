@@ -0,0 +1,48 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.sql.Timestamp;
+
+/**
+ * Server-side filter of the analysis history. Every criterion is optional, null or blank means no restriction.
+ */
+public class HistoryFilter {
+    private final String fileNamePrefix;
+    private final Timestamp from;
+    private final Timestamp to;
+    private final GCType winner;
+
+    public HistoryFilter(String fileNamePrefix, Timestamp from, Timestamp to, GCType winner) {
+        this.fileNamePrefix = fileNamePrefix == null || fileNamePrefix.isBlank() ? null : fileNamePrefix.strip();
+        this.from = from;
+        this.to = to;
+        this.winner = winner;
+    }
+
+    public static HistoryFilter none() {
+        return new HistoryFilter(null, null, null, null);
+    }
+
+    public String getFileNamePrefix() {
+        return fileNamePrefix;
+    }
+
+    /**
+     * Inclusive lower bound of the creation date.
+     */
+    public Timestamp getFrom() {
+        return from;
+    }
+
+    /**
+     * Exclusive upper bound of the creation date.
+     */
+    public Timestamp getTo() {
+        return to;
+    }
+
+    public GCType getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,376 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.AnalysisLog;
+import hu.antalnagy.gcperf.gui.trial.ResultTable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores analyses in the driver's MySQL statistics database, extended by a table of per-run metrics. All database
+ * I/O runs on a small pool of daemon threads. The leaderboard row and the run rows of an analysis are written in one
+ * transaction, the run rows as a single batch.
+ */
+public class MySqlResultStore implements ResultStore {
+    private static final Logger LOGGER = Logger.getLogger(MySqlResultStore.class.getSimpleName());
+    private static final String SERVER_URL = "jdbc:mysql://localhost/";
+    private static final String DB_URL = "jdbc:mysql://localhost/statistics";
+    private static final String USER = "root";
+    private static final String PASSWORD = "root";
+    private static final int POOL_SIZE = 2;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private static final String CREATE_DATABASE = "CREATE DATABASE IF NOT EXISTS statistics";
+    // same definition as the driver's, so both keep working on the same database
+    private static final String CREATE_STATS_TABLE = """
+            CREATE TABLE IF NOT EXISTS statistics.stats (
+                stat_id INT AUTO_INCREMENT PRIMARY KEY,
+                file_name VARCHAR(255),
+                ranking_serial TINYINT,
+                ranking_parallel TINYINT,
+                ranking_g1 TINYINT,
+                ranking_zgc TINYINT,
+                ranking_shenandoah TINYINT,
+                date_created TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )""";
+    private static final String CREATE_RUNS_TABLE = """
+            CREATE TABLE IF NOT EXISTS statistics.stats_runs (
+                run_id INT AUTO_INCREMENT PRIMARY KEY,
+                stat_id INT NOT NULL,
+                gc_type VARCHAR(16) NOT NULL,
+                run_no INT NOT NULL,
+                init_heap_mb INT NOT NULL,
+                max_heap_mb INT NOT NULL,
+                runtime_sec DOUBLE,
+                gc_runtime_sec DOUBLE,
+                stw_time_sec DOUBLE,
+                throughput DOUBLE,
+                full_pauses INT,
+                minor_pauses INT,
+                p99_pause_ms DOUBLE,
+                FOREIGN KEY (stat_id) REFERENCES stats (stat_id) ON DELETE CASCADE
+            )""";
+    private static final String INSERT_STAT = "INSERT INTO stats (file_name, ranking_serial, ranking_parallel, "
+            + "ranking_g1, ranking_zgc, ranking_shenandoah, date_created, config_fingerprint) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RUN = "INSERT INTO stats_runs (stat_id, gc_type, run_no, init_heap_mb, "
+            + "max_heap_mb, runtime_sec, gc_runtime_sec, stw_time_sec, throughput, full_pauses, minor_pauses, "
+            + "p99_pause_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_STATS = "SELECT stat_id, file_name, ranking_serial, ranking_parallel, "
+            + "ranking_g1, ranking_zgc, ranking_shenandoah, date_created FROM stats";
+    // the latest analysis of the file with the same settings that has runs, older analyses of the driver only have
+    // leaderboard positions and no fingerprint
+    private static final String SELECT_BASELINE_STAT = "SELECT stat_id, date_created FROM stats WHERE file_name = ? "
+            + "AND config_fingerprint = ? AND EXISTS (SELECT 1 FROM stats_runs WHERE stats_runs.stat_id = stats.stat_id) "
+            + "ORDER BY stat_id DESC LIMIT 1";
+    private static final String SELECT_BASELINE_RUNS = "SELECT gc_type, gc_runtime_sec, stw_time_sec, throughput, "
+            + "p99_pause_ms FROM stats_runs WHERE stat_id = ?";
+    // backs the history filters, every index ends with the key the pages are ordered by
+    private static final Map<String, String> STATS_INDEXES = Map.of(
+            "idx_stats_file_name", "CREATE INDEX idx_stats_file_name ON statistics.stats (file_name, stat_id)",
+            "idx_stats_date_created", "CREATE INDEX idx_stats_date_created ON statistics.stats (date_created, stat_id)",
+            "idx_stats_winner", "CREATE INDEX idx_stats_winner ON statistics.stats (winner, stat_id)");
+
+    private final ExecutorService executor;
+    private final ConnectionPool pool = new ConnectionPool(DB_URL, USER, PASSWORD, POOL_SIZE);
+    private volatile boolean schemaCreated;
+
+    public MySqlResultStore() {
+        AtomicInteger threadNo = new AtomicInteger(0);
+        executor = Executors.newFixedThreadPool(POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "result-store-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveAnalysis(Timestamp timestamp, String fileName, String configFingerprint,
+                                                   List<GCType> leaderboard, ResultTable runs) {
+        return supplyAsync(() -> {
+            try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+                connection.getConnection().setAutoCommit(false);
+                int statId = insertStat(connection, timestamp, fileName, configFingerprint, leaderboard);
+                int[] inserted = insertRuns(connection, statId, runs);
+                connection.getConnection().commit();
+                LOGGER.log(Level.INFO, "Saved analysis " + statId + " with " + inserted.length + " runs");
+                return statId;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<AnalysisRow>> queryHistoryPage(HistoryFilter filter, Integer beforeStatId,
+                                                                 int pageSize) {
+        return supplyAsync(() -> {
+            List<Object> parameters = new ArrayList<>();
+            StringBuilder sql = new StringBuilder(SELECT_STATS).append(" WHERE 1 = 1");
+            if (beforeStatId != null) {
+                sql.append(" AND stat_id < ?");
+                parameters.add(beforeStatId);
+            }
+            if (filter.getFileNamePrefix() != null) {
+                sql.append(" AND file_name LIKE ?");
+                parameters.add(escapeLike(filter.getFileNamePrefix()) + "%");
+            }
+            if (filter.getFrom() != null) {
+                sql.append(" AND date_created >= ?");
+                parameters.add(filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                sql.append(" AND date_created < ?");
+                parameters.add(filter.getTo());
+            }
+            if (filter.getWinner() != null) {
+                sql.append(" AND winner = ?");
+                parameters.add(filter.getWinner().name());
+            }
+            sql.append(" ORDER BY stat_id DESC LIMIT ?");
+            parameters.add(pageSize);
+
+            List<AnalysisRow> rows = new ArrayList<>();
+            try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+                PreparedStatement statement = connection.prepare(sql.toString());
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Map<GCType, Integer> positions = new EnumMap<>(GCType.class);
+                        for (GCType gcType : GCType.values()) {
+                            positions.put(gcType, resultSet.getInt(rankingColumn(gcType)));
+                        }
+                        rows.add(new AnalysisRow(resultSet.getInt("stat_id"), resultSet.getString("file_name"),
+                                positions, resultSet.getTimestamp("date_created")));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Baseline> loadBaseline(String fileName, String configFingerprint) {
+        return supplyAsync(() -> {
+            try (ConnectionPool.PooledConnection connection = pool.borrow()) {
+                PreparedStatement statStatement = connection.prepare(SELECT_BASELINE_STAT);
+                statStatement.setString(1, fileName);
+                statStatement.setString(2, configFingerprint);
+                Baseline baseline;
+                try (ResultSet resultSet = statStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+                    baseline = new Baseline(resultSet.getInt("stat_id"), resultSet.getTimestamp("date_created"));
+                }
+                PreparedStatement runsStatement = connection.prepare(SELECT_BASELINE_RUNS);
+                runsStatement.setInt(1, baseline.getStatId());
+                try (ResultSet resultSet = runsStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        double p99Pause = resultSet.getDouble("p99_pause_ms");
+                        baseline.addRun(GCType.valueOf(resultSet.getString("gc_type")),
+                                resultSet.getDouble("gc_runtime_sec"), resultSet.getDouble("stw_time_sec"),
+                                resultSet.getDouble("throughput"), resultSet.wasNull() ? Double.NaN : p99Pause);
+                    }
+                }
+                return baseline;
+            }
+        });
+    }
+
+    private int insertStat(ConnectionPool.PooledConnection connection, Timestamp timestamp, String fileName,
+                           String configFingerprint, List<GCType> leaderboard) throws SQLException {
+        PreparedStatement statement = connection.prepare(INSERT_STAT);
+        statement.setString(1, fileName);
+        int parameterIndex = 2;
+        for (GCType gcType : GCType.values()) {
+            statement.setInt(parameterIndex++, leaderboard.indexOf(gcType) + 1);
+        }
+        statement.setTimestamp(parameterIndex++, timestamp);
+        statement.setString(parameterIndex, configFingerprint);
+        statement.executeUpdate();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No id generated for the stats row");
+            }
+            return keys.getInt(1);
+        }
+    }
+
+    private int[] insertRuns(ConnectionPool.PooledConnection connection, int statId, ResultTable runs)
+            throws SQLException {
+        PreparedStatement statement = connection.prepare(INSERT_RUN);
+        for (GCType gcType : runs.getGcTypes()) {
+            ResultTable.Columns results = runs.get(gcType);
+            for (int i = 0; i < results.size(); i++) {
+                statement.setInt(1, statId);
+                statement.setString(2, gcType.name());
+                statement.setInt(3, results.getRunNos()[i]);
+                statement.setInt(4, results.getXms()[i]);
+                statement.setInt(5, results.getXmx()[i]);
+                statement.setDouble(6, results.getRuntimes()[i]);
+                statement.setDouble(7, results.getGcRuntimes()[i]);
+                statement.setDouble(8, results.getStwTimes()[i]);
+                statement.setDouble(9, results.getThroughputs()[i]);
+                statement.setInt(10, results.getFullPauses()[i]);
+                statement.setInt(11, results.getMinorPauses()[i]);
+                double p99Pause = results.getP99Pauses()[i];
+                if (Double.isNaN(p99Pause)) {
+                    statement.setNull(12, Types.DOUBLE);
+                } else {
+                    statement.setDouble(12, p99Pause);
+                }
+                statement.addBatch();
+            }
+        }
+        return statement.executeBatch();
+    }
+
+    private void createSchema() throws SQLException {
+        if (schemaCreated) {
+            return;
+        }
+        synchronized (this) {
+            if (schemaCreated) {
+                return;
+            }
+            try (Connection connection = DriverManager.getConnection(SERVER_URL, USER, PASSWORD);
+                 Statement statement = connection.createStatement()) {
+                statement.addBatch(CREATE_DATABASE);
+                statement.addBatch(CREATE_STATS_TABLE);
+                statement.addBatch(CREATE_RUNS_TABLE);
+                statement.executeBatch();
+                migrateStatsTable(statement);
+                migrateRunsTable(statement);
+            }
+            schemaCreated = true;
+        }
+    }
+
+    /**
+     * Adds the winner and configuration fingerprint columns and the indexes of the history filters to stats tables
+     * created without them. MySQL has no IF NOT EXISTS for either, so the information schema is checked first.
+     */
+    private static void migrateStatsTable(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'statistics' AND TABLE_NAME = 'stats' AND COLUMN_NAME = 'winner'")) {
+            resultSet.next();
+            if (resultSet.getInt(1) == 0) {
+                StringBuilder winner = new StringBuilder("ALTER TABLE statistics.stats ADD COLUMN winner VARCHAR(16) "
+                        + "AS (CASE");
+                for (GCType gcType : GCType.values()) {
+                    winner.append(" WHEN ").append(rankingColumn(gcType)).append(" = 1 THEN '").append(gcType.name())
+                            .append("'");
+                }
+                statement.executeUpdate(winner.append(" END) STORED").toString());
+                LOGGER.log(Level.INFO, "Added winner column to the stats table");
+            }
+        }
+        try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'statistics' AND TABLE_NAME = 'stats' "
+                + "AND COLUMN_NAME = 'config_fingerprint'")) {
+            resultSet.next();
+            if (resultSet.getInt(1) == 0) {
+                statement.executeUpdate("ALTER TABLE statistics.stats ADD COLUMN config_fingerprint CHAR(64)");
+                LOGGER.log(Level.INFO, "Added config_fingerprint column to the stats table");
+            }
+        }
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = statement.executeQuery("SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS "
+                + "WHERE TABLE_SCHEMA = 'statistics' AND TABLE_NAME = 'stats'")) {
+            while (resultSet.next()) {
+                indexes.add(resultSet.getString(1));
+            }
+        }
+        for (Map.Entry<String, String> index : STATS_INDEXES.entrySet()) {
+            if (!indexes.contains(index.getKey())) {
+                statement.executeUpdate(index.getValue());
+                LOGGER.log(Level.INFO, "Created index " + index.getKey() + " on the stats table");
+            }
+        }
+    }
+
+    /**
+     * Adds the pause percentile column to run tables created before baselines were compared.
+     */
+    private static void migrateRunsTable(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'statistics' AND TABLE_NAME = 'stats_runs' AND COLUMN_NAME = 'p99_pause_ms'")) {
+            resultSet.next();
+            if (resultSet.getInt(1) == 0) {
+                statement.executeUpdate("ALTER TABLE statistics.stats_runs ADD COLUMN p99_pause_ms DOUBLE");
+                LOGGER.log(Level.INFO, "Added p99_pause_ms column to the stats_runs table");
+            }
+        }
+    }
+
+    private static String rankingColumn(GCType gcType) {
+        return "ranking_" + gcType.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(SqlSupplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                createSchema();
+                return supplier.get();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Database access failed: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, AnalysisLog.bind(executor));
+    }
+
+    /**
+     * Lets pending saves finish, then closes the connections. Saves still running after the timeout are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(Level.WARNING, "Pending saves did not finish within " + CLOSE_TIMEOUT_SECONDS
+                        + " s, abandoning them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+    }
+
+    @FunctionalInterface
+    private interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+}
@@ -0,0 +1,52 @@
+package hu.antalnagy.gcperf.gui.persistence;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.ResultTable;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistent history of analyses. Implementations do their I/O off the calling thread, so the futures can be used
+ * from the FX thread directly. The backend is chosen with the gcperf.store system property: "mysql" (default) for
+ * the driver's statistics database, "file" for the embedded {@link FileResultStore} that needs no server.
+ */
+public interface ResultStore extends AutoCloseable {
+    String STORE_PROPERTY = "gcperf.store";
+
+    static ResultStore open(Path storePath) {
+        String store = System.getProperty(STORE_PROPERTY, "mysql");
+        switch (store) {
+            case "mysql":
+                return new MySqlResultStore();
+            case "file":
+                return new FileResultStore(storePath);
+            default:
+                throw new IllegalArgumentException("Unknown result store: " + store + ", expected mysql or file");
+        }
+    }
+
+    /**
+     * Saves the leaderboard positions of an analysis together with all of its runs and the fingerprint of the settings
+     * it ran with. Completes with the id of the new analysis.
+     */
+    CompletableFuture<Integer> saveAnalysis(Timestamp timestamp, String fileName, String configFingerprint,
+                                            List<GCType> leaderboard, ResultTable runs);
+
+    /**
+     * One page of the stored analyses matching the filter, newest first. Pages are addressed by keyset: pass the id
+     * of the last row of the previous page, or null for the first page.
+     */
+    CompletableFuture<List<AnalysisRow>> queryHistoryPage(HistoryFilter filter, Integer beforeStatId, int pageSize);
+
+    /**
+     * The runs of the most recent stored analysis of the application that ran with the same settings, null if it has
+     * none.
+     */
+    CompletableFuture<Baseline> loadBaseline(String fileName, String configFingerprint);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,224 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.ResourceProfile;
+import hu.antalnagy.gcperf.gui.trial.SteadyState;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between coordinator and worker, big-endian as written by {@link DataOutputStream}. After the handshake
+ * (magic and version both ways, the coordinator's token, then the worker's slot count) the coordinator sends a
+ * session, then any number of runs
+ * tagged with an id; the worker answers every run with a result of the same id, in completion order, and sends a
+ * heartbeat in between so that a silent worker counts as lost.
+ */
+final class Protocol {
+    static final int MAGIC = 0x47435057;
+    static final int VERSION = 2;
+    static final int DEFAULT_PORT = 7150;
+    static final int HEARTBEAT_SECONDS = 5;
+    // a worker missing this many heartbeats in a row is lost
+    static final int MISSED_HEARTBEATS = 6;
+    private static final int MAX_ARTIFACT_BYTES = 1 << 30;
+    // shared secret of coordinators and workers, a worker runs any code a coordinator sends
+    static final String TOKEN_ENV = "GCPERF_WORKER_TOKEN";
+    static final String TOKEN_PROPERTY = "gcperf.workerToken";
+
+    // coordinator to worker
+    static final byte SESSION = 1;
+    static final byte RUN = 2;
+    // worker to coordinator
+    static final byte RESULT = 3;
+    static final byte HEARTBEAT = 4;
+
+    private Protocol() {
+    }
+
+    static void writeHandshake(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.flush();
+    }
+
+    static void readHandshake(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Peer is no gcperf worker or coordinator");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Protocol version " + version + " of the peer, expected " + VERSION);
+        }
+    }
+
+    /**
+     * The coordinator's handshake, followed by the token the worker checks.
+     */
+    static void writeHandshake(DataOutputStream out, String token) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(token);
+        out.flush();
+    }
+
+    /**
+     * Reads the coordinator's handshake, failing unless it carries the worker's token.
+     */
+    static void readHandshake(DataInputStream in, String token) throws IOException {
+        readHandshake(in);
+        // compared in constant time, so the token cannot be guessed byte by byte
+        if (!MessageDigest.isEqual(in.readUTF().getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new IOException("Coordinator sent a wrong token");
+        }
+    }
+
+    /**
+     * The token of the gcperf.workerToken system property, or of the GCPERF_WORKER_TOKEN environment variable.
+     */
+    static String token() {
+        String token = System.getProperty(TOKEN_PROPERTY, System.getenv(TOKEN_ENV));
+        return token == null || token.isEmpty() ? null : token;
+    }
+
+    static void writeSession(DataOutputStream out, RemoteSession session) throws IOException {
+        byte[] artifact = session.getArtifact();
+        out.writeByte(SESSION);
+        out.writeUTF(session.getAppContainer().getFileName().toString());
+        out.writeInt(artifact.length);
+        out.write(artifact);
+        out.writeInt(session.getGcTypes().size());
+        for (GCType gcType : session.getGcTypes()) {
+            out.writeUTF(gcType.name());
+        }
+        Analysis.Metrics[] metrics = session.getMetrics();
+        out.writeInt(metrics.length);
+        for (Analysis.Metrics metric : metrics) {
+            out.writeUTF(metric.name());
+        }
+        SteadyState steadyState = session.getSteadyState();
+        out.writeBoolean(steadyState != null);
+        if (steadyState != null) {
+            out.writeInt(steadyState.getMaxWarmUpIterations());
+            out.writeInt(steadyState.getWindow());
+            out.writeDouble(steadyState.getTolerancePercent());
+            out.writeInt(steadyState.getMeasuredIterations());
+        }
+        ResourceProfile resourceProfile = session.getResourceProfile();
+        out.writeUTF(resourceProfile == null ? "" : resourceProfile.toString());
+    }
+
+    /**
+     * Reads a session after its type and stores its application in the directory. Invalid settings throw an
+     * IllegalArgumentException once the session is read.
+     */
+    static RemoteSession readSession(DataInputStream in, Path artifactDirectory) throws IOException {
+        String fileName = in.readUTF();
+        if (fileName.isEmpty() || fileName.contains("/") || fileName.contains("\\") || fileName.startsWith(".")) {
+            throw new IOException("Illegal application file name: " + fileName);
+        }
+        int length = in.readInt();
+        if (length < 0 || length > MAX_ARTIFACT_BYTES) {
+            throw new IOException("Illegal application size: " + length);
+        }
+        byte[] artifact = new byte[length];
+        in.readFully(artifact);
+        List<GCType> gcTypes = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            gcTypes.add(constant(GCType.class, in.readUTF()));
+        }
+        Analysis.Metrics[] metrics = new Analysis.Metrics[in.readInt()];
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = constant(Analysis.Metrics.class, in.readUTF());
+        }
+        boolean steady = in.readBoolean();
+        int maxWarmUpIterations = steady ? in.readInt() : 0;
+        int window = steady ? in.readInt() : 0;
+        double tolerancePercent = steady ? in.readDouble() : 0;
+        int measuredIterations = steady ? in.readInt() : 0;
+        String profile = in.readUTF();
+
+        // the whole message is read, invalid settings cannot break the stream
+        SteadyState steadyState = steady
+                ? new SteadyState(maxWarmUpIterations, window, tolerancePercent, measuredIterations) : null;
+        Files.createDirectories(artifactDirectory);
+        Path appContainer = artifactDirectory.resolve(fileName);
+        Files.write(appContainer, artifact);
+        return new RemoteSession(appContainer, artifact, gcTypes, metrics, steadyState,
+                profile.isEmpty() ? null : ResourceProfile.parse(profile));
+    }
+
+    static void writeRun(DataOutputStream out, int runId, Trial trial) throws IOException {
+        out.writeByte(RUN);
+        out.writeInt(runId);
+        out.writeUTF(trial.getGcType().name());
+        out.writeInt(trial.getRunNo());
+        out.writeInt(trial.getAttempt());
+        out.writeInt(trial.getXms());
+        out.writeInt(trial.getXmx());
+        out.writeInt(trial.getVmOptions().size());
+        for (String vmOption : trial.getVmOptions()) {
+            out.writeUTF(vmOption);
+        }
+    }
+
+    /**
+     * Reads the trial of a run after its type and id.
+     */
+    static Trial readTrial(DataInputStream in) throws IOException {
+        GCType gcType = constant(GCType.class, in.readUTF());
+        int runNo = in.readInt();
+        int attempt = in.readInt();
+        int xms = in.readInt();
+        int xmx = in.readInt();
+        List<String> vmOptions = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            vmOptions.add(in.readUTF());
+        }
+        return new Trial(gcType, runNo, attempt, xms, xmx, vmOptions);
+    }
+
+    static void writeResult(DataOutputStream out, int runId, TrialResult result) throws IOException {
+        out.writeByte(RESULT);
+        out.writeInt(runId);
+        out.writeBoolean(result.isFailed());
+        if (!result.isFailed()) {
+            out.writeBoolean(result.isCached());
+            result.write(out);
+        }
+    }
+
+    /**
+     * Reads a result after its type and id.
+     */
+    static TrialResult readResult(DataInputStream in, Trial trial) throws IOException {
+        if (in.readBoolean()) {
+            return TrialResult.failed(trial, null);
+        }
+        boolean cached = in.readBoolean();
+        TrialResult result = TrialResult.read(in, trial);
+        if (cached) {
+            result.setCached();
+        }
+        return result;
+    }
+
+    private static <E extends Enum<E>> E constant(Class<E> type, String name) throws IOException {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + ": " + name);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import hu.antalnagy.gcperf.gui.trial.WorkerSlot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The workers an analysis runs on, connected for the analysis only. Every worker contributes as many slots as it
+ * offers; the slots are interleaved across workers, so the runs spread over all hosts even when there are fewer runs
+ * than slots.
+ */
+public class RemotePool implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(RemotePool.class.getSimpleName());
+
+    // read by the workers' threads when one is lost
+    private final List<RemoteWorker> workers = new CopyOnWriteArrayList<>();
+    private final List<WorkerSlot> slots = new ArrayList<>();
+
+    private RemotePool() {
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Connects to every reachable worker, unreachable ones are left out. Fails if none is reachable. The workers'
+     * token is taken from the gcperf.workerToken system property or the GCPERF_WORKER_TOKEN environment variable.
+     */
+    public static RemotePool connect(List<String> addresses) throws IOException {
+        String token = Protocol.token();
+        if (token == null) {
+            throw new IOException("No worker token set, please set the " + Protocol.TOKEN_ENV + " environment "
+                    + "variable or the " + Protocol.TOKEN_PROPERTY + " system property to the token of the workers");
+        }
+        RemotePool pool = new RemotePool();
+        for (String address : addresses) {
+            try {
+                RemoteWorker worker = RemoteWorker.connect(address, pool, token);
+                pool.workers.add(worker);
+                LOGGER.log(Level.INFO, "Connected to worker " + address + " with " + worker.getSlotCount()
+                        + " slot(s)");
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Worker " + address + " is not reachable, leaving it out: " + e.getMessage());
+            }
+        }
+        if (pool.workers.isEmpty()) {
+            throw new IOException("None of the workers " + String.join(", ", addresses) + " is reachable");
+        }
+        int maxSlots = pool.workers.stream().mapToInt(RemoteWorker::getSlotCount).max().orElse(0);
+        for (int i = 0; i < maxSlots; i++) {
+            for (RemoteWorker worker : pool.workers) {
+                if (i < worker.getSlotCount()) {
+                    pool.slots.add(WorkerSlot.remote(pool.slots.size(), worker));
+                }
+            }
+        }
+        return pool;
+    }
+
+    public List<WorkerSlot> getSlots() {
+        return new ArrayList<>(slots);
+    }
+
+    public boolean isAllLost() {
+        return workers.stream().allMatch(RemoteWorker::isLost);
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(RemoteWorker::close);
+    }
+}
@@ -0,0 +1,75 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.trial.ResourceProfile;
+import hu.antalnagy.gcperf.gui.trial.SteadyState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * What a worker needs to run the trials of one analysis: the application, which is shipped to it once per connection,
+ * and the settings the child JVMs are built from. The application is read once up front, so sending the session only
+ * fails when the connection does.
+ */
+public class RemoteSession {
+    private final Path appContainer;
+    private final byte[] artifact;
+    private final List<GCType> gcTypes;
+    private final Analysis.Metrics[] metrics;
+    private final SteadyState steadyState;
+    private final ResourceProfile resourceProfile;
+
+    RemoteSession(Path appContainer, byte[] artifact, List<GCType> gcTypes, Analysis.Metrics[] metrics,
+                  SteadyState steadyState, ResourceProfile resourceProfile) {
+        this.appContainer = appContainer;
+        this.artifact = artifact;
+        this.gcTypes = List.copyOf(gcTypes);
+        this.metrics = metrics.clone();
+        this.steadyState = steadyState;
+        this.resourceProfile = resourceProfile;
+    }
+
+    /**
+     * Reads the application of the session from the container.
+     */
+    public static RemoteSession read(Path appContainer, List<GCType> gcTypes, Analysis.Metrics[] metrics,
+                                     SteadyState steadyState, ResourceProfile resourceProfile) throws IOException {
+        return new RemoteSession(appContainer, Files.readAllBytes(appContainer), gcTypes, metrics, steadyState,
+                resourceProfile);
+    }
+
+    public Path getAppContainer() {
+        return appContainer;
+    }
+
+    // not copied, it may be large and is only written to the wire
+    byte[] getArtifact() {
+        return artifact;
+    }
+
+    public List<GCType> getGcTypes() {
+        return gcTypes;
+    }
+
+    public Analysis.Metrics[] getMetrics() {
+        return metrics.clone();
+    }
+
+    /**
+     * Null for single cold runs.
+     */
+    public SteadyState getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * Null for runs without cgroup limits.
+     */
+    public ResourceProfile getResourceProfile() {
+        return resourceProfile;
+    }
+}
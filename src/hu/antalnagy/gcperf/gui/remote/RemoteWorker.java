@@ -0,0 +1,239 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import hu.antalnagy.gcperf.gui.trial.AnalysisLog;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinator side of the connection to a {@link TrialWorker}. Trials are sent as they are started and their results
+ * complete the returned futures on the reading thread. A worker whose connection breaks or whose heartbeat stops is
+ * lost for good: its pending runs and every later one complete with a {@link WorkerLostException}.
+ */
+public class RemoteWorker implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(RemoteWorker.class.getSimpleName());
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final String address;
+    private final RemotePool pool;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int slotCount;
+    // guarded by this
+    private final Map<Integer, PendingRun> pendingRuns = new HashMap<>();
+    private int nextRunId;
+    private boolean lost;
+    private boolean closed;
+    // guarded by out
+    private RemoteSession sentSession;
+
+    private RemoteWorker(String address, RemotePool pool, Socket socket, String token) throws IOException {
+        this.address = address;
+        this.pool = pool;
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        Protocol.writeHandshake(out, token);
+        try {
+            Protocol.readHandshake(in);
+            this.slotCount = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Worker " + address + " closed the connection, its token may differ");
+        }
+        if (slotCount < 1) {
+            throw new IOException("Worker " + address + " offers no slots");
+        }
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    static RemoteWorker connect(String address, RemotePool pool, String token) throws IOException {
+        InetSocketAddress socketAddress = parseAddress(address);
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(socketAddress.getHostString(), socketAddress.getPort()),
+                    CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(Protocol.HEARTBEAT_SECONDS * Protocol.MISSED_HEARTBEATS * 1000);
+            RemoteWorker worker = new RemoteWorker(address, pool, socket, token);
+            Thread reader = new Thread(AnalysisLog.bind(worker::read), "Worker " + address);
+            reader.setDaemon(true);
+            reader.start();
+            return worker;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parses host:port, or a host alone for the default port, without resolving the host.
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        String trimmed = address.trim();
+        int separator = trimmed.lastIndexOf(':');
+        String host = separator < 0 ? trimmed : trimmed.substring(0, separator);
+        int port = Protocol.DEFAULT_PORT;
+        if (separator >= 0) {
+            try {
+                port = Integer.parseInt(trimmed.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                port = -1;
+            }
+        }
+        if (host.isEmpty() || port < 1 || 65535 < port) {
+            throw new IllegalArgumentException("Invalid worker address: " + address + ", expected host:port");
+        }
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public synchronized boolean isLost() {
+        return lost;
+    }
+
+    /**
+     * Sends the trial to the worker, preceded by the session if the worker has not got it yet.
+     */
+    public CompletableFuture<TrialResult> start(RemoteSession session, Trial trial) {
+        CompletableFuture<TrialResult> result = new CompletableFuture<>();
+        int runId = -1;
+        synchronized (this) {
+            if (!lost) {
+                runId = nextRunId++;
+                pendingRuns.put(runId, new PendingRun(trial, result));
+            }
+        }
+        if (runId < 0) {
+            return CompletableFuture.failedFuture(lostException());
+        }
+        LOGGER.log(Level.INFO, "Sending " + trial + " to worker " + address);
+        try {
+            synchronized (out) {
+                if (session != sentSession) {
+                    Protocol.writeSession(out, session);
+                    sentSession = session;
+                }
+                Protocol.writeRun(out, runId, trial);
+                out.flush();
+            }
+        } catch (IOException e) {
+            lose("sending " + trial + " failed: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Closes the connection, the worker kills the runs still running for it.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        lose("connection closed");
+    }
+
+    private void read() {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == Protocol.HEARTBEAT) {
+                    continue;
+                }
+                if (type != Protocol.RESULT) {
+                    throw new IOException("Unexpected message type " + type);
+                }
+                int runId = in.readInt();
+                PendingRun pendingRun;
+                synchronized (this) {
+                    pendingRun = pendingRuns.remove(runId);
+                }
+                if (pendingRun == null) {
+                    throw new IOException("Result of unknown run " + runId);
+                }
+                TrialResult result;
+                try {
+                    result = Protocol.readResult(in, pendingRun.trial);
+                } catch (IOException e) {
+                    // abandoned with the others
+                    synchronized (this) {
+                        pendingRuns.put(runId, pendingRun);
+                    }
+                    throw e;
+                }
+                pendingRun.result.complete(result);
+            }
+        } catch (SocketTimeoutException e) {
+            lose("no heartbeat for " + Protocol.HEARTBEAT_SECONDS * Protocol.MISSED_HEARTBEATS + " s");
+        } catch (IOException e) {
+            lose(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private void lose(String reason) {
+        List<PendingRun> abandoned;
+        boolean expected;
+        synchronized (this) {
+            if (lost) {
+                return;
+            }
+            lost = true;
+            expected = closed;
+            abandoned = new ArrayList<>(pendingRuns.values());
+            pendingRuns.clear();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Closing the connection to worker " + address + " failed");
+        }
+        if (!expected) {
+            LOGGER.log(Level.WARNING, "Lost worker " + address + ": " + reason + ", " + abandoned.size()
+                    + " run(s) abandoned");
+        }
+        WorkerLostException exception = lostException();
+        abandoned.forEach(pendingRun -> pendingRun.result.completeExceptionally(exception));
+    }
+
+    private WorkerLostException lostException() {
+        return new WorkerLostException("Worker " + address + " is lost", pool.isAllLost());
+    }
+
+    private static class PendingRun {
+        private final Trial trial;
+        private final CompletableFuture<TrialResult> result;
+
+        private PendingRun(Trial trial, CompletableFuture<TrialResult> result) {
+            this.trial = trial;
+            this.result = result;
+        }
+    }
+}
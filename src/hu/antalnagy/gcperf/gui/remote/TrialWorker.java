@@ -0,0 +1,308 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.gui.trial.CgroupSlice;
+import hu.antalnagy.gcperf.gui.trial.JarCache;
+import hu.antalnagy.gcperf.gui.trial.RunCache;
+import hu.antalnagy.gcperf.gui.trial.SteadyStateHarness;
+import hu.antalnagy.gcperf.gui.trial.Trial;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import hu.antalnagy.gcperf.gui.trial.TrialRunner;
+import hu.antalnagy.gcperf.gui.trial.WorkerSlot;
+import hu.antalnagy.gcperf.gui.trial.Workspace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Worker process of a distributed analysis: runs the trials coordinators send on the worker slots of its host and
+ * sends back their parsed results, see {@link RemoteWorker} for the coordinator side. Every connection gets its own
+ * workspace under the worker's directory, removed when the connection closes; the slots, the jar cache and the run
+ * cache are shared by all connections. A closed or broken connection kills the runs still running for it.
+ * <p>
+ * Usage: {@code TrialWorker [--bind address] [--port 7150] [--slots n] [--dir path] [--token token]}. Several workers
+ * may run on one host, e.g. for testing, each with its own port and directory; port 0 picks a free one. A worker runs
+ * whatever a coordinator sends, so it only listens on the loopback address unless told otherwise, and only accepts
+ * coordinators that send its token, by default the one of the GCPERF_WORKER_TOKEN environment variable.
+ */
+public class TrialWorker {
+    private static final Logger LOGGER = Logger.getLogger(TrialWorker.class.getSimpleName());
+    private static final int EXIT_INVALID = 2;
+    private static final String USAGE = "Usage: TrialWorker [--bind address] [--port 7150] [--slots n] [--dir path] "
+            + "[--token token]";
+
+    private final Path rootPath;
+    private final List<WorkerSlot> slots;
+    private final String token;
+    private final BlockingQueue<WorkerSlot> freeSlots;
+    private final JarCache jarCache;
+    private final RunCache runCache;
+    private final AtomicInteger connectionNo = new AtomicInteger(0);
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Worker heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TrialWorker(Path rootPath, List<WorkerSlot> slots, String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("A worker needs a token, please pass --token or set "
+                    + Protocol.TOKEN_ENV);
+        }
+        this.rootPath = rootPath.toAbsolutePath();
+        this.slots = slots;
+        this.token = token;
+        this.freeSlots = new LinkedBlockingQueue<>(slots);
+        this.jarCache = new JarCache(this.rootPath.resolve("res/jar-cache"));
+        this.runCache = new RunCache(this.rootPath.resolve("res/run-cache"));
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static void main(String[] args) {
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        int port = Protocol.DEFAULT_PORT;
+        int slots = 1;
+        Path dir = Paths.get("worker");
+        String token = System.getenv(Protocol.TOKEN_ENV);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--bind") && i + 1 < args.length) {
+                    bindAddress = parseBindAddress(args[++i]);
+                } else if (args[i].equals("--token") && i + 1 < args.length) {
+                    token = args[++i];
+                } else if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--slots") && i + 1 < args.length) {
+                    slots = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--dir") && i + 1 < args.length) {
+                    dir = Paths.get(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            TrialWorker worker = new TrialWorker(dir, WorkerSlot.partition(slots), token);
+            worker.serve(bindAddress, port);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage() + "\n" + USAGE);
+            System.exit(EXIT_INVALID);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Worker stopped: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Accepts coordinators on the address until the process is stopped.
+     */
+    public void serve(InetAddress bindAddress, int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, bindAddress)) {
+            LOGGER.log(Level.INFO, "Worker listening on " + bindAddress.getHostAddress() + " port "
+                    + serverSocket.getLocalPort() + " with " + slots.size() + " slot(s), working in " + rootPath);
+            while (true) {
+                Connection connection = new Connection(serverSocket.accept(), connectionNo.incrementAndGet());
+                new Thread(connection::serve, "Connection " + connection.number).start();
+            }
+        }
+    }
+
+    private static InetAddress parseBindAddress(String address) {
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown bind address: " + address);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Deleting " + directory + " failed: " + e.getMessage());
+        }
+    }
+
+    private class Connection {
+        private final Socket socket;
+        private final int number;
+        private final String coordinator;
+        private final Workspace workspace;
+        // runs wait here for a free slot, the slots may be taken by other connections
+        private final ExecutorService runs = Executors.newCachedThreadPool();
+        private DataOutputStream out;
+        // null before the first session and after one that could not be prepared
+        private volatile TrialRunner trialRunner;
+
+        private Connection(Socket socket, int number) {
+            this.socket = socket;
+            this.number = number;
+            this.coordinator = socket.getRemoteSocketAddress().toString();
+            this.workspace = new Workspace(rootPath.resolve("connection-" + number), jarCache);
+        }
+
+        private void serve() {
+            ScheduledFuture<?> heartbeat = null;
+            try {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                // a peer that never completes the handshake must not hold the connection
+                socket.setSoTimeout(Protocol.HEARTBEAT_SECONDS * Protocol.MISSED_HEARTBEATS * 1000);
+                Protocol.readHandshake(in, token);
+                socket.setSoTimeout(0);
+                synchronized (out) {
+                    Protocol.writeHandshake(out);
+                    out.writeInt(slots.size());
+                    out.flush();
+                }
+                LOGGER.log(Level.INFO, "Coordinator " + coordinator + " connected");
+                heartbeat = heartbeats.scheduleAtFixedRate(this::sendHeartbeat, Protocol.HEARTBEAT_SECONDS,
+                        Protocol.HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == Protocol.SESSION) {
+                        startSession(in);
+                    } else if (type == Protocol.RUN) {
+                        int runId = in.readInt();
+                        Trial trial = Protocol.readTrial(in);
+                        runs.execute(() -> run(runId, trial));
+                    } else {
+                        throw new IOException("Unexpected message type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                LOGGER.log(Level.INFO, "Coordinator " + coordinator + " disconnected");
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Connection to coordinator " + coordinator + " broke: " + e.getMessage());
+            } finally {
+                if (heartbeat != null) {
+                    heartbeat.cancel(false);
+                }
+                runs.shutdownNow();
+                TrialRunner runner = trialRunner;
+                if (runner != null) {
+                    runner.destroyRunning();
+                }
+                close();
+                deleteDirectory(workspace.getRootPath());
+            }
+        }
+
+        private void startSession(DataInputStream in) throws IOException {
+            trialRunner = null;
+            try {
+                RemoteSession session = Protocol.readSession(in, workspace.getRootPath().resolve("artifact"));
+                workspace.prepare(session.getAppContainer().toFile());
+                if (session.getSteadyState() != null) {
+                    SteadyStateHarness.install(workspace.getHarnessPath());
+                }
+                if (session.getResourceProfile() != null) {
+                    if (session.getResourceProfile().getCpuset() != null && slots.size() > 1) {
+                        throw new IllegalArgumentException("A profile cpuset pins the runs of all " + slots.size()
+                                + " slots to the same CPUs, the worker must have one slot");
+                    }
+                    CgroupSlice.prepareRoot(CgroupSlice.root());
+                }
+                Analysis analysis = new Analysis(workspace.getMainClass(), session.getGcTypes(), session.getMetrics());
+                trialRunner = new TrialRunner(workspace, analysis, null, session.getSteadyState(),
+                        session.getResourceProfile(), runCache);
+                LOGGER.log(Level.INFO, "Running " + session.getAppContainer().getFileName() + " for coordinator "
+                        + coordinator);
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.SEVERE, "Session of coordinator " + coordinator + " is invalid, its runs fail: "
+                        + e.getMessage());
+            } catch (IOException e) {
+                if (e instanceof EOFException) {
+                    throw e;
+                }
+                LOGGER.log(Level.SEVERE, "Preparing the session of coordinator " + coordinator + " failed, its runs "
+                        + "fail: " + e.getMessage());
+            }
+        }
+
+        private void run(int runId, Trial trial) {
+            TrialRunner runner = trialRunner;
+            if (runner == null) {
+                send(runId, TrialResult.failed(trial, null));
+                return;
+            }
+            WorkerSlot slot;
+            try {
+                slot = freeSlots.take();
+            } catch (InterruptedException e) {
+                // the connection is closed
+                return;
+            }
+            runner.start(trial, slot).whenComplete((result, error) -> {
+                freeSlots.add(slot);
+                if (error != null) {
+                    LOGGER.log(Level.SEVERE, trial + " failed: " + error);
+                }
+                send(runId, error == null ? result : TrialResult.failed(trial, null));
+            });
+        }
+
+        private void send(int runId, TrialResult result) {
+            try {
+                synchronized (out) {
+                    Protocol.writeResult(out, runId, result);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Sending the result of " + result.getTrial() + " to coordinator "
+                        + coordinator + " failed: " + e.getMessage());
+            }
+        }
+
+        // a coordinator gone without closing the connection is noticed when the heartbeat cannot be sent
+        private void sendHeartbeat() {
+            try {
+                synchronized (out) {
+                    out.writeByte(Protocol.HEARTBEAT);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Closing the connection to coordinator " + coordinator + " failed");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hu.antalnagy.gcperf.gui.remote;
+
+import java.io.IOException;
+
+/**
+ * A run could not complete because its worker went away. The run itself did not fail, it can be repeated on another
+ * worker unless every worker of the pool is lost.
+ */
+public class WorkerLostException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean allWorkersLost;
+
+    public WorkerLostException(String message, boolean allWorkersLost) {
+        super(message);
+        this.allWorkersLost = allWorkersLost;
+    }
+
+    public boolean isAllWorkersLost() {
+        return allWorkersLost;
+    }
+}
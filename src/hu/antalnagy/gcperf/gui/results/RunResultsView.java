@@ -0,0 +1,236 @@
+package hu.antalnagy.gcperf.gui.results;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.parse.RunTelemetry;
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+import hu.antalnagy.gcperf.gui.stats.RunningSummary;
+import hu.antalnagy.gcperf.gui.trial.ThrottlingStats;
+import hu.antalnagy.gcperf.gui.trial.TrialResult;
+import hu.antalnagy.gcperf.gui.trial.WarmUp;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sortable table of the finished runs of an analysis, fed with each finished run and filtered by collector. Only the
+ * rows on screen are drawn. The summary rows below it are kept by a {@link RunningSummary} per collector and column, so
+ * a new run updates them without going over the earlier runs. Recorded, warmed-up or throttled analyses get a column
+ * per value of a run's telemetry, warm-up or throttling, empty for a run without. Must be used on the FX application
+ * thread.
+ */
+public class RunResultsView {
+    private static final List<String> SUMMARY_ROWS = List.of("Min", "Mean", "Median", "Std Dev");
+    private static final double ROW_HEIGHT = 25;
+
+    private final VBox root = new VBox(10);
+    private final ComboBox<GCType> collector = new ComboBox<>();
+    private final Label countLabel = new Label();
+    private final ObservableList<TrialResult> runs = FXCollections.observableArrayList();
+    private final FilteredList<TrialResult> filteredRuns = new FilteredList<>(runs);
+    private final TableView<TrialResult> table = new TableView<>();
+    private final TableView<String> summaryTable = new TableView<>();
+    private final List<Metric> metrics = new ArrayList<>();
+    private final Map<GCType, RunningSummary[]> summaries = new EnumMap<>(GCType.class);
+    private RunningSummary[] allSummaries = new RunningSummary[0];
+
+    public RunResultsView() {
+        List<GCType> collectors = new ArrayList<>();
+        collectors.add(null);
+        collectors.addAll(Arrays.asList(GCType.values()));
+        collector.getItems().setAll(collectors);
+        collector.setPromptText("All collectors");
+        collector.setOnAction(e -> applyFilter());
+
+        SortedList<TrialResult> sortedRuns = new SortedList<>(filteredRuns);
+        sortedRuns.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedRuns);
+        table.setPlaceholder(new Label("No runs finished yet"));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPrefHeight(400);
+        summaryTable.getItems().setAll(SUMMARY_ROWS);
+        summaryTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        summaryTable.setFixedCellSize(ROW_HEIGHT);
+        summaryTable.setPrefHeight(ROW_HEIGHT * (SUMMARY_ROWS.size() + 1) + 5);
+        reset(new double[0], false, false, false);
+
+        root.getChildren().addAll(new HBox(10, collector, countLabel), table, summaryTable);
+    }
+
+    public Node getNode() {
+        return root;
+    }
+
+    /**
+     * Drops the runs of the previous analysis. The latency columns are the given percentiles and the maximum, the
+     * flags add the telemetry, warm-up and throttling columns.
+     */
+    public void reset(double[] percentiles, boolean telemetry, boolean warmUp, boolean throttling) {
+        runs.clear();
+        summaries.clear();
+        metrics.clear();
+        metrics.add(new Metric("GC Runtime (sec)", TrialResult::getGcRuntime));
+        metrics.add(new Metric("Throughput (%)", TrialResult::getThroughput));
+        metrics.add(new Metric("Full Pauses", TrialResult::getFullPauses));
+        metrics.add(new Metric("Minor Pauses", TrialResult::getMinorPauses));
+        for (double percentile : percentiles) {
+            metrics.add(new Metric(LatencyRanking.columnName(percentile) + " (ms)",
+                    result -> result.getPauseHistogram().getValueAtPercentile(percentile)));
+        }
+        metrics.add(new Metric("Max (ms)", result -> result.getPauseHistogram().getMax()));
+        allSummaries = newSummaries();
+
+        List<TableColumn<TrialResult, ?>> columns = new ArrayList<>();
+        columns.add(column("GC Type", TrialResult::getGcType));
+        columns.add(column("Run No.", result -> result.getRunNo() + 1));
+        columns.add(column("Xmx (MB)", result -> result.getTrial().getXmx()));
+        List<TableColumn<String, String>> summaryColumns = new ArrayList<>();
+        summaryColumns.add(summaryColumn("", row -> row));
+        for (int i = 0; i < metrics.size(); i++) {
+            Metric metric = metrics.get(i);
+            int index = i;
+            columns.add(column(metric.title, result -> metric.value.applyAsDouble(result)));
+            summaryColumns.add(summaryColumn(metric.title, row -> format(row, currentSummaries()[index])));
+        }
+        if (telemetry) {
+            columns.add(telemetryColumn("Alloc. Rate (MB/s)", RunTelemetry::getAllocationRate));
+            columns.add(telemetryColumn("Promotion Rate (MB/s)", RunTelemetry::getPromotionRate));
+            columns.add(telemetryColumn("Max Heap after GC (MB)", RunTelemetry::getMaxHeapAfterGC));
+            columns.add(telemetryColumn("Safepoints", RunTelemetry::getSafepoints));
+            columns.add(telemetryColumn("Max Time to Safepoint (ms)", RunTelemetry::getMaxTimeToSafepointMillis));
+        }
+        if (warmUp) {
+            columns.add(warmUpColumn("Warm-up (s)", WarmUp::getSeconds));
+            columns.add(warmUpColumn("Warm-up Iterations", WarmUp::getIterations));
+            columns.add(warmUpColumn("Warm-up GC Runtime (s)", WarmUp::getGcRuntime));
+            columns.add(warmUpColumn("Steady State", run -> run.isSteadyStateReached() ? "Reached" : "Not reached"));
+        }
+        if (throttling) {
+            columns.add(throttlingColumn("Throttled Periods", ThrottlingStats::getThrottledPeriods));
+            columns.add(throttlingColumn("Throttled (ms)", ThrottlingStats::getThrottledMillis));
+            columns.add(throttlingColumn("memory.max Events", ThrottlingStats::getMemoryMaxEvents));
+            columns.add(throttlingColumn("OOM Kills", ThrottlingStats::getOomKills));
+        }
+        table.getColumns().setAll(columns);
+        summaryTable.getColumns().setAll(summaryColumns);
+        updateCount();
+    }
+
+    public void addResults(List<TrialResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        for (TrialResult result : results) {
+            RunningSummary[] collectorSummaries = summaries.computeIfAbsent(result.getGcType(),
+                    key -> newSummaries());
+            for (int i = 0; i < metrics.size(); i++) {
+                double value = metrics.get(i).value.applyAsDouble(result);
+                collectorSummaries[i].add(value);
+                allSummaries[i].add(value);
+            }
+        }
+        runs.addAll(results);
+        summaryTable.refresh();
+        updateCount();
+    }
+
+    private void applyFilter() {
+        GCType gcType = collector.getValue();
+        filteredRuns.setPredicate(gcType == null ? null : result -> result.getGcType() == gcType);
+        summaryTable.refresh();
+        updateCount();
+    }
+
+    private void updateCount() {
+        countLabel.setText(filteredRuns.size() + " of " + runs.size() + " runs");
+    }
+
+    private RunningSummary[] currentSummaries() {
+        GCType gcType = collector.getValue();
+        if (gcType == null) {
+            return allSummaries;
+        }
+        RunningSummary[] collectorSummaries = summaries.get(gcType);
+        return collectorSummaries == null ? newSummaries() : collectorSummaries;
+    }
+
+    private RunningSummary[] newSummaries() {
+        RunningSummary[] newSummaries = new RunningSummary[metrics.size()];
+        for (int i = 0; i < newSummaries.length; i++) {
+            newSummaries[i] = new RunningSummary();
+        }
+        return newSummaries;
+    }
+
+    private static String format(String row, RunningSummary summary) {
+        double value;
+        switch (row) {
+            case "Min":
+                value = summary.getMin();
+                break;
+            case "Mean":
+                value = summary.getMean();
+                break;
+            case "Median":
+                value = summary.getMedian();
+                break;
+            case "Std Dev":
+                value = summary.getCount() == 0 ? Double.NaN : summary.getStdDev();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown summary row: " + row);
+        }
+        return Double.isNaN(value) ? "" : String.format("%.3f", value);
+    }
+
+    private static <T> TableColumn<TrialResult, T> column(String title, Function<TrialResult, T> value) {
+        TableColumn<TrialResult, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+
+    private static <T> TableColumn<TrialResult, T> telemetryColumn(String title, Function<RunTelemetry, T> value) {
+        return column(title, result -> result.getTelemetry() == null ? null : value.apply(result.getTelemetry()));
+    }
+
+    private static <T> TableColumn<TrialResult, T> warmUpColumn(String title, Function<WarmUp, T> value) {
+        return column(title, result -> result.getWarmUp() == null ? null : value.apply(result.getWarmUp()));
+    }
+
+    private static <T> TableColumn<TrialResult, T> throttlingColumn(String title, Function<ThrottlingStats, T> value) {
+        return column(title, result -> result.getThrottling() == null ? null : value.apply(result.getThrottling()));
+    }
+
+    private static TableColumn<String, String> summaryColumn(String title, Function<String, String> value) {
+        TableColumn<String, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        column.setSortable(false);
+        return column;
+    }
+
+    private static class Metric {
+        private final String title;
+        private final ToDoubleFunction<TrialResult> value;
+
+        private Metric(String title, ToDoubleFunction<TrialResult> value) {
+            this.title = title;
+            this.value = value;
+        }
+    }
+}
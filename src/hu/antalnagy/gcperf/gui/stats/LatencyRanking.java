@@ -0,0 +1,49 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks collectors by their pause-time percentiles and blends the result into the driver's leaderboard. Like the
+ * driver's metrics, every ranking awards (number of collectors - position) points. The driver's leaderboard counts
+ * once per metric it was built from, the configured percentiles share the weight of a single metric.
+ */
+public final class LatencyRanking {
+
+    private LatencyRanking() {
+    }
+
+    public static List<GCType> rank(List<GCType> gcTypes, List<GCType> leaderboard, int leaderboardMetrics,
+                                    Map<GCType, PauseHistogram> histograms, double[] percentiles) {
+        int size = gcTypes.size();
+        Map<GCType, Double> points = new EnumMap<>(GCType.class);
+        gcTypes.forEach(gcType -> points.put(gcType, 0.0));
+        for (int i = 0; i < leaderboard.size(); i++) {
+            points.merge(leaderboard.get(i), (double) leaderboardMetrics * (size - i), Double::sum);
+        }
+        for (double percentile : percentiles) {
+            List<GCType> byPercentile = new ArrayList<>(gcTypes);
+            byPercentile.sort(Comparator.comparingDouble(gcType -> valueAt(histograms, gcType, percentile)));
+            for (int i = 0; i < byPercentile.size(); i++) {
+                points.merge(byPercentile.get(i), (double) (size - i) / percentiles.length, Double::sum);
+            }
+        }
+        List<GCType> ranked = new ArrayList<>(gcTypes);
+        ranked.sort(Comparator.comparing(points::get, Comparator.reverseOrder()));
+        return ranked;
+    }
+
+    public static String columnName(double percentile) {
+        return "p" + (percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+
+    private static double valueAt(Map<GCType, PauseHistogram> histograms, GCType gcType, double percentile) {
+        PauseHistogram histogram = histograms.get(gcType);
+        return histogram == null ? Double.MAX_VALUE : histogram.getValueAtPercentile(percentile);
+    }
+}
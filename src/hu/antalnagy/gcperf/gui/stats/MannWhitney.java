@@ -0,0 +1,109 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+import java.util.Arrays;
+
+/**
+ * One-sided Mann-Whitney U test. Small samples without ties use the exact null distribution of U, everything else the
+ * normal approximation with tie and continuity correction.
+ */
+public final class MannWhitney {
+    private static final int EXACT_LIMIT = 20;
+
+    private MannWhitney() {
+    }
+
+    /**
+     * p-value of the hypothesis that the values of x tend to be larger than those of y, 1 if either sample is empty.
+     */
+    public static double pValueGreater(double[] x, double[] y) {
+        int n1 = x.length;
+        int n2 = y.length;
+        if (n1 == 0 || n2 == 0) {
+            return 1;
+        }
+        int n = n1 + n2;
+        double[][] pooled = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[]{x[i], 1};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[]{y[i], 0};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSumX = 0;
+        double tieTerm = 0;
+        for (int start = 0; start < n; ) {
+            int end = start;
+            while (end + 1 < n && pooled[end + 1][0] == pooled[start][0]) {
+                end++;
+            }
+            // tied values share the mean of their ranks
+            double midRank = (start + end) / 2.0 + 1;
+            for (int i = start; i <= end; i++) {
+                rankSumX += midRank * pooled[i][1];
+            }
+            double ties = end - start + 1;
+            tieTerm += ties * ties * ties - ties;
+            start = end + 1;
+        }
+        double u = rankSumX - n1 * (n1 + 1) / 2.0;
+
+        if (tieTerm == 0 && n1 <= EXACT_LIMIT && n2 <= EXACT_LIMIT) {
+            return exactUpperTail(n1, n2, (int) Math.round(u));
+        }
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 0.5 * erfc(z / Math.sqrt(2));
+    }
+
+    /**
+     * P(U >= u) under the null hypothesis, counting the rank arrangements with c(i, j, u) = c(i - 1, j, u - j) +
+     * c(i, j - 1, u).
+     */
+    private static double exactUpperTail(int n1, int n2, int u) {
+        long[][][] counts = new long[n1 + 1][n2 + 1][];
+        for (int i = 0; i <= n1; i++) {
+            for (int j = 0; j <= n2; j++) {
+                long[] c = new long[i * j + 1];
+                if (i == 0 || j == 0) {
+                    c[0] = 1;
+                } else {
+                    long[] withoutX = counts[i - 1][j];
+                    long[] withoutY = counts[i][j - 1];
+                    for (int k = 0; k < c.length; k++) {
+                        c[k] = (k >= j && k - j < withoutX.length ? withoutX[k - j] : 0)
+                                + (k < withoutY.length ? withoutY[k] : 0);
+                    }
+                }
+                counts[i][j] = c;
+            }
+        }
+        long[] distribution = counts[n1][n2];
+        long total = 0;
+        long tail = 0;
+        for (int k = 0; k < distribution.length; k++) {
+            total += distribution[k];
+            if (k >= u) {
+                tail += distribution[k];
+            }
+        }
+        return (double) tail / total;
+    }
+
+    /**
+     * Complementary error function, fractional error below 1.2e-7 (Numerical Recipes, erfcc).
+     */
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
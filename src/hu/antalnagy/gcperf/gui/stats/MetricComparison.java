@@ -0,0 +1,90 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+import hu.antalnagy.gcperf.GCType;
+
+/**
+ * Result of testing one metric of one collector against the baseline.
+ */
+public class MetricComparison {
+    private final GCType gcType;
+    private final RunMetric metric;
+    private final int baselineRuns;
+    private final int currentRuns;
+    private final double baselineMedian;
+    private final double currentMedian;
+    private final double pValue;
+    private final boolean regression;
+
+    public MetricComparison(GCType gcType, RunMetric metric, int baselineRuns, int currentRuns, double baselineMedian,
+                            double currentMedian, double pValue, boolean regression) {
+        this.gcType = gcType;
+        this.metric = metric;
+        this.baselineRuns = baselineRuns;
+        this.currentRuns = currentRuns;
+        this.baselineMedian = baselineMedian;
+        this.currentMedian = currentMedian;
+        this.pValue = pValue;
+        this.regression = regression;
+    }
+
+    public GCType getGcType() {
+        return gcType;
+    }
+
+    public RunMetric getMetric() {
+        return metric;
+    }
+
+    public int getBaselineRuns() {
+        return baselineRuns;
+    }
+
+    public int getCurrentRuns() {
+        return currentRuns;
+    }
+
+    public double getBaselineMedian() {
+        return baselineMedian;
+    }
+
+    public double getCurrentMedian() {
+        return currentMedian;
+    }
+
+    /**
+     * Relative change of the median in percent, positive when the metric got worse.
+     */
+    public double getWorseningPercent() {
+        return worseningPercent(metric, baselineMedian, currentMedian);
+    }
+
+    public static double worseningPercent(RunMetric metric, double baselineMedian, double currentMedian) {
+        if (baselineMedian == 0) {
+            if (currentMedian == 0) {
+                return 0;
+            }
+            boolean worse = metric.isHigherWorse() ? currentMedian > 0 : currentMedian < 0;
+            return worse ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        double change = (currentMedian - baselineMedian) / Math.abs(baselineMedian) * 100;
+        return metric.isHigherWorse() ? change : -change;
+    }
+
+    /**
+     * One-sided p-value of the current runs being worse than the baseline runs.
+     */
+    public double getPValue() {
+        return pValue;
+    }
+
+    public boolean isRegression() {
+        return regression;
+    }
+
+    @Override
+    public String toString() {
+        return gcType + " " + metric.getLabel() + ": median " + String.format("%.4f", baselineMedian) + " -> "
+                + String.format("%.4f", currentMedian) + " (" + String.format("%+.1f", getWorseningPercent())
+                + "% worse, p = " + String.format("%.4f", pValue) + ")" + (regression ? " REGRESSION" : "");
+    }
+}
@@ -0,0 +1,156 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of stop-the-world pauses in the style of HdrHistogram. Values are recorded in microseconds with
+ * 128 linear sub-buckets per power of two, which keeps the relative error of any percentile below 1%. The counts
+ * array only grows up to the largest recorded pause, so a run with short pauses stays a few kilobytes.
+ */
+public class PauseHistogram {
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (2L << SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    // about 35 minutes, longer pauses are clamped
+    private static final long MAX_VALUE_MICROS = Integer.MAX_VALUE;
+
+    private long[] counts = new long[2 * SUB_BUCKET_HALF_COUNT];
+    private long totalCount = 0;
+    private long maxMicros = 0;
+    private double sumMillis = 0;
+
+    public void record(double millis) {
+        long micros = Math.max(0, Math.min(Math.round(millis * 1000), MAX_VALUE_MICROS));
+        int index = countsIndex(micros);
+        ensureCapacity(index + 1);
+        counts[index]++;
+        totalCount++;
+        maxMicros = Math.max(maxMicros, micros);
+        sumMillis += micros / 1000.0;
+    }
+
+    public void add(PauseHistogram other) {
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxMicros = Math.max(maxMicros, other.maxMicros);
+        sumMillis += other.sumMillis;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public double getMax() {
+        return maxMicros / 1000.0;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sumMillis / totalCount;
+    }
+
+    /**
+     * Pause duration in milliseconds that the given percentage of pauses did not exceed, 0 if nothing was recorded.
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(requested / 100 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), maxMicros) / 1000.0;
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Passes every non-empty bucket with its median value in milliseconds to the consumer, in ascending order.
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                long lowest = valueFromIndex(i);
+                consumer.accept((lowest + highestEquivalentValue(i)) / 2000.0, counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the non-empty buckets, {@link #read} restores the histogram exactly.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(totalCount);
+        out.writeLong(maxMicros);
+        out.writeDouble(sumMillis);
+        out.writeInt((int) Arrays.stream(counts).filter(count -> count > 0).count());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                out.writeInt(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    public static PauseHistogram read(DataInput in) throws IOException {
+        PauseHistogram histogram = new PauseHistogram();
+        histogram.totalCount = in.readLong();
+        histogram.maxMicros = in.readLong();
+        histogram.sumMillis = in.readDouble();
+        int buckets = in.readInt();
+        for (int i = 0; i < buckets; i++) {
+            int index = in.readInt();
+            if (index < 0 || index > countsIndex(MAX_VALUE_MICROS)) {
+                throw new IOException("Corrupt pause histogram bucket: " + index);
+            }
+            histogram.ensureCapacity(index + 1);
+            histogram.counts[index] = in.readLong();
+        }
+        return histogram;
+    }
+
+    private void ensureCapacity(int length) {
+        if (counts.length < length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length + SUB_BUCKET_HALF_COUNT));
+        }
+    }
+
+    private static int countsIndex(long micros) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(micros | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (micros >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static int bucketIndexOf(int countsIndex) {
+        return Math.max((countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1, 0);
+    }
+
+    private static long valueFromIndex(int countsIndex) {
+        int bucketIndex = (countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (countsIndex & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private static long highestEquivalentValue(int countsIndex) {
+        return valueFromIndex(countsIndex) + (1L << bucketIndexOf(countsIndex)) - 1;
+    }
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(double millis, long count);
+    }
+}
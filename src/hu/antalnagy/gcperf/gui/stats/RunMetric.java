@@ -0,0 +1,27 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+/**
+ * Per-run metrics compared against the baseline of an application, with the direction in which they get worse.
+ */
+public enum RunMetric {
+    GC_RUNTIME("GC Runtime (sec)", true),
+    STW_TIME("STW Time (sec)", true),
+    THROUGHPUT("Throughput (%)", false),
+    P99_PAUSE("P99 Pause (ms)", true);
+
+    private final String label;
+    private final boolean higherWorse;
+
+    RunMetric(String label, boolean higherWorse) {
+        this.label = label;
+        this.higherWorse = higherWorse;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isHigherWorse() {
+        return higherWorse;
+    }
+}
@@ -0,0 +1,64 @@
+package hu.antalnagy.gcperf.gui.stats;
+
+import java.util.Arrays;
+
+/**
+ * Min, max, mean, standard deviation and median of a growing sample, updated value by value: Welford's algorithm for
+ * the moments and a sorted array for the median. NaN values are ignored.
+ */
+public class RunningSummary {
+    private double[] sorted = new double[16];
+    private int count;
+    private double mean;
+    private double m2;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == sorted.length) {
+            sorted = Arrays.copyOf(sorted, 2 * count);
+        }
+        int index = Arrays.binarySearch(sorted, 0, count, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        System.arraycopy(sorted, index, sorted, index + 1, count - index);
+        sorted[index] = value;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : sorted[0];
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : sorted[count - 1];
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    public double getMedian() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int mid = count / 2;
+        return count % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    /**
+     * Sample standard deviation, 0 below two values.
+     */
+    public double getStdDev() {
+        return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+    }
+}
@@ -0,0 +1,141 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Decides when a collector has been sampled often enough. A collector stops once the full width of the 95% confidence
+ * interval of its mean on the ranking metric, lower to upper bound, is at most the target width relative to the mean,
+ * or once another collector's interval lies entirely on the better side of its own.
+ */
+public class AdaptiveSampling {
+    public static final int MIN_RUNS = 3;
+    // two-sided 95% quantiles of Student's t distribution for 1..30 degrees of freedom
+    private static final double[] T_QUANTILES = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262,
+            2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064,
+            2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+    private static final double Z_QUANTILE = 1.96;
+
+    private final String metricName;
+    private final ToDoubleFunction<TrialResult> metric;
+    private final boolean higherIsBetter;
+    private final double targetRelativeWidth;
+
+    public AdaptiveSampling(String metricName, ToDoubleFunction<TrialResult> metric, boolean higherIsBetter,
+                            double targetRelativeWidth) {
+        if (targetRelativeWidth <= 0) {
+            throw new IllegalArgumentException("Target confidence interval width must be positive");
+        }
+        this.metricName = metricName;
+        this.metric = metric;
+        this.higherIsBetter = higherIsBetter;
+        this.targetRelativeWidth = targetRelativeWidth;
+    }
+
+    /**
+     * Samples on the first selected metric, in the order the GUI lists them. The driver's latency metric is
+     * approximated by the stop-the-world time of a run, tail latency by the highest configured percentile.
+     */
+    public static AdaptiveSampling forMetrics(Analysis.Metrics[] metrics, boolean tailLatency, double[] percentiles,
+                                              double targetRelativeWidth) {
+        if (metrics.length > 0) {
+            switch (metrics[0]) {
+                case Throughput:
+                    return new AdaptiveSampling("throughput", TrialResult::getThroughput, true, targetRelativeWidth);
+                case Latency:
+                    return new AdaptiveSampling("STW time", TrialResult::getStwTime, false, targetRelativeWidth);
+                case MinorPauses:
+                    return new AdaptiveSampling("minor pauses", TrialResult::getMinorPauses, false, targetRelativeWidth);
+                case FullPauses:
+                    return new AdaptiveSampling("full pauses", TrialResult::getFullPauses, false, targetRelativeWidth);
+                default:
+                    return new AdaptiveSampling("GC runtime", TrialResult::getGcRuntime, false, targetRelativeWidth);
+            }
+        }
+        if (tailLatency && percentiles.length > 0) {
+            double percentile = percentiles[0];
+            for (double p : percentiles) {
+                percentile = Math.max(percentile, p);
+            }
+            double tail = percentile;
+            return new AdaptiveSampling(LatencyRanking.columnName(tail) + " pause", result -> result.getPauseHistogram()
+                    .getValueAtPercentile(tail), false, targetRelativeWidth);
+        }
+        return new AdaptiveSampling("GC runtime", TrialResult::getGcRuntime, false, targetRelativeWidth);
+    }
+
+    /**
+     * Returns why the collector needs no more runs, or null if it should keep running.
+     */
+    String stopReason(GCType gcType, Map<GCType, List<TrialResult>> finishedRuns) {
+        Interval own = interval(finishedRuns.get(gcType));
+        if (own == null) {
+            return null;
+        }
+        if (2 * own.halfWidth <= targetRelativeWidth * Math.abs(own.mean)) {
+            return metricName + " settled at " + own;
+        }
+        for (Map.Entry<GCType, List<TrialResult>> entry : finishedRuns.entrySet()) {
+            Interval other = entry.getKey() == gcType ? null : interval(entry.getValue());
+            if (other != null && (higherIsBetter ? other.lower() > own.upper() : other.upper() < own.lower())) {
+                return "out of contention, " + metricName + " " + own + " vs. " + entry.getKey().name() + " " + other;
+            }
+        }
+        return null;
+    }
+
+    private Interval interval(List<TrialResult> runs) {
+        if (runs == null || runs.size() < MIN_RUNS) {
+            return null;
+        }
+        int n = runs.size();
+        double mean = 0;
+        for (TrialResult run : runs) {
+            mean += metric.applyAsDouble(run);
+        }
+        mean /= n;
+        double squares = 0;
+        for (TrialResult run : runs) {
+            double deviation = metric.applyAsDouble(run) - mean;
+            squares += deviation * deviation;
+        }
+        double standardError = Math.sqrt(squares / (n - 1) / n);
+        return new Interval(mean, tQuantile(n - 1) * standardError);
+    }
+
+    public static double tQuantile(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_QUANTILES.length) {
+            return T_QUANTILES[degreesOfFreedom - 1];
+        }
+        // first term of the Cornish-Fisher expansion, within 0.005 of the exact quantile above 30 degrees of freedom
+        return Z_QUANTILE + (Math.pow(Z_QUANTILE, 3) + Z_QUANTILE) / (4.0 * degreesOfFreedom);
+    }
+
+    private static class Interval {
+        private final double mean;
+        private final double halfWidth;
+
+        private Interval(double mean, double halfWidth) {
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+        }
+
+        private double lower() {
+            return mean - halfWidth;
+        }
+
+        private double upper() {
+            return mean + halfWidth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f +/- %.4f", mean, halfWidth);
+        }
+    }
+}
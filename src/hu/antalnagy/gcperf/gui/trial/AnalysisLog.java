@@ -0,0 +1,103 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.FileHandler;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Log file of one analysis. Analyses running at the same time log through the same static loggers, so the file only
+ * takes the records logged on threads working for its analysis: the thread that opened it, and the threads and tasks
+ * the analysis hands work to through {@link #bind} or {@link #threadFactory}.
+ */
+public class AnalysisLog implements AutoCloseable {
+    private static final ThreadLocal<AnalysisLog> CURRENT = new ThreadLocal<>();
+
+    private final List<Logger> loggers;
+    private final FileHandler fileHandler;
+    private final AnalysisLog previous;
+
+    private AnalysisLog(Path path, List<Logger> loggers) throws IOException {
+        this.loggers = List.copyOf(loggers);
+        this.fileHandler = new FileHandler(path.toString());
+        this.previous = CURRENT.get();
+        fileHandler.setFormatter(new SimpleFormatter());
+        fileHandler.setFilter(record -> CURRENT.get() == this);
+        this.loggers.forEach(logger -> logger.addHandler(fileHandler));
+    }
+
+    /**
+     * Opens the log on the calling thread, which has to close it.
+     */
+    public static AnalysisLog open(Path path, List<Logger> loggers) throws IOException {
+        AnalysisLog analysisLog = new AnalysisLog(path, loggers);
+        CURRENT.set(analysisLog);
+        return analysisLog;
+    }
+
+    /**
+     * Runs the task in the log of the calling thread, wherever it is run.
+     */
+    public static Runnable bind(Runnable task) {
+        return bind(CURRENT.get(), task);
+    }
+
+    public static <T> Callable<T> bind(Callable<T> task) {
+        AnalysisLog analysisLog = CURRENT.get();
+        return () -> {
+            AnalysisLog outer = CURRENT.get();
+            CURRENT.set(analysisLog);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(outer);
+            }
+        };
+    }
+
+    /**
+     * Executor running its tasks on the given one in the log of the calling thread, e.g. for the async stages of a
+     * run's future.
+     */
+    public static Executor bind(Executor executor) {
+        AnalysisLog analysisLog = CURRENT.get();
+        return task -> executor.execute(bind(analysisLog, task));
+    }
+
+    /**
+     * Factory of threads logging to the log of the calling thread, for pools that only live as long as the analysis.
+     */
+    public static ThreadFactory threadFactory() {
+        AnalysisLog analysisLog = CURRENT.get();
+        return task -> new Thread(bind(analysisLog, task));
+    }
+
+    private static Runnable bind(AnalysisLog analysisLog, Runnable task) {
+        return () -> {
+            AnalysisLog outer = CURRENT.get();
+            CURRENT.set(analysisLog);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(outer);
+            }
+        };
+    }
+
+    /**
+     * Detaches the file from the loggers and closes it.
+     */
+    @Override
+    public void close() {
+        loggers.forEach(logger -> logger.removeHandler(fileHandler));
+        fileHandler.close();
+        if (CURRENT.get() == this) {
+            CURRENT.set(previous);
+        }
+    }
+}
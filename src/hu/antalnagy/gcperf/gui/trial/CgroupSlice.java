@@ -0,0 +1,160 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The cgroup v2 directory of a single run, limited by a {@link ResourceProfile}. Slices are created under a root the
+ * user may write to, /sys/fs/cgroup/gcperf by default or the gcperf.cgroupRoot system property, e.g. a delegated
+ * systemd unit. The child JVM is moved into its slice by the shell it is exec'd from, so it already sees the limits
+ * when it sizes its heap and GC threads.
+ */
+public class CgroupSlice {
+    private static final Logger LOGGER = Logger.getLogger(CgroupSlice.class.getSimpleName());
+    public static final String ROOT_PROPERTY = "gcperf.cgroupRoot";
+    private static final String DEFAULT_ROOT = "/sys/fs/cgroup/gcperf";
+    private static final List<String> CONTROLLERS = List.of("cpu", "cpuset", "memory");
+    private static final long CPU_PERIOD_USEC = 100_000;
+
+    private final Path path;
+
+    private CgroupSlice(Path path) {
+        this.path = path;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public static Path root() {
+        return Paths.get(System.getProperty(ROOT_PROPERTY, DEFAULT_ROOT));
+    }
+
+    /**
+     * Enables the cpu, cpuset and memory controllers for the slices under the root. Fails with the reason if the
+     * root is no cgroup v2 directory or the controllers are not delegated to it.
+     */
+    public static synchronized void prepareRoot(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            if (root.getParent() == null || !Files.isRegularFile(root.getParent().resolve("cgroup.controllers"))) {
+                throw new IOException(root.getParent() + " is not a cgroup v2 directory, resource profiles need the "
+                        + "unified hierarchy, see " + ROOT_PROPERTY);
+            }
+            try {
+                Files.createDirectory(root);
+            } catch (IOException e) {
+                throw new IOException("Could not create the cgroup " + root + ", set " + ROOT_PROPERTY + " to a " +
+                        "cgroup v2 directory delegated to this user: " + e.getMessage());
+            }
+        }
+        Path controllers = root.resolve("cgroup.controllers");
+        if (!Files.isRegularFile(controllers)) {
+            throw new IOException(root + " is not a cgroup v2 directory, resource profiles need the unified hierarchy");
+        }
+        List<String> available = Arrays.asList(Files.readString(controllers).trim().split("\\s+"));
+        List<String> missing = new ArrayList<>(CONTROLLERS);
+        missing.removeAll(available);
+        if (!missing.isEmpty()) {
+            throw new IOException("Controllers " + missing + " are not delegated to " + root);
+        }
+        try {
+            Files.writeString(root.resolve("cgroup.subtree_control"), "+cpu +cpuset +memory");
+        } catch (IOException e) {
+            throw new IOException("Could not enable the controllers of " + root + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the slice of a run; cpus are the worker slot's CPUs the profile's cpuset defaults to, null for any.
+     */
+    static CgroupSlice create(Path root, String name, ResourceProfile profile, String cpus) throws IOException {
+        Path path = root.resolve(name);
+        if (Files.isDirectory(path)) {
+            // left over by a crashed process with the same pid
+            Files.delete(path);
+        }
+        Files.createDirectory(path);
+        CgroupSlice slice = new CgroupSlice(path);
+        try {
+            slice.write("cpu.max", profile.getCpus() > 0
+                    ? Math.round(profile.getCpus() * CPU_PERIOD_USEC) + " " + CPU_PERIOD_USEC : "max " + CPU_PERIOD_USEC);
+            String cpuset = profile.getCpuset() != null ? profile.getCpuset() : cpus;
+            if (cpuset != null) {
+                slice.write("cpuset.cpus", cpuset);
+            }
+            if (profile.getMemoryMB() > 0) {
+                slice.write("memory.max", String.valueOf(profile.getMemoryMB() * 1024L * 1024L));
+                // a pod has no swap to spill into
+                if (Files.exists(path.resolve("memory.swap.max"))) {
+                    slice.write("memory.swap.max", "0");
+                }
+            }
+        } catch (IOException e) {
+            slice.remove();
+            throw e;
+        }
+        return slice;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Prefix of the run's command: a shell that moves itself into the slice and execs the JVM in its place.
+     */
+    List<String> commandPrefix() {
+        return List.of("sh", "-c", "echo $$ > \"$0\" && exec \"$@\"", path.resolve("cgroup.procs").toString());
+    }
+
+    ThrottlingStats readStats() throws IOException {
+        Map<String, Long> cpuStat = readFlatKeyed("cpu.stat");
+        Map<String, Long> memoryEvents = Files.exists(path.resolve("memory.events")) ? readFlatKeyed("memory.events")
+                : Map.of();
+        return new ThrottlingStats(cpuStat.getOrDefault("nr_periods", 0L), cpuStat.getOrDefault("nr_throttled", 0L),
+                cpuStat.getOrDefault("throttled_usec", 0L) / 1000.0, memoryEvents.getOrDefault("max", 0L),
+                memoryEvents.getOrDefault("oom_kill", 0L));
+    }
+
+    void remove() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Removing cgroup " + path + " failed, a process of the run may still be alive: "
+                    + e.getMessage());
+        }
+    }
+
+    private void write(String file, String value) throws IOException {
+        try {
+            Files.writeString(path.resolve(file), value);
+        } catch (IOException e) {
+            throw new IOException("Could not write " + value + " to " + path.resolve(file) + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Long> readFlatKeyed(String file) throws IOException {
+        Map<String, Long> values = new HashMap<>();
+        for (String line : Files.readAllLines(path.resolve(file), StandardCharsets.UTF_8)) {
+            String[] keyValue = line.trim().split("\\s+");
+            if (keyValue.length == 2) {
+                try {
+                    values.put(keyValue[0], Long.parseLong(keyValue[1]));
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.WARNING, "Skipping " + file + " line: " + line);
+                }
+            }
+        }
+        return values;
+    }
+}
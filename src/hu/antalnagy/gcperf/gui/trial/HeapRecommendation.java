@@ -0,0 +1,84 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class HeapRecommendation {
+    private final GCType gcType;
+    private final int minViableHeap;
+    private final int kneeHeap;
+    private final double kneeThroughput;
+    private final int maxHeap;
+    private final int runs;
+    private final Map<Integer, Double> throughputs;
+
+    HeapRecommendation(GCType gcType, int minViableHeap, int kneeHeap, double kneeThroughput, int maxHeap, int runs,
+                       Map<Integer, Double> throughputs) {
+        this.gcType = gcType;
+        this.minViableHeap = minViableHeap;
+        this.kneeHeap = kneeHeap;
+        this.kneeThroughput = kneeThroughput;
+        this.maxHeap = maxHeap;
+        this.runs = runs;
+        this.throughputs = new TreeMap<>(throughputs);
+    }
+
+    static HeapRecommendation notViable(GCType gcType, int maxHeap, int runs) {
+        return new HeapRecommendation(gcType, 0, 0, 0, maxHeap, runs, Map.of());
+    }
+
+    public GCType getGcType() {
+        return gcType;
+    }
+
+    public boolean isViable() {
+        return minViableHeap > 0;
+    }
+
+    /**
+     * Smallest -Xmx in MB the application completed with, 0 if it failed even with the maximum heap.
+     */
+    public int getMinViableHeap() {
+        return minViableHeap;
+    }
+
+    /**
+     * Smallest probed -Xmx in MB beyond which more heap no longer improved throughput noticeably.
+     */
+    public int getKneeHeap() {
+        return kneeHeap;
+    }
+
+    public double getKneeThroughput() {
+        return kneeThroughput;
+    }
+
+    /**
+     * Largest -Xmx in MB the search probed.
+     */
+    public int getMaxHeap() {
+        return maxHeap;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Median throughput per probed -Xmx in MB, in ascending heap order.
+     */
+    public Map<Integer, Double> getThroughputs() {
+        return new TreeMap<>(throughputs);
+    }
+
+    @Override
+    public String toString() {
+        if (!isViable()) {
+            return gcType.name() + ": not viable within " + maxHeap + "MB (" + runs + " runs)";
+        }
+        return gcType.name() + ": min. viable Xmx " + minViableHeap + "MB, knee Xmx " + kneeHeap + "MB at "
+                + String.format("%.2f", kneeThroughput) + "% throughput (" + runs + " runs)";
+    }
+}
@@ -0,0 +1,189 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Searches every collector's heap sizes instead of sweeping them with fixed increments. A binary search over -Xmx up
+ * to the maximum heap finds the smallest heap the application completes with. From there the heap is doubled, never
+ * past the maximum, until throughput stops improving, and the knee is the smallest probed heap within
+ * {@link #KNEE_TOLERANCE} of the best throughput.
+ * Collectors are searched concurrently, the worker slots bound how many child JVMs run at once.
+ */
+public class HeapSearch {
+    private static final Logger LOGGER = Logger.getLogger(HeapSearch.class.getSimpleName());
+    static final int MIN_HEAP = 16;
+    private static final int PRECISION = 8;
+    // throughput percentage points
+    private static final double KNEE_TOLERANCE = 1.0;
+
+    private final TrialRunner trialRunner;
+    private final BlockingQueue<WorkerSlot> freeSlots;
+    private final TrialProgress progress;
+    private final int initHeap;
+    private final int maxHeap;
+    private final int repeats;
+
+    /**
+     * Searches up to maxHeap MB, which must leave room for the JVM beyond the heap within any memory limit of the
+     * runs.
+     */
+    public HeapSearch(TrialRunner trialRunner, List<WorkerSlot> slots, TrialProgress progress, int initHeap,
+                      int maxHeap, int repeats) {
+        if (maxHeap < MIN_HEAP) {
+            throw new IllegalArgumentException("The maximum heap size must be at least " + MIN_HEAP + "MB");
+        }
+        this.trialRunner = trialRunner;
+        this.freeSlots = new LinkedBlockingQueue<>(slots);
+        this.progress = progress;
+        this.initHeap = initHeap;
+        this.maxHeap = maxHeap;
+        this.repeats = repeats;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Upper bound of the runs a single collector's search up to maxHeap MB takes with the given repeats per ladder
+     * step.
+     */
+    public static int maxRuns(int repeats, int maxHeap) {
+        int binarySearchRuns = 2 + ceilLog2(Math.max(1, (maxHeap - MIN_HEAP) / PRECISION));
+        int ladderSteps = 1 + ceilLog2(Math.max(1, maxHeap / MIN_HEAP));
+        return binarySearchRuns + ladderSteps * repeats;
+    }
+
+    public Map<GCType, HeapRecommendation> search(List<GCType> gcTypes) throws InterruptedException {
+        Map<GCType, HeapRecommendation> recommendations = new EnumMap<>(GCType.class);
+        ExecutorService executor = Executors.newFixedThreadPool(gcTypes.size(), AnalysisLog.threadFactory());
+        try {
+            Map<GCType, Future<HeapRecommendation>> searches = new EnumMap<>(GCType.class);
+            gcTypes.forEach(gcType -> searches.put(gcType, executor.submit(() -> searchCollector(gcType))));
+            for (Map.Entry<GCType, Future<HeapRecommendation>> search : searches.entrySet()) {
+                try {
+                    recommendations.put(search.getKey(), search.getValue().get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "Heap search failed for GC Type: " + search.getKey().name() + ": "
+                            + e.getCause());
+                    progress.fail("Heap search failed for GC Type: " + search.getKey().name());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return recommendations;
+    }
+
+    private HeapRecommendation searchCollector(GCType gcType) throws InterruptedException {
+        LOGGER.log(Level.INFO, "Initializing heap search with GC Type: " + gcType.name());
+        int[] runs = {0};
+        HeapRecommendation recommendation;
+        int minViableHeap = findMinViableHeap(gcType, runs);
+        if (minViableHeap == 0) {
+            recommendation = HeapRecommendation.notViable(gcType, maxHeap, runs[0]);
+        } else {
+            recommendation = findKnee(gcType, minViableHeap, runs);
+        }
+        LOGGER.log(Level.INFO, "Heap search result: " + recommendation);
+        progress.skipRuns(gcType, maxRuns(repeats, maxHeap) - runs[0]);
+        return recommendation;
+    }
+
+    private int findMinViableHeap(GCType gcType, int[] runs) throws InterruptedException {
+        int lo = MIN_HEAP;
+        int hi = maxHeap;
+        if (probe(gcType, hi, runs).isFailed()) {
+            return 0;
+        }
+        if (!probe(gcType, lo, runs).isFailed()) {
+            return lo;
+        }
+        // lo always failed, hi always completed
+        while (hi - lo > PRECISION) {
+            int mid = lo + (hi - lo) / 2;
+            if (probe(gcType, mid, runs).isFailed()) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+
+    private HeapRecommendation findKnee(GCType gcType, int minViableHeap, int[] runs) throws InterruptedException {
+        Map<Integer, Double> throughputs = new TreeMap<>();
+        List<Double> improvements = new ArrayList<>();
+        Double previous = null;
+        for (int heap = minViableHeap; ; heap = Math.min(heap * 2, maxHeap)) {
+            double[] samples = new double[repeats];
+            int succeeded = 0;
+            for (int i = 0; i < repeats; i++) {
+                TrialResult result = probe(gcType, heap, runs);
+                if (!result.isFailed()) {
+                    samples[succeeded++] = result.getThroughput();
+                }
+            }
+            if (succeeded > 0) {
+                double median = median(Arrays.copyOf(samples, succeeded));
+                throughputs.put(heap, median);
+                if (previous != null) {
+                    improvements.add(median - previous);
+                }
+                previous = median;
+            }
+            int last = improvements.size();
+            boolean flattened = last >= 2 && improvements.get(last - 1) < KNEE_TOLERANCE
+                    && improvements.get(last - 2) < KNEE_TOLERANCE;
+            if (heap >= maxHeap || flattened) {
+                break;
+            }
+        }
+        if (throughputs.isEmpty()) {
+            return new HeapRecommendation(gcType, minViableHeap, minViableHeap, 0, maxHeap, runs[0],
+                    throughputs);
+        }
+        double best = throughputs.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        for (Map.Entry<Integer, Double> step : throughputs.entrySet()) {
+            if (step.getValue() >= best - KNEE_TOLERANCE) {
+                return new HeapRecommendation(gcType, minViableHeap, step.getKey(), step.getValue(), maxHeap,
+                        runs[0], throughputs);
+            }
+        }
+        throw new IllegalStateException("No heap size reached the best throughput");
+    }
+
+    // numbered per collector, so a repeated search identifies the same runs, see RunCache
+    private TrialResult probe(GCType gcType, int xmx, int[] runs) throws InterruptedException {
+        Trial trial = new Trial(gcType, runs[0]++, 0, Math.min(initHeap, xmx), xmx);
+        progress.runStarted(trial);
+        TrialResult result = trialRunner.run(trial, freeSlots);
+        progress.runFinished(result);
+        return result;
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int mid = values.length / 2;
+        return values.length % 2 == 1 ? values[mid] : (values[mid - 1] + values[mid]) / 2;
+    }
+
+    private static int ceilLog2(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value - 1);
+    }
+}
@@ -0,0 +1,108 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Extracted jars keyed by the SHA-256 of their content, so analysing the same artifact again skips unpacking. A jar
+ * is extracted into a staging directory and moved into place once complete; the main class file written last marks
+ * an entry as usable. Entries are only read by the child JVMs, which run with the entry on their class path.
+ */
+public class JarCache {
+    private static final Logger LOGGER = Logger.getLogger(JarCache.class.getSimpleName());
+    private static final String MAIN_CLASS_FILE = ".main-class";
+
+    private final Path cachePath;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public JarCache(Path cachePath) {
+        this.cachePath = cachePath.toAbsolutePath();
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public Path getCachePath() {
+        return cachePath;
+    }
+
+    /**
+     * Directory holding the extracted content of the jar, extracting it first if it is not cached yet.
+     */
+    public Path extract(File jar) throws IOException {
+        String hash = sha256(jar.toPath());
+        Path entry = cachePath.resolve(hash);
+        synchronized (locks.computeIfAbsent(hash, key -> new Object())) {
+            if (Files.isRegularFile(entry.resolve(MAIN_CLASS_FILE))) {
+                LOGGER.log(Level.INFO, "Using cached extraction of " + jar.getName());
+                return entry;
+            }
+            Files.createDirectories(cachePath);
+            Path staging = Files.createTempDirectory(cachePath, hash + ".tmp");
+            try {
+                String mainClass = Workspace.extractJar(jar, staging);
+                Files.writeString(staging.resolve(MAIN_CLASS_FILE), mainClass, StandardCharsets.UTF_8);
+                // an entry without main class file is a leftover of an interrupted extraction
+                Workspace.deleteDirectory(entry);
+                Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // another process may have moved the same entry into place first
+                if (!Files.isRegularFile(entry.resolve(MAIN_CLASS_FILE))) {
+                    throw e;
+                }
+            } finally {
+                Workspace.deleteDirectory(staging);
+            }
+            LOGGER.log(Level.INFO, "Extracted " + jar.getName() + " into the jar cache");
+            return entry;
+        }
+    }
+
+    public static String mainClassOf(Path entry) throws IOException {
+        return Files.readString(entry.resolve(MAIN_CLASS_FILE), StandardCharsets.UTF_8).trim();
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    static String sha256(byte[] data) {
+        return hex(sha256Digest().digest(data));
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
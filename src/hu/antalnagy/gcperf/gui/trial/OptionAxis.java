@@ -0,0 +1,107 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One dimension of an option sweep: a JVM option template and the values it is tried with. Written as
+ * {@code [collectors:]template}, where the template holds one {@code {a,b,...}} group, for example
+ * {@code -XX:ParallelGCThreads={1,2,4}}, {@code -XX:{+,-}AlwaysPreTouch} or
+ * {@code SHENANDOAH:-XX:ShenandoahGCHeuristics={adaptive,compact}}. An empty value, as in
+ * {@code {,-XX:+AlwaysPreTouch}}, leaves the JVM's default. An axis scoped to collectors is only swept with those.
+ */
+public class OptionAxis {
+    private final String name;
+    private final Set<GCType> gcTypes;
+    private final List<String> values;
+    private final List<String> options;
+
+    private OptionAxis(String name, Set<GCType> gcTypes, List<String> values, List<String> options) {
+        this.name = name;
+        this.gcTypes = gcTypes;
+        this.values = values;
+        this.options = options;
+    }
+
+    public static OptionAxis parse(String spec) {
+        String template = spec.strip();
+        Set<GCType> gcTypes = EnumSet.allOf(GCType.class);
+        int scopeEnd = template.indexOf(':');
+        if (scopeEnd > 0 && !template.startsWith("-") && !template.startsWith("{")) {
+            gcTypes = EnumSet.noneOf(GCType.class);
+            for (String gcType : template.substring(0, scopeEnd).split(",")) {
+                try {
+                    gcTypes.add(GCType.valueOf(gcType.strip().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown GC Type in option axis " + spec + ": " + gcType);
+                }
+            }
+            template = template.substring(scopeEnd + 1).strip();
+        }
+        int open = template.indexOf('{');
+        int close = template.indexOf('}');
+        if (open < 0 || close < open || template.indexOf('{', open + 1) >= 0 || template.indexOf('}', close + 1) >= 0) {
+            throw new IllegalArgumentException("Option axis " + spec + " needs exactly one {value,...} group");
+        }
+        String prefix = template.substring(0, open);
+        String suffix = template.substring(close + 1);
+        List<String> values = new ArrayList<>();
+        List<String> options = new ArrayList<>();
+        for (String value : template.substring(open + 1, close).split(",", -1)) {
+            value = value.strip();
+            String option = value.isEmpty() ? "" : prefix + value + suffix;
+            if (!option.isEmpty() && (!option.startsWith("-X") || option.chars().anyMatch(Character::isWhitespace))) {
+                throw new IllegalArgumentException("Option axis " + spec + " must expand to single -X or -XX options, "
+                        + "not: " + option);
+            }
+            if (values.contains(value)) {
+                throw new IllegalArgumentException("Option axis " + spec + " lists " + value + " twice");
+            }
+            values.add(value);
+            options.add(option);
+        }
+        if (values.size() < 2) {
+            throw new IllegalArgumentException("Option axis " + spec + " needs at least two values");
+        }
+        String name = (prefix + suffix).isEmpty() ? options.stream().filter(option -> !option.isEmpty()).findFirst()
+                .orElse(template) : prefix + suffix;
+        name = name.replaceFirst("^-XX:[+-]?", "").replaceFirst("=.*$", "");
+        return new OptionAxis(name, gcTypes, values, options);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean appliesTo(GCType gcType) {
+        return gcTypes.contains(gcType);
+    }
+
+    public int getLevels() {
+        return values.size();
+    }
+
+    /**
+     * Value of the level as written in the template, empty for the JVM's default.
+     */
+    public String getValue(int level) {
+        return values.get(level);
+    }
+
+    /**
+     * The JVM option of the level, empty for the JVM's default.
+     */
+    public String getOption(int level) {
+        return options.get(level);
+    }
+
+    @Override
+    public String toString() {
+        return name + values;
+    }
+}
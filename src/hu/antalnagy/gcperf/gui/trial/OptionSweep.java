@@ -0,0 +1,154 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the option combinations a {@link SweepPlanner} plans for every collector at a fixed heap size and ranks them by
+ * the planner's objective. Combinations with failed runs rank behind the ones without. Collectors are swept
+ * concurrently and the runs of a round are spread over all worker slots.
+ */
+public class OptionSweep {
+    private static final Logger LOGGER = Logger.getLogger(OptionSweep.class.getSimpleName());
+
+    private final TrialRunner trialRunner;
+    private final BlockingQueue<WorkerSlot> freeSlots;
+    private final int slotCount;
+    private final TrialProgress progress;
+    private final SweepPlanner planner;
+    private final int xms;
+    private final int xmx;
+    private final int runs;
+    private final int maxRuns;
+    private ExecutorService runExecutor;
+
+    /**
+     * Every combination gets runs runs in the first round, maxRuns is the budget the progress was created with.
+     */
+    public OptionSweep(TrialRunner trialRunner, List<WorkerSlot> slots, TrialProgress progress, SweepPlanner planner,
+                       int xms, int xmx, int runs, int maxRuns) {
+        this.trialRunner = trialRunner;
+        this.freeSlots = new LinkedBlockingQueue<>(slots);
+        this.slotCount = slots.size();
+        this.progress = progress;
+        this.planner = planner;
+        this.xms = xms;
+        this.xmx = xmx;
+        this.runs = runs;
+        this.maxRuns = maxRuns;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Most runs the sweep of any of the collectors takes.
+     */
+    public static int maxRuns(SweepPlanner planner, List<GCType> gcTypes, int runs) {
+        return gcTypes.stream().mapToInt(gcType -> planner.plannedRuns(gcType, runs)).max().orElse(0);
+    }
+
+    /**
+     * Ranked combinations per collector, best first.
+     */
+    public Map<GCType, List<SweepCandidate>> sweep(List<GCType> gcTypes) throws InterruptedException {
+        Map<GCType, List<SweepCandidate>> rankings = new EnumMap<>(GCType.class);
+        ExecutorService executor = Executors.newFixedThreadPool(gcTypes.size(), AnalysisLog.threadFactory());
+        runExecutor = Executors.newFixedThreadPool(slotCount, AnalysisLog.threadFactory());
+        try {
+            Map<GCType, Future<List<SweepCandidate>>> sweeps = new EnumMap<>(GCType.class);
+            gcTypes.forEach(gcType -> sweeps.put(gcType, executor.submit(() -> sweepCollector(gcType))));
+            for (Map.Entry<GCType, Future<List<SweepCandidate>>> sweep : sweeps.entrySet()) {
+                try {
+                    rankings.put(sweep.getKey(), sweep.getValue().get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "Option sweep failed for GC Type: " + sweep.getKey().name() + ": "
+                            + e.getCause());
+                    progress.fail("Option sweep failed for GC Type: " + sweep.getKey().name());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            runExecutor.shutdownNow();
+        }
+        return rankings;
+    }
+
+    private List<SweepCandidate> sweepCollector(GCType gcType) throws InterruptedException, ExecutionException {
+        List<SweepCandidate> alive = planner.plan(gcType);
+        LOGGER.log(Level.INFO, "Initializing option sweep with GC Type: " + gcType.name() + ", " + alive.size()
+                + " combination(s)");
+        List<List<SweepCandidate>> dropped = new ArrayList<>();
+        int done = 0;
+        int previous = 0;
+        for (int target = runs; ; target *= 2) {
+            alive.forEach(SweepCandidate::startRound);
+            done += runRound(gcType, alive, previous, target);
+            alive.sort(ranking(planner.getObjective()));
+            int kept = (alive.size() + 1) / 2;
+            if (!planner.isSuccessiveHalving() || kept <= 1) {
+                break;
+            }
+            dropped.add(0, new ArrayList<>(alive.subList(kept, alive.size())));
+            alive = new ArrayList<>(alive.subList(0, kept));
+            LOGGER.log(Level.INFO, gcType.name() + ": kept " + kept + " combination(s) after round "
+                    + alive.get(0).getRounds());
+            previous = target;
+        }
+        List<SweepCandidate> ranked = new ArrayList<>(alive);
+        dropped.forEach(ranked::addAll);
+        LOGGER.log(Level.INFO, "Option sweep result: " + ranked.get(0));
+        if (maxRuns > done) {
+            progress.skipRuns(gcType, maxRuns - done);
+        }
+        return ranked;
+    }
+
+    // interleaves the combinations, so a drift of the machine does not favour any of them; runs are numbered per
+    // combination, so a repeated sweep identifies the same runs, see RunCache
+    private int runRound(GCType gcType, List<SweepCandidate> candidates, int from, int to)
+            throws InterruptedException, ExecutionException {
+        List<SweepCandidate> order = new ArrayList<>();
+        List<Future<TrialResult>> futures = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            for (SweepCandidate candidate : candidates) {
+                Trial trial = new Trial(gcType, i, 0, xms, xmx, candidate.getVmOptions());
+                order.add(candidate);
+                futures.add(runExecutor.submit(() -> run(trial)));
+            }
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            order.get(i).addResult(futures.get(i).get(), planner.getObjective());
+        }
+        return futures.size();
+    }
+
+    private TrialResult run(Trial trial) throws InterruptedException {
+        progress.runStarted(trial);
+        TrialResult result = trialRunner.run(trial, freeSlots);
+        progress.runFinished(result);
+        return result;
+    }
+
+    static Comparator<SweepCandidate> ranking(RunMetric objective) {
+        Comparator<SweepCandidate> byMedian = Comparator.comparingDouble(SweepCandidate::getMedian);
+        return Comparator.comparing((SweepCandidate candidate) -> candidate.getFailedRuns() > 0)
+                .thenComparing(candidate -> Double.isNaN(candidate.getMedian()))
+                .thenComparing(objective.isHigherWorse() ? byMedian : byMedian.reversed());
+    }
+}
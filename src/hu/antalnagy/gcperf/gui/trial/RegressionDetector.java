@@ -0,0 +1,76 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.persistence.Baseline;
+import hu.antalnagy.gcperf.gui.stats.MannWhitney;
+import hu.antalnagy.gcperf.gui.stats.MetricComparison;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the runs of an analysis with the baseline runs of the same application. A metric of a collector regressed
+ * if the one-sided Mann-Whitney test finds the new runs worse at the {@link #ALPHA} level and the median got worse by
+ * more than the threshold, so tiny but consistent shifts are not flagged. The comparison is only meaningful if both
+ * analyses used the same heap settings.
+ */
+public class RegressionDetector {
+    public static final double ALPHA = 0.05;
+    public static final double DEFAULT_THRESHOLD_PERCENT = 5;
+
+    private final double thresholdPercent;
+
+    public RegressionDetector(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public List<MetricComparison> compare(Baseline baseline, ResultTable results) {
+        List<MetricComparison> comparisons = new ArrayList<>();
+        for (GCType gcType : results.getGcTypes()) {
+            for (RunMetric metric : RunMetric.values()) {
+                double[] before = baseline.getSamples(gcType, metric);
+                double[] after = Arrays.stream(results.get(gcType).get(metric)).filter(value -> !Double.isNaN(value))
+                        .toArray();
+                if (before.length == 0 || after.length == 0) {
+                    continue;
+                }
+                double pValue = metric.isHigherWorse() ? MannWhitney.pValueGreater(after, before)
+                        : MannWhitney.pValueGreater(before, after);
+                double baselineMedian = median(before);
+                double currentMedian = median(after);
+                boolean regression = pValue < ALPHA
+                        && MetricComparison.worseningPercent(metric, baselineMedian, currentMedian) > thresholdPercent;
+                comparisons.add(new MetricComparison(gcType, metric, before.length, after.length,
+                        baselineMedian, currentMedian, pValue, regression));
+            }
+        }
+        return comparisons;
+    }
+
+    public static double valueOf(RunMetric metric, TrialResult result) {
+        switch (metric) {
+            case GC_RUNTIME:
+                return result.getGcRuntime();
+            case STW_TIME:
+                return result.getStwTime();
+            case THROUGHPUT:
+                return result.getThroughput();
+            case P99_PAUSE:
+                PauseHistogram histogram = result.getPauseHistogram();
+                return histogram == null || histogram.getTotalCount() == 0 ? Double.NaN
+                        : histogram.getValueAtPercentile(99);
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -0,0 +1,94 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+/**
+ * Container-like limits the child runs are started with, applied through a cgroup v2 slice per run, see
+ * {@link CgroupSlice}. A CPU quota in vCPUs (cpu.max), a cpuset (cpuset.cpus) and a memory limit (memory.max, no
+ * swap), each optional. The JVMs size their heaps and GC thread pools to these limits as they would in a pod.
+ */
+public class ResourceProfile {
+    private final double cpus;
+    private final String cpuset;
+    private final int memoryMB;
+
+    /**
+     * cpus 0 keeps the CPU time unlimited, cpuset null keeps the worker slot's CPUs, memoryMB 0 keeps the memory
+     * unlimited.
+     */
+    public ResourceProfile(double cpus, String cpuset, int memoryMB) {
+        if (cpus < 0 || (cpus > 0 && cpus < 0.01)) {
+            throw new IllegalArgumentException("The CPU quota of a profile must be at least 0.01 vCPUs");
+        }
+        if (cpuset != null && !cpuset.matches("\\d+(-\\d+)?(,\\d+(-\\d+)?)*")) {
+            throw new IllegalArgumentException("Invalid cpuset: " + cpuset + ", expected a CPU list like 0-1,4");
+        }
+        if (memoryMB < 0) {
+            throw new IllegalArgumentException("The memory limit of a profile cannot be negative");
+        }
+        if (cpus == 0 && cpuset == null && memoryMB == 0) {
+            throw new IllegalArgumentException("A profile must limit the CPUs, the cpuset or the memory");
+        }
+        this.cpus = cpus;
+        this.cpuset = cpuset;
+        this.memoryMB = memoryMB;
+    }
+
+    /**
+     * Parses space separated limits, e.g. "cpus=2 memoryMB=4096 cpuset=0-3".
+     */
+    public static ResourceProfile parse(String spec) {
+        double cpus = 0;
+        String cpuset = null;
+        int memoryMB = 0;
+        for (String limit : spec.trim().split("\\s+")) {
+            int separator = limit.indexOf('=');
+            String key = separator < 0 ? limit : limit.substring(0, separator);
+            String value = limit.substring(separator + 1);
+            try {
+                switch (key) {
+                    case "cpus":
+                        cpus = Double.parseDouble(value);
+                        break;
+                    case "cpuset":
+                        cpuset = value;
+                        break;
+                    case "memoryMB":
+                        memoryMB = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown profile limit: " + limit + ", expected cpus, " +
+                                "cpuset or memoryMB");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid profile limit: " + limit);
+            }
+        }
+        return new ResourceProfile(cpus, cpuset, memoryMB);
+    }
+
+    public double getCpus() {
+        return cpus;
+    }
+
+    public String getCpuset() {
+        return cpuset;
+    }
+
+    public int getMemoryMB() {
+        return memoryMB;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (cpus > 0) {
+            sb.append("cpus=").append(cpus == Math.rint(cpus) ? String.valueOf((long) cpus) : String.valueOf(cpus));
+        }
+        if (cpuset != null) {
+            sb.append(sb.length() > 0 ? " " : "").append("cpuset=").append(cpuset);
+        }
+        if (memoryMB > 0) {
+            sb.append(sb.length() > 0 ? " " : "").append("memoryMB=").append(memoryMB);
+        }
+        return sb.toString();
+    }
+}
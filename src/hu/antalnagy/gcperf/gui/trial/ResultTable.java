@@ -0,0 +1,250 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The finished runs of an analysis as primitive columns per collector, in run order. Built once from the scheduler's
+ * results and read by the leaderboard, the CSV export, the result stores and the GUI. The column arrays are shared,
+ * not copied, and must not be modified.
+ */
+public class ResultTable {
+    private final List<GCType> gcTypes;
+    private final double[] percentiles;
+    private final Map<GCType, Columns> columns = new EnumMap<>(GCType.class);
+
+    private ResultTable(List<GCType> gcTypes, double[] percentiles) {
+        this.gcTypes = gcTypes;
+        this.percentiles = percentiles;
+    }
+
+    public static ResultTable empty() {
+        return new ResultTable(List.of(), new double[0]);
+    }
+
+    /**
+     * Collectors keep the order of gcTypes, the latency columns are the given percentiles followed by the maximum.
+     */
+    public static ResultTable of(List<GCType> gcTypes, Map<GCType, TrialResult[]> results, double[] percentiles) {
+        List<GCType> present = new ArrayList<>();
+        for (GCType gcType : gcTypes) {
+            if (results.containsKey(gcType)) {
+                present.add(gcType);
+            }
+        }
+        ResultTable table = new ResultTable(List.copyOf(present), percentiles.clone());
+        for (GCType gcType : present) {
+            table.columns.put(gcType, new Columns(results.get(gcType), table.percentiles));
+        }
+        return table;
+    }
+
+    public List<GCType> getGcTypes() {
+        return gcTypes;
+    }
+
+    public double[] getPercentiles() {
+        return percentiles.clone();
+    }
+
+    public Columns get(GCType gcType) {
+        return columns.get(gcType);
+    }
+
+    public boolean isEmpty() {
+        return getRunCount() == 0;
+    }
+
+    public int getRunCount() {
+        int runCount = 0;
+        for (Columns runs : columns.values()) {
+            runCount += runs.size();
+        }
+        return runCount;
+    }
+
+    // the driver's Leaderboard and GCPerfPlot take boxed collections only
+    Map<GCType, List<Double>> boxedGcRuntimes() {
+        Map<GCType, List<Double>> boxed = new EnumMap<>(GCType.class);
+        columns.forEach((gcType, runs) -> boxed.put(gcType, box(runs.gcRuntimes)));
+        return boxed;
+    }
+
+    Map<GCType, List<Double>> boxedThroughputs() {
+        Map<GCType, List<Double>> boxed = new EnumMap<>(GCType.class);
+        columns.forEach((gcType, runs) -> boxed.put(gcType, box(runs.throughputs)));
+        return boxed;
+    }
+
+    Map<GCType, Double> boxedAvgGcRuntimes() {
+        Map<GCType, Double> boxed = new EnumMap<>(GCType.class);
+        columns.forEach((gcType, runs) -> boxed.put(gcType, runs.getAvgGcRuntime()));
+        return boxed;
+    }
+
+    /**
+     * Full and minor pauses interleaved per run, as the driver's Leaderboard expects them.
+     */
+    Map<GCType, List<Integer>> boxedPauses() {
+        Map<GCType, List<Integer>> boxed = new EnumMap<>(GCType.class);
+        columns.forEach((gcType, runs) -> {
+            List<Integer> pauses = new ArrayList<>(2 * runs.size());
+            for (int i = 0; i < runs.size(); i++) {
+                pauses.add(runs.fullPauses[i]);
+                pauses.add(runs.minorPauses[i]);
+            }
+            boxed.put(gcType, pauses);
+        });
+        return boxed;
+    }
+
+    private static List<Double> box(double[] values) {
+        List<Double> boxed = new ArrayList<>(values.length);
+        for (double value : values) {
+            boxed.add(value);
+        }
+        return boxed;
+    }
+
+    /**
+     * The runs of one collector. Latencies are in ms, one column per percentile of the table and the maximum last.
+     */
+    public static class Columns {
+        private final int[] runNos;
+        private final int[] xms;
+        private final int[] xmx;
+        private final double[] runtimes;
+        private final double[] gcRuntimes;
+        private final double[] stwTimes;
+        private final double[] throughputs;
+        private final int[] fullPauses;
+        private final int[] minorPauses;
+        private final double[] p99Pauses;
+        private final double[][] latencies;
+
+        private Columns(TrialResult[] results, double[] percentiles) {
+            int size = results.length;
+            runNos = new int[size];
+            xms = new int[size];
+            xmx = new int[size];
+            runtimes = new double[size];
+            gcRuntimes = new double[size];
+            stwTimes = new double[size];
+            throughputs = new double[size];
+            fullPauses = new int[size];
+            minorPauses = new int[size];
+            p99Pauses = new double[size];
+            latencies = new double[percentiles.length + 1][size];
+            for (int i = 0; i < size; i++) {
+                TrialResult result = results[i];
+                runNos[i] = result.getTrial().getRunNo() + 1;
+                xms[i] = result.getTrial().getXms();
+                xmx[i] = result.getTrial().getXmx();
+                runtimes[i] = result.getRuntime();
+                gcRuntimes[i] = result.getGcRuntime();
+                stwTimes[i] = result.getStwTime();
+                throughputs[i] = result.getThroughput();
+                fullPauses[i] = result.getFullPauses();
+                minorPauses[i] = result.getMinorPauses();
+                PauseHistogram histogram = result.getPauseHistogram();
+                boolean recorded = histogram != null && histogram.getTotalCount() > 0;
+                p99Pauses[i] = recorded ? histogram.getValueAtPercentile(99) : Double.NaN;
+                for (int c = 0; c < percentiles.length; c++) {
+                    latencies[c][i] = histogram == null ? 0 : histogram.getValueAtPercentile(percentiles[c]);
+                }
+                latencies[percentiles.length][i] = histogram == null ? 0 : histogram.getMax();
+            }
+        }
+
+        public int size() {
+            return runNos.length;
+        }
+
+        /**
+         * Run numbers from 1, in ascending order.
+         */
+        public int[] getRunNos() {
+            return runNos;
+        }
+
+        public int[] getXms() {
+            return xms;
+        }
+
+        public int[] getXmx() {
+            return xmx;
+        }
+
+        public double[] getRuntimes() {
+            return runtimes;
+        }
+
+        public double[] getGcRuntimes() {
+            return gcRuntimes;
+        }
+
+        public double[] getStwTimes() {
+            return stwTimes;
+        }
+
+        public double[] getThroughputs() {
+            return throughputs;
+        }
+
+        public int[] getFullPauses() {
+            return fullPauses;
+        }
+
+        public int[] getMinorPauses() {
+            return minorPauses;
+        }
+
+        /**
+         * NaN for runs without recorded pauses.
+         */
+        public double[] getP99Pauses() {
+            return p99Pauses;
+        }
+
+        /**
+         * Latency column c, see {@link LatencyRanking#columnName} for the percentile columns.
+         */
+        public double[] getLatencies(int c) {
+            return latencies[c];
+        }
+
+        public int getLatencyColumnCount() {
+            return latencies.length;
+        }
+
+        public double getAvgGcRuntime() {
+            double sum = 0;
+            for (double gcRuntime : gcRuntimes) {
+                sum += gcRuntime;
+            }
+            return gcRuntimes.length == 0 ? 0 : sum / gcRuntimes.length;
+        }
+
+        public double[] get(RunMetric metric) {
+            switch (metric) {
+                case GC_RUNTIME:
+                    return gcRuntimes;
+                case STW_TIME:
+                    return stwTimes;
+                case THROUGHPUT:
+                    return throughputs;
+                case P99_PAUSE:
+                    return p99Pauses;
+                default:
+                    throw new IllegalArgumentException("Unknown metric: " + metric);
+            }
+        }
+    }
+}
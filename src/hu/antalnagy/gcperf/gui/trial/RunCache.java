@@ -0,0 +1,251 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of parsed run results, so rerunning an analysis only spawns JVMs for runs whose inputs changed. A
+ * run is identified by the JDK version of the child JVMs, the SHA-256 of the application, every JVM option of its
+ * command line (heap sizes, collector, logging and extra options), the program it starts, its resource profile and its
+ * run index. Entries are files named by the SHA-256 of that identity; the least recently used ones are evicted beyond
+ * the size limit. A hit touches the file, so the order survives restarts. Only completed runs are cached, flight
+ * recorded runs never are.
+ */
+public class RunCache {
+    private static final Logger LOGGER = Logger.getLogger(RunCache.class.getSimpleName());
+    public static final String MAX_SIZE_PROPERTY = "gcperf.runCache.maxMB";
+    private static final long DEFAULT_MAX_MB = 64;
+    private static final String ENTRY_SUFFIX = ".run";
+    private static final int MAGIC = 0x47435243;
+    private static final int VERSION = 4;
+    private static String childJdkVersion;
+
+    private final Path cachePath;
+    private final long maxBytes;
+    // entry name to file size, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Cache limited by the gcperf.runCache.maxMB system property, 0 disables it.
+     */
+    public RunCache(Path cachePath) {
+        this(cachePath, Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_MB) * 1024 * 1024);
+    }
+
+    public RunCache(Path cachePath, long maxBytes) {
+        this.cachePath = cachePath.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        if (maxBytes > 0) {
+            load();
+        }
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Identity of a run, null if runs cannot be cached because the JDK version of the child JVMs is unknown.
+     */
+    public String keyOf(String contentHash, List<String> jvmOptions, String program, int runNo) {
+        String jdkVersion = childJdkVersion();
+        if (!isEnabled() || jdkVersion.isEmpty() || contentHash == null) {
+            return null;
+        }
+        return jdkVersion + "\n" + contentHash + "\n" + String.join(" ", jvmOptions) + "\n" + program + "\n" + runNo;
+    }
+
+    /**
+     * The cached result of the run with the key, null on a miss.
+     */
+    public synchronized TrialResult get(String key, Trial trial) {
+        String name = JarCache.sha256(key.getBytes(StandardCharsets.UTF_8));
+        if (entries.get(name) == null) {
+            misses++;
+            return null;
+        }
+        Path entry = cachePath.resolve(name + ENTRY_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                throw new IOException("Entry does not belong to the run");
+            }
+            TrialResult result = TrialResult.read(in, trial);
+            result.setCached();
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return result;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Dropping unreadable run cache entry " + name + ": " + e.getMessage());
+            remove(name);
+            misses++;
+            return null;
+        }
+    }
+
+    public synchronized void put(String key, TrialResult result) {
+        if (result.isFailed() || result.isCached()) {
+            return;
+        }
+        String name = JarCache.sha256(key.getBytes(StandardCharsets.UTF_8));
+        Path entry = cachePath.resolve(name + ENTRY_SUFFIX);
+        Path staging = null;
+        try {
+            Files.createDirectories(cachePath);
+            staging = Files.createTempFile(cachePath, name, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                result.write(out);
+            }
+            Files.move(staging, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Long previous = entries.put(name, Files.size(entry));
+            totalBytes += entries.get(name) - (previous == null ? 0 : previous);
+            evict();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Caching the result of " + result.getTrial() + " failed: " + e.getMessage());
+        } finally {
+            if (staging != null) {
+                try {
+                    Files.deleteIfExists(staging);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Deleting " + staging + " failed");
+                }
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            try {
+                Files.deleteIfExists(cachePath.resolve(entry.getKey() + ENTRY_SUFFIX));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Evicting run cache entry " + entry.getKey() + " failed");
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String name) {
+        Long size = entries.remove(name);
+        totalBytes -= size == null ? 0 : size;
+        try {
+            Files.deleteIfExists(cachePath.resolve(name + ENTRY_SUFFIX));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Deleting run cache entry " + name + " failed");
+        }
+    }
+
+    private void load() {
+        if (!Files.isDirectory(cachePath)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(cachePath)) {
+            files = list.collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Reading the run cache failed, starting empty: " + e.getMessage());
+            return;
+        }
+        List<Path> cached = new ArrayList<>();
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if (fileName.endsWith(ENTRY_SUFFIX)) {
+                cached.add(file);
+            } else if (fileName.endsWith(".tmp")) {
+                // leftover of an interrupted put
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Deleting " + file + " failed");
+                }
+            }
+        }
+        cached.sort(Comparator.comparing(RunCache::lastModified));
+        for (Path file : cached) {
+            String fileName = file.getFileName().toString();
+            try {
+                long size = Files.size(file);
+                entries.put(fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length()), size);
+                totalBytes += size;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Skipping run cache entry " + fileName);
+            }
+        }
+        evict();
+        LOGGER.log(Level.INFO, "Run cache holds " + entries.size() + " run(s), " + totalBytes / 1024 + " kB");
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Version banner of the java command the runs are started with, empty if it could not be determined. Read once per
+     * process.
+     */
+    public static synchronized String childJdkVersion() {
+        if (childJdkVersion == null) {
+            childJdkVersion = "";
+            try {
+                Process process = new ProcessBuilder("java", "-version").redirectErrorStream(true).start();
+                String banner;
+                try (InputStream in = process.getInputStream()) {
+                    banner = new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+                }
+                if (process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                    childJdkVersion = banner;
+                } else {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not determine the JDK version, runs are not cached: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return childJdkVersion;
+    }
+}
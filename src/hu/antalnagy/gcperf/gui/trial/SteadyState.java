@@ -0,0 +1,75 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.util.List;
+
+/**
+ * Settings of steady-state runs: every child JVM runs the application's main method until the times of the last
+ * window iterations vary by at most the tolerance (coefficient of variation, in percent), then the measured iterations
+ * follow. Only the GC activity of the measured iterations counts towards the metrics, the warm-up is reported apart,
+ * see {@link WarmUp}. The application's main method must return instead of calling System.exit.
+ */
+public class SteadyState {
+    public static final int DEFAULT_MAX_WARM_UP_ITERATIONS = 50;
+    public static final int DEFAULT_WINDOW = 5;
+    public static final double DEFAULT_TOLERANCE_PERCENT = 5;
+    public static final int DEFAULT_MEASURED_ITERATIONS = 10;
+
+    private final int maxWarmUpIterations;
+    private final int window;
+    private final double tolerancePercent;
+    private final int measuredIterations;
+
+    public SteadyState() {
+        this(DEFAULT_MAX_WARM_UP_ITERATIONS, DEFAULT_WINDOW, DEFAULT_TOLERANCE_PERCENT, DEFAULT_MEASURED_ITERATIONS);
+    }
+
+    public SteadyState(int maxWarmUpIterations, int window, double tolerancePercent, int measuredIterations) {
+        if (window < 2) {
+            throw new IllegalArgumentException("The steady-state window needs at least 2 iterations");
+        }
+        if (maxWarmUpIterations < window) {
+            throw new IllegalArgumentException("The warm-up must allow at least the " + window + " iterations of the " +
+                    "steady-state window");
+        }
+        if (tolerancePercent <= 0 || 100 < tolerancePercent) {
+            throw new IllegalArgumentException("Steady-state tolerance must be between 0% and 100%");
+        }
+        if (measuredIterations < 1) {
+            throw new IllegalArgumentException("At least one iteration has to be measured");
+        }
+        this.maxWarmUpIterations = maxWarmUpIterations;
+        this.window = window;
+        this.tolerancePercent = tolerancePercent;
+        this.measuredIterations = measuredIterations;
+    }
+
+    public int getMaxWarmUpIterations() {
+        return maxWarmUpIterations;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public double getTolerancePercent() {
+        return tolerancePercent;
+    }
+
+    public int getMeasuredIterations() {
+        return measuredIterations;
+    }
+
+    /**
+     * What the child JVM runs in place of the main class.
+     */
+    List<String> harnessCommand(String mainClass) {
+        return List.of(SteadyStateHarness.class.getName(), String.valueOf(maxWarmUpIterations), String.valueOf(window),
+                String.valueOf(tolerancePercent), String.valueOf(measuredIterations), mainClass);
+    }
+
+    @Override
+    public String toString() {
+        return "steady state after at most " + maxWarmUpIterations + " iterations within " + tolerancePercent
+                + "% over " + window + ", " + measuredIterations + " measured";
+    }
+}
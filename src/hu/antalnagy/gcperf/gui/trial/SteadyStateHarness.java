@@ -0,0 +1,92 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.gui.parse.GCLogParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Main class of steady-state child runs, see {@link SteadyState}. Between the warm-up and the measured iterations it
+ * prints the steady-state marker to stdout, into the GC log, where {@link GCLogParser} splits the run. The class file
+ * is copied onto the class path of the child runs on its own, so it must not load any other class of the GUI.
+ */
+public final class SteadyStateHarness {
+
+    private SteadyStateHarness() {
+    }
+
+    /**
+     * Copies the class file of the harness under the directory, which then is the class path root of the harness.
+     */
+    public static Path install(Path directory) throws IOException {
+        String classFile = SteadyStateHarness.class.getSimpleName() + ".class";
+        Path target = directory.resolve(SteadyStateHarness.class.getPackageName().replace('.', '/'))
+                .resolve(classFile);
+        Files.createDirectories(target.getParent());
+        try (InputStream in = SteadyStateHarness.class.getResourceAsStream(classFile)) {
+            if (in == null) {
+                throw new IOException("Class file of the steady-state harness not found");
+            }
+            Files.write(target, in.readAllBytes());
+        }
+        return directory;
+    }
+
+    /**
+     * Arguments: max warm-up iterations, window, tolerance percent, measured iterations, main class, its arguments.
+     */
+    public static void main(String[] args) throws Throwable {
+        int maxWarmUpIterations = Integer.parseInt(args[0]);
+        int window = Integer.parseInt(args[1]);
+        double tolerancePercent = Double.parseDouble(args[2]);
+        int measuredIterations = Integer.parseInt(args[3]);
+        Method main = Class.forName(args[4]).getMethod("main", String[].class);
+        String[] mainArgs = Arrays.copyOfRange(args, 5, args.length);
+
+        long[] nanos = new long[maxWarmUpIterations];
+        int iterations = 0;
+        boolean steady = false;
+        while (!steady && iterations < maxWarmUpIterations) {
+            nanos[iterations++] = iterate(main, mainArgs);
+            steady = iterations >= window && variationPercent(nanos, iterations - window, iterations) <= tolerancePercent;
+        }
+        // GCLogParser.STEADY_STATE_MARKER is a constant, inlined by the compiler
+        System.out.println(String.format(Locale.ROOT, "[%.3fs]", ManagementFactory.getRuntimeMXBean().getUptime()
+                / 1000.0) + GCLogParser.STEADY_STATE_MARKER + " iterations=" + iterations + " steady=" + steady);
+        for (int i = 0; i < measuredIterations; i++) {
+            iterate(main, mainArgs);
+        }
+    }
+
+    private static long iterate(Method main, String[] mainArgs) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            main.invoke(null, (Object) mainArgs.clone());
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // coefficient of variation of nanos[from, to) in percent
+    private static double variationPercent(long[] nanos, int from, int to) {
+        double mean = 0;
+        for (int i = from; i < to; i++) {
+            mean += nanos[i];
+        }
+        mean /= to - from;
+        double variance = 0;
+        for (int i = from; i < to; i++) {
+            variance += (nanos[i] - mean) * (nanos[i] - mean);
+        }
+        variance /= to - from - 1;
+        return mean > 0 ? Math.sqrt(variance) / mean * 100 : 0;
+    }
+}
@@ -0,0 +1,98 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One option combination of a sweep with a collector and the runs it got before it was dropped or won.
+ */
+public class SweepCandidate {
+    private final GCType gcType;
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final List<String> vmOptions = new ArrayList<>();
+    private final List<Double> samples = new ArrayList<>();
+    private int runs;
+    private int failedRuns;
+    private int rounds;
+
+    SweepCandidate(GCType gcType, List<OptionAxis> axes, int[] levels) {
+        this.gcType = gcType;
+        for (int i = 0; i < axes.size(); i++) {
+            OptionAxis axis = axes.get(i);
+            values.put(axis.getName(), axis.getValue(levels[i]));
+            if (!axis.getOption(levels[i]).isEmpty()) {
+                vmOptions.add(axis.getOption(levels[i]));
+            }
+        }
+    }
+
+    public GCType getGcType() {
+        return gcType;
+    }
+
+    /**
+     * Value per option axis, empty where the JVM's default is kept.
+     */
+    public Map<String, String> getValues() {
+        return new LinkedHashMap<>(values);
+    }
+
+    public List<String> getVmOptions() {
+        return new ArrayList<>(vmOptions);
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getFailedRuns() {
+        return failedRuns;
+    }
+
+    /**
+     * Successive halving rounds the combination took part in.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Median of the sweep objective over the completed runs, NaN if none completed.
+     */
+    public double getMedian() {
+        double[] sorted = samples.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    void addResult(TrialResult result, RunMetric objective) {
+        runs++;
+        if (result.isFailed()) {
+            failedRuns++;
+            return;
+        }
+        double value = RegressionDetector.valueOf(objective, result);
+        if (!Double.isNaN(value)) {
+            samples.add(value);
+        }
+    }
+
+    void startRound() {
+        rounds++;
+    }
+
+    @Override
+    public String toString() {
+        return gcType.name() + " " + (vmOptions.isEmpty() ? "(JVM defaults)" : String.join(" ", vmOptions))
+                + ": median " + String.format("%.3f", getMedian()) + " over " + (runs - failedRuns) + "/" + runs + " runs"
+                + ", " + rounds + " round(s)";
+    }
+}
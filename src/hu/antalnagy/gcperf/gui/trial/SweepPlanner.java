@@ -0,0 +1,196 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Plans which option combinations an {@link OptionSweep} tries. {@link Design#FULL} takes the cartesian product of
+ * the axes. {@link Design#PAIRWISE} is a fractional design: a greedily built strength-2 covering array in which every
+ * pair of levels of any two axes occurs at least once, so it grows with the square of the levels per axis instead of
+ * exponentially with the number of axes. With successive halving every combination first gets the configured runs,
+ * then the better half is kept and run twice as many times, until only the best two are compared.
+ */
+public class SweepPlanner {
+    public enum Design {
+        FULL, PAIRWISE
+    }
+
+    static final int MAX_COMBINATIONS = 256;
+
+    private final List<OptionAxis> axes;
+    private final Design design;
+    private final boolean successiveHalving;
+    private final RunMetric objective;
+
+    public SweepPlanner(List<OptionAxis> axes, Design design, boolean successiveHalving, RunMetric objective) {
+        if (axes.isEmpty()) {
+            throw new IllegalArgumentException("An option sweep needs at least one option axis");
+        }
+        if (axes.stream().map(OptionAxis::getName).distinct().count() < axes.size()) {
+            throw new IllegalArgumentException("Every option axis of a sweep must set a different option");
+        }
+        this.axes = List.copyOf(axes);
+        this.design = design;
+        this.successiveHalving = successiveHalving;
+        this.objective = objective;
+        for (GCType gcType : GCType.values()) {
+            if (plan(gcType).size() > MAX_COMBINATIONS) {
+                throw new IllegalArgumentException("The option sweep has more than " + MAX_COMBINATIONS + " " +
+                        "combinations for GC Type " + gcType.name() + ", please use the pairwise design or fewer values");
+            }
+        }
+    }
+
+    public List<OptionAxis> getAxes() {
+        return axes;
+    }
+
+    public Design getDesign() {
+        return design;
+    }
+
+    public boolean isSuccessiveHalving() {
+        return successiveHalving;
+    }
+
+    /**
+     * Metric the combinations are ranked by, on the median of their runs.
+     */
+    public RunMetric getObjective() {
+        return objective;
+    }
+
+    /**
+     * The combinations to try with the collector, only the axes applying to it are varied.
+     */
+    public List<SweepCandidate> plan(GCType gcType) {
+        List<OptionAxis> applicable = axes.stream().filter(axis -> axis.appliesTo(gcType)).collect(Collectors.toList());
+        int[] levels = applicable.stream().mapToInt(OptionAxis::getLevels).toArray();
+        List<SweepCandidate> candidates = new ArrayList<>();
+        for (int[] row : design == Design.FULL ? cartesian(levels) : pairwise(levels)) {
+            candidates.add(new SweepCandidate(gcType, applicable, row));
+        }
+        return candidates;
+    }
+
+    /**
+     * Runs one collector's sweep takes with the given runs per combination in the first round.
+     */
+    public int plannedRuns(GCType gcType, int runs) {
+        int candidates = plan(gcType).size();
+        int total = 0;
+        int previous = 0;
+        for (int target = runs; ; target *= 2) {
+            total += candidates * (target - previous);
+            int kept = (candidates + 1) / 2;
+            if (!successiveHalving || kept <= 1) {
+                return total;
+            }
+            candidates = kept;
+            previous = target;
+        }
+    }
+
+    static List<int[]> cartesian(int[] levels) {
+        List<int[]> rows = new ArrayList<>();
+        int[] row = new int[levels.length];
+        while (true) {
+            rows.add(row.clone());
+            int axis = levels.length - 1;
+            while (axis >= 0 && ++row[axis] == levels[axis]) {
+                row[axis--] = 0;
+            }
+            if (axis < 0 || rows.size() > MAX_COMBINATIONS) {
+                return rows;
+            }
+        }
+    }
+
+    static List<int[]> pairwise(int[] levels) {
+        int axes = levels.length;
+        if (axes < 2) {
+            return cartesian(levels);
+        }
+        // covered[i][j][a * levels[j] + b]: level a of axis i was combined with level b of axis j, for i < j
+        boolean[][][] covered = new boolean[axes][axes][];
+        int uncovered = 0;
+        for (int i = 0; i < axes; i++) {
+            for (int j = i + 1; j < axes; j++) {
+                covered[i][j] = new boolean[levels[i] * levels[j]];
+                uncovered += covered[i][j].length;
+            }
+        }
+        int[][] uses = new int[axes][];
+        for (int i = 0; i < axes; i++) {
+            uses[i] = new int[levels[i]];
+        }
+        List<int[]> rows = new ArrayList<>();
+        while (uncovered > 0) {
+            int[] row = new int[axes];
+            Arrays.fill(row, -1);
+            seedWithUncoveredPair(levels, covered, row);
+            for (int axis = 0; axis < axes; axis++) {
+                if (row[axis] >= 0) {
+                    continue;
+                }
+                // most new pairs, ties go to the least used level to keep the levels balanced
+                int bestLevel = 0;
+                int bestGain = -1;
+                for (int level = 0; level < levels[axis]; level++) {
+                    row[axis] = level;
+                    int gain = newPairs(levels, covered, row, axis);
+                    if (gain > bestGain || (gain == bestGain && uses[axis][level] < uses[axis][bestLevel])) {
+                        bestLevel = level;
+                        bestGain = gain;
+                    }
+                }
+                row[axis] = bestLevel;
+            }
+            for (int i = 0; i < axes; i++) {
+                uses[i][row[i]]++;
+                for (int j = i + 1; j < axes; j++) {
+                    int pair = row[i] * levels[j] + row[j];
+                    if (!covered[i][j][pair]) {
+                        covered[i][j][pair] = true;
+                        uncovered--;
+                    }
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void seedWithUncoveredPair(int[] levels, boolean[][][] covered, int[] row) {
+        for (int i = 0; i < levels.length; i++) {
+            for (int j = i + 1; j < levels.length; j++) {
+                for (int pair = 0; pair < covered[i][j].length; pair++) {
+                    if (!covered[i][j][pair]) {
+                        row[i] = pair / levels[j];
+                        row[j] = pair % levels[j];
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // uncovered pairs the axis' level in the row forms with the axes already set
+    private static int newPairs(int[] levels, boolean[][][] covered, int[] row, int axis) {
+        int pairs = 0;
+        for (int other = 0; other < levels.length; other++) {
+            if (other == axis || row[other] < 0) {
+                continue;
+            }
+            int i = Math.min(axis, other);
+            int j = Math.max(axis, other);
+            pairs += covered[i][j][row[i] * levels[j] + row[j]] ? 0 : 1;
+        }
+        return pairs;
+    }
+}
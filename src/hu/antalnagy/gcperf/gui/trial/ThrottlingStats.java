@@ -0,0 +1,64 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+/**
+ * What the cgroup of a run recorded about its limits: CPU quota periods and throttling from cpu.stat, hits of
+ * memory.max and OOM kills from memory.events.
+ */
+public class ThrottlingStats {
+    private final long periods;
+    private final long throttledPeriods;
+    private final double throttledMillis;
+    private final long memoryMaxEvents;
+    private final long oomKills;
+
+    public ThrottlingStats(long periods, long throttledPeriods, double throttledMillis, long memoryMaxEvents,
+                           long oomKills) {
+        this.periods = periods;
+        this.throttledPeriods = throttledPeriods;
+        this.throttledMillis = throttledMillis;
+        this.memoryMaxEvents = memoryMaxEvents;
+        this.oomKills = oomKills;
+    }
+
+    /**
+     * nr_periods, the enforcement periods the run was runnable in.
+     */
+    public long getPeriods() {
+        return periods;
+    }
+
+    /**
+     * nr_throttled, the periods in which the run used up its quota.
+     */
+    public long getThrottledPeriods() {
+        return throttledPeriods;
+    }
+
+    /**
+     * throttled_usec in ms, the total time the run's threads were held back by the quota.
+     */
+    public double getThrottledMillis() {
+        return throttledMillis;
+    }
+
+    /**
+     * Share of the periods that were throttled, in percent.
+     */
+    public double getThrottledPercent() {
+        return periods > 0 ? 100.0 * throttledPeriods / periods : 0;
+    }
+
+    public long getMemoryMaxEvents() {
+        return memoryMaxEvents;
+    }
+
+    public long getOomKills() {
+        return oomKills;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("throttled %d/%d periods, %.1f ms, %d memory.max events, %d OOM kills", throttledPeriods,
+                periods, throttledMillis, memoryMaxEvents, oomKills);
+    }
+}
@@ -0,0 +1,64 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.List;
+
+public class Trial {
+    private final GCType gcType;
+    private final int runNo;
+    private final int attempt;
+    private final int xms;
+    private final int xmx;
+    private final List<String> vmOptions;
+
+    public Trial(GCType gcType, int runNo, int attempt, int xms, int xmx) {
+        this(gcType, runNo, attempt, xms, xmx, List.of());
+    }
+
+    public Trial(GCType gcType, int runNo, int attempt, int xms, int xmx, List<String> vmOptions) {
+        this.gcType = gcType;
+        this.runNo = runNo;
+        this.attempt = attempt;
+        this.xms = xms;
+        this.xmx = xmx;
+        this.vmOptions = List.copyOf(vmOptions);
+    }
+
+    public GCType getGcType() {
+        return gcType;
+    }
+
+    public int getRunNo() {
+        return runNo;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public int getXms() {
+        return xms;
+    }
+
+    public int getXmx() {
+        return xmx;
+    }
+
+    /**
+     * Options added after the driver's own ones, so they override them.
+     */
+    public List<String> getVmOptions() {
+        return vmOptions;
+    }
+
+    public Trial retryWith(int xms, int xmx) {
+        return new Trial(gcType, runNo, attempt + 1, xms, xmx, vmOptions);
+    }
+
+    @Override
+    public String toString() {
+        return gcType.name() + " run no.: " + (runNo + 1) + "; xms: " + xms + "(M); xmx: " + xmx + "(M)"
+                + (vmOptions.isEmpty() ? "" : "; options: " + String.join(" ", vmOptions));
+    }
+}
@@ -0,0 +1,666 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import com.github.sh0nk.matplotlib4j.PythonExecutionException;
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.Leaderboard;
+import hu.antalnagy.gcperf.gui.export.ExportFormat;
+import hu.antalnagy.gcperf.gui.export.RunExporter;
+import hu.antalnagy.gcperf.gui.parse.JfrTelemetryParser;
+import hu.antalnagy.gcperf.gui.parse.RunTelemetry;
+import hu.antalnagy.gcperf.gui.remote.RemotePool;
+import hu.antalnagy.gcperf.gui.remote.RemoteWorker;
+import hu.antalnagy.gcperf.gui.stats.LatencyRanking;
+import hu.antalnagy.gcperf.gui.stats.MetricComparison;
+import hu.antalnagy.gcperf.gui.persistence.Baseline;
+import hu.antalnagy.gcperf.gui.persistence.ConnectionPool;
+import hu.antalnagy.gcperf.gui.persistence.FileResultStore;
+import hu.antalnagy.gcperf.gui.persistence.MySqlResultStore;
+import hu.antalnagy.gcperf.gui.persistence.ResultStore;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+import hu.antalnagy.gcperf.gui.stats.RunMetric;
+import hu.antalnagy.gcperf.plot.GCPerfPlot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Drop-in replacement for {@link hu.antalnagy.gcperf.driver.GCPerfDriver#launch} that spreads the runs of an analysis
+ * over several CPU-pinned worker slots. The merged results are ranked by the driver's own {@link Leaderboard}.
+ */
+public class TrialDriver {
+    private static final Logger LOGGER = Logger.getLogger(TrialDriver.class.getSimpleName());
+    private static final int BASELINE_TIMEOUT_SECONDS = 30;
+
+    private final Workspace workspace;
+    private final List<TrialListener> listeners = new CopyOnWriteArrayList<>();
+    private final ResultStore resultStore;
+    private final RunCache runCache;
+    private TrialProgress progress;
+    private List<GCType> leaderboard = new ArrayList<>();
+    private ResultTable resultTable = ResultTable.empty();
+    private Map<GCType, PauseHistogram> pauseHistograms = new EnumMap<>(GCType.class);
+    private double[] percentiles = new double[0];
+    private Map<GCType, HeapRecommendation> heapRecommendations = new EnumMap<>(GCType.class);
+    private Map<GCType, List<SweepCandidate>> sweepRankings = new EnumMap<>(GCType.class);
+    private Map<GCType, List<RunTelemetry>> runTelemetry = new EnumMap<>(GCType.class);
+    private boolean telemetry;
+    private SteadyState steadyState;
+    private Map<GCType, List<WarmUp>> warmUps = new EnumMap<>(GCType.class);
+    private ResourceProfile resourceProfile;
+    private Map<GCType, List<ThrottlingStats>> throttling = new EnumMap<>(GCType.class);
+    private double regressionThresholdPercent = RegressionDetector.DEFAULT_THRESHOLD_PERCENT;
+    private ExportFormat exportFormat = ExportFormat.CSV;
+    private List<String> remoteWorkers = List.of();
+    private Baseline baseline;
+    private List<MetricComparison> baselineComparisons = new ArrayList<>();
+
+    public TrialDriver() {
+        this.workspace = new Workspace(Paths.get(""));
+        this.resultStore = ResultStore.open(workspace.getStorePath());
+        this.runCache = new RunCache(workspace.getRunCachePath());
+    }
+
+    /**
+     * Driver working in its own workspace but saving to a shared result store, as the jobs of a batch do.
+     */
+    public TrialDriver(Workspace workspace, ResultStore resultStore) {
+        this(workspace, resultStore, new RunCache(workspace.getRunCachePath()));
+    }
+
+    public TrialDriver(Workspace workspace, ResultStore resultStore, RunCache runCache) {
+        this.workspace = workspace;
+        this.resultStore = resultStore;
+        this.runCache = runCache;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public void addListener(TrialListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TrialListener listener) {
+        listeners.remove(listener);
+    }
+
+    public TrialProgress getProgress() {
+        return progress;
+    }
+
+    public ResultTable getResultTable() {
+        return resultTable;
+    }
+
+    public List<GCType> getLeaderboard() {
+        return new LinkedList<>(leaderboard);
+    }
+
+    public Map<GCType, PauseHistogram> getPauseHistograms() {
+        return new EnumMap<>(pauseHistograms);
+    }
+
+    /**
+     * Names of the pause-time columns appended to every result row: the configured percentiles and the maximum, in ms.
+     */
+    public List<String> getLatencyColumns() {
+        List<String> columns = new ArrayList<>();
+        for (double percentile : percentiles) {
+            columns.add(LatencyRanking.columnName(percentile) + " (ms)");
+        }
+        columns.add("Max (ms)");
+        return columns;
+    }
+
+    public Map<GCType, HeapRecommendation> getHeapRecommendations() {
+        return new EnumMap<>(heapRecommendations);
+    }
+
+    /**
+     * Option combinations of the last sweep per collector, best first.
+     */
+    public Map<GCType, List<SweepCandidate>> getSweepRankings() {
+        return new EnumMap<>(sweepRankings);
+    }
+
+    /**
+     * The stored analysis the last analysis was compared with, null if the application had none that ran with the same
+     * settings.
+     */
+    public Baseline getBaseline() {
+        return baseline;
+    }
+
+    public List<MetricComparison> getBaselineComparisons() {
+        return new ArrayList<>(baselineComparisons);
+    }
+
+    public boolean hasRegressions() {
+        return baselineComparisons.stream().anyMatch(MetricComparison::isRegression);
+    }
+
+    /**
+     * Minimum worsening of a metric's median, in percent, for a significant difference to count as regression.
+     */
+    public void setRegressionThresholdPercent(double regressionThresholdPercent) {
+        this.regressionThresholdPercent = regressionThresholdPercent;
+    }
+
+    /**
+     * Flight record every run of an analysis, see {@link JfrTelemetryParser}. Starting the recorder lengthens every
+     * run, so runtimes and throughputs only compare with other recorded analyses. Heap searches and option sweeps are
+     * never recorded.
+     */
+    public void setTelemetry(boolean telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Telemetry of the last analysis' runs per collector in run order, null for a run whose recording could not be
+     * read. Empty if the analysis was not recorded.
+     */
+    public Map<GCType, List<RunTelemetry>> getRunTelemetry() {
+        return new EnumMap<>(runTelemetry);
+    }
+
+    /**
+     * Run every child JVM to a steady state and measure only the iterations after it, null for single cold runs.
+     * Heap searches and option sweeps always run cold.
+     */
+    public void setSteadyState(SteadyState steadyState) {
+        this.steadyState = steadyState;
+    }
+
+    /**
+     * Warm-up of the last analysis' runs per collector in run order. Empty if the analysis did not run to a steady
+     * state.
+     */
+    public Map<GCType, List<WarmUp>> getWarmUps() {
+        return new EnumMap<>(warmUps);
+    }
+
+    /**
+     * Start every child JVM in a cgroup slice with the profile's limits, see {@link CgroupSlice}; null for none.
+     * Applies to heap searches and option sweeps too.
+     */
+    public void setResourceProfile(ResourceProfile resourceProfile) {
+        this.resourceProfile = resourceProfile;
+    }
+
+    /**
+     * CPU throttling and memory limit events of the last analysis' runs per collector in run order, null for a run
+     * whose cgroup could not be read. Empty if the analysis ran without a resource profile.
+     */
+    public Map<GCType, List<ThrottlingStats>> getThrottling() {
+        return new EnumMap<>(throttling);
+    }
+
+    /**
+     * Format the runs are streamed to when exporting, see {@link RunExporter}.
+     */
+    public void setExportFormat(ExportFormat exportFormat) {
+        this.exportFormat = exportFormat;
+    }
+
+    /**
+     * Run on the slots of these workers instead of local ones, see {@link RemotePool}; empty to run locally. Runs of a
+     * lost worker are repeated on the others. Telemetry is only recorded for local runs.
+     */
+    public void setRemoteWorkers(List<String> remoteWorkers) {
+        this.remoteWorkers = List.copyOf(remoteWorkers);
+    }
+
+    public ResultStore getResultStore() {
+        return resultStore;
+    }
+
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     * With adaptiveWidthPercent > 0 numOfRuns is only an upper bound, see {@link AdaptiveSampling}.
+     */
+    public void launch(File file, int numOfRuns, int initHeapSize, int maxHeapSize, int initHeapIncrementSize,
+                       int maxHeapIncrementSize, List<GCType> gcTypes, Analysis.Metrics[] metrics, boolean exportToCSV,
+                       boolean plotResults, int workerSlots, double[] percentiles, boolean tailLatency,
+                       double adaptiveWidthPercent) throws IOException, PythonExecutionException, InterruptedException {
+        launch(file, numOfRuns, initHeapSize, maxHeapSize, initHeapIncrementSize, maxHeapIncrementSize, gcTypes, metrics,
+                exportToCSV, plotResults, WorkerSlot.partition(workerSlots), percentiles, tailLatency,
+                adaptiveWidthPercent);
+    }
+
+    /**
+     * Runs on the given worker slots instead of partitioning the CPUs, so several analyses can share one pool.
+     */
+    public void launch(File file, int numOfRuns, int initHeapSize, int maxHeapSize, int initHeapIncrementSize,
+                       int maxHeapIncrementSize, List<GCType> gcTypes, Analysis.Metrics[] metrics, boolean exportToCSV,
+                       boolean plotResults, List<WorkerSlot> workerSlots, double[] percentiles, boolean tailLatency,
+                       double adaptiveWidthPercent) throws IOException, PythonExecutionException, InterruptedException {
+        resetResults(new TrialProgress(gcTypes, numOfRuns, listeners), percentiles.clone());
+        String date = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss").format(new Date(System.currentTimeMillis()));
+        AnalysisLog analysisLog = openLog();
+        try {
+            workspace.prepare(file);
+
+            Path telemetrySettings = telemetry ? JfrTelemetryParser.writeSettings(workspace.getOutPath()) : null;
+            if (steadyState != null) {
+                SteadyStateHarness.install(workspace.getHarnessPath());
+                LOGGER.log(Level.INFO, "Running to " + steadyState);
+            }
+            RemotePool remotePool = connectRemoteWorkers();
+
+            Analysis analysis = new Analysis(workspace.getMainClass(), gcTypes, metrics);
+            TrialRunner trialRunner = new TrialRunner(workspace, analysis, telemetrySettings, steadyState,
+                    resourceProfile, runCache);
+            TrialScheduler scheduler = new TrialScheduler(trialRunner,
+                    remotePool == null ? workerSlots : remotePool.getSlots(), progress);
+            AdaptiveSampling adaptiveSampling = adaptiveWidthPercent > 0
+                    ? AdaptiveSampling.forMetrics(metrics, tailLatency, percentiles, adaptiveWidthPercent / 100) : null;
+            RunExporter runExporter = null;
+            try {
+                if (remotePool != null) {
+                    trialRunner.prepareRemoteSession();
+                }
+                runExporter = exportToCSV ? openRunExporter("results-" + date, percentiles) : null;
+                scheduler.schedule(gcTypes, numOfRuns, initHeapSize, maxHeapSize, initHeapIncrementSize,
+                        maxHeapIncrementSize, adaptiveSampling);
+            } finally {
+                closeRunExporter(runExporter);
+                closeRemoteWorkers(remotePool);
+            }
+            if (progress.isFailed()) {
+                LOGGER.log(Level.SEVERE, "Analysis failed");
+                return;
+            }
+
+            Map<GCType, TrialResult[]> results = scheduler.getResults();
+            resultTable = ResultTable.of(gcTypes, results, percentiles);
+            if (telemetry) {
+                results.forEach((gcType, runs) -> runTelemetry.put(gcType, Arrays.stream(runs)
+                        .map(TrialResult::getTelemetry).collect(Collectors.toList())));
+            }
+            if (steadyState != null) {
+                results.forEach((gcType, runs) -> warmUps.put(gcType, Arrays.stream(runs)
+                        .map(TrialResult::getWarmUp).collect(Collectors.toList())));
+            }
+            if (resourceProfile != null) {
+                results.forEach((gcType, runs) -> throttling.put(gcType, Arrays.stream(runs)
+                        .map(TrialResult::getThrottling).collect(Collectors.toList())));
+            }
+            results.forEach((gcType, runs) -> {
+                PauseHistogram merged = new PauseHistogram();
+                Arrays.stream(runs).map(TrialResult::getPauseHistogram).forEach(merged::add);
+                pauseHistograms.put(gcType, merged);
+            });
+
+            if (metrics.length > 0) {
+                Leaderboard ranking = new Leaderboard(resultTable.boxedAvgGcRuntimes(), resultTable.boxedGcRuntimes(),
+                        resultTable.boxedThroughputs(), resultTable.boxedPauses(), gcTypes);
+                ranking.setLeaderboard(metrics);
+                leaderboard = ranking.getLeaderboard();
+            }
+            if (tailLatency) {
+                leaderboard = LatencyRanking.rank(gcTypes, leaderboard, metrics.length, pauseHistograms, percentiles);
+            }
+
+            // loaded before saving, so the baseline is never the analysis itself
+            String configFingerprint = configFingerprint(numOfRuns, initHeapSize, maxHeapSize, initHeapIncrementSize,
+                    maxHeapIncrementSize, adaptiveWidthPercent, workerSlots);
+            compareWithBaseline(file.getName(), configFingerprint, resultTable);
+            resultStore.saveAnalysis(new Timestamp(System.currentTimeMillis()), file.getName(), configFingerprint,
+                    getLeaderboard(), resultTable);
+            progress.setDone(true);
+            if (plotResults) {
+                GCPerfPlot gcPerfPlot = GCPerfPlot.getInstance();
+                gcPerfPlot.setGcTypes(gcTypes);
+                gcPerfPlot.setRuntimesMap(resultTable.boxedGcRuntimes());
+                gcPerfPlot.setAvgRuntimesMap(resultTable.boxedAvgGcRuntimes());
+                gcPerfPlot.setThroughputsMap(resultTable.boxedThroughputs());
+                gcPerfPlot.plotRuntimes();
+                gcPerfPlot.plotThroughputs();
+                gcPerfPlot.plotAvgRuntimes();
+            }
+            if (exportToCSV) {
+                if (telemetry) {
+                    createTelemetryCSVFile(gcTypes, "telemetry-" + date + ".csv");
+                }
+                if (steadyState != null) {
+                    createWarmUpCSVFile(gcTypes, "warm-up-" + date + ".csv");
+                }
+                if (resourceProfile != null) {
+                    createThrottlingCSVFile(gcTypes, "throttling-" + date + ".csv");
+                }
+            }
+        } finally {
+            analysisLog.close();
+        }
+    }
+
+    /**
+     * Searches every collector's minimum viable and knee-point heap instead of running the increment sweep, see
+     * {@link HeapSearch}. Every probed heap size of the knee search is run numOfRuns times. No heap larger than
+     * maxHeapSize, or than the memory limit of the resource profile, is probed.
+     */
+    public void searchHeap(File file, int numOfRuns, int initHeapSize, int maxHeapSize, List<GCType> gcTypes,
+                           boolean exportToCSV, int workerSlots) throws IOException, InterruptedException {
+        searchHeap(file, numOfRuns, initHeapSize, maxHeapSize, gcTypes, exportToCSV,
+                WorkerSlot.partition(workerSlots));
+    }
+
+    public void searchHeap(File file, int numOfRuns, int initHeapSize, int maxHeapSize, List<GCType> gcTypes,
+                           boolean exportToCSV, List<WorkerSlot> workerSlots) throws IOException, InterruptedException {
+        int maxHeap = resourceProfile != null && resourceProfile.getMemoryMB() > 0
+                ? Math.min(maxHeapSize, resourceProfile.getMemoryMB()) : maxHeapSize;
+        resetResults(new TrialProgress(gcTypes, HeapSearch.maxRuns(numOfRuns, maxHeap), listeners), new double[0]);
+        String date = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss").format(new Date(System.currentTimeMillis()));
+        AnalysisLog analysisLog = openLog();
+        try {
+            workspace.prepare(file);
+            RemotePool remotePool = connectRemoteWorkers();
+
+            Analysis analysis = new Analysis(workspace.getMainClass(), gcTypes, new Analysis.Metrics[0]);
+            TrialRunner trialRunner = new TrialRunner(workspace, analysis, null, null, resourceProfile, runCache);
+            HeapSearch heapSearch = new HeapSearch(trialRunner, remotePool == null ? workerSlots
+                    : remotePool.getSlots(), progress, initHeapSize, maxHeap, numOfRuns);
+            RunExporter runExporter = null;
+            try {
+                if (remotePool != null) {
+                    trialRunner.prepareRemoteSession();
+                }
+                runExporter = exportToCSV ? openRunExporter("runs-" + date, RunExporter.DEFAULT_PERCENTILES) : null;
+                heapRecommendations = heapSearch.search(gcTypes);
+            } finally {
+                closeRunExporter(runExporter);
+                closeRemoteWorkers(remotePool);
+            }
+            if (progress.isFailed()) {
+                LOGGER.log(Level.SEVERE, "Heap search failed");
+                return;
+            }
+            progress.setDone(true);
+            if (exportToCSV) {
+                createHeapSearchCSVFile(gcTypes, "heap-search-" + date + ".csv");
+            }
+        } finally {
+            analysisLog.close();
+        }
+    }
+
+    /**
+     * Tries the option combinations the planner plans for every collector at a fixed heap size instead of running the
+     * increment sweep, see {@link OptionSweep}. Collectors are ranked by their best combination.
+     */
+    public void sweepOptions(File file, int numOfRuns, int initHeapSize, int maxHeapSize, List<GCType> gcTypes,
+                             SweepPlanner planner, boolean exportToCSV, int workerSlots)
+            throws IOException, InterruptedException {
+        sweepOptions(file, numOfRuns, initHeapSize, maxHeapSize, gcTypes, planner, exportToCSV,
+                WorkerSlot.partition(workerSlots));
+    }
+
+    public void sweepOptions(File file, int numOfRuns, int initHeapSize, int maxHeapSize, List<GCType> gcTypes,
+                             SweepPlanner planner, boolean exportToCSV, List<WorkerSlot> workerSlots)
+            throws IOException, InterruptedException {
+        int maxRuns = OptionSweep.maxRuns(planner, gcTypes, numOfRuns);
+        resetResults(new TrialProgress(gcTypes, maxRuns, listeners), new double[0]);
+        String date = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss").format(new Date(System.currentTimeMillis()));
+        AnalysisLog analysisLog = openLog();
+        try {
+            workspace.prepare(file);
+            RemotePool remotePool = connectRemoteWorkers();
+
+            Analysis analysis = new Analysis(workspace.getMainClass(), gcTypes, new Analysis.Metrics[0]);
+            TrialRunner trialRunner = new TrialRunner(workspace, analysis, null, null, resourceProfile, runCache);
+            OptionSweep optionSweep = new OptionSweep(trialRunner, remotePool == null ? workerSlots
+                    : remotePool.getSlots(), progress, planner, initHeapSize, maxHeapSize, numOfRuns, maxRuns);
+            RunExporter runExporter = null;
+            try {
+                if (remotePool != null) {
+                    trialRunner.prepareRemoteSession();
+                }
+                runExporter = exportToCSV ? openRunExporter("runs-" + date, RunExporter.DEFAULT_PERCENTILES) : null;
+                sweepRankings = optionSweep.sweep(gcTypes);
+            } finally {
+                closeRunExporter(runExporter);
+                closeRemoteWorkers(remotePool);
+            }
+            if (progress.isFailed()) {
+                LOGGER.log(Level.SEVERE, "Option sweep failed");
+                return;
+            }
+            Comparator<SweepCandidate> ranking = OptionSweep.ranking(planner.getObjective());
+            leaderboard = new ArrayList<>(sweepRankings.keySet());
+            leaderboard.sort(Comparator.comparing(gcType -> sweepRankings.get(gcType).get(0), ranking));
+            progress.setDone(true);
+            if (exportToCSV) {
+                createSweepCSVFile(gcTypes, planner.getObjective(), "option-sweep-" + date + ".csv");
+            }
+        } finally {
+            analysisLog.close();
+        }
+    }
+
+    // drops the results of the previous analysis
+    private void resetResults(TrialProgress progress, double[] percentiles) {
+        this.progress = progress;
+        this.percentiles = percentiles;
+        leaderboard = new ArrayList<>();
+        resultTable = ResultTable.empty();
+        pauseHistograms = new EnumMap<>(GCType.class);
+        heapRecommendations = new EnumMap<>(GCType.class);
+        sweepRankings = new EnumMap<>(GCType.class);
+        runTelemetry = new EnumMap<>(GCType.class);
+        warmUps = new EnumMap<>(GCType.class);
+        throttling = new EnumMap<>(GCType.class);
+        baseline = null;
+        baselineComparisons = new ArrayList<>();
+    }
+
+    /**
+     * Hash of the settings that change the measured values, an analysis is only compared with a baseline that ran
+     * with the same ones. The JDK is the one the local runs are started with, not the one running the GUI.
+     */
+    private String configFingerprint(int numOfRuns, int initHeapSize, int maxHeapSize, int initHeapIncrementSize,
+                                     int maxHeapIncrementSize, double adaptiveWidthPercent,
+                                     List<WorkerSlot> workerSlots) {
+        String slots = remoteWorkers.isEmpty()
+                ? workerSlots.size() + "x" + workerSlots.get(0).getCpus().length + " cpus"
+                : "remote " + remoteWorkers;
+        String settings = String.join("|", RunCache.childJdkVersion(), String.valueOf(numOfRuns),
+                String.valueOf(initHeapSize), String.valueOf(maxHeapSize), String.valueOf(initHeapIncrementSize),
+                String.valueOf(maxHeapIncrementSize), String.valueOf(adaptiveWidthPercent), String.valueOf(telemetry),
+                String.valueOf(steadyState), String.valueOf(resourceProfile), slots);
+        return JarCache.sha256(settings.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void compareWithBaseline(String fileName, String configFingerprint, ResultTable results)
+            throws InterruptedException {
+        try {
+            baseline = resultStore.loadBaseline(fileName, configFingerprint)
+                    .get(BASELINE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.log(Level.WARNING, "Loading the baseline of " + fileName + " failed, skipping the comparison");
+            return;
+        }
+        if (baseline == null) {
+            LOGGER.log(Level.INFO, "No comparable baseline stored for " + fileName
+                    + ", none yet or only with other settings");
+            return;
+        }
+        baselineComparisons = new RegressionDetector(regressionThresholdPercent).compare(baseline, results);
+        LOGGER.log(Level.INFO, "Compared with baseline analysis " + baseline.getStatId() + " of "
+                + baseline.getDateCreated());
+        baselineComparisons.stream().filter(MetricComparison::isRegression)
+                .forEach(comparison -> LOGGER.log(Level.WARNING, "Regression: " + comparison));
+    }
+
+    // runs are streamed while they finish, the per-collector summaries are written once the analysis is done
+    private RunExporter openRunExporter(String baseName, double[] percentiles) throws IOException {
+        RunExporter runExporter = RunExporter.open(workspace.getCsvPath(), baseName, exportFormat, percentiles);
+        listeners.add(runExporter);
+        return runExporter;
+    }
+
+    private void closeRunExporter(RunExporter runExporter) {
+        if (runExporter == null) {
+            return;
+        }
+        listeners.remove(runExporter);
+        try {
+            runExporter.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Closing " + runExporter.getPath() + " failed");
+        }
+    }
+
+    private void createHeapSearchCSVFile(List<GCType> gcTypes, String fileName) {
+        writeCSVFile(fileName, "GCType,Xmx(MB),Throughput(%),MinViableXmx(MB),KneeXmx(MB)", printWriter -> {
+            for (GCType gcType : gcTypes) {
+                HeapRecommendation recommendation = heapRecommendations.get(gcType);
+                if (recommendation == null) {
+                    continue;
+                }
+                recommendation.getThroughputs().forEach((heap, throughput) -> printWriter.write(gcType.name() + ","
+                        + heap + "," + throughput + "," + recommendation.getMinViableHeap() + ","
+                        + recommendation.getKneeHeap() + "\n"));
+            }
+        });
+    }
+
+    private void createTelemetryCSVFile(List<GCType> gcTypes, String fileName) {
+        writeCSVFile(fileName, "GCType,RunNo,Series,Time(sec),Value", printWriter -> {
+            for (GCType gcType : gcTypes) {
+                List<RunTelemetry> runs = runTelemetry.getOrDefault(gcType, List.of());
+                for (int i = 0; i < runs.size(); i++) {
+                    if (runs.get(i) == null) {
+                        continue;
+                    }
+                    String prefix = gcType.name() + "," + (i + 1) + ",";
+                    runs.get(i).getPauses().forEach(sample -> printWriter.write(prefix + "Pause(ms),"
+                            + sample.getSeconds() + "," + sample.getValue() + "\n"));
+                    runs.get(i).getHeapAfterGC().forEach(sample -> printWriter.write(prefix + "HeapAfterGC(MB),"
+                            + sample.getSeconds() + "," + sample.getValue() + "\n"));
+                    runs.get(i).getAllocationRates().forEach(sample -> printWriter.write(prefix
+                            + "AllocationRate(MB/s)," + sample.getSeconds() + "," + sample.getValue() + "\n"));
+                }
+            }
+        });
+    }
+
+    private void prepareResourceProfile() throws IOException {
+        if (resourceProfile != null) {
+            CgroupSlice.prepareRoot(CgroupSlice.root());
+            LOGGER.log(Level.INFO, "Running in cgroup slices under " + CgroupSlice.root() + " with " + resourceProfile);
+        }
+    }
+
+    // null when running locally, the workers prepare their own cgroup slices
+    private RemotePool connectRemoteWorkers() throws IOException {
+        if (remoteWorkers.isEmpty()) {
+            prepareResourceProfile();
+            return null;
+        }
+        RemotePool remotePool = RemotePool.connect(remoteWorkers);
+        LOGGER.log(Level.INFO, "Running on " + remotePool.getSlots().size() + " remote slot(s)");
+        return remotePool;
+    }
+
+    private void closeRemoteWorkers(RemotePool remotePool) {
+        if (remotePool != null) {
+            remotePool.close();
+        }
+    }
+
+    private void createThrottlingCSVFile(List<GCType> gcTypes, String fileName) {
+        writeCSVFile(fileName, "GCType,RunNo,Periods,ThrottledPeriods,Throttled(ms),MemoryMaxEvents,OOMKills",
+                printWriter -> {
+            for (GCType gcType : gcTypes) {
+                List<ThrottlingStats> runs = throttling.getOrDefault(gcType, List.of());
+                for (int i = 0; i < runs.size(); i++) {
+                    ThrottlingStats stats = runs.get(i);
+                    if (stats != null) {
+                        printWriter.write(gcType.name() + "," + (i + 1) + "," + stats.getPeriods() + ","
+                                + stats.getThrottledPeriods() + "," + stats.getThrottledMillis() + ","
+                                + stats.getMemoryMaxEvents() + "," + stats.getOomKills() + "\n");
+                    }
+                }
+            }
+        });
+    }
+
+    private void createWarmUpCSVFile(List<GCType> gcTypes, String fileName) {
+        writeCSVFile(fileName, "GCType,RunNo,WarmUp(sec),WarmUpIterations,WarmUpGCRuntime(sec),WarmUpSTWTime(sec),"
+                + "SteadyState", printWriter -> {
+            for (GCType gcType : gcTypes) {
+                List<WarmUp> runs = warmUps.getOrDefault(gcType, List.of());
+                for (int i = 0; i < runs.size(); i++) {
+                    WarmUp warmUp = runs.get(i);
+                    if (warmUp != null) {
+                        printWriter.write(gcType.name() + "," + (i + 1) + "," + warmUp.getSeconds() + ","
+                                + warmUp.getIterations() + "," + warmUp.getGcRuntime() + "," + warmUp.getStwTime()
+                                + "," + warmUp.isSteadyStateReached() + "\n");
+                    }
+                }
+            }
+        });
+    }
+
+    private void createSweepCSVFile(List<GCType> gcTypes, RunMetric objective, String fileName) {
+        writeCSVFile(fileName, "GCType,Rank,Options,Runs,FailedRuns,Rounds,Median" + objective.getLabel()
+                .replace(" ", ""), printWriter -> {
+            for (GCType gcType : gcTypes) {
+                List<SweepCandidate> candidates = sweepRankings.getOrDefault(gcType, List.of());
+                for (int i = 0; i < candidates.size(); i++) {
+                    SweepCandidate candidate = candidates.get(i);
+                    printWriter.write(gcType.name() + "," + (i + 1) + "," + String.join(" ", candidate.getVmOptions())
+                            + "," + candidate.getRuns() + "," + candidate.getFailedRuns() + "," + candidate.getRounds()
+                            + "," + candidate.getMedian() + "\n");
+                }
+            }
+        });
+    }
+
+    // the summaries are written after the analysis, a failed write is logged and does not fail it
+    private void writeCSVFile(String fileName, String header, Consumer<PrintWriter> rowWriter) {
+        Path path = workspace.getCsvPath().resolve(fileName);
+        try (PrintWriter printWriter = new PrintWriter(path.toFile())) {
+            printWriter.write(header + "\n");
+            rowWriter.accept(printWriter);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Writing " + path + " failed", e);
+        }
+    }
+
+    // only takes the records of this driver's analysis, see AnalysisLog
+    private AnalysisLog openLog() throws IOException {
+        return AnalysisLog.open(workspace.getLogPath(), List.of(Analysis.getLOGGER(), Leaderboard.getLOGGER(),
+                MySqlResultStore.getLOGGER(), FileResultStore.getLOGGER(), ConnectionPool.getLOGGER(), LOGGER,
+                Workspace.getLOGGER(), JarCache.getLOGGER(), TrialRunner.getLOGGER(), TrialScheduler.getLOGGER(),
+                HeapSearch.getLOGGER(), OptionSweep.getLOGGER(), RunCache.getLOGGER(), CgroupSlice.getLOGGER(),
+                RunExporter.getLOGGER(), RemotePool.getLOGGER(), RemoteWorker.getLOGGER()));
+    }
+}
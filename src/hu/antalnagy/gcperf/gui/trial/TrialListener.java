@@ -0,0 +1,25 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+/**
+ * Receives the progress events of an analysis. Events are delivered on the worker thread that caused them, so
+ * implementations must be thread-safe and should hand any heavy work off to another thread.
+ */
+public interface TrialListener {
+
+    default void runStarted(Trial trial) {
+    }
+
+    default void runFinished(TrialResult result) {
+    }
+
+    default void collectorFinished(GCType gcType) {
+    }
+
+    default void analysisFinished() {
+    }
+
+    default void analysisFailed(String message) {
+    }
+}
@@ -0,0 +1,106 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class TrialProgress {
+    private int totalRuns;
+    private final Map<GCType, Integer> remainingRuns = new EnumMap<>(GCType.class);
+    private final List<TrialListener> listeners;
+    private int finishedRuns = 0;
+    private int cachedRuns = 0;
+    private String progressMessage = "Setting up analysis environment ...";
+    private boolean failed = false;
+    private boolean done = false;
+
+    public TrialProgress(List<GCType> gcTypes, int numOfRuns, List<TrialListener> listeners) {
+        this.totalRuns = gcTypes.size() * numOfRuns;
+        this.listeners = listeners;
+        gcTypes.forEach(gcType -> remainingRuns.put(gcType, numOfRuns));
+    }
+
+    public synchronized double getProgressLevel() {
+        return totalRuns == 0 ? 0 : (double) finishedRuns / totalRuns;
+    }
+
+    /**
+     * Finished runs whose result was reused from the {@link RunCache}.
+     */
+    public synchronized int getCachedRuns() {
+        return cachedRuns;
+    }
+
+    public synchronized String getProgressMessage() {
+        return progressMessage;
+    }
+
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        synchronized (this) {
+            this.done = done;
+        }
+        if (done) {
+            listeners.forEach(TrialListener::analysisFinished);
+        }
+    }
+
+    void runStarted(Trial trial) {
+        synchronized (this) {
+            progressMessage = "Running analysis on GC Type: " + trial.getGcType().name() + " ...";
+        }
+        listeners.forEach(listener -> listener.runStarted(trial));
+    }
+
+    void runFinished(TrialResult result) {
+        boolean collectorFinished;
+        synchronized (this) {
+            finishedRuns++;
+            if (result.isCached()) {
+                cachedRuns++;
+            }
+            collectorFinished = remainingRuns.merge(result.getGcType(), -1, Integer::sum) == 0;
+            if (finishedRuns == totalRuns) {
+                progressMessage = "Finishing analysis and calculating results ...";
+            }
+        }
+        listeners.forEach(listener -> listener.runFinished(result));
+        if (collectorFinished) {
+            listeners.forEach(listener -> listener.collectorFinished(result.getGcType()));
+        }
+    }
+
+    void skipRuns(GCType gcType, int runs) {
+        boolean collectorFinished;
+        synchronized (this) {
+            totalRuns -= runs;
+            collectorFinished = remainingRuns.merge(gcType, -runs, Integer::sum) == 0;
+            if (finishedRuns == totalRuns) {
+                progressMessage = "Finishing analysis and calculating results ...";
+            }
+        }
+        if (collectorFinished) {
+            listeners.forEach(listener -> listener.collectorFinished(gcType));
+        }
+    }
+
+    void fail(String message) {
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            progressMessage = message;
+        }
+        listeners.forEach(listener -> listener.analysisFailed(message));
+    }
+}
@@ -0,0 +1,193 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.parse.RunTelemetry;
+import hu.antalnagy.gcperf.gui.stats.PauseHistogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+public class TrialResult {
+    private final Trial trial;
+    private final File outFile;
+    private final boolean failed;
+    private double runtime;
+    private double gcRuntime;
+    private double stwTime;
+    private double throughput;
+    private int fullPauses;
+    private int minorPauses;
+    private PauseHistogram pauseHistogram = new PauseHistogram();
+    private RunTelemetry telemetry;
+    private boolean cached;
+    private WarmUp warmUp;
+    private ThrottlingStats throttling;
+
+    private TrialResult(Trial trial, File outFile, boolean failed) {
+        this.trial = trial;
+        this.outFile = outFile;
+        this.failed = failed;
+    }
+
+    public static TrialResult failed(Trial trial, File outFile) {
+        return new TrialResult(trial, outFile, true);
+    }
+
+    public static TrialResult succeeded(Trial trial, File outFile, double runtime, double gcRuntime, double stwTime,
+                                        double throughput, int fullPauses, int minorPauses, PauseHistogram pauseHistogram) {
+        TrialResult result = new TrialResult(trial, outFile, false);
+        result.runtime = runtime;
+        result.gcRuntime = gcRuntime;
+        result.stwTime = stwTime;
+        result.throughput = throughput;
+        result.fullPauses = fullPauses;
+        result.minorPauses = minorPauses;
+        result.pauseHistogram = pauseHistogram;
+        return result;
+    }
+
+    /**
+     * Reads the metrics of a completed run written by {@link #write}.
+     */
+    public static TrialResult read(DataInput in, Trial trial) throws IOException {
+        TrialResult result = succeeded(trial, null, in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readInt(), in.readInt(), PauseHistogram.read(in));
+        if (in.readBoolean()) {
+            result.setWarmUp(new WarmUp(in.readDouble(), in.readInt(), in.readDouble(), in.readDouble(),
+                    in.readBoolean()));
+        }
+        if (in.readBoolean()) {
+            result.setThrottling(new ThrottlingStats(in.readLong(), in.readLong(), in.readDouble(), in.readLong(),
+                    in.readLong()));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the metrics of a completed run, its warm-up and throttling, but neither its trial nor its telemetry.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeDouble(runtime);
+        out.writeDouble(gcRuntime);
+        out.writeDouble(stwTime);
+        out.writeDouble(throughput);
+        out.writeInt(fullPauses);
+        out.writeInt(minorPauses);
+        pauseHistogram.write(out);
+        out.writeBoolean(warmUp != null);
+        if (warmUp != null) {
+            out.writeDouble(warmUp.getSeconds());
+            out.writeInt(warmUp.getIterations());
+            out.writeDouble(warmUp.getGcRuntime());
+            out.writeDouble(warmUp.getStwTime());
+            out.writeBoolean(warmUp.isSteadyStateReached());
+        }
+        out.writeBoolean(throttling != null);
+        if (throttling != null) {
+            out.writeLong(throttling.getPeriods());
+            out.writeLong(throttling.getThrottledPeriods());
+            out.writeDouble(throttling.getThrottledMillis());
+            out.writeLong(throttling.getMemoryMaxEvents());
+            out.writeLong(throttling.getOomKills());
+        }
+    }
+
+    public Trial getTrial() {
+        return trial;
+    }
+
+    public GCType getGcType() {
+        return trial.getGcType();
+    }
+
+    public int getRunNo() {
+        return trial.getRunNo();
+    }
+
+    public File getOutFile() {
+        return outFile;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Whether the result was reused from the {@link RunCache}, a cached result has no out file.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Marks a result reused from a run cache, also from the one of a remote worker.
+     */
+    public void setCached() {
+        cached = true;
+    }
+
+    /**
+     * Warm-up of a steady-state run, whose other metrics cover its measured iterations only; null for other runs.
+     */
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    void setWarmUp(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Throttling of a run started with a resource profile, also of a failed one; null for other runs.
+     */
+    public ThrottlingStats getThrottling() {
+        return throttling;
+    }
+
+    void setThrottling(ThrottlingStats throttling) {
+        this.throttling = throttling;
+    }
+
+    public double getRuntime() {
+        return runtime;
+    }
+
+    public double getGcRuntime() {
+        return gcRuntime;
+    }
+
+    public double getStwTime() {
+        return stwTime;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public int getFullPauses() {
+        return fullPauses;
+    }
+
+    public int getMinorPauses() {
+        return minorPauses;
+    }
+
+    public PauseHistogram getPauseHistogram() {
+        return pauseHistogram;
+    }
+
+    /**
+     * Telemetry of the run's flight recording, null if it was not recorded.
+     */
+    public RunTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    // the recording's pauses are exact, they replace the ones scraped from the log
+    void setTelemetry(RunTelemetry telemetry) {
+        this.telemetry = telemetry;
+        this.pauseHistogram = telemetry.getPauseHistogram();
+    }
+}
@@ -0,0 +1,318 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.CLI;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.parse.GCLogParser;
+import hu.antalnagy.gcperf.gui.parse.GCLogSummary;
+import hu.antalnagy.gcperf.gui.parse.JfrTelemetryParser;
+import hu.antalnagy.gcperf.gui.remote.RemoteSession;
+import hu.antalnagy.gcperf.gui.remote.WorkerLostException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TrialRunner {
+    private static final Logger LOGGER = Logger.getLogger(TrialRunner.class.getSimpleName());
+    private static final ThreadLocal<GCLogParser> PARSER = ThreadLocal.withInitial(GCLogParser::new);
+    private static final JfrTelemetryParser TELEMETRY_PARSER = new JfrTelemetryParser();
+    private static final AtomicInteger OUT_FILE_NO = new AtomicInteger(0);
+    // CLI.VMOptions.Xms/Xmx are shared enum constants, buildCLI and stringifying must not interleave between workers
+    private static final Object cliLock = new Object();
+    public static final String TIMEOUT_PROPERTY = "gcperf.runTimeoutSeconds";
+    private static final long DEFAULT_TIMEOUT_SECONDS = 3600;
+
+    private final Workspace workspace;
+    private final Analysis analysis;
+    private final Path telemetrySettings;
+    private final SteadyState steadyState;
+    private final ResourceProfile resourceProfile;
+    private final RunCache runCache;
+    private final long timeoutSeconds = Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS);
+    private final Set<Process> running = ConcurrentHashMap.newKeySet();
+    private RemoteSession remoteSession;
+
+    public TrialRunner(Workspace workspace, Analysis analysis) {
+        this(workspace, analysis, null, null, null, null);
+    }
+
+    /**
+     * With telemetry settings every run is flight recorded with them, see {@link JfrTelemetryParser}. With steady-state
+     * settings the runs start the harness installed in the workspace's harness path, see {@link SteadyStateHarness}.
+     * With a resource profile every run is started in a cgroup slice under the prepared {@link CgroupSlice#root()}.
+     * With a run cache only runs missing from it are started, unless they are recorded.
+     */
+    public TrialRunner(Workspace workspace, Analysis analysis, Path telemetrySettings, SteadyState steadyState,
+                       ResourceProfile resourceProfile, RunCache runCache) {
+        this.workspace = workspace;
+        this.analysis = analysis;
+        this.telemetrySettings = telemetrySettings;
+        this.steadyState = steadyState;
+        this.resourceProfile = resourceProfile;
+        this.runCache = runCache;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Runs the trial on a slot taken from the free ones, waits for its result and gives the slot back. A run on a lost
+     * worker is repeated on another slot and the lost slot is dropped; once every worker is lost the run throws an
+     * UncheckedIOException. An interrupt cancels the analysis, so it kills every child of this runner still running.
+     */
+    public TrialResult run(Trial trial, BlockingQueue<WorkerSlot> freeSlots) throws InterruptedException {
+        while (true) {
+            WorkerSlot slot = freeSlots.take();
+            try {
+                TrialResult result = start(trial, slot).get();
+                freeSlots.add(slot);
+                return result;
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof WorkerLostException)) {
+                    freeSlots.add(slot);
+                    LOGGER.log(Level.SEVERE, trial + " failed: " + e.getCause());
+                    return TrialResult.failed(trial, null);
+                }
+                WorkerLostException lost = (WorkerLostException) e.getCause();
+                if (lost.isAllWorkersLost()) {
+                    freeSlots.add(slot);
+                    throw new UncheckedIOException(lost);
+                }
+                LOGGER.log(Level.WARNING, lost.getMessage() + ", repeating " + trial + " on another slot");
+            } catch (InterruptedException e) {
+                freeSlots.add(slot);
+                destroyRunning();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Starts the trial without waiting for it. The result completes on a pool thread once the child exited and its log
+     * is parsed, no thread is parked on the child meanwhile. A child running longer than the deadline, see
+     * {@link #TIMEOUT_PROPERTY}, is killed and its run fails. On a remote slot the worker runs the trial, and the
+     * result completes with a {@link WorkerLostException} if the worker is lost meanwhile.
+     */
+    public CompletableFuture<TrialResult> start(Trial trial, WorkerSlot slot) {
+        if (slot.getRemoteWorker() != null) {
+            return slot.getRemoteWorker().start(remoteSession(), trial);
+        }
+        List<String> jvmOptions = buildJvmOptions(trial, slot);
+        String cacheKey = runCache == null || telemetrySettings != null ? null
+                : runCache.keyOf(workspace.getContentHash(), jvmOptions, (resourceProfile == null ? ""
+                : "[" + resourceProfile + "] ") + String.join(" ", buildProgram()), trial.getRunNo());
+        if (cacheKey != null) {
+            TrialResult cached = runCache.get(cacheKey, trial);
+            if (cached != null) {
+                LOGGER.log(Level.INFO, "Reusing the cached result of " + trial);
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        int fileNo = OUT_FILE_NO.incrementAndGet();
+        File outFile = workspace.getOutPath().resolve("out" + fileNo + ".txt").toFile();
+        File outErrFile = workspace.getOutErrPath().resolve("outErr" + fileNo + ".txt").toFile();
+        File recording = telemetrySettings == null ? null
+                : workspace.getOutPath().resolve("recording" + fileNo + ".jfr").toFile();
+        CgroupSlice slice = null;
+        Process process;
+        LOGGER.log(Level.INFO, "Initializing " + trial + " on " + slot);
+        try {
+            if (resourceProfile != null) {
+                slice = CgroupSlice.create(CgroupSlice.root(), "gcperf-" + ProcessHandle.current().pid() + "-run"
+                        + fileNo, resourceProfile, slot.isPinned() ? slot.getCpuList() : null);
+            }
+            // the output goes straight to the files, nothing has to drain the pipes
+            process = new ProcessBuilder(buildExecutableCommand(jvmOptions, slot, recording, slice))
+                    .directory(workspace.getBinPath().toFile())
+                    .redirectOutput(outFile)
+                    .redirectError(outErrFile)
+                    .start();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Starting " + trial + " failed: " + e.getMessage());
+            if (slice != null) {
+                slice.remove();
+            }
+            return CompletableFuture.completedFuture(TrialResult.failed(trial, outFile));
+        }
+        running.add(process);
+        CgroupSlice runSlice = slice;
+        // the stages run on shared pool threads, which log to the analysis that started the run
+        Executor executor = AnalysisLog.bind(ForkJoinPool.commonPool());
+        return process.onExit().thenApply(exited -> true)
+                .completeOnTimeout(false, timeoutSeconds, TimeUnit.SECONDS)
+                .thenComposeAsync(inTime -> {
+                    if (!inTime) {
+                        LOGGER.log(Level.WARNING, trial + " exceeded the deadline of " + timeoutSeconds
+                                + " s, killing it");
+                        kill(process);
+                    }
+                    return process.onExit().thenApplyAsync(exited -> finish(trial, exited, inTime, outFile,
+                            recording, runSlice, cacheKey), executor);
+                }, executor);
+    }
+
+    /**
+     * Kills the children of this runner that are still running, their runs fail.
+     */
+    public void destroyRunning() {
+        running.forEach(TrialRunner::kill);
+    }
+
+    /**
+     * Reads the application for the remote workers; must precede the runs on remote slots, so that a local I/O error
+     * fails the analysis instead of passing for a lost worker.
+     */
+    public synchronized void prepareRemoteSession() throws IOException {
+        if (remoteSession == null) {
+            remoteSession = RemoteSession.read(workspace.getAppContainer(), analysis.getGcTypes(),
+                    analysis.getMetrics(), steadyState, resourceProfile);
+        }
+    }
+
+    // one session per runner, so a worker gets the application once
+    private synchronized RemoteSession remoteSession() {
+        if (remoteSession == null) {
+            throw new IllegalStateException("The remote session is not prepared");
+        }
+        return remoteSession;
+    }
+
+    private TrialResult finish(Trial trial, Process process, boolean inTime, File outFile, File recording,
+                               CgroupSlice slice, String cacheKey) {
+        running.remove(process);
+        try {
+            ThrottlingStats throttling = slice == null ? null : readThrottling(slice);
+            if (!inTime || process.exitValue() != 0) {
+                LOGGER.log(Level.WARNING, (inTime ? "Process ended abnormally, exit code: " + process.exitValue()
+                        : "Process killed at the deadline") + (throttling == null ? "" : ", " + throttling));
+                TrialResult failed = TrialResult.failed(trial, outFile);
+                failed.setThrottling(throttling);
+                return failed;
+            }
+            TrialResult result = parseResult(trial, outFile);
+            result.setThrottling(throttling);
+            if (recording != null) {
+                addTelemetry(result, recording);
+            }
+            if (cacheKey != null) {
+                runCache.put(cacheKey, result);
+            }
+            return result;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "IO exception occurred with file " + outFile.getName() + ": " + e.getMessage());
+            return TrialResult.failed(trial, outFile);
+        } finally {
+            if (slice != null) {
+                slice.remove();
+            }
+        }
+    }
+
+    private static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    List<String> buildExecutableCommand(List<String> jvmOptions, WorkerSlot slot, File recording, CgroupSlice slice) {
+        // the slice's cpuset takes the place of the slot's taskset
+        List<String> command = new ArrayList<>(slice == null ? slot.commandPrefix() : slice.commandPrefix());
+        command.add("java");
+        command.addAll(jvmOptions);
+        if (recording != null) {
+            command.add("-XX:StartFlightRecording=filename=" + recording.getAbsolutePath() + ",settings="
+                    + telemetrySettings.toAbsolutePath());
+        }
+        command.add("-cp");
+        command.add(steadyState == null ? workspace.getClassPath().toString()
+                : workspace.getClassPath() + File.pathSeparator + workspace.getHarnessPath());
+        command.addAll(buildProgram());
+        return command;
+    }
+
+    private List<String> buildProgram() {
+        return steadyState == null ? List.of(workspace.getMainClass())
+                : steadyState.harnessCommand(workspace.getMainClass());
+    }
+
+    // everything between java and the class path, what the run cache tells runs apart by
+    private List<String> buildJvmOptions(Trial trial, WorkerSlot slot) {
+        // in a slice the JVM derives its processor count from the quota, as in a container
+        List<String> command = new ArrayList<>(resourceProfile == null ? slot.vmOptions() : List.of());
+        synchronized (cliLock) {
+            CLI cli = analysis.buildCLI(trial.getGcType(), trial.getXms(), trial.getXmx());
+            for (CLI.VMOptions vmOption : cli.getVmOptions()) {
+                command.add(vmOption.stringifyHeapSizeOption());
+            }
+            for (CLI.VMOptions.XlogOptions xlogOption : cli.getXlogOptions()) {
+                command.add(xlogOption.getOptionString());
+            }
+            for (CLI.VMOptions.GCOptions gcOption : cli.getGcOptions()) {
+                command.add(gcOption.getOptionString());
+            }
+            command.add(cli.getGcType().getCliOption());
+        }
+        command.addAll(trial.getVmOptions());
+        return command;
+    }
+
+    private static ThrottlingStats readThrottling(CgroupSlice slice) {
+        try {
+            return slice.readStats();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Reading the throttling of " + slice.getPath() + " failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void addTelemetry(TrialResult result, File recording) {
+        try {
+            result.setTelemetry(TELEMETRY_PARSER.parse(recording.toPath()));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Reading flight recording " + recording.getName() + " failed, keeping the pauses "
+                    + "of the GC log: " + e.getMessage());
+        }
+    }
+
+    private TrialResult parseResult(Trial trial, File outFile) throws IOException {
+        GCLogSummary summary = PARSER.get().parse(outFile.toPath());
+        GCType gcType = trial.getGcType();
+        if (steadyState != null && summary.getWarmUp() == null) {
+            LOGGER.log(Level.WARNING, "Run no.: " + (trial.getRunNo() + 1) + " ended during the warm-up, the main "
+                    + "method of the application must return for steady-state runs");
+            return TrialResult.failed(trial, outFile);
+        }
+        double gcRuntime = summary.getGCRuntime(gcType);
+        double stwTime = summary.getSTWTime(gcType);
+        double runtime = summary.getMeasuredRuntime();
+        LOGGER.log(Level.INFO, "Run no.: " + (trial.getRunNo() + 1) + " : time: " + gcRuntime);
+        TrialResult result = TrialResult.succeeded(trial, outFile, runtime, gcRuntime, stwTime,
+                Analysis.calculateThroughput(runtime, stwTime), summary.getFullPauses(gcType),
+                summary.getMinorPauses(gcType), summary.getPauseHistogram(gcType));
+        GCLogSummary warmUp = summary.getWarmUp();
+        if (warmUp != null) {
+            result.setWarmUp(new WarmUp(summary.getSteadyStateStart(), summary.getWarmUpIterations(),
+                    warmUp.getGCRuntime(gcType), warmUp.getSTWTime(gcType), summary.isSteadyStateReached()));
+            if (!summary.isSteadyStateReached()) {
+                LOGGER.log(Level.WARNING, "Run no.: " + (trial.getRunNo() + 1) + " reached no steady state within "
+                        + summary.getWarmUpIterations() + " iterations, measuring anyway");
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,259 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.Analysis;
+import hu.antalnagy.gcperf.GCType;
+import hu.antalnagy.gcperf.gui.remote.WorkerLostException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the GC type x run matrix on a fixed set of worker slots, one child JVM per slot at a time. Results are stored
+ * by run number, so the merged maps keep run order regardless of the order in which the runs finish. With adaptive
+ * sampling the runs of a collector are submitted one at a time and stop as soon as {@link AdaptiveSampling} says so.
+ * Queued runs are started as slots free up, from the completion of the previous run, so no thread waits on a child.
+ * A run on a lost remote worker is queued again and the worker's slot is dropped, until every worker is lost.
+ */
+public class TrialScheduler {
+    private static final Logger LOGGER = Logger.getLogger(TrialScheduler.class.getSimpleName());
+    private static final int MAX_CONSECUTIVE_FAILED_RUNS = 20;
+
+    private final TrialRunner trialRunner;
+    private final List<WorkerSlot> slots;
+    private final TrialProgress progress;
+    private final Map<GCType, TrialResult[]> results = new EnumMap<>(GCType.class);
+    private final Map<GCType, Integer> submittedRuns = new EnumMap<>(GCType.class);
+    private final Set<GCType> stoppedCollectors = EnumSet.noneOf(GCType.class);
+    private final Queue<WorkerSlot> freeSlots;
+    private final Queue<Trial> queuedTrials = new ArrayDeque<>();
+    private final AtomicInteger pendingTrials = new AtomicInteger(0);
+    private final CountDownLatch allTrialsDone = new CountDownLatch(1);
+    private HeapSteps heapSteps;
+    private AdaptiveSampling adaptiveSampling;
+    private int numOfRuns;
+
+    public TrialScheduler(TrialRunner trialRunner, List<WorkerSlot> slots, TrialProgress progress) {
+        this.trialRunner = trialRunner;
+        this.slots = slots;
+        this.progress = progress;
+        this.freeSlots = new ArrayDeque<>(slots);
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Finished runs per collector in run order. Collectors stopped by adaptive sampling have fewer entries.
+     */
+    public Map<GCType, TrialResult[]> getResults() {
+        Map<GCType, TrialResult[]> finished = new EnumMap<>(GCType.class);
+        synchronized (results) {
+            results.forEach((gcType, runs) -> finished.put(gcType, finishedRuns(runs).toArray(TrialResult[]::new)));
+        }
+        return finished;
+    }
+
+    public void schedule(List<GCType> gcTypes, int numOfRuns, int initHeap, int maxHeap, int initHeapIncrement,
+                         int maxHeapIncrement) throws InterruptedException {
+        schedule(gcTypes, numOfRuns, initHeap, maxHeap, initHeapIncrement, maxHeapIncrement, null);
+    }
+
+    /**
+     * Runs every collector numOfRuns times, or with adaptive sampling (if not null) at most numOfRuns times.
+     */
+    public void schedule(List<GCType> gcTypes, int numOfRuns, int initHeap, int maxHeap, int initHeapIncrement,
+                         int maxHeapIncrement, AdaptiveSampling adaptiveSampling) throws InterruptedException {
+        this.numOfRuns = numOfRuns;
+        this.adaptiveSampling = adaptiveSampling;
+        gcTypes.forEach(gcType -> {
+            results.put(gcType, new TrialResult[numOfRuns]);
+            submittedRuns.put(gcType, 0);
+        });
+        heapSteps = new HeapSteps(initHeap, maxHeap, initHeapIncrement, maxHeapIncrement);
+        int initialRuns = adaptiveSampling == null ? numOfRuns : Math.min(numOfRuns, AdaptiveSampling.MIN_RUNS);
+        // held while submitting, so the latch cannot open before every initial run is queued
+        pendingTrials.incrementAndGet();
+        try {
+            for (GCType gcType : gcTypes) {
+                LOGGER.log(Level.INFO, "Initializing run with GC Type: " + gcType.name());
+                LOGGER.log(Level.INFO, "Expected no. of runs: " + (adaptiveSampling == null ? numOfRuns
+                        : "adaptive, at most " + numOfRuns));
+                for (int i = 0; i < initialRuns; i++) {
+                    submitNextRun(gcType);
+                }
+            }
+            trialFinished();
+            allTrialsDone.await();
+        } catch (InterruptedException e) {
+            progress.fail("Analysis interrupted");
+            trialRunner.destroyRunning();
+            throw e;
+        }
+    }
+
+    private void submitNextRun(GCType gcType) {
+        int runNo;
+        synchronized (results) {
+            runNo = submittedRuns.merge(gcType, 1, Integer::sum) - 1;
+        }
+        int[] heapSize = heapSteps.forStep(runNo);
+        submit(new Trial(gcType, runNo, 0, heapSize[0], heapSize[1]));
+    }
+
+    private void submit(Trial trial) {
+        pendingTrials.incrementAndGet();
+        synchronized (queuedTrials) {
+            queuedTrials.add(trial);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (true) {
+            Trial trial;
+            WorkerSlot slot;
+            synchronized (queuedTrials) {
+                if (queuedTrials.isEmpty() || freeSlots.isEmpty()) {
+                    return;
+                }
+                trial = queuedTrials.poll();
+                slot = freeSlots.poll();
+            }
+            if (progress.isFailed()) {
+                release(slot);
+                trialFinished();
+                continue;
+            }
+            progress.runStarted(trial);
+            trialRunner.start(trial, slot).whenCompleteAsync((result, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof WorkerLostException && !((WorkerLostException) cause).isAllWorkersLost()) {
+                    LOGGER.log(Level.WARNING, cause.getMessage() + ", repeating " + trial + " on another slot");
+                    synchronized (queuedTrials) {
+                        queuedTrials.add(trial);
+                    }
+                    dispatch();
+                    return;
+                }
+                release(slot);
+                if (cause instanceof WorkerLostException) {
+                    progress.fail("Every worker was lost");
+                }
+                try {
+                    if (error != null) {
+                        LOGGER.log(Level.SEVERE, trial + " failed: " + error);
+                    }
+                    runFinished(trial, error == null ? result : TrialResult.failed(trial, null));
+                } finally {
+                    trialFinished();
+                    dispatch();
+                }
+            }, AnalysisLog.bind(ForkJoinPool.commonPool()));
+        }
+    }
+
+    private void release(WorkerSlot slot) {
+        synchronized (queuedTrials) {
+            freeSlots.add(slot);
+        }
+    }
+
+    private void trialFinished() {
+        if (pendingTrials.decrementAndGet() == 0) {
+            allTrialsDone.countDown();
+        }
+    }
+
+    private void runFinished(Trial trial, TrialResult result) {
+        if (!result.isFailed()) {
+            synchronized (results) {
+                results.get(trial.getGcType())[trial.getRunNo()] = result;
+            }
+            progress.runFinished(result);
+            if (adaptiveSampling != null) {
+                sampleAdaptively(trial.getGcType());
+            }
+        } else if (progress.isFailed()) {
+            LOGGER.log(Level.WARNING, trial + " failed after the analysis was stopped");
+        } else if (trial.getAttempt() + 1 >= MAX_CONSECUTIVE_FAILED_RUNS) {
+            String message = "Analysis suspended for GC Type: " + trial.getGcType().name() + "\nReason: "
+                    + MAX_CONSECUTIVE_FAILED_RUNS + " consecutive failed runs\nPossible problems include too "
+                    + "small general heap size or too small heap size increments";
+            LOGGER.log(Level.SEVERE, message);
+            progress.fail(message);
+        } else {
+            LOGGER.log(Level.WARNING, "Run no.: " + (trial.getRunNo() + 1) + " failed");
+            LOGGER.log(Level.WARNING, "Possibly selected heap size was too small, rerunning with bigger heap");
+            int[] heapSize = heapSteps.forStep(trial.getRunNo() + trial.getAttempt() + 1);
+            submit(trial.retryWith(heapSize[0], heapSize[1]));
+        }
+    }
+
+    private void sampleAdaptively(GCType gcType) {
+        String stopReason;
+        int skippedRuns;
+        synchronized (results) {
+            int submitted = submittedRuns.get(gcType);
+            if (stoppedCollectors.contains(gcType) || submitted >= numOfRuns) {
+                return;
+            }
+            Map<GCType, List<TrialResult>> finishedRuns = new EnumMap<>(GCType.class);
+            results.forEach((type, runs) -> finishedRuns.put(type, finishedRuns(runs)));
+            stopReason = adaptiveSampling.stopReason(gcType, finishedRuns);
+            if (stopReason == null) {
+                skippedRuns = 0;
+            } else {
+                stoppedCollectors.add(gcType);
+                skippedRuns = numOfRuns - submitted;
+            }
+        }
+        if (stopReason == null) {
+            submitNextRun(gcType);
+        } else {
+            LOGGER.log(Level.INFO, "Stopping runs of GC Type: " + gcType.name() + ", " + skippedRuns
+                    + " runs skipped: " + stopReason);
+            progress.skipRuns(gcType, skippedRuns);
+        }
+    }
+
+    private static List<TrialResult> finishedRuns(TrialResult[] runs) {
+        List<TrialResult> finished = new ArrayList<>();
+        for (TrialResult run : runs) {
+            if (run != null) {
+                finished.add(run);
+            }
+        }
+        return finished;
+    }
+
+    private static class HeapSteps {
+        private final int initHeap;
+        private final int maxHeap;
+        private final int initHeapIncrement;
+        private final int maxHeapIncrement;
+
+        private HeapSteps(int initHeap, int maxHeap, int initHeapIncrement, int maxHeapIncrement) {
+            this.initHeap = initHeap;
+            this.maxHeap = maxHeap;
+            this.initHeapIncrement = initHeapIncrement;
+            this.maxHeapIncrement = maxHeapIncrement;
+        }
+
+        private int[] forStep(int step) {
+            return Analysis.calculateHeapSize(initHeap, maxHeap, initHeapIncrement, maxHeapIncrement, step, 0);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+/**
+ * Cost of the warm-up of a steady-state run, until its measured iterations started.
+ */
+public class WarmUp {
+    private final double seconds;
+    private final int iterations;
+    private final double gcRuntime;
+    private final double stwTime;
+    private final boolean steadyStateReached;
+
+    public WarmUp(double seconds, int iterations, double gcRuntime, double stwTime, boolean steadyStateReached) {
+        this.seconds = seconds;
+        this.iterations = iterations;
+        this.gcRuntime = gcRuntime;
+        this.stwTime = stwTime;
+        this.steadyStateReached = steadyStateReached;
+    }
+
+    /**
+     * Time from the JVM start to the first measured iteration, class loading and JIT compilation included.
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getGcRuntime() {
+        return gcRuntime;
+    }
+
+    public double getStwTime() {
+        return stwTime;
+    }
+
+    /**
+     * False if the iteration times did not settle within the maximum warm-up iterations, the measured iterations ran
+     * anyway.
+     */
+    public boolean isSteadyStateReached() {
+        return steadyStateReached;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("warm-up %.3f s, %d iterations, GC %.3f s%s", seconds, iterations, gcRuntime,
+                steadyStateReached ? "" : ", no steady state");
+    }
+}
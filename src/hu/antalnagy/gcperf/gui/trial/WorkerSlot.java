@@ -0,0 +1,181 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import hu.antalnagy.gcperf.gui.remote.RemoteWorker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A worker slot owns a disjoint set of CPUs. Child JVMs started on a slot are pinned to those CPUs with taskset
+ * (when available) and are told to size their GC thread pools to the slot with -XX:ActiveProcessorCount. A remote slot
+ * stands for one slot of a {@link RemoteWorker}, which pins the runs on its own CPUs.
+ */
+public class WorkerSlot {
+    private static final Logger LOGGER = Logger.getLogger(WorkerSlot.class.getSimpleName());
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+    private static final boolean TASKSET_AVAILABLE = isTasksetAvailable();
+
+    private final int index;
+    private final int[] cpus;
+    private final boolean pinned;
+    private final RemoteWorker remoteWorker;
+
+    private WorkerSlot(int index, int[] cpus, boolean pinned, RemoteWorker remoteWorker) {
+        this.index = index;
+        this.cpus = cpus;
+        this.pinned = pinned;
+        this.remoteWorker = remoteWorker;
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    /**
+     * Splits the CPUs this process may run on, see {@link #allowedCpus()}, into equal disjoint slots.
+     */
+    public static List<WorkerSlot> partition(int numOfSlots) {
+        int[] allowedCpus = allowedCpus();
+        int maxSlots = Math.min(Runtime.getRuntime().availableProcessors(), allowedCpus.length);
+        if (numOfSlots < 1 || maxSlots < numOfSlots) {
+            throw new IllegalArgumentException("Number of worker slots must be between 1 and " + maxSlots);
+        }
+        int cpusPerSlot = allowedCpus.length / numOfSlots;
+        List<WorkerSlot> slots = new ArrayList<>();
+        for (int i = 0; i < numOfSlots; i++) {
+            int[] cpus = Arrays.copyOfRange(allowedCpus, i * cpusPerSlot, (i + 1) * cpusPerSlot);
+            slots.add(new WorkerSlot(i, cpus, numOfSlots > 1, null));
+        }
+        return slots;
+    }
+
+    /**
+     * Most slots {@link #partition} can make, one CPU each.
+     */
+    public static int maxSlots() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), allowedCpus().length);
+    }
+
+    /**
+     * Ids of the CPUs this process may run on, as restricted by taskset or a container's cpuset. Taken from
+     * Cpus_allowed_list of /proc/self/status, 0 to availableProcessors - 1 where that cannot be read.
+     */
+    public static int[] allowedCpus() {
+        if (Files.isReadable(PROC_STATUS)) {
+            try {
+                for (String line : Files.readAllLines(PROC_STATUS)) {
+                    if (line.startsWith("Cpus_allowed_list:")) {
+                        return parseCpuList(line.substring(line.indexOf(':') + 1));
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Reading the allowed CPUs failed, assuming all: " + e.getMessage());
+            }
+        }
+        return IntStream.range(0, Runtime.getRuntime().availableProcessors()).toArray();
+    }
+
+    /**
+     * Parses a kernel CPU list such as "0-3,8,10-11".
+     */
+    static int[] parseCpuList(String cpuList) {
+        IntStream cpus = IntStream.empty();
+        for (String part : cpuList.trim().split(",")) {
+            String[] bounds = part.trim().split("-");
+            try {
+                int first = Integer.parseInt(bounds[0]);
+                int last = bounds.length > 1 ? Integer.parseInt(bounds[1]) : first;
+                if (bounds.length > 2 || first < 0 || last < first) {
+                    throw new IllegalArgumentException("Invalid CPU list: " + cpuList);
+                }
+                cpus = IntStream.concat(cpus, IntStream.rangeClosed(first, last));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list: " + cpuList);
+            }
+        }
+        int[] parsed = cpus.distinct().sorted().toArray();
+        if (parsed.length == 0) {
+            throw new IllegalArgumentException("Empty CPU list");
+        }
+        return parsed;
+    }
+
+    public static WorkerSlot remote(int index, RemoteWorker remoteWorker) {
+        return new WorkerSlot(index, new int[0], false, remoteWorker);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int[] getCpus() {
+        return cpus.clone();
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    /**
+     * The worker running the trials of this slot, null for a local slot.
+     */
+    public RemoteWorker getRemoteWorker() {
+        return remoteWorker;
+    }
+
+    public String getCpuList() {
+        return IntStream.of(cpus).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public List<String> commandPrefix() {
+        List<String> prefix = new ArrayList<>();
+        if (pinned && TASKSET_AVAILABLE) {
+            prefix.add("taskset");
+            prefix.add("-c");
+            prefix.add(getCpuList());
+        }
+        return prefix;
+    }
+
+    public List<String> vmOptions() {
+        List<String> options = new ArrayList<>();
+        if (pinned) {
+            options.add("-XX:ActiveProcessorCount=" + cpus.length);
+        }
+        return options;
+    }
+
+    private static boolean isTasksetAvailable() {
+        if (!System.getProperty("os.name").toLowerCase().contains("linux")) {
+            return false;
+        }
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            if (new File(dir, "taskset").canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (remoteWorker != null) {
+            return "Slot " + index + " [worker: " + remoteWorker.getAddress() + "]";
+        }
+        return "Slot " + index + " [cpus: " + getCpuList() + "]";
+    }
+}
@@ -0,0 +1,188 @@
+package hu.antalnagy.gcperf.gui.trial;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Working directory of an analysis. Class files are copied into bin, jars are taken from the {@link JarCache} and
+ * put on the class path as they are; bin stays the working directory of the child JVMs either way.
+ */
+public class Workspace {
+    private static final Logger LOGGER = Logger.getLogger(Workspace.class.getSimpleName());
+
+    private final Path rootPath;
+    private final Path binPath;
+    private final Path outPath;
+    private final Path outErrPath;
+    private final Path csvPath;
+    private final JarCache jarCache;
+    private Path appContainer;
+    private Path classPath;
+    private String mainClass;
+    private String contentHash;
+
+    public Workspace(Path rootPath) {
+        this(rootPath, new JarCache(rootPath.resolve("res/jar-cache")));
+    }
+
+    /**
+     * Workspace sharing its jar cache with others, e.g. the isolated workspaces of batch jobs.
+     */
+    public Workspace(Path rootPath, JarCache jarCache) {
+        this.rootPath = rootPath.toAbsolutePath();
+        this.jarCache = jarCache;
+        this.binPath = this.rootPath.resolve("bin");
+        this.outPath = this.rootPath.resolve("res/out");
+        this.outErrPath = this.rootPath.resolve("res/outErr");
+        this.csvPath = this.rootPath.resolve("res/csv");
+    }
+
+    public static Logger getLOGGER() {
+        return LOGGER;
+    }
+
+    public Path getRootPath() {
+        return rootPath;
+    }
+
+    public Path getBinPath() {
+        return binPath;
+    }
+
+    public Path getOutPath() {
+        return outPath;
+    }
+
+    public Path getOutErrPath() {
+        return outErrPath;
+    }
+
+    public Path getCsvPath() {
+        return csvPath;
+    }
+
+    /**
+     * Directory of the embedded result store, see {@link hu.antalnagy.gcperf.gui.persistence.FileResultStore}.
+     */
+    public Path getStorePath() {
+        return rootPath.resolve("res/store");
+    }
+
+    public Path getRunCachePath() {
+        return rootPath.resolve("res/run-cache");
+    }
+
+    public Path getHarnessPath() {
+        return rootPath.resolve("res/harness");
+    }
+
+    public Path getLogPath() {
+        return rootPath.resolve("log");
+    }
+
+    /**
+     * The class file or jar the workspace was last prepared with.
+     */
+    public Path getAppContainer() {
+        return appContainer;
+    }
+
+    public Path getClassPath() {
+        return classPath;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    /**
+     * SHA-256 of the prepared class file or jar.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void prepare(File appContainer) throws IOException {
+        String fileName = appContainer.getName();
+        if (!fileName.endsWith(".class") && !fileName.endsWith(".jar")) {
+            LOGGER.log(Level.SEVERE, "File format not supported");
+            throw new IllegalArgumentException("File format not supported. Please provide either a .class file or a .jar file");
+        }
+        deleteDirectory(binPath);
+        Files.createDirectories(binPath);
+        Files.createDirectories(outPath);
+        Files.createDirectories(outErrPath);
+        Files.createDirectories(csvPath);
+        this.appContainer = appContainer.toPath();
+        if (fileName.endsWith(".class")) {
+            Files.copy(appContainer.toPath(), binPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+            classPath = binPath;
+            mainClass = fileName.substring(0, fileName.length() - 6);
+            contentHash = JarCache.sha256(appContainer.toPath());
+        } else {
+            classPath = jarCache.extract(appContainer);
+            mainClass = JarCache.mainClassOf(classPath);
+            // cache entries are named by the jar's hash
+            contentHash = classPath.getFileName().toString();
+        }
+    }
+
+    static String extractJar(File jar, Path target) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                Path entryPath = target.resolve(entry.getName()).normalize();
+                if (!entryPath.startsWith(target)) {
+                    throw new IOException("Illegal jar entry: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(entryPath);
+                } else {
+                    Files.createDirectories(entryPath.getParent());
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        Files.copy(in, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            Manifest manifest = jarFile.getManifest();
+            if (manifest == null) {
+                LOGGER.log(Level.SEVERE, "MANIFEST.MF file missing");
+                throw new IllegalArgumentException("MANIFEST.MF file couldn't be found. Please check .jar file contents");
+            }
+            String mainClass = manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            if (mainClass == null || mainClass.isBlank()) {
+                LOGGER.log(Level.SEVERE, "Incorrect MANIFEST.MF file provided");
+                throw new IllegalArgumentException("Incorrect MANIFEST.MF file provided. Please check .jar file contents");
+            }
+            return mainClass.trim();
+        }
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Couldn't delete files in binaries directory");
+            throw new IOException("Couldn't delete files in binaries directory. Possible permission denial.", e);
+        }
+    }
+}
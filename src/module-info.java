@@ -1,5 +1,8 @@
 module GCPERF.GUI {
     requires java.sql;
+    requires java.logging;
+    requires java.management;
+    requires jdk.jfr;
     requires javafx.fxml;
     requires javafx.controls;
     requires gcperf.driver;